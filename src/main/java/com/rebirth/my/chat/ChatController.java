@@ -3,6 +3,7 @@ package com.rebirth.my.chat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import com.rebirth.my.chat.service.ChatbotService;
+import com.rebirth.my.chat.component.RoomRegistry;
 import org.springframework.web.bind.annotation.*;
 
 @Controller
@@ -69,6 +70,41 @@ public class ChatController {
                 .orElse("PC: 로그인이 필요합니다.");
     }
 
+    /**
+     * 스트리밍 챗봇 응답 요청
+     * 응답 생성은 백그라운드에서 진행되며, 토큰은 /topic/user/{id}/chat 으로 전송된다.
+     * 비로그인/과부하 시에는 streaming=false 와 함께 즉시 답변(reply)을 반환한다.
+     */
+    @PostMapping("/api/message/stream")
+    @ResponseBody
+    public java.util.Map<String, Object> streamMessage(@RequestParam String message,
+            @RequestParam String streamId, java.security.Principal principal) {
+        java.util.Map<String, Object> result = new java.util.HashMap<>();
+        result.put("streamId", streamId);
+
+        Long userId = getUserIdFromPrincipal(principal);
+        if (userId == null && principal != null && !"anonymousUser".equals(principal.getName())) {
+            userId = userMapper.findByEmailOrLoginId(principal.getName())
+                    .map(com.rebirth.my.domain.User::getId)
+                    .orElse(null);
+        }
+
+        if (userId == null) {
+            result.put("streaming", false);
+            result.put("reply", sendMessage(message, principal));
+            return result;
+        }
+
+        try {
+            chatbotService.streamUserMessage(String.valueOf(userId), message, streamId);
+            result.put("streaming", true);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            result.put("streaming", false);
+            result.put("reply", "죄송합니다. 지금은 요청이 많아 답변이 어렵습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return result;
+    }
+
     @GetMapping("")
     public String chatMain() {
         return "redirect:/chat/list"; // Default to list
@@ -85,37 +121,23 @@ public class ChatController {
         if (principal != null) {
             model.addAttribute("username", principal.getName());
             currentUserId = getUserIdFromPrincipal(principal);
-
-            if (currentUserId != null) {
-                com.rebirth.my.domain.User currentUser = userMapper.getUserById(currentUserId);
-                if (currentUser != null) {
-                    model.addAttribute("nickname", currentUser.getName());
-                    model.addAttribute("userId", currentUser.getId());
-                }
-            }
         }
 
+        // 방 + 멤버 카드는 RoomRegistry에서 (캐시에 없으면 쿼리 한 번)
+        RoomRegistry.Room room = null;
+
         // targetUserId가 있으면 1:1 채팅방 조회 혹은 생성
         if (targetUserId != null && currentUserId != null) {
-            java.util.Map<String, Object> params = new java.util.HashMap<>();
-            params.put("userId1", currentUserId);
-            params.put("userId2", targetUserId);
-            params.put("userId1", currentUserId);
-            params.put("userId2", targetUserId);
-            params.put("itemId", itemId); // [NEW] Pass itemId for filtering
-            Long existingRoomId = chatDao.selectPrivateRoomId(params);
-
-            if (existingRoomId != null) {
-                roomId = existingRoomId;
+            room = roomRegistry.findPrivateRoom(currentUserId, targetUserId, itemId);
+
+            if (room != null) {
+                roomId = room.getRoomId();
             } else {
                 // 방 생성
                 java.util.Map<String, Object> createParams = new java.util.HashMap<>();
                 createParams.put("id", null);
                 createParams.put("title", "1:1 Chat");
                 createParams.put("createdBy", currentUserId);
-                createParams.put("id", null);
-                createParams.put("title", "1:1 Chat");
-                createParams.put("createdBy", currentUserId);
                 createParams.put("itemId", itemId); // [NEW] Save itemId
                 chatDao.createPrivateRoom(createParams);
                 roomId = (Long) createParams.get("id");
@@ -130,35 +152,52 @@ public class ChatController {
                 member2.put("roomId", roomId);
                 member2.put("userId", targetUserId);
                 chatDao.insertRoomMember(member2);
+                roomRegistry.memberAdded(roomId);
+
+                room = roomRegistry.get(roomId);
             }
+        } else if (roomId != null) {
+            room = roomRegistry.get(roomId);
         }
 
-        // 1:1 채팅방인 경우 상대방 정보 조회
-        if (targetUserId != null) {
-            com.rebirth.my.domain.User partner = userMapper.getUserById(targetUserId);
-            if (partner != null) {
-                model.addAttribute("partnerName", partner.getName());
-                model.addAttribute("partnerEmail", partner.getEmail());
-                model.addAttribute("partnerImg", partner.getMemImg());
-                model.addAttribute("partnerId", partner.getId());
+        // 현재 유저 정보 (방 멤버 카드 → 없으면 USERS 조회)
+        if (currentUserId != null) {
+            RoomRegistry.MemberCard me = room != null ? room.member(currentUserId) : null;
+            if (me != null) {
+                model.addAttribute("nickname", me.getName());
+                model.addAttribute("userId", me.getUserId());
+            } else {
+                com.rebirth.my.domain.User currentUser = userMapper.getUserById(currentUserId);
+                if (currentUser != null) {
+                    model.addAttribute("nickname", currentUser.getName());
+                    model.addAttribute("userId", currentUser.getId());
+                }
             }
-        } else if (roomId != null && currentUserId != null) {
-            // roomId로 상대방 조회 (채팅방 멤버 중 나 제외)
-            com.rebirth.my.domain.User partner = chatDao.getPartnerInRoom(roomId, currentUserId);
+        }
+
+        // 1:1 채팅방인 경우 상대방 정보 (targetUserId가 있으면 그 사용자, 없으면 멤버 중 나 제외)
+        RoomRegistry.MemberCard partnerCard = null;
+        if (room != null && currentUserId != null) {
+            partnerCard = targetUserId != null ? room.member(targetUserId) : room.partnerOf(currentUserId);
+        }
+
+        if (partnerCard != null) {
+            model.addAttribute("partnerName", partnerCard.getName());
+            model.addAttribute("partnerEmail", partnerCard.getEmail());
+            model.addAttribute("partnerImg", partnerCard.getMemImg());
+            model.addAttribute("partnerId", partnerCard.getUserId());
+
+            // 상대방의 마지막 읽은 시간
+            if (partnerCard.getLastReadAt() != null) {
+                model.addAttribute("partnerLastReadAt", partnerCard.getLastReadAt().toString());
+            }
+        } else if (targetUserId != null) {
+            com.rebirth.my.domain.User partner = userMapper.getUserById(targetUserId);
             if (partner != null) {
                 model.addAttribute("partnerName", partner.getName());
                 model.addAttribute("partnerEmail", partner.getEmail());
                 model.addAttribute("partnerImg", partner.getMemImg());
                 model.addAttribute("partnerId", partner.getId());
-
-                // 상대방의 마지막 읽은 시간 조회
-                java.util.Map<String, Object> memberParam = new java.util.HashMap<>();
-                memberParam.put("roomId", roomId);
-                memberParam.put("userId", partner.getId());
-                java.util.Map<String, Object> memberInfo = chatDao.getRoomMember(memberParam);
-                if (memberInfo != null && memberInfo.get("lastReadAt") != null) {
-                    model.addAttribute("partnerLastReadAt", memberInfo.get("lastReadAt").toString());
-                }
             }
         }
 
@@ -166,27 +205,15 @@ public class ChatController {
             model.addAttribute("roomId", roomId);
             // 현재 유저의 마지막 읽은 시간 업데이트
             if (currentUserId != null) {
-                java.util.Map<String, Object> updateParam = new java.util.HashMap<>();
-                updateParam.put("roomId", roomId);
-                updateParam.put("userId", currentUserId);
-                chatDao.updateLastReadAt(updateParam);
+                readCursorService.markRead(roomId, currentUserId, null);
             }
         }
 
-        // [NEW] Logic to determine Item ID (Priority: Request Param > DB Room Info)
+        // [NEW] Logic to determine Item ID (Priority: Request Param > Room Info)
         Long currentItemId = itemId;
 
-        if (currentItemId == null && roomId != null) {
-            try {
-                // Must ensure selectRoomById is in ChatDao
-                java.util.Map<String, Object> roomInfo = chatDao.selectRoomById(roomId);
-                if (roomInfo != null && roomInfo.get("itemId") != null) {
-                    currentItemId = Long.parseLong(String.valueOf(roomInfo.get("itemId")));
-                }
-            } catch (Exception e) {
-                // ignore
-                // Maybe selectRoomById is not yet in DAO interface, need to add it safely
-            }
+        if (currentItemId == null && room != null) {
+            currentItemId = room.getItemId();
         }
 
         // [NEW] Display Product Info if itemId is present
@@ -221,18 +248,25 @@ public class ChatController {
     @Autowired
     private org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private com.rebirth.my.chat.service.ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private com.rebirth.my.chat.service.ReadCursorService readCursorService;
+
     @org.springframework.messaging.handler.annotation.MessageMapping("/chat.readMessage")
     public void readMessage(
             @org.springframework.messaging.handler.annotation.Payload com.rebirth.my.domain.ChatMessage chatMessage,
-            java.security.Principal principal) {
+            java.security.Principal principal,
+            org.springframework.messaging.simp.SimpMessageHeaderAccessor headerAccessor) {
 
         Long currentUserId = getUserIdFromPrincipal(principal);
         if (currentUserId != null && chatMessage.getRoomId() != null) {
-            // 1. DB 업데이트 (마지막 읽은 시간)
-            java.util.Map<String, Object> updateParam = new java.util.HashMap<>();
-            updateParam.put("roomId", chatMessage.getRoomId());
-            updateParam.put("userId", currentUserId);
-            chatDao.updateLastReadAt(updateParam);
+            // 1. 읽음 커서 갱신 (DB 저장은 ReadCursorService가 모아서 주기적으로 / 연결 종료 시)
+            readCursorService.markRead(chatMessage.getRoomId(), currentUserId, headerAccessor.getSessionId());
 
             // 2. 방 멤버들에게 '읽음' 이벤트 브로드캐스트
             chatMessage.setType(com.rebirth.my.domain.ChatMessage.MessageType.READ);
@@ -264,10 +298,8 @@ public class ChatController {
 
         // Save to DB (1:1 채팅방인 경우만 - roomId가 있을 때만)
         if (chatMessage.getRoomId() != null) {
-            chatbotService.saveMessage(chatMessage);
-
-            // [NEW] 메시지 발생 시 모든 멤버 재입장 처리 (상대방이 나갔어도 목록에 다시 표시)
-            chatDao.rejoinRoomMembers(chatMessage.getRoomId());
+            // 저장(+ 멤버 재입장 처리)은 write-behind로 넘기고 바로 브로드캐스트
+            chatMessageWriter.submit(chatMessage);
 
             messagingTemplate.convertAndSend("/topic/room/" + chatMessage.getRoomId(), chatMessage);
 
@@ -279,9 +311,9 @@ public class ChatController {
 
             // 2. 상대방에게 (새 메시지 알림)
             try {
-                com.rebirth.my.domain.User partner = chatDao.getPartnerInRoom(chatMessage.getRoomId(), currentUserId);
-                if (partner != null && partner.getId() != null) {
-                    messagingTemplate.convertAndSend("/topic/user/" + partner.getId() + "/chat", chatMessage);
+                Long partnerId = roomRegistry.partnerOf(chatMessage.getRoomId(), currentUserId);
+                if (partnerId != null) {
+                    messagingTemplate.convertAndSend("/topic/user/" + partnerId + "/chat", chatMessage);
                 }
             } catch (Exception e) {
                 System.err.println("Failed to notify partner topic: " + e.getMessage());
@@ -334,12 +366,17 @@ public class ChatController {
     @Autowired
     private com.rebirth.my.chat.ChatDao chatDao;
 
+    @Autowired
+    private ChatService chatService;
+
     @GetMapping("/api/rooms")
     @ResponseBody
     public java.util.List<java.util.Map<String, Object>> getMyChatRooms(java.security.Principal principal) {
         Long currentUserId = getUserIdFromPrincipal(principal);
         if (currentUserId == null)
             return java.util.Collections.emptyList();
+        // 안 읽은 수는 DB의 LAST_READ_AT 기준이므로 대기 중인 읽음 커서를 먼저 저장
+        readCursorService.flushUser(currentUserId);
         return chatDao.selectMyRoomList(currentUserId);
     }
 
@@ -347,34 +384,74 @@ public class ChatController {
     @ResponseBody
     public java.util.List<java.util.Map<String, Object>> getMessagesByRoom(
             @RequestParam Long roomId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit,
             java.security.Principal principal) {
         Long currentUserId = getUserIdFromPrincipal(principal);
         if (currentUserId == null || roomId == null) {
             return java.util.Collections.emptyList();
         }
 
-        // 채팅 메시지 조회 및 발신자 정보 포함
-        java.util.List<com.rebirth.my.chat.ChatVo> messages = chatDao.selectMessagesByRoomId(roomId);
+        RoomRegistry.Room room = roomRegistry.get(roomId);
+        if (room != null && !room.isMember(currentUserId)) {
+            return java.util.Collections.emptyList();
+        }
+
+        // 커서(beforeId) 이전 한 페이지만 조회 - 복호화도 이 페이지 행만
+        java.util.List<com.rebirth.my.chat.ChatVo> messages = chatService.getMessagePage(roomId, beforeId, limit);
         java.util.List<java.util.Map<String, Object>> result = new java.util.ArrayList<>();
 
+        // 발신자 닉네임 (방 멤버 카드 → 없으면 발신자별 한 번만 조회)
+        java.util.Map<Long, String> senderNames = new java.util.HashMap<>();
+
         for (com.rebirth.my.chat.ChatVo msg : messages) {
             java.util.Map<String, Object> map = new java.util.HashMap<>();
+            map.put("id", msg.getId());
             map.put("content", msg.getContent());
             map.put("senderId", msg.getSenderId());
             map.put("createdAt", msg.getCreatedAt());
             map.put("type", msg.getMessageType());
             map.put("imageUrl", msg.getImageUrl());
 
-            // 발신자 닉네임 조회
             if (msg.getSenderId() != null) {
-                com.rebirth.my.domain.User sender = userMapper.getUserById(msg.getSenderId());
-                map.put("sender", sender != null ? sender.getName() : "Unknown");
+                map.put("sender", senderNames.computeIfAbsent(msg.getSenderId(), senderId -> {
+                    RoomRegistry.MemberCard card = room != null ? room.member(senderId) : null;
+                    if (card != null)
+                        return card.getName();
+                    com.rebirth.my.domain.User sender = userMapper.getUserById(senderId);
+                    return sender != null ? sender.getName() : "Unknown";
+                }));
             }
             result.add(map);
         }
         return result;
     }
 
+    // 챗봇 대화 내역 (커서 페이지)
+    @GetMapping("/api/bot/messages")
+    @ResponseBody
+    public java.util.List<java.util.Map<String, Object>> getBotMessages(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit,
+            java.security.Principal principal) {
+        Long currentUserId = getUserIdFromPrincipal(principal);
+        if (currentUserId == null) {
+            return java.util.Collections.emptyList();
+        }
+
+        java.util.List<java.util.Map<String, Object>> result = new java.util.ArrayList<>();
+        for (com.rebirth.my.chat.ChatVo msg : chatService.getChatHistory(String.valueOf(currentUserId), beforeId,
+                limit)) {
+            java.util.Map<String, Object> map = new java.util.HashMap<>();
+            map.put("id", msg.getId());
+            map.put("content", msg.getContent());
+            map.put("sender", currentUserId.equals(msg.getSenderId()) ? "user" : "bot");
+            map.put("createdAt", msg.getCreatedAt());
+            result.add(map);
+        }
+        return result;
+    }
+
     @PostMapping("/api/room")
     @ResponseBody
     public Long createOrGetPrivateRoom(@RequestParam Long targetUserId,
@@ -385,16 +462,11 @@ public class ChatController {
             throw new RuntimeException("Login required");
 
         // 1. Check if room exists
-        java.util.Map<String, Object> params = new java.util.HashMap<>();
-
-        params.put("userId1", currentUserId);
-        params.put("userId2", targetUserId);
-        params.put("itemId", itemId); // [NEW] Match specifically for this item
-        Long existingRoomId = chatDao.selectPrivateRoomId(params);
+        RoomRegistry.Room existingRoom = roomRegistry.findPrivateRoom(currentUserId, targetUserId, itemId);
 
-        if (existingRoomId != null) {
+        if (existingRoom != null) {
 
-            return existingRoomId;
+            return existingRoom.getRoomId();
         }
 
         // 2. Create new room if not exists
@@ -417,6 +489,7 @@ public class ChatController {
         member2.put("roomId", newRoomId);
         member2.put("userId", targetUserId);
         chatDao.insertRoomMember(member2);
+        roomRegistry.memberAdded(newRoomId);
 
         return newRoomId;
     }
@@ -433,6 +506,7 @@ public class ChatController {
         params.put("roomId", roomId);
         params.put("userId", currentUserId);
         chatDao.updateLeaveRoom(params);
+        roomRegistry.memberLeft(roomId);
 
         return "success";
     }
@@ -463,6 +537,7 @@ public class ChatController {
         Long currentUserId = getUserIdFromPrincipal(principal);
         if (currentUserId == null)
             return 0;
+        readCursorService.flushUser(currentUserId);
         return chatDao.selectTotalUnreadCount(currentUserId);
     }
 
@@ -7,8 +7,6 @@ import java.util.List;
 public interface ChatDao {
     int insertChat(ChatVo vo);
 
-    List<ChatVo> selectChatListByUserId(String userId);
-
     // Chatbot specific
     Long selectBotRoomId(String userId);
 
@@ -29,8 +27,8 @@ public interface ChatDao {
     // Get List of rooms for user
     List<java.util.Map<String, Object>> selectMyRoomList(Long userId);
 
-    // 특정 방의 메시지 전체 조회
-    List<ChatVo> selectMessagesByRoomId(Long roomId);
+    // 특정 방의 메시지 한 페이지 조회 (roomId, beforeId, limit)
+    List<ChatVo> selectMessagePage(java.util.Map<String, Object> param);
 
     // 대화 문맥용: 특정 방의 최근 N개 메시지 조회
     List<ChatVo> selectRecentMessages(java.util.Map<String, Object> param);
@@ -56,4 +54,10 @@ public interface ChatDao {
 
     // 채팅방 재입장 처리 (멤버 LEFT_AT 초기화)
     void rejoinRoomMembers(Long roomId);
+
+    // 채팅방 멤버 + 사용자 카드 조회 (RoomRegistry)
+    List<RoomMemberVo> selectRoomMembers(Long roomId);
+
+    // 두 사용자(+ 상품)의 1:1 채팅방 멤버 + 사용자 카드 조회 (RoomRegistry)
+    List<RoomMemberVo> selectPrivateRoomMembers(java.util.Map<String, Object> param);
 }
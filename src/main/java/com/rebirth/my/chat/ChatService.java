@@ -1,8 +1,12 @@
 package com.rebirth.my.chat;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ChatService {
@@ -10,11 +14,43 @@ public class ChatService {
     @Autowired
     private ChatDao chatDao;
 
+    @Value("${chat.history.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.history.max-page-size:200}")
+    private int maxPageSize;
+
     public void sendChat(ChatVo vo) {
         chatDao.insertChat(vo);
     }
 
-    public List<ChatVo> getChatHistory(String userId) {
-        return chatDao.selectChatListByUserId(userId);
+    /**
+     * 방 메시지 한 페이지 (beforeId 이전 최신 limit개, 오래된 순)
+     *
+     * @param beforeId null이면 가장 최근 페이지
+     * @param limit    null이면 chat.history.page-size
+     */
+    public List<ChatVo> getMessagePage(Long roomId, Long beforeId, Integer limit) {
+        Map<String, Object> param = new HashMap<>();
+        param.put("roomId", roomId);
+        param.put("beforeId", beforeId);
+        param.put("limit", pageSize(limit));
+        return chatDao.selectMessagePage(param);
+    }
+
+    /**
+     * 챗봇 방 대화 내역 한 페이지 (방이 아직 없으면 빈 목록)
+     */
+    public List<ChatVo> getChatHistory(String userId, Long beforeId, Integer limit) {
+        Long roomId = chatDao.selectBotRoomId(userId);
+        if (roomId == null)
+            return Collections.emptyList();
+        return getMessagePage(roomId, beforeId, limit);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0)
+            return defaultPageSize;
+        return Math.min(limit, maxPageSize);
     }
 }
@@ -0,0 +1,22 @@
+package com.rebirth.my.chat;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 채팅방 멤버 한 명 (방 정보 + 사용자 카드) - RoomRegistry 적재용
+ */
+@Data
+public class RoomMemberVo {
+    private Long roomId;
+    private Long itemId;
+    private String roomType;
+
+    private Long userId;
+    private String name;
+    private String email;
+    private String memImg;
+
+    private LocalDateTime lastReadAt;
+    private LocalDateTime leftAt;
+}
@@ -0,0 +1,181 @@
+package com.rebirth.my.chat.broker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드 간 STOMP 메시지 팬아웃 (chat.broker.mode=fanout)
+ *
+ * 각 노드는 그대로 simple broker를 쓰고, 이 인터셉터가 brokerChannel로 들어오는 /topic 메시지를
+ * FanoutTransport로 다른 노드에 복제한다. 다른 노드에서 받은 메시지는 origin 헤더를 붙여
+ * 로컬 brokerChannel에 넣으므로 다시 복제되지 않는다.
+ *
+ * 발행은 전용 스레드에서 비동기로 처리해 채팅 전송 경로를 막지 않으며, 큐가 차면 버린다.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "fanout")
+public class BrokerFanout implements ChannelInterceptor {
+
+    static final String ORIGIN_HEADER = "fanoutOrigin";
+
+    @Autowired
+    @Lazy
+    @Qualifier("brokerChannel")
+    private MessageChannel brokerChannel;
+
+    // 테스트 하네스 등에서 직접 등록한 전송 수단 (없으면 transport 설정으로 생성)
+    @Autowired
+    private ObjectProvider<FanoutTransport> customTransport;
+
+    @Autowired
+    private ObjectProvider<ChatFanoutMapper> fanoutMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.broker.node-id:}")
+    private String nodeId;
+
+    @Value("${chat.broker.fanout.transport:jdbc}")
+    private String transportName;
+
+    @Value("${chat.broker.fanout.prefix:/topic/}")
+    private String prefix;
+
+    @Value("${chat.broker.fanout.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.broker.fanout.jdbc.poll-ms:200}")
+    private long pollMs;
+
+    @Value("${chat.broker.fanout.jdbc.lookback-ms:3000}")
+    private long lookbackMs;
+
+    @Value("${chat.broker.fanout.jdbc.retention-ms:60000}")
+    private long retentionMs;
+
+    @Value("${chat.broker.fanout.multicast.group:239.255.27.1}")
+    private String multicastGroup;
+
+    @Value("${chat.broker.fanout.multicast.port:45627}")
+    private int multicastPort;
+
+    @Value("${chat.broker.fanout.multicast.interface:}")
+    private String multicastInterface;
+
+    @Value("${chat.broker.fanout.multicast.ttl:1}")
+    private int multicastTtl;
+
+    private FanoutTransport transport;
+    private ThreadPoolExecutor publisher;
+
+    @PostConstruct
+    public void start() throws Exception {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+
+        transport = customTransport.getIfAvailable(this::createTransport);
+        publisher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "chat-fanout-publish");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, executor) -> count("dropped"));
+
+        transport.start(nodeId, this::deliver);
+        System.out.println("🔀 [ChatFanout] 노드 " + nodeId + " 팬아웃 시작 (" + transport.getClass().getSimpleName()
+                + ")");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+        if (transport != null) {
+            transport.stop();
+        }
+    }
+
+    private FanoutTransport createTransport() {
+        if ("multicast".equalsIgnoreCase(transportName)) {
+            return new MulticastFanoutTransport(multicastGroup, multicastPort, multicastInterface, multicastTtl);
+        }
+        return new JdbcFanoutTransport(fanoutMapper.getObject(), pollMs, lookbackMs, retentionMs);
+    }
+
+    /**
+     * 로컬에서 발행된 /topic 메시지를 다른 노드로 복제
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || headers.containsKey(ORIGIN_HEADER)
+                || !(message.getPayload() instanceof byte[] payload))
+            return message;
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !destination.startsWith(prefix))
+            return message;
+
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        FanoutMessage outgoing = new FanoutMessage(null, nodeId, destination,
+                contentType != null ? contentType.toString() : null, payload);
+
+        publisher.execute(() -> {
+            try {
+                transport.publish(outgoing);
+                count("published");
+            } catch (Exception e) {
+                count("error");
+                System.err.println("❌ [ChatFanout] 발행 실패 " + destination + ": " + e.getMessage());
+            }
+        });
+        return message;
+    }
+
+    /**
+     * 다른 노드에서 받은 메시지를 로컬 구독자에게 전달
+     */
+    private void deliver(FanoutMessage incoming) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(incoming.getDestination());
+        if (incoming.getContentType() != null) {
+            accessor.setContentType(MimeType.valueOf(incoming.getContentType()));
+        }
+        accessor.setHeader(ORIGIN_HEADER, incoming.getOrigin());
+
+        brokerChannel.send(MessageBuilder.createMessage(incoming.getPayload(), accessor.getMessageHeaders()));
+        count("received");
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("chat.broker.fanout", "outcome", outcome).increment();
+    }
+}
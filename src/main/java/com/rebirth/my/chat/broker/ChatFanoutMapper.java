@@ -0,0 +1,17 @@
+package com.rebirth.my.chat.broker;
+
+import java.util.List;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface ChatFanoutMapper {
+
+    void insertFanoutMessage(FanoutMessage message);
+
+    // 최근 lookbackMs 안에 다른 노드가 발행한 메시지 (ID 순)
+    List<FanoutMessage> selectRecentFanoutMessages(@Param("origin") String origin,
+            @Param("lookbackMs") long lookbackMs);
+
+    int deleteFanoutMessagesBefore(@Param("retentionMs") long retentionMs);
+}
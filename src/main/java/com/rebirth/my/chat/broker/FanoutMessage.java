@@ -0,0 +1,19 @@
+package com.rebirth.my.chat.broker;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 노드 간에 전달되는 브로커 메시지 (목적지 + 직렬화된 본문)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FanoutMessage {
+    private Long id; // CHAT_FANOUT.ID (jdbc 전송에서만 사용)
+    private String origin; // 발행 노드 ID
+    private String destination; // 예: /topic/room/12
+    private String contentType;
+    private byte[] payload;
+}
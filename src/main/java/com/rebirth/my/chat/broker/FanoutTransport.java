@@ -0,0 +1,22 @@
+package com.rebirth.my.chat.broker;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 브로커 메시지 전송 수단 (chat.broker.mode=fanout)
+ *
+ * 기본 구현은 jdbc(CHAT_FANOUT 테이블 폴링)와 multicast(UDP, 한 머신/같은 LAN의 노드용).
+ * 테스트 하네스 등에서 FanoutTransport 빈을 등록하면 그 빈을 대신 사용한다.
+ */
+public interface FanoutTransport {
+
+    /**
+     * @param nodeId   이 노드의 ID (자기가 보낸 메시지는 receiver로 돌려주지 않아야 함)
+     * @param receiver 다른 노드가 보낸 메시지 수신 콜백
+     */
+    void start(String nodeId, Consumer<FanoutMessage> receiver) throws Exception;
+
+    void publish(FanoutMessage message) throws Exception;
+
+    void stop();
+}
@@ -0,0 +1,90 @@
+package com.rebirth.my.chat.broker;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * CHAT_FANOUT 테이블을 통한 노드 간 전달
+ *
+ * 별도 인프라 없이 Oracle만으로 동작한다. 지연은 poll-ms 수준이며,
+ * 최근 lookback-ms 구간을 매번 다시 읽어 늦게 커밋된 행도 놓치지 않는다 (중복은 ID로 제거).
+ */
+public class JdbcFanoutTransport implements FanoutTransport {
+
+    private static final int DELIVERED_IDS_MAX = 10000;
+
+    private final ChatFanoutMapper mapper;
+    private final long pollMs;
+    private final long lookbackMs;
+    private final long retentionMs;
+
+    private String nodeId;
+    private Consumer<FanoutMessage> receiver;
+    private ScheduledExecutorService scheduler;
+
+    // 이미 전달한 메시지 ID (poll 스레드 전용)
+    private final Map<Long, Boolean> delivered = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > DELIVERED_IDS_MAX;
+        }
+    };
+
+    public JdbcFanoutTransport(ChatFanoutMapper mapper, long pollMs, long lookbackMs, long retentionMs) {
+        this.mapper = mapper;
+        this.pollMs = pollMs;
+        this.lookbackMs = lookbackMs;
+        this.retentionMs = Math.max(retentionMs, lookbackMs * 2);
+    }
+
+    @Override
+    public void start(String nodeId, Consumer<FanoutMessage> receiver) {
+        this.nodeId = nodeId;
+        this.receiver = receiver;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-fanout-jdbc");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::cleanup, retentionMs, retentionMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(FanoutMessage message) {
+        mapper.insertFanoutMessage(message);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        try {
+            List<FanoutMessage> messages = mapper.selectRecentFanoutMessages(nodeId, lookbackMs);
+            for (FanoutMessage message : messages) {
+                if (delivered.put(message.getId(), Boolean.TRUE) == null) {
+                    receiver.accept(message);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ [ChatFanout] jdbc poll 실패: " + e.getMessage());
+        }
+    }
+
+    private void cleanup() {
+        try {
+            mapper.deleteFanoutMessagesBefore(retentionMs);
+        } catch (Exception e) {
+            System.err.println("❌ [ChatFanout] jdbc 정리 실패: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.rebirth.my.chat.broker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.util.function.Consumer;
+
+/**
+ * UDP 멀티캐스트를 통한 노드 간 전달
+ *
+ * 한 머신(interface=lo) 또는 같은 LAN의 노드끼리 지연 없이 주고받는다.
+ * UDP라 유실될 수 있으므로 운영에서 전달 보장이 필요하면 relay 모드나 jdbc 전송을 사용한다.
+ * 데이터그램 한 개에 담기지 않는 메시지(약 64KB 초과)는 전달하지 않는다.
+ */
+public class MulticastFanoutTransport implements FanoutTransport {
+
+    private static final int MAX_DATAGRAM = 65000;
+
+    private final String group;
+    private final int port;
+    private final String interfaceName;
+    private final int ttl;
+
+    private String nodeId;
+    private MulticastSocket socket;
+    private InetSocketAddress groupAddress;
+    private volatile boolean running;
+
+    public MulticastFanoutTransport(String group, int port, String interfaceName, int ttl) {
+        this.group = group;
+        this.port = port;
+        this.interfaceName = interfaceName;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void start(String nodeId, Consumer<FanoutMessage> receiver) throws IOException {
+        this.nodeId = nodeId;
+        this.groupAddress = new InetSocketAddress(InetAddress.getByName(group), port);
+
+        NetworkInterface nif = null;
+        if (interfaceName != null && !interfaceName.isBlank()) {
+            nif = NetworkInterface.getByName(interfaceName);
+            if (nif == null)
+                throw new SocketException("네트워크 인터페이스를 찾을 수 없음: " + interfaceName);
+        }
+
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(ttl);
+        socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true); // 같은 머신의 다른 노드도 받도록
+        if (nif != null)
+            socket.setNetworkInterface(nif);
+        socket.joinGroup(groupAddress, nif);
+
+        running = true;
+        Thread thread = new Thread(() -> receiveLoop(receiver), "chat-fanout-multicast");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void publish(FanoutMessage message) throws IOException {
+        byte[] data = encode(message);
+        if (data.length > MAX_DATAGRAM) {
+            throw new IOException("메시지가 너무 큼 (" + data.length + " bytes): " + message.getDestination());
+        }
+        socket.send(new DatagramPacket(data, data.length, groupAddress));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    private void receiveLoop(Consumer<FanoutMessage> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM + 1024];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                socket.receive(packet);
+                FanoutMessage message = decode(packet.getData(), packet.getOffset(), packet.getLength());
+                if (!nodeId.equals(message.getOrigin())) {
+                    receiver.accept(message);
+                }
+            } catch (IOException e) {
+                if (running)
+                    System.err.println("❌ [ChatFanout] multicast 수신 실패: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("❌ [ChatFanout] multicast 메시지 처리 실패: " + e.getMessage());
+            }
+        }
+    }
+
+    static byte[] encode(FanoutMessage message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + message.getPayload().length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(message.getOrigin());
+            out.writeUTF(message.getDestination());
+            out.writeUTF(message.getContentType() != null ? message.getContentType() : "");
+            out.writeInt(message.getPayload().length);
+            out.write(message.getPayload());
+        }
+        return bytes.toByteArray();
+    }
+
+    static FanoutMessage decode(byte[] data, int offset, int length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length))) {
+            FanoutMessage message = new FanoutMessage();
+            message.setOrigin(in.readUTF());
+            message.setDestination(in.readUTF());
+            String contentType = in.readUTF();
+            message.setContentType(contentType.isEmpty() ? null : contentType);
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            message.setPayload(payload);
+            return message;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rebirth.my.chat.component;
+
+import java.time.LocalDate;
+
+/**
+ * IntentRouter 분류 결과 (의도 + 추출된 슬롯)
+ */
+public final class ChatIntent {
+
+    public enum Type {
+        // LLM 호출 없이 바로 답하는 의도
+        ITEMS_FOR_SALE(true),
+        OOTD_SCHEDULE(true),
+        // LLM 실패 시 DB 조회로 답하는 의도
+        ECO_POINTS(false),
+        WARDROBE_COUNT(false),
+        // 규칙 기반 응답(MockLlmClient)용 잡담/안내
+        CONFIRM(false),
+        GREETING(false),
+        BUSY(false),
+        AFFECTION(false),
+        BORED(false),
+        HUNGRY(false),
+        RECOMMEND(false),
+        HOWTO(false),
+        SITE_INFO(false),
+        NONE(false);
+
+        private final boolean direct;
+
+        Type(boolean direct) {
+            this.direct = direct;
+        }
+
+        public boolean isDirect() {
+            return direct;
+        }
+    }
+
+    public static final ChatIntent NONE = new ChatIntent(Type.NONE, null, null);
+
+    private final Type type;
+    private final LocalDate date;
+    private final String keyword;
+
+    ChatIntent(Type type, LocalDate date, String keyword) {
+        this.type = type;
+        this.date = date;
+        this.keyword = keyword;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** 질문에서 추출한 날짜 (OOTD_SCHEDULE), 없으면 null */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /** 의도를 결정한 대표 키워드 (예: "판매"), 없으면 null */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public boolean is(Type other) {
+        return type == other;
+    }
+
+    @Override
+    public String toString() {
+        return type + (date != null ? "(date=" + date + ")" : "") + (keyword != null ? "[" + keyword + "]" : "");
+    }
+}
@@ -0,0 +1,120 @@
+package com.rebirth.my.chat.component;
+
+import java.time.Duration;
+
+/**
+ * LLM 라우트(백엔드+모델)별 circuit breaker
+ *
+ * - CLOSED: 정상 호출. 연속 실패가 threshold에 도달하면 OPEN
+ * - OPEN: 호출하지 않음. open 기간이 지나면 HALF_OPEN
+ * - HALF_OPEN: 한 번의 probe 호출만 허용. 성공 시 CLOSED, 실패 시 더 긴 기간으로 다시 OPEN
+ *
+ * open 기간은 연속으로 다시 열릴 때마다 두 배씩 늘어난다 (maxOpenMillis 상한).
+ * 429 응답은 Retry-After 값만큼 openFor(...)로 즉시 연다.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int reopenCount;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long baseOpenMillis, long maxOpenMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseOpenMillis = baseOpenMillis;
+        this.maxOpenMillis = Math.max(baseOpenMillis, maxOpenMillis);
+    }
+
+    /**
+     * 호출 가능 여부. HALF_OPEN 상태에서는 첫 호출자만 true를 받는다 (probe).
+     */
+    synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < openUntil)
+                    return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if (probeInFlight)
+                    return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * 라우팅 후보 선별용 (상태를 바꾸지 않음)
+     */
+    synchronized boolean isCallPermitted() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.currentTimeMillis() >= openUntil;
+            case HALF_OPEN:
+            default:
+                return !probeInFlight;
+        }
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        reopenCount = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void recordFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) {
+            reopenCount++;
+            open(backoffMillis());
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(backoffMillis());
+        }
+    }
+
+    /**
+     * 지정한 기간 동안 강제로 연다 (429 Retry-After)
+     */
+    synchronized void openFor(Duration duration) {
+        probeInFlight = false;
+        long until = System.currentTimeMillis() + Math.max(0, duration.toMillis());
+        state = State.OPEN;
+        openUntil = Math.max(openUntil, until);
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil)
+            return State.HALF_OPEN;
+        return state;
+    }
+
+    private long backoffMillis() {
+        long millis = baseOpenMillis << Math.min(reopenCount, 16);
+        return Math.min(millis, maxOpenMillis);
+    }
+
+    private void open(long millis) {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + millis;
+    }
+}
@@ -5,13 +5,29 @@ import com.rebirth.my.wardrobe.WardrobeVo;
 import com.rebirth.my.mapper.UserProfileMapper;
 import com.rebirth.my.mapper.UserMapper;
 import com.rebirth.my.domain.User;
+import com.rebirth.my.domain.UserProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
@@ -29,31 +45,109 @@ public class ContextBuilder {
     @Autowired
     private WeatherService weatherService;
 
-    public String buildUserContext(String userId) {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 소스별 최대 대기 시간 (초과 시 fallback 값 사용)
+    @Value("${chatbot.context.source-timeout-ms:1500}")
+    private long sourceTimeoutMs;
+
+    @Value("${chatbot.context.weather-timeout-ms:2500}")
+    private long weatherTimeoutMs;
+
+    // fallback으로 채운 값 (모델이 0벌/0점 같은 사실로 오해하지 않도록)
+    private static final String UNKNOWN = "unknown";
+
+    // 컨텍스트 조회 전용 스레드 풀 (소스 4개 x 동시 요청 수 만큼 bounded)
+    // 포화 시 호출 스레드에서 실행하지 않고 거절 → 해당 소스는 곧바로 fallback (deadline 유지)
+    private final AtomicInteger threadSeq = new AtomicInteger();
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            8, 32, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(200),
+            r -> {
+                Thread t = new Thread(r, "chat-context-" + threadSeq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 조회 결과. fallbacks가 비어 있지 않으면 일부 소스를 기본값으로 채운 컨텍스트이므로
+     * 이를 바탕으로 만든 답변은 캐시하지 않는다.
+     */
+    public record UserContext(String text, Set<String> fallbacks) {
+        public boolean isComplete() {
+            return fallbacks.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    public UserContext buildUserContext(String userId) {
         Map<String, Object> context = new HashMap<>();
+        Set<String> fallbacks = ConcurrentHashMap.newKeySet();
 
         // 1. System Context
         context.put("currentTime", LocalDateTime.now().toString());
 
-        // 2. Domain Context
+        // 2. Domain Context (독립적인 소스는 병렬 조회, 소스별 deadline + fallback)
         try {
             Long userPk = Long.valueOf(userId);
+            Map<String, Long> latencies = new ConcurrentHashMap<>();
+            long started = System.nanoTime();
 
-            // A. 사용자 주소 조회 및 날씨 정보 가져오기
-            User user = userMapper.getUserById(userPk);
-            String userAddress = (user != null && user.getAddress() != null) ? user.getAddress() : null;
-            context.put("location", userAddress != null ? userAddress : "서울");
+            // A. 사용자 주소 → B. 날씨 (주소에 의존하므로 체인)
+            CompletableFuture<User> userFuture = source("user", () -> userMapper.getUserById(userPk),
+                    sourceTimeoutMs, null, latencies, fallbacks);
 
-            // B. 날씨 정보 조회
-            WeatherInfo weather = weatherService.getWeatherByAddress(userAddress);
-            context.put("weather", weather.getDescription());
-            context.put("temperature", weather.getTemperature() + "°C");
-            context.put("sky", weather.getSky());
-            context.put("precipitation", weather.getPrecipitation());
-            context.put("currentSeason", weatherService.getCurrentSeason(userAddress));
+            CompletableFuture<WeatherInfo> weatherFuture = userFuture.thenCompose(user -> source("weather",
+                    () -> weatherService.getWeatherByAddress(addressOf(user)),
+                    weatherTimeoutMs, null, latencies, fallbacks));
 
             // C. Wardrobe Context (Clothes List)
-            List<WardrobeVo> myClothes = wardrobeService.getMyWardrobe(userId);
+            CompletableFuture<List<WardrobeVo>> wardrobeFuture = source("wardrobe",
+                    () -> wardrobeService.getMyWardrobe(userId),
+                    sourceTimeoutMs, Collections.emptyList(), latencies, fallbacks);
+
+            // D. Profile/Points Context
+            CompletableFuture<Optional<UserProfile>> profileFuture = source("profile",
+                    () -> userProfileMapper.findById(userPk),
+                    sourceTimeoutMs, Optional.empty(), latencies, fallbacks);
+
+            CompletableFuture.allOf(weatherFuture, wardrobeFuture, profileFuture).join();
+
+            // A. 위치
+            String userAddress = addressOf(userFuture.join());
+            context.put("location", userAddress != null ? userAddress : "서울");
+
+            // B. 날씨 정보
+            WeatherInfo weather = weatherFuture.join();
+            if (weather == null || fallbacks.contains("weather")) {
+                // 실제 날씨는 모름 - 계절만 월 기준 추정치로
+                fallbacks.add("weather");
+                context.put("weather", UNKNOWN);
+                context.put("temperature", UNKNOWN);
+                context.put("sky", UNKNOWN);
+                context.put("precipitation", UNKNOWN);
+                context.put("currentSeason", weatherService.getSeason(weatherService.getFallbackWeather()));
+            } else {
+                context.put("weather", weather.getDescription());
+                context.put("temperature", weather.getTemperature() + "°C");
+                context.put("sky", weather.getSky());
+                context.put("precipitation", weather.getPrecipitation());
+                context.put("currentSeason", weatherService.getSeason(weather));
+            }
+
+            // C. 옷장
+            List<WardrobeVo> myClothes = wardrobeFuture.join();
 
             // Filter: Only include available clothes (Exclude Sold, Donated, or For Sale if
             // status changes)
@@ -62,7 +156,8 @@ public class ContextBuilder {
                     .filter(c -> "IN_CLOSET".equals(c.getStatus()))
                     .collect(Collectors.toList());
 
-            context.put("totalClothes", availableClothes.size());
+            // 조회에 실패한 옷장은 "0벌"이 아니라 "모름"
+            context.put("totalClothes", fallbacks.contains("wardrobe") ? UNKNOWN : availableClothes.size());
 
             // Summarize clothes with season info
             List<String> clothesSummary = availableClothes.stream()
@@ -77,28 +172,88 @@ public class ContextBuilder {
                     .collect(Collectors.toList());
             context.put("recentClothes", clothesSummary);
 
-            // D. Profile/Points Context
-            context.put("ecoPoints", 0);
+            // D. 프로필/포인트
+            context.put("ecoPoints", fallbacks.contains("profile") ? UNKNOWN : 0);
             context.put("nickname", "User");
 
-            userProfileMapper.findById(userPk).ifPresent(profile -> {
+            profileFuture.join().ifPresent(profile -> {
                 context.put("ecoPoints", profile.getEcoPoints() != null ? profile.getEcoPoints() : 0);
                 context.put("nickname", profile.getNickname());
                 context.put("carbonSaved", profile.getTotalCarbonSavedKg());
             });
 
+            long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            meterRegistry.timer("chatbot.context.build").record(totalMs, TimeUnit.MILLISECONDS);
+
             // DEBUG: Print Context
-            System.out.println("====== Built User Context ======");
+            System.out.println("====== Built User Context (" + totalMs + "ms, sources=" + latencies + ") ======");
             System.out.println(context);
             System.out.println("================================");
 
         } catch (Exception e) {
+            fallbacks.add("all");
             context.put("error", "Failed to fetch user data: " + e.getMessage());
-            context.put("ecoPoints", 0);
+            context.put("ecoPoints", UNKNOWN);
+            context.put("totalClothes", UNKNOWN);
             context.put("currentSeason", "봄,가을"); // Fallback
             System.err.println("ContextBuilder Error: " + e.getMessage());
         }
 
-        return context.toString();
+        return new UserContext(context.toString(), Collections.unmodifiableSet(fallbacks));
+    }
+
+    /**
+     * 개별 컨텍스트 소스를 비동기로 실행한다.
+     * 실패하거나 deadline을 넘기거나 풀이 포화되어 거절되면 fallback 값으로 완료되고 fallbacks에 이름이 남는다.
+     * deadline을 넘긴 작업은 취소(interrupt)해 풀 스레드를 돌려받는다. 소요 시간은 latencies와 메트릭에 기록된다.
+     */
+    private <T> CompletableFuture<T> source(String name, Supplier<T> supplier, long timeoutMs, T fallback,
+            Map<String, Long> latencies, Set<String> fallbacks) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    result.complete(supplier.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    latencies.put(name, elapsedMs);
+                    meterRegistry.timer("chatbot.context.source", "source", name)
+                            .record(elapsedMs, TimeUnit.MILLISECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("ContextBuilder source '" + name + "' rejected (pool saturated), using fallback");
+            meterRegistry.counter("chatbot.context.fallback", "source", name, "cause", "rejected").increment();
+            fallbacks.add(name);
+            return CompletableFuture.completedFuture(fallback);
+        }
+
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((value, e) -> {
+                    if (e == null)
+                        return value;
+                    String cause;
+                    if (e instanceof java.util.concurrent.TimeoutException
+                            || e.getCause() instanceof java.util.concurrent.TimeoutException) {
+                        task.cancel(true);
+                        cause = "timeout";
+                        System.err.println("ContextBuilder source '" + name + "' timed out after " + timeoutMs
+                                + "ms, using fallback");
+                    } else {
+                        cause = "error";
+                        System.err.println("ContextBuilder source '" + name + "' failed: " + e.getMessage());
+                    }
+                    meterRegistry.counter("chatbot.context.fallback", "source", name, "cause", cause).increment();
+                    fallbacks.add(name);
+                    return fallback;
+                });
+    }
+
+    private String addressOf(User user) {
+        return (user != null && user.getAddress() != null) ? user.getAddress() : null;
     }
 }
@@ -1,11 +1,14 @@
 package com.rebirth.my.chat.component;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
@@ -19,11 +22,22 @@ public class EmbeddingClient {
     @Value("${google.gemini.api-key}")
     private String apiKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void initRestTemplate() {
+        restTemplate = outboundHttpClients.restTemplate("gemini-embedding");
+    }
 
     // Use 'text-embedding-004' (newest) or 'embedding-001'
     private static final String MODEL_NAME = "text-embedding-004";
 
+    // batchEmbedContents 요청 1회당 최대 문장 수
+    public static final int MAX_BATCH_SIZE = 100;
+
     public List<Float> getEmbedding(String text) {
         try {
             String url = "https://generativelanguage.googleapis.com/v1beta/models/" + MODEL_NAME + ":embedContent?key="
@@ -55,6 +69,53 @@ public class EmbeddingClient {
         }
     }
 
+    /**
+     * 여러 문장을 한 번의 batchEmbedContents 호출로 임베딩한다 (최대 MAX_BATCH_SIZE 개).
+     * 일괄 색인용이므로 실패 시 빈 목록 대신 예외를 던져 호출자가 재시도/건너뛰기를 결정하게 한다.
+     *
+     * @return 입력과 같은 순서의 임베딩 목록
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<Float>> getEmbeddings(List<String> texts) {
+        if (texts.size() > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("batchEmbedContents supports up to " + MAX_BATCH_SIZE + " texts");
+
+        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + MODEL_NAME
+                + ":batchEmbedContents?key=" + apiKey;
+
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (String text : texts) {
+            Map<String, Object> textPart = new HashMap<>();
+            textPart.put("text", text);
+            Map<String, Object> contentPart = new HashMap<>();
+            contentPart.put("parts", List.of(textPart));
+
+            Map<String, Object> request = new HashMap<>();
+            request.put("model", "models/" + MODEL_NAME);
+            request.put("content", contentPart);
+            requests.add(request);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("requests", requests), headers);
+        ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        List<Map<String, Object>> embeddings = body != null ? (List<Map<String, Object>>) body.get("embeddings") : null;
+        if (embeddings == null || embeddings.size() != texts.size()) {
+            throw new IllegalStateException("batchEmbedContents returned "
+                    + (embeddings == null ? 0 : embeddings.size()) + " embeddings for " + texts.size() + " texts");
+        }
+
+        List<List<Float>> result = new ArrayList<>(embeddings.size());
+        for (Map<String, Object> embedding : embeddings) {
+            result.add(toFloats((List<Number>) embedding.get("values")));
+        }
+        return result;
+    }
+
     @SuppressWarnings("unchecked")
     private List<Float> extractEmbedding(Map<String, Object> body) {
         if (body == null || !body.containsKey("embedding"))
@@ -64,10 +125,15 @@ public class EmbeddingClient {
         if (embeddingMap == null || !embeddingMap.containsKey("values"))
             return new ArrayList<>();
 
-        List<Double> values = (List<Double>) embeddingMap.get("values");
+        return toFloats((List<Number>) embeddingMap.get("values"));
+    }
+
+    private static List<Float> toFloats(List<Number> values) {
         List<Float> floatValues = new ArrayList<>();
+        if (values == null)
+            return floatValues;
 
-        for (Double d : values) {
+        for (Number d : values) {
             floatValues.add(d.floatValue());
         }
 
@@ -1,15 +1,45 @@
 package com.rebirth.my.chat.component;
 
 import com.rebirth.my.wardrobe.WardrobeService;
+import com.rebirth.my.wardrobe.WardrobeVo;
 import com.rebirth.my.ootd.OotdDao;
 import com.rebirth.my.ootd.OotdCalendarVo;
 // import com.rebirth.my.point.PointService; // Not yet created
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
-
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 챗봇 도구(Function) 레지스트리 및 실행기
+ *
+ * 도구는 ToolDescriptor로 등록되며 실행 결과는 ToolResults의 타입 있는 객체다.
+ * 직접 답변 경로는 getItemsForSale() 등 타입 메소드를 바로 호출하고,
+ * LLM에 결과를 넘길 때만 dispatch()가 공용 ObjectMapper로 JSON 직렬화한다.
+ */
 @Component
 public class FunctionDispatcher {
 
@@ -37,312 +67,447 @@ public class FunctionDispatcher {
     @Autowired
     private OotdDao ootdDao;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 도구 호출 하나의 deadline (단일 호출 포함 모든 호출에 적용, 초과 시 오류 결과로 대체)
+    @Value("${chatbot.tools.timeout-ms:5000}")
+    private long toolTimeoutMs;
+
+    @Value("${chatbot.tools.max-rounds:1}")
+    private int maxToolRounds;
+
+    private final Map<String, ToolDescriptor> tools = new LinkedHashMap<>();
+
+    // 도구 실행용 스레드 풀 (포화 시 호출 스레드에서 실행하지 않고 거절 → 오류 결과)
+    private final AtomicInteger threadSeq = new AtomicInteger();
+    private final ThreadPoolExecutor toolExecutor = new ThreadPoolExecutor(
+            4, 16, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(100),
+            r -> {
+                Thread t = new Thread(r, "chat-tool-" + threadSeq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        toolExecutor.shutdownNow();
+    }
+
+    @PostConstruct
+    public void registerTools() {
+        register(new ToolDescriptor("getWardrobeSummary",
+                "사용자 옷장에 등록된 옷의 총 개수를 조회합니다.",
+                ToolDescriptor.noParameters(),
+                args -> getWardrobeSummary(userIdOf(args))));
+
+        register(new ToolDescriptor("recommendOutfit",
+                "날씨에 맞는 기본 코디(상의/하의)를 추천합니다.",
+                ToolDescriptor.noParameters(),
+                args -> recommendOutfit()));
+
+        register(new ToolDescriptor("getEcoPoints",
+                "사용자의 현재 에코 포인트를 조회합니다.",
+                ToolDescriptor.noParameters(),
+                args -> getEcoPoints(userIdOf(args))));
+
+        register(new ToolDescriptor("searchStyle",
+                "사용자 옷장에서 분위기/상황 키워드(예: 데이트룩, 힙한 스타일, 포멀)에 맞는 옷을 찾습니다.",
+                ToolDescriptor.singleParameter("keyword", "string", "찾을 스타일 키워드", true),
+                args -> searchStyle(userIdOf(args), (String) args.get("keyword"))));
+
+        register(new ToolDescriptor("recommendUpcycling",
+                "사용자 옷장에서 업사이클링할 만한 옷과 리폼 아이디어를 추천합니다.",
+                ToolDescriptor.noParameters(),
+                args -> recommendUpcycling(userIdOf(args))));
+
+        register(new ToolDescriptor("getRecentOutfits",
+                "사용자가 최근 등록한 옷 목록을 조회합니다.",
+                ToolDescriptor.singleParameter("limit", "integer", "조회할 개수 (1~20, 기본 5)", false),
+                args -> getRecentOutfits(userIdOf(args), limitOf(args.get("limit")))));
+
+        register(new ToolDescriptor("getWeatherByTime",
+                "사용자 지역의 특정 시각(0~23시) 날씨 예보를 조회합니다.",
+                ToolDescriptor.singleParameter("hour", "integer", "외출 시각 (0~23, 기본 12)", false),
+                args -> getWeatherByTime(userIdOf(args), hourOf(args.get("hour")))));
+
+        register(new ToolDescriptor("getItemsForSale",
+                "사용자가 마켓에 판매중인 옷 목록을 조회합니다.",
+                ToolDescriptor.noParameters(),
+                args -> getItemsForSale(userIdOf(args))));
+
+        register(new ToolDescriptor("getOotdSchedule",
+                "OOTD 캘린더에서 특정 날짜에 계획한 코디를 조회합니다.",
+                ToolDescriptor.singleParameter("date", "string", "조회할 날짜 (YYYY-MM-DD)", true),
+                args -> {
+                    String dateStr = (String) args.get("date"); // "2024-12-31" 형식
+                    if (dateStr == null)
+                        return new ToolResults.Error("userId and date are required");
+                    try {
+                        return getOotdSchedule(userIdOf(args), LocalDate.parse(dateStr));
+                    } catch (java.time.format.DateTimeParseException e) {
+                        return new ToolResults.Error("날짜 형식 오류: " + e.getMessage());
+                    }
+                }));
+    }
+
+    private void register(ToolDescriptor descriptor) {
+        tools.put(descriptor.name(), descriptor);
+    }
+
+    /**
+     * 등록된 도구 목록 (LLM function calling 선언용)
+     */
+    public Collection<ToolDescriptor> tools() {
+        return Collections.unmodifiableCollection(tools.values());
+    }
+
+    /**
+     * 사용자 한 명의 메시지 처리용 도구 세션 (LLM 네이티브 function calling)
+     */
+    public ToolSession session(String userId) {
+        return new ToolSession(tools(), calls -> invokeAll(userId, calls), maxToolRounds);
+    }
+
+    /**
+     * 여러 도구 호출을 병렬로 실행하고 호출 순서대로 JSON 결과를 반환한다.
+     * 전체 소요 시간은 가장 느린 도구 하나 수준이며, deadline을 넘긴 호출은 오류 결과가 된다.
+     */
+    public List<String> invokeAll(String userId, List<ToolCall> calls) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(calls.size());
+        for (ToolCall call : calls) {
+            futures.add(submit(call.name(), () -> invokeTimed(userId, call)));
+        }
+
+        List<String> results = new ArrayList<>(calls.size());
+        for (CompletableFuture<String> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 도구 실행을 풀에 제출한다. deadline을 넘기면 작업을 취소(interrupt)하고 오류 결과로 완료되며,
+     * 풀이 포화되어 거절되면 곧바로 오류 결과를 돌려준다.
+     */
+    private CompletableFuture<String> submit(String name, java.util.function.Supplier<String> task) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = toolExecutor.submit(() -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.complete(toJson(new ToolResults.Error("Execution failed: " + e.getMessage())));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("chatbot.tool.rejected", "tool", name).increment();
+            return CompletableFuture.completedFuture(toJson(new ToolResults.Error("Busy, try again: " + name)));
+        }
+
+        return result.orTimeout(toolTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    running.cancel(true);
+                    meterRegistry.counter("chatbot.tool.timeouts", "tool", name).increment();
+                    return toJson(new ToolResults.Error("Timed out: " + name));
+                });
+    }
+
+    private String invokeTimed(String userId, ToolCall call) {
+        Map<String, Object> args = new HashMap<>(call.arguments() != null ? call.arguments() : Map.of());
+        args.put("userId", userId);
+
+        long start = System.nanoTime();
+        Object result = invoke(call.name(), args);
+        meterRegistry.timer("chatbot.tool.calls", "tool", call.name(),
+                "outcome", result instanceof ToolResults.Error ? "error" : "success")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        System.out.println("🔧 [FunctionDispatcher] " + call.name() + call.arguments() + " ("
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms)");
+        return toJson(result);
+    }
+
     /**
-     * LLM의 Function Call 요청(JSON String)을 받아 실제 메소드를 실행하고 결과를 반환
+     * "CALL:function:arg" 형식의 단일 인자를 넣을 인자 이름 (선언된 첫 인자, 없으면 "keyword")
+     */
+    @SuppressWarnings("unchecked")
+    public String primaryParameter(String functionName) {
+        ToolDescriptor tool = tools.get(functionName);
+        if (tool != null) {
+            Map<String, Object> properties = (Map<String, Object>) tool.parameters().get("properties");
+            if (properties != null && !properties.isEmpty())
+                return properties.keySet().iterator().next();
+        }
+        return "keyword";
+    }
+
+    /**
+     * 도구를 실행하고 타입 있는 결과를 반환한다. 실패 시 ToolResults.Error.
+     */
+    public Object invoke(String functionName, Map<String, Object> arguments) {
+        ToolDescriptor tool = tools.get(functionName);
+        if (tool == null)
+            return new ToolResults.Error("Function not found: " + functionName);
+
+        try {
+            return tool.handler().apply(arguments);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ToolResults.Error("Execution failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * LLM의 Function Call 요청을 실행하고 결과를 JSON 문자열로 반환
      */
     public String dispatch(String functionName, Map<String, Object> arguments) {
+        return submit(functionName, () -> toJson(invoke(functionName, arguments))).join();
+    }
+
+    public String toJson(Object result) {
         try {
-            switch (functionName) {
-                case "getWardrobeSummary":
-                    return "{\"totalItems\": " + wardrobeService.getMyWardrobe((String) arguments.get("userId")).size()
-                            + "}";
-
-                case "recommendOutfit":
-                    return "{\"top\": \"White Linen Shirt\", \"bottom\": \"Beige Chinos\", \"reason\": \"Good for sunny weather\"}";
-
-                case "getEcoPoints":
-                    String userIdStr = (String) arguments.get("userId");
-                    Long userPk = Long.valueOf(userIdStr);
-                    // Fetch from DB
-                    return userProfileMapper.findById(userPk)
-                            .map(p -> "{\"currentPoints\": " + (p.getEcoPoints() != null ? p.getEcoPoints() : 0) + "}")
-                            .orElse("{\"currentPoints\": 0, \"error\": \"User not found\"}");
-
-                case "searchStyle":
-                    String keyword = (String) arguments.get("keyword");
-                    String uid = (String) arguments.get("userId");
-
-                    if (keyword == null || uid == null)
-                        return "{\"error\": \"Missing keyword or userId\"}";
-
-                    // 1. Vector Search
-                    java.util.List<Long> vectorIds = new java.util.ArrayList<>();
-                    try {
-                        java.util.List<Float> queryVector = embeddingClient.getEmbedding(keyword);
-                        if (!queryVector.isEmpty()) {
-                            vectorIds = milvusClientWrapper.searchSimilar(Long.valueOf(uid), queryVector, 15);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Vector search failed: " + e.getMessage());
-                    }
+            return objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            return "{\"error\": \"Serialization failed\"}";
+        }
+    }
 
-                    // 2. Fetch Vector Results from Oracle
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> mergedClothes = new java.util.ArrayList<>();
-                    if (!vectorIds.isEmpty()) {
-                        mergedClothes.addAll(wardrobeService.getClothesByIds(vectorIds));
-                    }
+    // ===== 도구 구현 (타입 있는 결과) =====
 
-                    // 3. Keyword Search (DB Direct) - Hybrid Approach
-                    // This ensures specifically named items (e.g. "Zara") are definitely found
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> dbMatches = wardrobeService
-                            .searchClothesByKeyword(uid, keyword);
-
-                    // 4. Merge & Deduplicate
-                    for (com.rebirth.my.wardrobe.WardrobeVo dbItem : dbMatches) {
-                        boolean exists = false;
-                        for (com.rebirth.my.wardrobe.WardrobeVo existing : mergedClothes) {
-                            if (existing.getClothesId().equals(dbItem.getClothesId())) {
-                                exists = true;
-                                break;
-                            }
-                        }
-                        if (!exists) {
-                            mergedClothes.add(dbItem);
-                        }
-                    }
+    public ToolResults.WardrobeSummary getWardrobeSummary(String userId) {
+        return new ToolResults.WardrobeSummary(wardrobeService.getMyWardrobe(userId).size());
+    }
 
-                    // 5. Season Filter (날씨 기반 필터링)
-                    String userAddress = getUserAddress(uid);
-                    String currentSeason = weatherService.getCurrentSeason(userAddress);
-                    System.out.println("🌤️ [FunctionDispatcher] 현재 계절: " + currentSeason);
-
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> seasonFiltered = mergedClothes.stream()
-                            .filter(c -> isSeasonMatch(c.getSeason(), currentSeason))
-                            .collect(java.util.stream.Collectors.toList());
-
-                    // 만약 계절 필터링 후 결과가 없으면 원본 사용
-                    if (!seasonFiltered.isEmpty()) {
-                        mergedClothes = seasonFiltered;
-                        System.out.println("🌤️ [FunctionDispatcher] 계절 필터링 적용: " + mergedClothes.size() + "개");
-                    } else {
-                        System.out.println("⚠️ [FunctionDispatcher] 계절 필터링 결과 없음, 전체 결과 사용");
-                    }
+    public ToolResults.OutfitRecommendation recommendOutfit() {
+        return new ToolResults.OutfitRecommendation("White Linen Shirt", "Beige Chinos", "Good for sunny weather");
+    }
 
-                    if (mergedClothes.isEmpty())
-                        return "{\"results\": [], \"message\": \"No similar items found.\"}";
-
-                    // 5. Serialize to JSON
-                    StringBuilder sb = new StringBuilder("{\"results\": [");
-                    for (int i = 0; i < mergedClothes.size(); i++) {
-                        com.rebirth.my.wardrobe.WardrobeVo c = mergedClothes.get(i);
-
-                        // Robust Name Resolution
-                        String displayName = c.getName();
-
-                        // 1. If Name exists and is NOT just "Category" (e.g. not just "Top"), use it.
-                        // Only trigger fallback if Name is missing OR it is literally identical to the
-                        // category (lazy naming)
-                        boolean isLazyName = (displayName != null && c.getCategory() != null
-                                && displayName.trim().equalsIgnoreCase(c.getCategory().trim()));
-
-                        if (displayName == null || displayName.trim().isEmpty()
-                                || "Unknown".equalsIgnoreCase(displayName) || isLazyName) {
-
-                            // Fallback: Construct name from Color + Category
-                            String color = c.getColor() != null ? c.getColor() : "";
-                            String category = c.getCategory() != null ? c.getCategory() : "의류";
-
-                            // 2. Hide "Generic" Brand
-                            String brand = c.getBrand();
-                            if (brand == null || "Generic".equalsIgnoreCase(brand) || "Brand".equalsIgnoreCase(brand)) {
-                                brand = ""; // Suppress generic brand
-                            }
-
-                            // Construct Name: [Color] [Category]
-                            displayName = String.format("%s %s", color, category).trim().replaceAll("\\s+", " ");
-
-                            // If resulting name is empty (rare), just use Category
-                            if (displayName.isEmpty())
-                                displayName = category;
-                        }
-
-                        // JSON Construction
-                        String finalBrand = c.getBrand();
-                        if (finalBrand == null || "Generic".equalsIgnoreCase(finalBrand)
-                                || "Brand".equalsIgnoreCase(finalBrand)) {
-                            finalBrand = ""; // Pass empty string for Generic brand
-                        }
-
-                        sb.append(String.format(
-                                "{\"id\":%s, \"name\":\"%s\", \"category\":\"%s\", \"brand\":\"%s\", \"color\":\"%s\", \"season\":\"%s\"}",
-                                c.getClothesId(),
-                                displayName.replace("\"", "\\\"").replace("'", ""),
-                                c.getCategory().replace("\"", "\\\"").replace("'", ""),
-                                finalBrand.replace("\"", "\\\"").replace("'", ""),
-                                c.getColor() != null ? c.getColor().replace("\"", "\\\"").replace("'", "") : "",
-                                c.getSeason() != null ? c.getSeason().replace("\"", "\\\"").replace("'", "") : ""));
-                        if (i < mergedClothes.size() - 1)
-                            sb.append(",");
-                    }
-                    sb.append("]}");
-                    String result = sb.toString();
-                    System.out.println("🔍 [DEBUG] FunctionDispatcher searchStyle Result:");
-                    System.out.println(result);
-                    return result;
-
-                case "recommendUpcycling":
-                    // 사용자 옷장에서 오래된/안 입는 옷 추천
-                    String upcycleUserId = (String) arguments.get("userId");
-                    if (upcycleUserId == null)
-                        return "{\"error\": \"userId is required\"}";
-
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> allClothes = wardrobeService
-                            .getMyWardrobe(upcycleUserId);
-
-                    // 간단히 랜덤 2개 선택 (실제로는 등록일 기준 정렬 가능)
-                    java.util.Collections.shuffle(allClothes);
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> upcycleCandidates = allClothes.stream().limit(2)
-                            .collect(java.util.stream.Collectors.toList());
-
-                    StringBuilder upcycleSb = new StringBuilder();
-                    upcycleSb.append("{\"suggestions\": [");
-                    for (int i = 0; i < upcycleCandidates.size(); i++) {
-                        com.rebirth.my.wardrobe.WardrobeVo item = upcycleCandidates.get(i);
-                        String itemName = item.getName() != null ? item.getName() : item.getCategory();
-                        String idea = getUpcyclingIdea(item.getCategory());
-                        upcycleSb.append(String.format(
-                                "{\"item\": \"%s\", \"category\": \"%s\", \"idea\": \"%s\", \"carbonSaved\": \"0.3kg\"}",
-                                itemName.replace("\"", ""),
-                                item.getCategory(),
-                                idea));
-                        if (i < upcycleCandidates.size() - 1)
-                            upcycleSb.append(",");
-                    }
-                    upcycleSb.append("]}");
-                    return upcycleSb.toString();
-
-                case "getRecentOutfits":
-                    // 최근 등록한 옷 조회
-                    String outfitUserId = (String) arguments.get("userId");
-                    int limit = arguments.containsKey("limit") ? Integer.parseInt(arguments.get("limit").toString())
-                            : 5;
-
-                    if (outfitUserId == null)
-                        return "{\"error\": \"userId is required\"}";
-
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> recentClothes = wardrobeService
-                            .getMyWardrobe(outfitUserId);
-
-                    // 최근 N개만
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> limitedClothes = recentClothes.stream()
-                            .limit(limit).collect(java.util.stream.Collectors.toList());
-
-                    StringBuilder recentSb = new StringBuilder();
-                    recentSb.append("{\"recentItems\": [");
-                    for (int i = 0; i < limitedClothes.size(); i++) {
-                        com.rebirth.my.wardrobe.WardrobeVo c = limitedClothes.get(i);
-                        recentSb.append(String.format(
-                                "{\"name\": \"%s\", \"category\": \"%s\", \"brand\": \"%s\"}",
-                                c.getName() != null ? c.getName().replace("\"", "") : "",
-                                c.getCategory(),
-                                c.getBrand() != null ? c.getBrand().replace("\"", "") : ""));
-                        if (i < limitedClothes.size() - 1)
-                            recentSb.append(",");
-                    }
-                    recentSb.append("], \"total\": " + recentClothes.size() + "}");
-                    return recentSb.toString();
-
-                case "getWeatherByTime":
-                    // 외출 시간 기반 날씨 조회
-                    String weatherUserId = (String) arguments.get("userId");
-                    Object hourObj = arguments.get("hour");
-                    int targetHour = 12; // 기본값
-
-                    if (hourObj != null) {
-                        if (hourObj instanceof Number) {
-                            targetHour = ((Number) hourObj).intValue();
-                        } else {
-                            targetHour = Integer.parseInt(hourObj.toString());
-                        }
-                    }
+    public ToolResults.EcoPoints getEcoPoints(String userId) {
+        Long userPk = Long.valueOf(userId);
+        // Fetch from DB
+        return userProfileMapper.findById(userPk)
+                .map(p -> new ToolResults.EcoPoints(p.getEcoPoints() != null ? p.getEcoPoints() : 0, null))
+                .orElse(new ToolResults.EcoPoints(0, "User not found"));
+    }
 
-                    if (weatherUserId == null)
-                        return "{\"error\": \"userId is required\"}";
+    public Object searchStyle(String uid, String keyword) {
+        if (keyword == null || uid == null)
+            return new ToolResults.Error("Missing keyword or userId");
 
-                    // 사용자 주소 조회
-                    String weatherAddress = getUserAddress(weatherUserId);
-                    String weatherForecast = weatherService.getWeatherByTime(weatherAddress, targetHour);
+        // 1. Vector Search
+        List<Long> vectorIds = new ArrayList<>();
+        try {
+            List<Float> queryVector = embeddingClient.getEmbedding(keyword);
+            if (!queryVector.isEmpty()) {
+                vectorIds = milvusClientWrapper.searchSimilar(Long.valueOf(uid), queryVector, 15);
+            }
+        } catch (Exception e) {
+            System.err.println("Vector search failed: " + e.getMessage());
+        }
 
-                    return "{\"forecast\": \"" + weatherForecast.replace("\"", "'") + "\", " +
-                            "\"targetHour\": " + targetHour + ", " +
-                            "\"address\": \"" + (weatherAddress != null ? weatherAddress : "서울") + "\"}";
+        // 2. Fetch Vector Results from Oracle
+        List<WardrobeVo> mergedClothes = new ArrayList<>();
+        if (!vectorIds.isEmpty()) {
+            mergedClothes.addAll(wardrobeService.getClothesByIds(vectorIds));
+        }
 
-                case "getItemsForSale":
-                    // 판매중인 옷만 조회
-                    String saleUserId = (String) arguments.get("userId");
-                    if (saleUserId == null)
-                        return "{\"error\": \"userId is required\"}";
+        // 3. Keyword Search (DB Direct) - Hybrid Approach
+        // This ensures specifically named items (e.g. "Zara") are definitely found
+        List<WardrobeVo> dbMatches = wardrobeService.searchClothesByKeyword(uid, keyword);
 
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> allUserClothes = wardrobeService
-                            .getMyWardrobe(saleUserId);
+        // 4. Merge & Deduplicate
+        Set<String> seen = new LinkedHashSet<>();
+        for (WardrobeVo existing : mergedClothes) {
+            seen.add(existing.getClothesId());
+        }
+        for (WardrobeVo dbItem : dbMatches) {
+            if (seen.add(dbItem.getClothesId())) {
+                mergedClothes.add(dbItem);
+            }
+        }
 
-                    // IS_FOR_SALE = 'Y'인 옷만 필터링
-                    java.util.List<com.rebirth.my.wardrobe.WardrobeVo> forSaleItems = allUserClothes.stream()
-                            .filter(c -> "Y".equals(c.getIsForSale()))
-                            .collect(java.util.stream.Collectors.toList());
+        // 5. Season Filter (날씨 기반 필터링)
+        String userAddress = getUserAddress(uid);
+        String currentSeason = weatherService.getCurrentSeason(userAddress);
+        System.out.println("🌤️ [FunctionDispatcher] 현재 계절: " + currentSeason);
+
+        List<WardrobeVo> seasonFiltered = mergedClothes.stream()
+                .filter(c -> isSeasonMatch(c.getSeason(), currentSeason))
+                .collect(Collectors.toList());
+
+        // 만약 계절 필터링 후 결과가 없으면 원본 사용
+        if (!seasonFiltered.isEmpty()) {
+            mergedClothes = seasonFiltered;
+            System.out.println("🌤️ [FunctionDispatcher] 계절 필터링 적용: " + mergedClothes.size() + "개");
+        } else {
+            System.out.println("⚠️ [FunctionDispatcher] 계절 필터링 결과 없음, 전체 결과 사용");
+        }
 
-                    if (forSaleItems.isEmpty()) {
-                        return "{\"results\": [], \"message\": \"현재 판매중인 옷이 없습니다.\", \"count\": 0}";
-                    }
+        if (mergedClothes.isEmpty())
+            return new ToolResults.StyleSearch(List.of(), "No similar items found.");
+
+        List<ToolResults.StyleMatch> results = new ArrayList<>(mergedClothes.size());
+        for (WardrobeVo c : mergedClothes) {
+            results.add(new ToolResults.StyleMatch(
+                    c.getClothesId(),
+                    displayNameOf(c),
+                    c.getCategory(),
+                    visibleBrand(c.getBrand()),
+                    c.getColor() != null ? c.getColor() : "",
+                    c.getSeason() != null ? c.getSeason() : ""));
+        }
+        System.out.println("🔍 [DEBUG] FunctionDispatcher searchStyle: " + results.size() + " results");
+        return new ToolResults.StyleSearch(results, null);
+    }
 
-                    StringBuilder saleSb = new StringBuilder();
-                    saleSb.append("{\"results\": [");
-                    for (int i = 0; i < forSaleItems.size(); i++) {
-                        com.rebirth.my.wardrobe.WardrobeVo c = forSaleItems.get(i);
-                        String itemName = c.getName() != null ? c.getName() : c.getCategory();
-                        String brand = c.getBrand();
-                        if (brand == null || "Generic".equalsIgnoreCase(brand)) {
-                            brand = "";
-                        }
-                        saleSb.append(String.format(
-                                "{\"id\":%s, \"name\":\"%s\", \"category\":\"%s\", \"brand\":\"%s\"}",
-                                c.getClothesId(),
-                                itemName.replace("\"", "").replace("'", ""),
-                                c.getCategory() != null ? c.getCategory() : "",
-                                brand.replace("\"", "").replace("'", "")));
-                        if (i < forSaleItems.size() - 1)
-                            saleSb.append(",");
-                    }
-                    saleSb.append("], \"count\": " + forSaleItems.size() + "}");
-                    System.out.println("🏷️ [DEBUG] getItemsForSale Result: " + saleSb.toString());
-                    return saleSb.toString();
+    public Object recommendUpcycling(String userId) {
+        // 사용자 옷장에서 오래된/안 입는 옷 추천
+        if (userId == null)
+            return new ToolResults.Error("userId is required");
+
+        List<WardrobeVo> allClothes = wardrobeService.getMyWardrobe(userId);
+
+        // 간단히 랜덤 2개 선택 (실제로는 등록일 기준 정렬 가능)
+        Collections.shuffle(allClothes);
+        List<ToolResults.UpcyclingSuggestion> suggestions = allClothes.stream().limit(2)
+                .map(item -> new ToolResults.UpcyclingSuggestion(
+                        item.getName() != null ? item.getName() : item.getCategory(),
+                        item.getCategory(),
+                        getUpcyclingIdea(item.getCategory()),
+                        "0.3kg"))
+                .collect(Collectors.toList());
+        return new ToolResults.UpcyclingSuggestions(suggestions);
+    }
 
-                case "getOotdSchedule":
-                    // OOTD 캘린더에서 특정 날짜의 스케줄 조회
-                    String ootdUserId = (String) arguments.get("userId");
-                    String dateStr = (String) arguments.get("date"); // "2024-12-31" 형식
+    public Object getRecentOutfits(String userId, int limit) {
+        // 최근 등록한 옷 조회
+        if (userId == null)
+            return new ToolResults.Error("userId is required");
+
+        List<WardrobeVo> recentClothes = wardrobeService.getMyWardrobe(userId);
+
+        // 최근 N개만
+        List<ToolResults.RecentItem> items = recentClothes.stream()
+                .limit(limit)
+                .map(c -> new ToolResults.RecentItem(
+                        c.getName() != null ? c.getName() : "",
+                        c.getCategory(),
+                        c.getBrand() != null ? c.getBrand() : ""))
+                .collect(Collectors.toList());
+        return new ToolResults.RecentOutfits(items, recentClothes.size());
+    }
 
-                    if (ootdUserId == null || dateStr == null) {
-                        return "{\"error\": \"userId and date are required\"}";
-                    }
+    public Object getWeatherByTime(String userId, int targetHour) {
+        // 외출 시간 기반 날씨 조회
+        if (userId == null)
+            return new ToolResults.Error("userId is required");
 
-                    try {
-                        Long ootdUserPk = Long.valueOf(ootdUserId);
-                        java.sql.Date eventDate = java.sql.Date.valueOf(dateStr);
-                        OotdCalendarVo schedule = ootdDao.selectCalendarEventByDate(ootdUserPk, eventDate);
-
-                        if (schedule != null) {
-                            String memo = schedule.getTitle() != null ? schedule.getTitle() : "메모 없음";
-                            return String.format(
-                                    "{\"found\": true, \"date\": \"%s\", \"memo\": \"%s\", \"hasImage\": %s}",
-                                    dateStr,
-                                    memo.replace("\"", "'"),
-                                    schedule.getImageBase64() != null && !schedule.getImageBase64().isEmpty());
-                        } else {
-                            return "{\"found\": false, \"date\": \"" + dateStr
-                                    + "\", \"message\": \"해당 날짜에 저장된 OOTD가 없습니다.\"}";
-                        }
-                    } catch (Exception e) {
-                        return "{\"error\": \"날짜 형식 오류: " + e.getMessage() + "\"}";
-                    }
+        // 사용자 주소 조회
+        String weatherAddress = getUserAddress(userId);
+        String weatherForecast = weatherService.getWeatherByTime(weatherAddress, targetHour);
+
+        return new ToolResults.WeatherForecast(weatherForecast, targetHour,
+                weatherAddress != null ? weatherAddress : "서울");
+    }
+
+    public ToolResults.ItemsForSale getItemsForSale(String userId) {
+        // 판매중인 옷만 조회 (IS_FOR_SALE = 'Y')
+        List<ToolResults.SaleItem> items = wardrobeService.getMyWardrobe(userId).stream()
+                .filter(c -> "Y".equals(c.getIsForSale()))
+                .map(c -> new ToolResults.SaleItem(
+                        c.getClothesId(),
+                        c.getName() != null ? c.getName() : c.getCategory(),
+                        c.getCategory() != null ? c.getCategory() : "",
+                        c.getBrand() == null || "Generic".equalsIgnoreCase(c.getBrand()) ? "" : c.getBrand()))
+                .collect(Collectors.toList());
+
+        if (items.isEmpty()) {
+            return new ToolResults.ItemsForSale(items, "현재 판매중인 옷이 없습니다.", 0);
+        }
+        return new ToolResults.ItemsForSale(items, null, items.size());
+    }
+
+    public ToolResults.OotdSchedule getOotdSchedule(String userId, LocalDate date) {
+        // OOTD 캘린더에서 특정 날짜의 스케줄 조회
+        OotdCalendarVo schedule = ootdDao.selectCalendarEventByDate(Long.valueOf(userId), java.sql.Date.valueOf(date));
+
+        if (schedule == null) {
+            return new ToolResults.OotdSchedule(false, date.toString(), null, null, "해당 날짜에 저장된 OOTD가 없습니다.");
+        }
+        String memo = schedule.getTitle() != null ? schedule.getTitle() : "메모 없음";
+        boolean hasImage = schedule.getImageBase64() != null && !schedule.getImageBase64().isEmpty();
+        return new ToolResults.OotdSchedule(true, date.toString(), memo, hasImage, null);
+    }
 
-                default:
-                    return "{\"error\": \"Function not found: " + functionName + "\"}";
+    private static String userIdOf(Map<String, Object> args) {
+        Object userId = args.get("userId");
+        return userId != null ? userId.toString() : null;
+    }
+
+    /**
+     * 모델이 넘긴 개수 (JSON 숫자는 5.0 같은 Double로 올 수 있음), 1~20으로 제한
+     */
+    private static int limitOf(Object limitObj) {
+        int limit = 5; // 기본값
+        if (limitObj instanceof Number) {
+            limit = ((Number) limitObj).intValue();
+        } else if (limitObj != null) {
+            try {
+                limit = (int) Double.parseDouble(limitObj.toString().trim());
+            } catch (NumberFormatException e) {
+                // 해석 불가 → 기본값
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "{\"error\": \"Execution failed: " + e.getMessage() + "\"}";
         }
+        return Math.max(1, Math.min(limit, 20));
+    }
+
+    private static int hourOf(Object hourObj) {
+        if (hourObj == null)
+            return 12; // 기본값
+        if (hourObj instanceof Number)
+            return ((Number) hourObj).intValue();
+        return Integer.parseInt(hourObj.toString());
+    }
+
+    /**
+     * 이름이 없거나 카테고리와 같은 경우(lazy naming) "색상 카테고리"로 대체
+     */
+    private static String displayNameOf(WardrobeVo c) {
+        String displayName = c.getName();
+
+        // 1. If Name exists and is NOT just "Category" (e.g. not just "Top"), use it.
+        boolean isLazyName = (displayName != null && c.getCategory() != null
+                && displayName.trim().equalsIgnoreCase(c.getCategory().trim()));
+
+        if (displayName == null || displayName.trim().isEmpty()
+                || "Unknown".equalsIgnoreCase(displayName) || isLazyName) {
+            // Fallback: Construct name from Color + Category
+            String color = c.getColor() != null ? c.getColor() : "";
+            String category = c.getCategory() != null ? c.getCategory() : "의류";
+
+            // Construct Name: [Color] [Category]
+            displayName = (color + " " + category).trim().replaceAll("\\s+", " ");
+
+            // If resulting name is empty (rare), just use Category
+            if (displayName.isEmpty())
+                displayName = category;
+        }
+        return displayName;
+    }
+
+    /**
+     * "Generic"/"Brand" 같은 의미 없는 브랜드는 빈 문자열로
+     */
+    private static String visibleBrand(String brand) {
+        if (brand == null || "Generic".equalsIgnoreCase(brand) || "Brand".equalsIgnoreCase(brand))
+            return "";
+        return brand;
     }
 
     /**
@@ -1,29 +1,40 @@
 package com.rebirth.my.chat.component;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.ObjectMapper;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 // @Primary - Disable Gemini as default, switched to Groq
-public class GeminiLlmClient implements LlmClient, InitializingBean {
+public class GeminiLlmClient implements LlmClient, LlmBackend, InitializingBean {
 
     @Value("${google.gemini.api-key}")
     private String apiKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     // Strategy configuration class
     static class ApiConfig {
@@ -47,112 +58,274 @@ public class GeminiLlmClient implements LlmClient, InitializingBean {
             new ApiConfig("v1beta", "gemini-1.0-pro") // 3. Legacy Backup
     };
 
-    private ApiConfig workingConfig = null;
+    // 네이티브 function calling을 쓰지 않을 때 프롬프트에 붙이는 텍스트 도구 호출 규칙
+    private static final String CALL_DIRECTIVE_GUIDE = """
+
+            IMPORTANT: If you need to use a tool/function based on the user request, response ONLY with the exact format: CALL: functionName:argument (if needed) or CALL: functionName
+            Available Functions:
+            - recommendOutfit (requires weather info implied or collected)
+            - getWardrobeSummary (userId implied)
+            - getEcoPoints (userId implied)
+            - searchStyle (keyword implied from user mood/request e.g. 'dating look', 'hip style', 'formal')
+
+            """;
+
+    // 모든 모델 실패 시 사용하는 규칙 기반 응답기
+    @Autowired
+    private MockLlmClient ruleBasedFallback;
 
     @Override
     public void afterPropertiesSet() {
+        restTemplate = outboundHttpClients.restTemplate("gemini");
         System.out.println("====== GeminiLlmClient Initialized (2025 Update) ======");
         System.out.println("API Key Present: " + (apiKey != null && !apiKey.isEmpty()));
     }
 
     @Override
-    public String generateResponse(String systemPrompt, String userMessage, String context) {
-        // Create Request Entity
-        HttpEntity<Map<String, Object>> entity = createRequestEntity(systemPrompt, userMessage, context);
+    public String name() {
+        return "gemini";
+    }
 
-        // 1. Try Cached Config
-        if (workingConfig != null) {
-            try {
-                return executeRequest(workingConfig, entity);
-            } catch (Exception e) {
-                System.out.println("Cached config " + workingConfig + " failed. Resetting fallback.");
-                workingConfig = null;
-            }
+    @Override
+    public List<String> models() {
+        List<String> models = new ArrayList<>();
+        for (ApiConfig config : TARGET_CONFIGS) {
+            models.add(config.modelName);
+        }
+        return models;
+    }
+
+    @Override
+    public String generate(String model, String systemPrompt, String userMessage, String context,
+            ToolSession tools) {
+        ApiConfig config = configFor(model);
+        if (tools == null) {
+            HttpEntity<Map<String, Object>> entity = createRequestEntity(systemPrompt, userMessage, context);
+            return executeRequest(config, entity);
         }
 
-        // 2. Fallback Loop
+        // Native function calling: 한 턴의 functionCall들은 병렬 실행 후 functionResponse로 한 번에 돌려보낸다
+        Map<String, Object> requestBody = createRequestBody(systemPrompt, userMessage, context, true);
+        for (int round = 0;; round++) {
+            boolean allowCalls = round < tools.maxRounds();
+            declareTools(requestBody, tools, allowCalls);
+
+            Map content = firstContent(executeRaw(config, new HttpEntity<>(requestBody, jsonHeaders())));
+            if (content == null)
+                return "답변을 생성하지 못했습니다.";
+
+            List<Map> parts = (List<Map>) content.get("parts");
+            List<ToolCall> calls = allowCalls ? functionCallsOf(parts) : List.of();
+            if (calls.isEmpty())
+                return textOf(parts);
+
+            appendFunctionResponses(requestBody, parts, calls, tools.execute(calls));
+        }
+    }
+
+    @Override
+    public String stream(String model, String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        ApiConfig config = configFor(model);
+        String urlStr = String.format(
+                "https://generativelanguage.googleapis.com/%s/models/%s:streamGenerateContent?alt=sse&key=%s",
+                config.version, config.modelName, apiKey);
+
+        Map<String, Object> requestBody = createRequestBody(systemPrompt, userMessage, context, tools != null);
+        StringBuilder full = new StringBuilder();
+        for (int round = 0;; round++) {
+            boolean allowCalls = tools != null && round < tools.maxRounds();
+            if (tools != null)
+                declareTools(requestBody, tools, allowCalls);
+
+            List<Map> modelParts = new ArrayList<>();
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, jsonHeaders());
+            restTemplate.execute(URI.create(urlStr), HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                    response -> {
+                        SseEventReader.read(response.getBody(), data -> {
+                            List<Map> parts = extractStreamParts(data);
+                            modelParts.addAll(parts);
+                            String token = textOf(parts);
+                            if (!token.isEmpty()) {
+                                full.append(token);
+                                onToken.accept(token);
+                            }
+                        });
+                        return null;
+                    });
+
+            List<ToolCall> calls = allowCalls ? functionCallsOf(modelParts) : List.of();
+            if (calls.isEmpty())
+                break;
+
+            appendFunctionResponses(requestBody, modelParts, calls, tools.execute(calls));
+        }
+
+        if (full.length() == 0) {
+            throw new IllegalStateException("Gemini stream returned no content (" + config + ")");
+        }
+        return full.toString();
+    }
+
+    /**
+     * 단독 사용 시: 모델을 순서대로 시도하고 모두 실패하면 규칙 기반 응답.
+     * (일반 경로에서는 RoutingLlmClient가 모델별 circuit breaker로 선택한다)
+     */
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context) {
+        return generateResponse(systemPrompt, userMessage, context, (ToolSession) null);
+    }
+
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context, ToolSession tools) {
         StringBuilder errorLog = new StringBuilder();
         for (ApiConfig config : TARGET_CONFIGS) {
             try {
-                System.out.println("Trying Gemini Config: " + config);
-                String result = executeRequest(config, entity);
-
-                // Success!
-                System.out.println("SUCCESS! Connected to " + config);
-                workingConfig = config;
-                return result;
-
+                return generate(config.modelName, systemPrompt, userMessage, context, tools);
             } catch (Exception e) {
                 String msg = String.format("[%s] %s", config, e.getMessage());
                 System.err.println(msg);
                 errorLog.append(msg).append("\n");
-
-                // Check specifically for 429 (Rate Limit) to trigger special fallback later
-                if (e instanceof org.springframework.web.client.HttpClientErrorException) {
-                    if (((org.springframework.web.client.HttpClientErrorException) e).getStatusCode().value() == 429) {
-                        System.err.println("Gemini 429 detected on " + config + ". Will try next model or fallback.");
-                    }
-                }
             }
         }
 
-        // 3. All Failed -> Check if we need Rule-Based Fallback (Smart Mode)
-        // If we reached here, it means ALL models failed (including 429s).
-        System.err.println("All Gemini models failed. Switching to Rule-Based Fallback.");
-
-        // 1. Critical Data Queries - Return "죄송합니다" to trigger ChatbotService's DB
-        // lookup
-        if ((userMessage.contains("에코") && (userMessage.contains("포인트") || userMessage.contains("점수")))
-                || (userMessage.contains("옷장") && (userMessage.contains("몇")
-                        || userMessage.contains("개") || userMessage.contains("목록")
-                        || userMessage.contains("뭐") || userMessage.contains("있어") || userMessage.contains("보여줘")))) {
-            return "죄송합니다. 데이터 시스템 연결을 시도합니다.";
-        }
-
-        // 2. Small Talk & Safety Responses
-        if (userMessage.contains("확실해") || userMessage.contains("진짜")) {
-            return "네, 확실합니다! 고객님의 정보는 시스템에서 실시간으로 조회한 정확한 데이터입니다. 믿으셔도 됩니다.";
-        } else if (userMessage.contains("안녕") || userMessage.contains("반가")
-                || userMessage.toLowerCase().contains("hello")) {
-            return "안녕하세요! Re:birth 패션 AI입니다. 오늘도 스타일리시한 하루 되세요!";
-        } else if (userMessage.contains("뭐해") || userMessage.contains("바빠")) {
-            return "고객님의 옷장을 분석하고 가장 멋진 코디를 고민하고 있었어요. ";
-        } else if (userMessage.contains("사랑") || userMessage.contains("좋아")) {
-            return "어머, 감사합니다! 저도 고객님과 함께해서 행복해요. ";
-        } else if (userMessage.contains("심심") || userMessage.contains("놀아")) {
-            return "저랑 패션 밸런스 게임 어때요? '평생 패딩 입기' vs '평생 반팔 입기' 골라보세요! ";
-        } else if (userMessage.contains("배고파") || userMessage.contains("메뉴")) {
-            return "식사 메뉴 고르는 건 옷 고르는 것만큼 어렵죠. 오늘은 가벼운 샐러드 어떠세요? ";
-        } else if (userMessage.contains("추천") || userMessage.contains("코디")) {
-            return "지금 패션 AI의 영감이 잠시 충전 중입니다. \n대신 '내 옷장'을 열어보시면 잊고 있던 멋진 옷을 발견하실지도 몰라요!";
-        } else if (userMessage.contains("방법") || userMessage.contains("어떻게")) {
-            return "죄송합니다. 상세한 안내는 잠시 후 다시 시도해주세요. 궁금한 점은 언제든 물어봐주세요!";
-        }
-
-        // 3.5 Site Info Fallback (When LLM fails)
-        if (userMessage.contains("사이트") || userMessage.contains("리버스") || userMessage.contains("누구")
-                || userMessage.contains("뭐야")) {
-            return "Re:birth는 안 입는 옷을 업사이클링하고, 나만의 디지털 옷장을 관리하며 탄소 중립을 실천하는 지속 가능한 패션 플랫폼입니다.";
-        }
-
-        // 4. Detailed Error Report (Last Resort)
         // Log errors to server console only, do NOT show to user
-        if (errorLog.length() > 0) {
-            System.err.println("Gemini API All Failed:\n" + errorLog.toString());
+        System.err.println("Gemini API All Failed:\n" + errorLog);
+        return ruleBasedFallback.generateResponse(systemPrompt, userMessage, context);
+    }
+
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context,
+            Consumer<String> onToken) {
+        return streamResponse(systemPrompt, userMessage, context, null, onToken);
+    }
+
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        try {
+            return stream(TARGET_CONFIGS[0].modelName, systemPrompt, userMessage, context, tools, onToken);
+        } catch (Exception e) {
+            System.err.println("Gemini streaming failed: " + e.getMessage());
+        }
+
+        String response = generateResponse(systemPrompt, userMessage, context, tools);
+        onToken.accept(response);
+        return response;
+    }
+
+    /**
+     * functionDeclarations / functionCallingConfig 선언 (마지막 라운드는 NONE으로 최종 답변을 강제)
+     */
+    private void declareTools(Map<String, Object> requestBody, ToolSession tools, boolean allowCalls) {
+        List<Map<String, Object>> declarations = new ArrayList<>();
+        for (ToolDescriptor tool : tools.tools()) {
+            Map<String, Object> declaration = new HashMap<>();
+            declaration.put("name", tool.name());
+            declaration.put("description", tool.description());
+            // Gemini는 빈 properties 스키마를 거부하므로 인자 없는 도구는 parameters를 생략
+            Map<?, ?> properties = (Map<?, ?>) tool.parameters().get("properties");
+            if (properties != null && !properties.isEmpty())
+                declaration.put("parameters", tool.parameters());
+            declarations.add(declaration);
+        }
+        requestBody.put("tools", List.of(Map.of("functionDeclarations", declarations)));
+        requestBody.put("toolConfig",
+                Map.of("functionCallingConfig", Map.of("mode", allowCalls ? "AUTO" : "NONE")));
+    }
+
+    /**
+     * model의 functionCall 턴과 functionResponse 턴(호출 순서대로)을 대화에 덧붙인다.
+     */
+    @SuppressWarnings("unchecked")
+    private void appendFunctionResponses(Map<String, Object> requestBody, List<Map> modelParts,
+            List<ToolCall> calls, List<String> results) {
+        List<Map<String, Object>> contents = (List<Map<String, Object>>) requestBody.get("contents");
+        contents.add(Map.of("role", "model", "parts", modelParts));
+
+        List<Map<String, Object>> responseParts = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            Object response;
+            try {
+                response = objectMapper.readValue(results.get(i), Map.class);
+            } catch (Exception e) {
+                response = Map.of("result", results.get(i));
+            }
+            responseParts.add(Map.of("functionResponse",
+                    Map.of("name", calls.get(i).name(), "response", response)));
         }
+        contents.add(Map.of("role", "user", "parts", responseParts));
+    }
 
-        // Friendly Fallback Message for User
-        return "죄송합니다. 현재 질문에 대해서는 답변을 드리기가 어렵습니다. \n다른 질문을 해주시면 답변 도와드리겠습니다.";
+    @SuppressWarnings("unchecked")
+    private List<ToolCall> functionCallsOf(List<Map> parts) {
+        if (parts == null)
+            return List.of();
+        List<ToolCall> calls = new ArrayList<>();
+        for (Map part : parts) {
+            Map functionCall = (Map) part.get("functionCall");
+            if (functionCall != null) {
+                Map<String, Object> args = (Map<String, Object>) functionCall.get("args");
+                calls.add(new ToolCall(null, (String) functionCall.get("name"), args != null ? args : Map.of()));
+            }
+        }
+        return calls;
+    }
+
+    private static String textOf(List<Map> parts) {
+        if (parts == null)
+            return "";
+        StringBuilder text = new StringBuilder();
+        for (Map part : parts) {
+            if (part.get("text") != null)
+                text.append(part.get("text"));
+        }
+        return text.toString();
+    }
+
+    private static Map firstContent(Map responseBody) {
+        if (responseBody == null)
+            return null;
+        List<Map> candidates = (List<Map>) responseBody.get("candidates");
+        if (candidates == null || candidates.isEmpty())
+            return null;
+        return (Map) candidates.get(0).get("content");
+    }
+
+    private ApiConfig configFor(String model) {
+        for (ApiConfig config : TARGET_CONFIGS) {
+            if (config.modelName.equals(model))
+                return config;
+        }
+        throw new IllegalArgumentException("Unknown Gemini model: " + model);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map> extractStreamParts(String data) {
+        try {
+            Map<String, Object> chunk = objectMapper.readValue(data, Map.class);
+            Map content = firstContent(chunk);
+            if (content != null && content.get("parts") != null) {
+                return (List<Map>) content.get("parts");
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to parse Gemini stream chunk: " + e.getMessage());
+        }
+        return List.of();
     }
 
     private String executeRequest(ApiConfig config, HttpEntity<Map<String, Object>> entity) {
+        return extractTextFromResponse(executeRaw(config, entity));
+    }
+
+    private Map executeRaw(ApiConfig config, HttpEntity<Map<String, Object>> entity) {
         // Build URI manually to prevent encoding issues with ':'
         String urlStr = String.format("https://generativelanguage.googleapis.com/%s/models/%s:generateContent?key=%s",
                 config.version, config.modelName, apiKey);
 
         URI uri = URI.create(urlStr);
         ResponseEntity<Map> response = restTemplate.postForEntity(uri, entity, Map.class);
-        return extractTextFromResponse(response.getBody());
+        return response.getBody();
     }
 
     private String fetchAvailableModelsDiagnostics() {
@@ -177,6 +350,14 @@ public class GeminiLlmClient implements LlmClient, InitializingBean {
 
     private HttpEntity<Map<String, Object>> createRequestEntity(String systemPrompt, String userMessage,
             String context) {
+        return new HttpEntity<>(createRequestBody(systemPrompt, userMessage, context, false), jsonHeaders());
+    }
+
+    /**
+     * @param nativeTools true면 도구를 functionDeclarations로 선언하므로 "CALL:" 텍스트 지시문을 넣지 않는다
+     */
+    private Map<String, Object> createRequestBody(String systemPrompt, String userMessage, String context,
+            boolean nativeTools) {
         String finalPrompt = String.format(
                 """
                         <System>
@@ -190,17 +371,10 @@ public class GeminiLlmClient implements LlmClient, InitializingBean {
                         <User>
                         %s
                         </User>
-
-                        IMPORTANT: If you need to use a tool/function based on the user request, response ONLY with the exact format: CALL: functionName:argument (if needed) or CALL: functionName
-                        Available Functions:
-                        - recommendOutfit (requires weather info implied or collected)
-                        - getWardrobeSummary (userId implied)
-                        - getEcoPoints (userId implied)
-                        - searchStyle (keyword implied from user mood/request e.g. 'dating look', 'hip style', 'formal')
-
+                        %s
                         User question: %s
                         """,
-                systemPrompt, context, userMessage, userMessage);
+                systemPrompt, context, userMessage, nativeTools ? "" : CALL_DIRECTIVE_GUIDE, userMessage);
 
         Map<String, Object> requestBody = new HashMap<>();
         List<Map<String, Object>> contents = new ArrayList<>();
@@ -210,15 +384,18 @@ public class GeminiLlmClient implements LlmClient, InitializingBean {
 
         textPart.put("text", finalPrompt);
         parts.add(textPart);
+        contentPart.put("role", "user");
         contentPart.put("parts", parts);
         contents.add(contentPart);
 
         requestBody.put("contents", contents);
+        return requestBody;
+    }
 
+    private static HttpHeaders jsonHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-
-        return new HttpEntity<>(requestBody, headers);
+        return headers;
     }
 
     private String extractTextFromResponse(Map responseBody) {
@@ -1,20 +1,31 @@
 package com.rebirth.my.chat.component;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
+import com.rebirth.my.domain.GeocodeEntry;
+import com.rebirth.my.mapper.GeocodeCacheMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * 주소를 위도/경도로 변환하는 서비스 (Kakao Geocoding API)
@@ -23,6 +34,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * 1. 정제된 주소로 주소 검색 API 시도
  * 2. 원본 주소로 키워드 검색 API 시도
  * 3. 실패 시 null 반환 (GridConverter에서 도시명 기반 기본좌표 사용)
+ *
+ * 2단계 캐시:
+ * - 메모리: 크기 제한 LRU (geocoding.cache.max-size)
+ * - 영구: GEOCODE_CACHE 테이블 (재시작 후에도 유지, DB 장애 시 메모리 캐시만 사용)
+ * Kakao가 "결과 없음"으로 확정한 주소는 negative 캐시로 TTL 동안 재조회하지 않는다.
+ * 네트워크/HTTP 오류는 캐시하지 않는다.
  */
 @Component
 public class GeocodingService {
@@ -32,10 +49,57 @@ public class GeocodingService {
     @Value("${kakao.rest-api-key}")
     private String kakaoApiKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
 
-    // 주소별 좌표 캐시 (영구 보관 - 주소는 변하지 않음)
-    private final Map<String, double[]> cache = new ConcurrentHashMap<>();
+    @Autowired
+    private GeocodeCacheMapper geocodeCacheMapper;
+
+    @Autowired
+    private RegionCentroids regionCentroids;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${geocoding.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${geocoding.cache.negative-ttl-hours:24}")
+    private long negativeTtlHours;
+
+    @Value("${geocoding.cache.persistent-enabled:true}")
+    private boolean persistentEnabled;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void initRestTemplate() {
+        restTemplate = outboundHttpClients.restTemplate("kakao-local");
+        Gauge.builder("geocoding.cache.size", this, GeocodingService::cacheSize).register(meterRegistry);
+    }
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * 캐시 항목. coords == null 이면 negative (변환 불가로 확정된 주소)
+     */
+    private static class CachedCoords {
+        final double[] coords;
+        final long expiresAt;
+
+        CachedCoords(double[] coords, long expiresAt) {
+            this.coords = coords;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // 주소별 좌표 캐시 (메모리 tier, LRU)
+    private final LinkedHashMap<String, CachedCoords> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCoords> eldest) {
+            return size() > maxSize;
+        }
+    };
 
     // 주소 검색 API
     private static final String ADDRESS_SEARCH_URL = "https://dapi.kakao.com/v2/local/search/address.json?query=";
@@ -49,43 +113,186 @@ public class GeocodingService {
      * @return double[]{위도, 경도} 또는 null
      */
     public double[] getCoordinates(String address) {
+        try {
+            return resolve(address);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * getCoordinates와 같지만 API 오류를 예외로 전달한다.
+     * "결과 없음"(null)과 일시적 오류를 구분해야 하는 호출자용 (예: 좌표 백필 작업)
+     *
+     * @return double[]{위도, 경도}, 변환 불가로 확정되면 null
+     * @throws RuntimeException Kakao API 호출 실패 (캐시되지 않음)
+     */
+    public double[] resolve(String address) {
         if (address == null || address.trim().isEmpty()) {
             log.debug("[Geocoding] 주소가 비어있음 - 스킵");
             return null;
         }
 
-        // 캐시 확인
-        if (cache.containsKey(address)) {
-            log.debug("[Geocoding] 캐시 히트: {}", address);
-            return cache.get(address);
+        String key = cacheKey(address);
+
+        // 1. 메모리 캐시
+        CachedCoords cached = fromMemory(key);
+        if (cached != null) {
+            count("memory", cached.coords != null ? "hit" : "negative");
+            log.debug("[Geocoding] 캐시 히트: {}", key);
+            return copy(cached.coords);
+        }
+
+        // 2. 영구 캐시
+        cached = fromPersistent(key);
+        if (cached != null) {
+            count("persistent", cached.coords != null ? "hit" : "negative");
+            putMemory(key, cached);
+            return copy(cached.coords);
         }
 
+        // 3. Kakao API
         log.debug("[Geocoding] 변환 시작: {}", address);
-
-        // 1단계: 정제된 주소로 주소 검색 API
         String cleanedAddress = cleanAddress(address);
-        double[] coords = searchByAddress(cleanedAddress);
+        double[] coords;
+        String source;
+        try {
+            // 1단계: 정제된 주소로 주소 검색 API
+            coords = searchByAddress(cleanedAddress);
+            source = "ADDRESS";
+
+            if (coords == null) {
+                log.debug("[Geocoding] 1단계 실패, 2단계 시도...");
+                // 2단계: 정제된 주소로 키워드 검색 API (건물명 인식)
+                coords = searchByKeyword(cleanedAddress);
+                source = "KEYWORD";
+            }
+        } catch (RuntimeException e) {
+            // 일시적 오류는 캐시하지 않음 (다음 요청에서 재시도)
+            count("api", "error");
+            log.warn("[Geocoding] API 호출 실패 (캐시하지 않음): {} - {}", address, e.getMessage());
+            throw e;
+        }
 
         if (coords != null) {
-            cache.put(address, coords);
-            log.info("[Geocoding] 1단계 성공 (주소 검색): {}", cleanedAddress);
-            return coords;
+            count("api", "hit");
+            log.info("[Geocoding] {} 성공: {}", "ADDRESS".equals(source) ? "1단계 (주소 검색)" : "2단계 (키워드 검색)",
+                    cleanedAddress);
+            store(key, coords, source);
+            return copy(coords);
         }
 
-        log.debug("[Geocoding] 1단계 실패, 2단계 시도...");
+        // 3단계: 모두 결과 없음 - negative 캐시 후 null 반환 (GridConverter에서 fallback 처리)
+        count("api", "negative");
+        log.warn("[Geocoding] 모든 단계 실패, 기본값 사용: {}", address);
+        store(key, null, "NONE");
+        return null;
+    }
 
-        // 2단계: 정제된 주소로 키워드 검색 API (건물명 인식)
-        coords = searchByKeyword(cleanedAddress);
+    /**
+     * 네트워크 호출 없이 얻을 수 있는 근사 좌표
+     * 캐시된 정확한 좌표가 있으면 그것을, 없으면 행정구역(시군구/시도) 대표 좌표를 돌려준다.
+     *
+     * @return double[]{위도, 경도} 또는 null
+     */
+    public double[] getApproximateCoordinates(String address) {
+        if (address == null || address.trim().isEmpty())
+            return null;
 
-        if (coords != null) {
-            cache.put(address, coords);
-            log.info("[Geocoding] 2단계 성공 (키워드 검색): {}", cleanedAddress);
-            return coords;
+        String key = cacheKey(address);
+        CachedCoords cached = fromMemory(key);
+        if (cached == null) {
+            cached = fromPersistent(key);
+            if (cached != null)
+                putMemory(key, cached);
+        }
+        if (cached != null && cached.coords != null) {
+            count("memory", "hit");
+            return copy(cached.coords);
         }
 
-        // 3단계: 모두 실패 - null 반환 (GridConverter에서 fallback 처리)
-        log.warn("[Geocoding] 모든 단계 실패, 기본값 사용: {}", address);
-        return null;
+        double[] centroid = regionCentroids.lookup(address);
+        count("region", centroid != null ? "hit" : "miss");
+        return centroid;
+    }
+
+    private CachedCoords fromMemory(String key) {
+        synchronized (cache) {
+            CachedCoords cached = cache.get(key);
+            if (cached != null && System.currentTimeMillis() >= cached.expiresAt) {
+                cache.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void putMemory(String key, CachedCoords cached) {
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+    }
+
+    private CachedCoords fromPersistent(String key) {
+        if (!persistentEnabled)
+            return null;
+        try {
+            GeocodeEntry entry = geocodeCacheMapper.findByAddress(key);
+            if (entry == null)
+                return null;
+
+            if (entry.isResolved() && entry.getLatitude() != null && entry.getLongitude() != null) {
+                return new CachedCoords(new double[] { entry.getLatitude(), entry.getLongitude() }, Long.MAX_VALUE);
+            }
+
+            // negative 항목은 TTL 안에서만 유효 (지나면 API 재조회)
+            LocalDateTime expiresAt = entry.getUpdatedAt() != null
+                    ? entry.getUpdatedAt().plusHours(negativeTtlHours)
+                    : LocalDateTime.MIN;
+            long remainingMs = Duration.between(LocalDateTime.now(), expiresAt).toMillis();
+            return remainingMs > 0 ? new CachedCoords(null, System.currentTimeMillis() + remainingMs) : null;
+        } catch (DataAccessException e) {
+            log.warn("[Geocoding] 영구 캐시 조회 실패 (메모리 캐시만 사용): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, double[] coords, String source) {
+        long expiresAt = coords != null
+                ? Long.MAX_VALUE
+                : System.currentTimeMillis() + Duration.ofHours(negativeTtlHours).toMillis();
+        putMemory(key, new CachedCoords(coords, expiresAt));
+
+        if (!persistentEnabled)
+            return;
+        try {
+            GeocodeEntry entry = new GeocodeEntry();
+            entry.setAddress(key);
+            entry.setResolved(coords != null ? "Y" : "N");
+            entry.setSource(source);
+            if (coords != null) {
+                entry.setLatitude(coords[0]);
+                entry.setLongitude(coords[1]);
+            }
+            geocodeCacheMapper.merge(entry);
+        } catch (DataAccessException e) {
+            log.warn("[Geocoding] 영구 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    private void count(String tier, String outcome) {
+        meterRegistry.counter("geocoding.lookups", "tier", tier, "outcome", outcome).increment();
+    }
+
+    /**
+     * 캐시 키 - 앞뒤/연속 공백 차이로 같은 주소가 여러 번 조회되지 않도록 정규화
+     */
+    static String cacheKey(String address) {
+        return WHITESPACE.matcher(address.trim()).replaceAll(" ");
+    }
+
+    private static double[] copy(double[] coords) {
+        return coords != null ? coords.clone() : null;
     }
 
     /**
@@ -145,85 +352,79 @@ public class GeocodingService {
 
     /**
      * Kakao 주소 검색 API 호출
+     *
+     * @return 좌표, 검색 결과가 없으면 null (HTTP/파싱 오류는 예외로 전달)
      */
     private double[] searchByAddress(String address) {
-        try {
-            String encodedAddress = URLEncoder.encode(address, StandardCharsets.UTF_8);
-            String url = ADDRESS_SEARCH_URL + encodedAddress;
+        String encodedAddress = URLEncoder.encode(address, StandardCharsets.UTF_8);
+        String url = ADDRESS_SEARCH_URL + encodedAddress;
 
-            log.debug("[Geocoding] 주소 검색 API 호출: {}", url);
+        log.debug("[Geocoding] 주소 검색 API 호출: {}", url);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "KakaoAK " + kakaoApiKey);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "KakaoAK " + kakaoApiKey);
 
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
 
-            log.debug("[Geocoding] 응답 상태: {}", response.getStatusCode());
-            log.debug("[Geocoding] 응답 본문: {}", response.getBody());
+        log.debug("[Geocoding] 응답 상태: {}", response.getStatusCode());
+        log.debug("[Geocoding] 응답 본문: {}", response.getBody());
 
-            if (response.getBody() != null) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> documents = (List<Map<String, Object>>) response.getBody().get("documents");
+        if (response.getBody() != null) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> documents = (List<Map<String, Object>>) response.getBody().get("documents");
 
-                log.debug("[Geocoding] documents 수: {}", documents != null ? documents.size() : "null");
+            log.debug("[Geocoding] documents 수: {}", documents != null ? documents.size() : "null");
 
-                if (documents != null && !documents.isEmpty()) {
-                    Map<String, Object> first = documents.get(0);
-                    double lon = Double.parseDouble((String) first.get("x"));
-                    double lat = Double.parseDouble((String) first.get("y"));
+            if (documents != null && !documents.isEmpty()) {
+                Map<String, Object> first = documents.get(0);
+                double lon = Double.parseDouble((String) first.get("x"));
+                double lat = Double.parseDouble((String) first.get("y"));
 
-                    System.out.println("📍 [Geocoding] 주소 검색 결과: lat=" + lat + ", lon=" + lon);
-                    return new double[] { lat, lon };
-                }
+                System.out.println("📍 [Geocoding] 주소 검색 결과: lat=" + lat + ", lon=" + lon);
+                return new double[] { lat, lon };
             }
-        } catch (Exception e) {
-            System.err.println("❌ [Geocoding] 주소 검색 실패: " + e.getMessage());
-            e.printStackTrace();
         }
         return null;
     }
 
     /**
      * Kakao 키워드 검색 API 호출 (건물명, 장소명 인식 가능)
+     *
+     * @return 좌표, 검색 결과가 없으면 null (HTTP/파싱 오류는 예외로 전달)
      */
     private double[] searchByKeyword(String keyword) {
-        try {
-            String encodedKeyword = URLEncoder.encode(keyword, StandardCharsets.UTF_8);
-            String url = KEYWORD_SEARCH_URL + encodedKeyword;
+        String encodedKeyword = URLEncoder.encode(keyword, StandardCharsets.UTF_8);
+        String url = KEYWORD_SEARCH_URL + encodedKeyword;
 
-            System.out.println("📍 [Geocoding] 키워드 검색 API 호출: " + url);
+        System.out.println("📍 [Geocoding] 키워드 검색 API 호출: " + url);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "KakaoAK " + kakaoApiKey);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "KakaoAK " + kakaoApiKey);
 
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
 
-            System.out.println("📍 [Geocoding] 키워드 응답 상태: " + response.getStatusCode());
-            System.out.println("📍 [Geocoding] 키워드 응답: " + response.getBody());
+        System.out.println("📍 [Geocoding] 키워드 응답 상태: " + response.getStatusCode());
+        System.out.println("📍 [Geocoding] 키워드 응답: " + response.getBody());
 
-            if (response.getBody() != null) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> documents = (List<Map<String, Object>>) response.getBody().get("documents");
+        if (response.getBody() != null) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> documents = (List<Map<String, Object>>) response.getBody().get("documents");
 
-                System.out
-                        .println("📍 [Geocoding] 키워드 documents 수: " + (documents != null ? documents.size() : "null"));
+            System.out
+                    .println("📍 [Geocoding] 키워드 documents 수: " + (documents != null ? documents.size() : "null"));
 
-                if (documents != null && !documents.isEmpty()) {
-                    Map<String, Object> first = documents.get(0);
-                    // 키워드 검색은 x, y가 String이 아닌 경우도 있음
-                    double lon = parseDouble(first.get("x"));
-                    double lat = parseDouble(first.get("y"));
+            if (documents != null && !documents.isEmpty()) {
+                Map<String, Object> first = documents.get(0);
+                // 키워드 검색은 x, y가 String이 아닌 경우도 있음
+                double lon = parseDouble(first.get("x"));
+                double lat = parseDouble(first.get("y"));
 
-                    String placeName = (String) first.get("place_name");
-                    System.out.println("📍 [Geocoding] 키워드 검색 결과: " + placeName + " → lat=" + lat + ", lon=" + lon);
-                    return new double[] { lat, lon };
-                }
+                String placeName = (String) first.get("place_name");
+                System.out.println("📍 [Geocoding] 키워드 검색 결과: " + placeName + " → lat=" + lat + ", lon=" + lon);
+                return new double[] { lat, lon };
             }
-        } catch (Exception e) {
-            System.err.println("❌ [Geocoding] 키워드 검색 실패: " + e.getMessage());
-            e.printStackTrace();
         }
         return null;
     }
@@ -241,9 +442,17 @@ public class GeocodingService {
     }
 
     /**
-     * 캐시 초기화 (테스트용)
+     * 메모리 캐시 초기화 (테스트용, 영구 캐시는 유지)
      */
     public void clearCache() {
-        cache.clear();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
     }
 }
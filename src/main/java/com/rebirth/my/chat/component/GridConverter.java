@@ -1,7 +1,10 @@
 package com.rebirth.my.chat.component;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 /**
  * 위도/경도를 기상청 격자좌표(nx, ny)로 변환하는 유틸리티
  * 기상청 공식 변환 알고리즘 적용
@@ -9,6 +12,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class GridConverter {
 
+    @Autowired
+    private RegionCentroids regionCentroids;
+
     // 기상청 격자 변환 상수
     private static final double RE = 6371.00877; // 지구 반경(km)
     private static final double GRID = 5.0; // 격자 간격(km)
@@ -61,81 +67,84 @@ public class GridConverter {
         return new int[] { nx, ny };
     }
 
+    // 대전광역시 동 단위 격자 (어절 전체 또는 "동"을 붙인 어절만 일치)
+    private static final Map<String, int[]> DAEJEON_DONGS = Map.ofEntries(
+            // 서구
+            Map.entry("둔산", new int[] { 67, 100 }),
+            Map.entry("도마", new int[] { 67, 100 }),
+            Map.entry("월평", new int[] { 67, 100 }),
+            Map.entry("탄방", new int[] { 67, 100 }),
+            Map.entry("용문", new int[] { 67, 100 }),
+            // 중구
+            Map.entry("은행", new int[] { 68, 100 }),
+            Map.entry("대흥", new int[] { 68, 100 }),
+            Map.entry("선화", new int[] { 68, 100 }),
+            // 동구
+            Map.entry("판암", new int[] { 68, 99 }),
+            Map.entry("신흥", new int[] { 68, 99 }),
+            Map.entry("대동", new int[] { 68, 99 }),
+            // 유성구
+            Map.entry("봉명", new int[] { 67, 101 }),
+            Map.entry("궁동", new int[] { 67, 101 }),
+            Map.entry("어은", new int[] { 67, 101 }),
+            Map.entry("유성", new int[] { 67, 101 }),
+            // 대덕구
+            Map.entry("신탄진", new int[] { 68, 102 }),
+            Map.entry("오정", new int[] { 68, 102 }),
+            Map.entry("법동", new int[] { 68, 102 }));
+
+    // 대전광역시 구 단위 격자
+    private static final Map<String, int[]> DAEJEON_DISTRICTS = Map.of(
+            "서구", new int[] { 67, 100 },
+            "중구", new int[] { 68, 100 },
+            "동구", new int[] { 68, 99 },
+            "유성구", new int[] { 67, 101 },
+            "대덕구", new int[] { 68, 102 });
+
+    private static final String DAEJEON = "대전광역시";
+
     /**
      * 주요 도시/구/동의 기본 격자좌표 (Fallback용)
-     * 더 상세한 지역명이 있으면 우선 매칭
+     * 대전 주소(또는 시도를 알 수 없는 주소)는 동 단위 표를 먼저 보고,
+     * 나머지는 RegionCentroids의 시군구/시도 대표 좌표를 쓴다
      */
     public int[] getDefaultGrid(String address) {
         if (address == null)
             return new int[] { 60, 127 }; // 서울 기본값
 
         String addr = address.trim();
+        RegionCentroids.Region region = regionCentroids.resolve(addr);
 
         // ===== 대전광역시 구/동 단위 =====
-        // 서구
-        if (addr.contains("둔산동") || addr.contains("둔산"))
-            return new int[] { 67, 100 }; // 둔산동
-        if (addr.contains("도마동") || addr.contains("도마"))
-            return new int[] { 67, 100 }; // 도마동
-        if (addr.contains("월평동") || addr.contains("월평"))
-            return new int[] { 67, 100 }; // 월평동
-        if (addr.contains("탄방동") || addr.contains("탄방"))
-            return new int[] { 67, 100 }; // 탄방동
-        if (addr.contains("용문동") || addr.contains("용문"))
-            return new int[] { 67, 100 }; // 용문동
-        if (addr.contains("대전 서구") || addr.contains("대전서구"))
-            return new int[] { 67, 100 };
-
-        // 중구
-        if (addr.contains("은행동") || addr.contains("대흥동") || addr.contains("선화동"))
-            return new int[] { 68, 100 };
-        if (addr.contains("대전 중구") || addr.contains("대전중구"))
-            return new int[] { 68, 100 };
-
-        // 동구
-        if (addr.contains("판암동") || addr.contains("신흥동") || addr.contains("대동"))
-            return new int[] { 68, 99 };
-        if (addr.contains("대전 동구") || addr.contains("대전동구"))
-            return new int[] { 68, 99 };
-
-        // 유성구
-        if (addr.contains("봉명동") || addr.contains("궁동") || addr.contains("어은동"))
-            return new int[] { 67, 101 };
-        if (addr.contains("대전 유성구") || addr.contains("대전유성구") || addr.contains("유성"))
-            return new int[] { 67, 101 };
-
-        // 대덕구
-        if (addr.contains("신탄진") || addr.contains("오정동") || addr.contains("법동"))
-            return new int[] { 68, 102 };
-        if (addr.contains("대전 대덕구") || addr.contains("대전대덕구"))
-            return new int[] { 68, 102 };
-
-        // ===== 광역시/도 단위 =====
-        if (addr.contains("서울"))
-            return new int[] { 60, 127 };
-        if (addr.contains("부산"))
-            return new int[] { 98, 76 };
-        if (addr.contains("대전"))
-            return new int[] { 67, 100 };
-        if (addr.contains("대구"))
-            return new int[] { 89, 90 };
-        if (addr.contains("인천"))
-            return new int[] { 55, 124 };
-        if (addr.contains("광주"))
-            return new int[] { 58, 74 };
-        if (addr.contains("울산"))
-            return new int[] { 102, 84 };
-        if (addr.contains("세종"))
-            return new int[] { 66, 103 };
-        if (addr.contains("수원"))
-            return new int[] { 60, 121 };
-        if (addr.contains("전주"))
-            return new int[] { 63, 89 };
-        if (addr.contains("청주"))
-            return new int[] { 69, 107 };
-        if (addr.contains("제주"))
-            return new int[] { 52, 38 };
+        // 다른 시도로 확인된 주소에는 적용하지 않는다 (서울 마포구 대흥동, 부산 대동로 등)
+        if (region == null || region.province() == null || DAEJEON.equals(region.province())) {
+            int[] dong = daejeonDong(addr);
+            if (dong != null)
+                return dong;
+        }
+        if (region != null && DAEJEON.equals(region.province()) && region.district() != null) {
+            int[] district = DAEJEON_DISTRICTS.get(region.district());
+            if (district != null)
+                return district.clone();
+        }
+
+        // ===== 시도/시군구 단위 (오프라인 행정구역 대표 좌표) =====
+        if (region != null)
+            return toGrid(region.coords()[0], region.coords()[1]);
 
         return new int[] { 60, 127 }; // 서울 기본값
     }
+
+    private static int[] daejeonDong(String address) {
+        for (String token : address.split("[\\s,()]+")) {
+            int[] grid = DAEJEON_DONGS.get(token);
+            if (grid == null && token.endsWith("동"))
+                grid = DAEJEON_DONGS.get(token.substring(0, token.length() - 1));
+            if (grid == null && token.endsWith("구"))
+                grid = DAEJEON_DONGS.get(token.substring(0, token.length() - 1));
+            if (grid != null)
+                return grid.clone();
+        }
+        return null;
+    }
 }
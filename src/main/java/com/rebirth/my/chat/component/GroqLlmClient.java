@@ -1,22 +1,29 @@
 package com.rebirth.my.chat.component;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
 import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.ObjectMapper;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Component
-@Primary
-public class GroqLlmClient implements LlmClient {
+public class GroqLlmClient implements LlmClient, LlmBackend {
 
     @Value("${groq.api-key}")
     private String apiKey;
@@ -25,115 +32,124 @@ public class GroqLlmClient implements LlmClient {
     // Using Llama 3.3 70B (Versatile) - Latest Stable as of late 2024/2025
     private static final String MODEL_NAME = "llama-3.3-70b-versatile";
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void initRestTemplate() {
+        restTemplate = outboundHttpClients.restTemplate("groq");
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Override
-    public String generateResponse(String systemPrompt, String userMessage, String context) {
-        try {
-            // 1. Prepare Headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            // 2. Prepare Body (OpenAI Chat Completion Format)
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", MODEL_NAME);
-            requestBody.put("temperature", 0.7); // Creative but focused
-
-            List<Map<String, String>> messages = new ArrayList<>();
-
-            // System Message
-            Map<String, String> systemMsg = new HashMap<>();
-            systemMsg.put("role", "system");
-
-            // Inject Context into System Prompt
-            String finalSystemPrompt = String.format(
-                    """
-                            %s
-
-                            [Context Information]
-                            %s
-
-                            [CRITICAL RULES - MUST FOLLOW]
-                            0. **STAY ON TOPIC (최우선)**:
-                               - If user says ONLY greeting (안녕, 하이, 반가워 등) → ONLY greet back. "안녕하세요 고객님! 무엇을 도와드릴까요?"
-                               - Do NOT add weather info, clothing recommendations, or any extra information unless asked.
-                               - ONLY recommend clothes when user explicitly asks: "뭐 입을까?", "추천해줘", "스타일 추천", "외출복", "오늘 입을 옷" etc.
-                            1. **ADDRESS**: ALWAYS call user **'고객님'**.
-                            2. **NAME IS MANDATORY**:
-                               - You MUST use the EXACT **'name'** field from tool results.
-                               - Example: If tool returns {"name":"화이트 기본 티셔츠"}, you MUST say "화이트 기본 티셔츠".
-                               - **NEVER** output just "상의/Nike/" - this is WRONG.
-                               - **ALWAYS** output "상의/Nike/화이트 기본 티셔츠" - this is CORRECT.
-                            3. **FORMAT**: **[보유] [Category]/[Brand]/[EXACT NAME]**
-                               - Good: **[보유] 상의/Nike/레드 체크 남방**
-                               - Bad: **상의/Nike/** (missing name = WRONG)
-                               - **IMPORTANT**: Wrap recommended items in **double asterisks** for bold display.
-                               - Example: "**[보유] 하의/Adidas/블랙 조거 팬츠**를 추천드려요."
-                            4. **TERMINOLOGY**: Use **'상의'** and **'하의'**, not TOP/BOTTOM.
-                            5. **CONTEXT LOGIC**:
-                               - Formal (Wedding, 소개팅, 면접): Sportswear (Nike/Adidas) = BAD. Say "적절한 옷이 없네요" and recommend general formal item.
-                               - Casual (PC Bang, 집콕): Sportswear = GOOD. Recommend owned items.
-                            6. **LANGUAGE**: Korean ONLY.
-                               - NO foreign words: Chinese, Japanese, Arabic, Vietnamese (thật, rất), Turkish (ayrıca), etc.
-                               - If you don't know how to say something in Korean, skip it entirely.
-                            7. **WARDROBE LISTING RULE**:
-                               - If user asks "뭐 입을까?", "추천해줘" → Do NOT list all items. Just recommend 1-2 items directly.
-                               - If user asks "내 옷장에 뭐 있어?", "옷 목록 보여줘" → List all items.
-                               - NEVER mention "고객님의 옷장에는 X, Y, Z가 있네요" unless asked.
-                            8. **CONCISE RESPONSES**:
-                               - Say "[보유] 상의/Nike/레드 체크 남방이 있어요" directly.
-                               - Do NOT say "X가 아닌 Y가 있어요" or compare items unnecessarily.
-                               - Complete your sentences fully. Never end mid-word.
-                               - **ONLY answer what the user asked. Do NOT add unsolicited clothing recommendations or lunch suggestions.**
-                               - If user asks about a person, historical event, or general knowledge → Just answer that question. Do NOT recommend clothes.
-                               - Only recommend clothes when user explicitly asks: "뭐 입을까?", "추천해줘", "스타일 추천", "외출복" etc.
-                            9. **SITE NAVIGATION LINKS**:
-                               When user asks to navigate or for page links, use these EXACT paths in markdown format:
-                               - AI 분석/등록: [AI 옷 분류/분석](/analysis)
-                               - 채팅방: [채팅 바로가기](/chat)
-                               - 내 옷장: [나만의 옷장 바로가기](/wardrobe)
-                               - 마켓: [Re:Store 바로가기](/market/list)
-                               - 판매등록: [판매하기](/market/register)
-                               - 기부: [자원 순환 기부](/donation/guide)
-                               - 공지사항: [공지사항 확인하기](/community)
-                               - 내 정보: [마이페이지](/profile)
-                               Example: "옷장을 확인하시려면 [나만의 옷장 바로가기](/wardrobe)로 이동하세요!"
-                            10. **GENERAL FASHION RECOMMENDATIONS**:
-                               - FIRST: Recommend from user's owned items [보유].
-                               - IF no suitable owned items OR user asks for general suggestions:
-                                 → Mark as [추천] and provide general fashion advice.
-                                 → Example: "고객님 옷장에는 면접에 적합한 옷이 없네요. [추천] 네이비 슬랙스와 화이트 셔츠를 추천드려요!"
-                               - Offer to browse Re:Store: "새 옷을 구경하시려면 [Re:Store 바로가기](/market/list)를 확인해보세요!"
-                            11. **WEATHER-BASED RECOMMENDATIONS (매우 중요)**:
-                               - Context에 weather, temperature, sky, precipitation, currentSeason 정보가 있으면 **반드시** 참고하세요.
-                               - 외출 복장 추천 시 먼저 날씨를 언급: "고객님 지역은 오늘 {sky}, {temperature}입니다."
-                               - **비(precipitation=비) 예보 시**: 우산, 방수 아우터, 레인부츠 언급
-                               - **눈(precipitation=눈) 예보 시**: 따뜻한 아우터, 부츠 추천
-                               - **currentSeason=겨울**: 패딩, 코트, 니트 등 보온성 좋은 옷 추천
-                               - **currentSeason=여름**: 반팔, 린넨, 시원한 소재 추천
-                               - 추천 아이템 목록에는 이미 계절에 맞는 옷만 포함되어 있으니 그 중에서 추천하세요.
-                            """,
-                    systemPrompt, context);
-
-            systemMsg.put("content", finalSystemPrompt);
-            messages.add(systemMsg);
-
-            // User Message
-            Map<String, String> userMsg = new HashMap<>();
-            userMsg.put("role", "user");
-            userMsg.put("content", userMessage);
-            messages.add(userMsg);
-
-            requestBody.put("messages", messages);
+    public String name() {
+        return "groq";
+    }
+
+    @Override
+    public List<String> models() {
+        return List.of(MODEL_NAME);
+    }
+
+    @Override
+    public String generate(String model, String systemPrompt, String userMessage, String context,
+            ToolSession tools) {
+        // 1. Prepare Headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+
+        // 2. Prepare Body (OpenAI Chat Completion Format)
+        Map<String, Object> requestBody = createRequestBody(model, systemPrompt, userMessage, context);
 
+        if (tools == null) {
             // 3. Execute Request
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
             ResponseEntity<Map> response = restTemplate.postForEntity(GROQ_API_URL, entity, Map.class);
 
             // 4. Extract Response
             return extractContent(response.getBody());
+        }
+
+        // Native tool calling: 한 턴에 요청된 도구는 병렬 실행 후 결과를 한 번에 돌려보낸다
+        for (int round = 0;; round++) {
+            boolean allowCalls = round < tools.maxRounds();
+            declareTools(requestBody, tools, allowCalls);
+
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            ResponseEntity<Map> response = restTemplate.postForEntity(GROQ_API_URL, entity, Map.class);
+            Map<String, Object> message = firstMessage(response.getBody());
+            if (message == null)
+                return "죄송합니다. 답변을 생성하지 못했습니다.";
+
+            List<ToolCall> calls = allowCalls ? toolCallsOf(message) : List.of();
+            if (calls.isEmpty())
+                return sanitizeContent((String) message.get("content"));
+
+            appendToolResults(requestBody, message, calls, tools.execute(calls));
+        }
+    }
+
+    @Override
+    public String stream(String model, String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        headers.setBearerAuth(apiKey);
+
+        Map<String, Object> requestBody = createRequestBody(model, systemPrompt, userMessage, context);
+        requestBody.put("stream", true);
+
+        StringBuilder full = new StringBuilder();
+        for (int round = 0;; round++) {
+            boolean allowCalls = tools != null && round < tools.maxRounds();
+            if (tools != null)
+                declareTools(requestBody, tools, allowCalls);
 
+            StreamedToolCalls streamed = new StreamedToolCalls();
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            restTemplate.execute(URI.create(GROQ_API_URL), HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                    response -> {
+                        SseEventReader.read(response.getBody(), data -> {
+                            String token = readStreamChunk(data, streamed);
+                            if (!token.isEmpty()) {
+                                full.append(token);
+                                String cleaned = sanitizeToken(token);
+                                if (!cleaned.isEmpty()) {
+                                    onToken.accept(cleaned);
+                                }
+                            }
+                        });
+                        return null;
+                    });
+
+            if (!allowCalls || streamed.isEmpty())
+                break;
+
+            List<ToolCall> calls = streamed.toCalls(this::parseArguments);
+            appendToolResults(requestBody, streamed.toAssistantMessage(), calls, tools.execute(calls));
+        }
+
+        if (full.length() == 0) {
+            throw new IllegalStateException("Groq stream returned no content");
+        }
+        return sanitizeContent(full.toString());
+    }
+
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context) {
+        return generateResponse(systemPrompt, userMessage, context, (ToolSession) null);
+    }
+
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        try {
+            return generate(MODEL_NAME, systemPrompt, userMessage, context, tools);
         } catch (Exception e) {
             System.err.println("Groq API Error: " + e.getMessage());
             e.printStackTrace();
@@ -141,6 +157,277 @@ public class GroqLlmClient implements LlmClient {
         }
     }
 
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context,
+            Consumer<String> onToken) {
+        return streamResponse(systemPrompt, userMessage, context, null, onToken);
+    }
+
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        try {
+            return stream(MODEL_NAME, systemPrompt, userMessage, context, tools, onToken);
+        } catch (Exception e) {
+            System.err.println("Groq Streaming API Error: " + e.getMessage());
+            return "죄송합니다. AI 시스템 연결 중 오류가 발생했습니다. (Groq API)";
+        }
+    }
+
+    /**
+     * tools / tool_choice 선언 (마지막 라운드는 "none"으로 최종 답변을 강제)
+     */
+    private void declareTools(Map<String, Object> requestBody, ToolSession tools, boolean allowCalls) {
+        List<Map<String, Object>> declared = new ArrayList<>();
+        for (ToolDescriptor tool : tools.tools()) {
+            declared.add(Map.of("type", "function", "function", Map.of(
+                    "name", tool.name(),
+                    "description", tool.description(),
+                    "parameters", tool.parameters())));
+        }
+        requestBody.put("tools", declared);
+        requestBody.put("tool_choice", allowCalls ? "auto" : "none");
+    }
+
+    /**
+     * assistant의 tool_calls 메시지와 각 호출의 결과(role=tool)를 대화에 덧붙인다.
+     */
+    @SuppressWarnings("unchecked")
+    private void appendToolResults(Map<String, Object> requestBody, Map<String, Object> assistantMessage,
+            List<ToolCall> calls, List<String> results) {
+        List<Map<String, Object>> messages = (List<Map<String, Object>>) requestBody.get("messages");
+        messages.add(assistantMessage);
+        for (int i = 0; i < calls.size(); i++) {
+            Map<String, Object> toolMsg = new HashMap<>();
+            toolMsg.put("role", "tool");
+            toolMsg.put("tool_call_id", calls.get(i).id());
+            toolMsg.put("content", results.get(i));
+            messages.add(toolMsg);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> firstMessage(Map<String, Object> responseBody) {
+        if (responseBody == null)
+            return null;
+        List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
+        if (choices == null || choices.isEmpty())
+            return null;
+        return (Map<String, Object>) choices.get(0).get("message");
+    }
+
+    // message.tool_calls[].function.{name, arguments(JSON 문자열)}
+    @SuppressWarnings("unchecked")
+    private List<ToolCall> toolCallsOf(Map<String, Object> message) {
+        List<Map<String, Object>> toolCalls = (List<Map<String, Object>>) message.get("tool_calls");
+        if (toolCalls == null || toolCalls.isEmpty())
+            return List.of();
+
+        List<ToolCall> calls = new ArrayList<>(toolCalls.size());
+        for (Map<String, Object> toolCall : toolCalls) {
+            Map<String, Object> function = (Map<String, Object>) toolCall.get("function");
+            calls.add(new ToolCall((String) toolCall.get("id"), (String) function.get("name"),
+                    parseArguments((String) function.get("arguments"))));
+        }
+        return calls;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parseArguments(String json) {
+        if (json == null || json.isBlank())
+            return Map.of();
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (Exception e) {
+            System.err.println("Failed to parse Groq tool arguments: " + json);
+            return Map.of();
+        }
+    }
+
+    /**
+     * 스트림으로 조각나서 오는 tool_calls (index별로 id/name/arguments 누적)
+     */
+    private static class StreamedToolCalls {
+        private final Map<Integer, String[]> headers = new TreeMap<>(); // {id, name}
+        private final Map<Integer, StringBuilder> arguments = new TreeMap<>();
+
+        void accept(int index, String id, String name, String argumentsDelta) {
+            String[] header = headers.computeIfAbsent(index, i -> new String[2]);
+            if (id != null)
+                header[0] = id;
+            if (name != null)
+                header[1] = name;
+            StringBuilder args = arguments.computeIfAbsent(index, i -> new StringBuilder());
+            if (argumentsDelta != null)
+                args.append(argumentsDelta);
+        }
+
+        boolean isEmpty() {
+            return headers.isEmpty();
+        }
+
+        List<ToolCall> toCalls(Function<String, Map<String, Object>> argumentParser) {
+            List<ToolCall> calls = new ArrayList<>();
+            for (Map.Entry<Integer, String[]> e : headers.entrySet()) {
+                calls.add(new ToolCall(e.getValue()[0], e.getValue()[1],
+                        argumentParser.apply(arguments.get(e.getKey()).toString())));
+            }
+            return calls;
+        }
+
+        Map<String, Object> toAssistantMessage() {
+            List<Map<String, Object>> toolCalls = new ArrayList<>();
+            for (Map.Entry<Integer, String[]> e : headers.entrySet()) {
+                toolCalls.add(Map.of(
+                        "id", e.getValue()[0],
+                        "type", "function",
+                        "function", Map.of("name", e.getValue()[1],
+                                "arguments", arguments.get(e.getKey()).toString())));
+            }
+            Map<String, Object> message = new HashMap<>();
+            message.put("role", "assistant");
+            message.put("tool_calls", toolCalls);
+            return message;
+        }
+    }
+
+    private Map<String, Object> createRequestBody(String model, String systemPrompt, String userMessage,
+            String context) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("temperature", 0.7); // Creative but focused
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+
+        // System Message
+        Map<String, Object> systemMsg = new HashMap<>();
+        systemMsg.put("role", "system");
+
+        // Inject Context into System Prompt
+        String finalSystemPrompt = String.format(
+                """
+                        %s
+
+                        [Context Information]
+                        %s
+
+                        [CRITICAL RULES - MUST FOLLOW]
+                        0. **STAY ON TOPIC (최우선)**:
+                           - If user says ONLY greeting (안녕, 하이, 반가워 등) → ONLY greet back. "안녕하세요 고객님! 무엇을 도와드릴까요?"
+                           - Do NOT add weather info, clothing recommendations, or any extra information unless asked.
+                           - ONLY recommend clothes when user explicitly asks: "뭐 입을까?", "추천해줘", "스타일 추천", "외출복", "오늘 입을 옷" etc.
+                        1. **ADDRESS**: ALWAYS call user **'고객님'**.
+                        2. **NAME IS MANDATORY**:
+                           - You MUST use the EXACT **'name'** field from tool results.
+                           - Example: If tool returns {"name":"화이트 기본 티셔츠"}, you MUST say "화이트 기본 티셔츠".
+                           - **NEVER** output just "상의/Nike/" - this is WRONG.
+                           - **ALWAYS** output "상의/Nike/화이트 기본 티셔츠" - this is CORRECT.
+                        3. **FORMAT**: **[보유] [Category]/[Brand]/[EXACT NAME]**
+                           - Good: **[보유] 상의/Nike/레드 체크 남방**
+                           - Bad: **상의/Nike/** (missing name = WRONG)
+                           - **IMPORTANT**: Wrap recommended items in **double asterisks** for bold display.
+                           - Example: "**[보유] 하의/Adidas/블랙 조거 팬츠**를 추천드려요."
+                        4. **TERMINOLOGY**: Use **'상의'** and **'하의'**, not TOP/BOTTOM.
+                        5. **CONTEXT LOGIC**:
+                           - Formal (Wedding, 소개팅, 면접): Sportswear (Nike/Adidas) = BAD. Say "적절한 옷이 없네요" and recommend general formal item.
+                           - Casual (PC Bang, 집콕): Sportswear = GOOD. Recommend owned items.
+                        6. **LANGUAGE**: Korean ONLY.
+                           - NO foreign words: Chinese, Japanese, Arabic, Vietnamese (thật, rất), Turkish (ayrıca), etc.
+                           - If you don't know how to say something in Korean, skip it entirely.
+                        7. **WARDROBE LISTING RULE**:
+                           - If user asks "뭐 입을까?", "추천해줘" → Do NOT list all items. Just recommend 1-2 items directly.
+                           - If user asks "내 옷장에 뭐 있어?", "옷 목록 보여줘" → List all items.
+                           - NEVER mention "고객님의 옷장에는 X, Y, Z가 있네요" unless asked.
+                        8. **CONCISE RESPONSES**:
+                           - Say "[보유] 상의/Nike/레드 체크 남방이 있어요" directly.
+                           - Do NOT say "X가 아닌 Y가 있어요" or compare items unnecessarily.
+                           - Complete your sentences fully. Never end mid-word.
+                           - **ONLY answer what the user asked. Do NOT add unsolicited clothing recommendations or lunch suggestions.**
+                           - If user asks about a person, historical event, or general knowledge → Just answer that question. Do NOT recommend clothes.
+                           - Only recommend clothes when user explicitly asks: "뭐 입을까?", "추천해줘", "스타일 추천", "외출복" etc.
+                        9. **SITE NAVIGATION LINKS**:
+                           When user asks to navigate or for page links, use these EXACT paths in markdown format:
+                           - AI 분석/등록: [AI 옷 분류/분석](/analysis)
+                           - 채팅방: [채팅 바로가기](/chat)
+                           - 내 옷장: [나만의 옷장 바로가기](/wardrobe)
+                           - 마켓: [Re:Store 바로가기](/market/list)
+                           - 판매등록: [판매하기](/market/register)
+                           - 기부: [자원 순환 기부](/donation/guide)
+                           - 공지사항: [공지사항 확인하기](/community)
+                           - 내 정보: [마이페이지](/profile)
+                           Example: "옷장을 확인하시려면 [나만의 옷장 바로가기](/wardrobe)로 이동하세요!"
+                        10. **GENERAL FASHION RECOMMENDATIONS**:
+                           - FIRST: Recommend from user's owned items [보유].
+                           - IF no suitable owned items OR user asks for general suggestions:
+                             → Mark as [추천] and provide general fashion advice.
+                             → Example: "고객님 옷장에는 면접에 적합한 옷이 없네요. [추천] 네이비 슬랙스와 화이트 셔츠를 추천드려요!"
+                           - Offer to browse Re:Store: "새 옷을 구경하시려면 [Re:Store 바로가기](/market/list)를 확인해보세요!"
+                        11. **WEATHER-BASED RECOMMENDATIONS (매우 중요)**:
+                           - Context에 weather, temperature, sky, precipitation, currentSeason 정보가 있으면 **반드시** 참고하세요.
+                           - 외출 복장 추천 시 먼저 날씨를 언급: "고객님 지역은 오늘 {sky}, {temperature}입니다."
+                           - **비(precipitation=비) 예보 시**: 우산, 방수 아우터, 레인부츠 언급
+                           - **눈(precipitation=눈) 예보 시**: 따뜻한 아우터, 부츠 추천
+                           - **currentSeason=겨울**: 패딩, 코트, 니트 등 보온성 좋은 옷 추천
+                           - **currentSeason=여름**: 반팔, 린넨, 시원한 소재 추천
+                           - 추천 아이템 목록에는 이미 계절에 맞는 옷만 포함되어 있으니 그 중에서 추천하세요.
+                        """,
+                systemPrompt, context);
+
+        systemMsg.put("content", finalSystemPrompt);
+        messages.add(systemMsg);
+
+        // User Message
+        Map<String, Object> userMsg = new HashMap<>();
+        userMsg.put("role", "user");
+        userMsg.put("content", userMessage);
+        messages.add(userMsg);
+
+        requestBody.put("messages", messages);
+
+        return requestBody;
+    }
+
+    // Stream chunk: choices[0].delta.content / choices[0].delta.tool_calls
+    @SuppressWarnings("unchecked")
+    private String readStreamChunk(String data, StreamedToolCalls streamed) {
+        try {
+            Map<String, Object> chunk = objectMapper.readValue(data, Map.class);
+            List<Map<String, Object>> choices = (List<Map<String, Object>>) chunk.get("choices");
+            if (choices != null && !choices.isEmpty()) {
+                Map<String, Object> delta = (Map<String, Object>) choices.get(0).get("delta");
+                if (delta == null)
+                    return "";
+
+                List<Map<String, Object>> toolCalls = (List<Map<String, Object>>) delta.get("tool_calls");
+                if (toolCalls != null) {
+                    for (Map<String, Object> toolCall : toolCalls) {
+                        Map<String, Object> function = (Map<String, Object>) toolCall.get("function");
+                        Object index = toolCall.get("index");
+                        streamed.accept(index instanceof Number n ? n.intValue() : 0,
+                                (String) toolCall.get("id"),
+                                function != null ? (String) function.get("name") : null,
+                                function != null ? (String) function.get("arguments") : null);
+                    }
+                }
+                if (delta.get("content") != null) {
+                    return (String) delta.get("content");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to parse Groq stream chunk: " + e.getMessage());
+        }
+        return "";
+    }
+
+    /**
+     * 토큰 단위 정제 (단어 경계가 필요한 규칙은 최종 응답의 sanitizeContent에서 처리)
+     */
+    private String sanitizeToken(String token) {
+        return token
+                .replaceAll("[\\u4E00-\\u9FFF\\u3040-\\u309F\\u30A0-\\u30FF\\u0600-\\u06FF\\u0400-\\u04FF]+", "")
+                .replaceAll("[\\u0E00-\\u0E7F]+", "");
+    }
+
     private String extractContent(Map<String, Object> responseBody) {
         if (responseBody == null) {
             return "오류: 응답이 비어있습니다.";
@@ -0,0 +1,167 @@
+package com.rebirth.my.chat.component;
+
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 챗봇 질문 의도 분류기
+ *
+ * 의도는 아래 RULES 표에 데이터로 선언한다. 각 규칙은 키워드 그룹들의 AND이고, 그룹 안의 키워드는 OR이다.
+ * 모든 키워드는 시작 시 하나의 Aho-Corasick 자동자로 컴파일되고, 분류는 본문을 한 번 훑은 뒤 비트마스크로 규칙을 판정한다.
+ * 챗봇 질문은 짧으므로 속도보다는 흩어져 있던 contains() 체인을 한 표로 모으기 위한 구조다 (성능 비교는 측정하지 않음).
+ * 규칙은 표에 적힌 순서가 우선순위다.
+ */
+@Component
+public class IntentRouter {
+
+    private static final String[][] RELATIVE_DAYS = { { "내일" }, { "모레" }, { "오늘" } };
+    private static final int[] RELATIVE_OFFSETS = { 1, 2, 0 };
+
+    private static final Pattern MONTH_DAY = Pattern.compile("(\\d{1,2})월\\s*(\\d{1,2})일");
+    private static final Pattern DAY_ONLY = Pattern.compile("(\\d{1,2})일");
+
+    private record Rule(ChatIntent.Type type, boolean needsDate, String[]... groups) {
+    }
+
+    // 우선순위 순서
+    private static final Rule[] RULES = {
+            new Rule(ChatIntent.Type.ITEMS_FOR_SALE, false,
+                    new String[] { "판매", "팔고", "팔아" }, new String[] { "옷", "뭐", "있", "목록" }),
+            new Rule(ChatIntent.Type.OOTD_SCHEDULE, true,
+                    new String[] { "일에", "일 ", "날", "언제" }, new String[] { "입", "뭐", "계획", "ootd", "코디" }),
+            new Rule(ChatIntent.Type.ECO_POINTS, false,
+                    new String[] { "에코" }, new String[] { "포인트", "점수" }),
+            new Rule(ChatIntent.Type.WARDROBE_COUNT, false,
+                    new String[] { "옷장" }, new String[] { "몇", "개", "목록", "뭐", "있어", "보여줘" }),
+            new Rule(ChatIntent.Type.CONFIRM, false, new String[] { "확실해", "진짜" }),
+            new Rule(ChatIntent.Type.GREETING, false, new String[] { "안녕", "반가", "hello" }),
+            new Rule(ChatIntent.Type.BUSY, false, new String[] { "뭐해", "바빠" }),
+            new Rule(ChatIntent.Type.AFFECTION, false, new String[] { "사랑", "좋아" }),
+            new Rule(ChatIntent.Type.BORED, false, new String[] { "심심", "놀아" }),
+            new Rule(ChatIntent.Type.HUNGRY, false, new String[] { "배고파", "메뉴" }),
+            new Rule(ChatIntent.Type.RECOMMEND, false, new String[] { "추천", "코디" }),
+            new Rule(ChatIntent.Type.HOWTO, false, new String[] { "방법", "어떻게" }),
+            new Rule(ChatIntent.Type.SITE_INFO, false, new String[] { "사이트", "리버스", "누구", "뭐야" }),
+    };
+
+    private static final Set<ChatIntent.Type> ALL = EnumSet.allOf(ChatIntent.Type.class);
+
+    private final KeywordAutomaton automaton;
+    // RULES[i]가 요구하는 그룹 비트마스크
+    private final long[] ruleMasks = new long[RULES.length];
+    // RULES[i]의 첫 번째 그룹 (대표 키워드 슬롯 추출용)
+    private final String[][] leadGroups = new String[RULES.length][];
+    private final long[] relativeDayBits = new long[RELATIVE_DAYS.length];
+
+    public IntentRouter() {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        List<String[]> groups = new ArrayList<>();
+
+        for (int i = 0; i < RULES.length; i++) {
+            long mask = 0L;
+            for (String[] group : RULES[i].groups()) {
+                mask |= 1L << register(builder, groups, group);
+            }
+            ruleMasks[i] = mask;
+            leadGroups[i] = RULES[i].groups()[0];
+        }
+        for (int i = 0; i < RELATIVE_DAYS.length; i++) {
+            relativeDayBits[i] = 1L << register(builder, groups, RELATIVE_DAYS[i]);
+        }
+
+        this.automaton = builder.build();
+    }
+
+    private static int register(KeywordAutomaton.Builder builder, List<String[]> groups, String[] group) {
+        int id = groups.size();
+        if (id > 63)
+            throw new IllegalStateException("IntentRouter: 키워드 그룹은 최대 64개까지 지원합니다.");
+        groups.add(group);
+        for (String keyword : group) {
+            builder.add(keyword, id);
+        }
+        return id;
+    }
+
+    public ChatIntent classify(String message) {
+        return classify(message, ALL);
+    }
+
+    /**
+     * candidates에 포함된 의도 중 우선순위가 가장 높은 것을 반환한다.
+     * 날짜가 필요한 의도(OOTD_SCHEDULE)는 날짜를 추출하지 못하면 건너뛴다.
+     *
+     * @return 일치하는 의도가 없으면 ChatIntent.NONE
+     */
+    public ChatIntent classify(String message, Set<ChatIntent.Type> candidates) {
+        if (message == null || message.isEmpty())
+            return ChatIntent.NONE;
+
+        long mask = automaton.match(message);
+        if (mask == 0L)
+            return ChatIntent.NONE;
+
+        for (int i = 0; i < RULES.length; i++) {
+            Rule rule = RULES[i];
+            if ((mask & ruleMasks[i]) != ruleMasks[i] || !candidates.contains(rule.type()))
+                continue;
+
+            LocalDate date = null;
+            if (rule.needsDate()) {
+                date = extractDate(message, mask, LocalDate.now());
+                if (date == null)
+                    continue;
+            }
+            return new ChatIntent(rule.type(), date, firstKeyword(message, leadGroups[i]));
+        }
+        return ChatIntent.NONE;
+    }
+
+    /**
+     * 메시지에서 날짜 추출 ("내일"/"모레"/"오늘" → "12월 31일" → "31일" 순)
+     *
+     * @return 추출 실패 또는 존재하지 않는 날짜면 null
+     */
+    private LocalDate extractDate(String message, long mask, LocalDate today) {
+        for (int i = 0; i < relativeDayBits.length; i++) {
+            if ((mask & relativeDayBits[i]) != 0)
+                return today.plusDays(RELATIVE_OFFSETS[i]);
+        }
+
+        int month = today.getMonthValue();
+        int day;
+        Matcher m = MONTH_DAY.matcher(message);
+        if (m.find()) {
+            month = Integer.parseInt(m.group(1));
+            day = Integer.parseInt(m.group(2));
+        } else {
+            m = DAY_ONLY.matcher(message);
+            if (!m.find())
+                return null;
+            day = Integer.parseInt(m.group(1));
+        }
+
+        try {
+            return LocalDate.of(today.getYear(), month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static String firstKeyword(String message, String[] group) {
+        String lowered = message.toLowerCase();
+        for (String keyword : group) {
+            if (lowered.contains(keyword))
+                return keyword;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.rebirth.my.chat.component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick 키워드 자동자 (대소문자 무시)
+ *
+ * 키워드마다 그룹 번호(0~63)를 지정하고, match()는 본문에 등장한 키워드들의 그룹 비트마스크를 돌려준다.
+ * 본문을 한 번만 훑으며 객체를 할당하지 않는다.
+ */
+final class KeywordAutomaton {
+
+    // 노드별 전이 (문자 정렬, 이진 탐색)
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final long[] output;
+
+    private KeywordAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] fail, long[] output) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+    }
+
+    /**
+     * @return 등장한 키워드 그룹의 비트마스크 (bit i = 그룹 i)
+     */
+    long match(CharSequence text) {
+        int state = 0;
+        long mask = 0L;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = next(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = next(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            mask |= output[state];
+        }
+        return mask;
+    }
+
+    private int next(int state, char c) {
+        int idx = Arrays.binarySearch(edgeChars[state], c);
+        return idx < 0 ? -1 : edgeTargets[state][idx];
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        private final List<Long> outputs = new ArrayList<>();
+
+        private Builder() {
+            newNode();
+        }
+
+        Builder add(String keyword, int group) {
+            if (group < 0 || group > 63)
+                throw new IllegalArgumentException("group must be 0..63: " + group);
+            if (keyword.isEmpty())
+                throw new IllegalArgumentException("empty keyword");
+
+            int state = 0;
+            for (char raw : keyword.toCharArray()) {
+                char c = Character.toLowerCase(raw);
+                Integer next = edges.get(state).get(c);
+                if (next == null) {
+                    next = newNode();
+                    edges.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.set(state, outputs.get(state) | (1L << group));
+            return this;
+        }
+
+        KeywordAutomaton build() {
+            int size = edges.size();
+            char[][] chars = new char[size][];
+            int[][] targets = new int[size][];
+            int[] fail = new int[size];
+            long[] output = new long[size];
+
+            for (int node = 0; node < size; node++) {
+                TreeMap<Character, Integer> map = edges.get(node);
+                chars[node] = new char[map.size()];
+                targets[node] = new int[map.size()];
+                int i = 0;
+                for (var e : map.entrySet()) {
+                    chars[node][i] = e.getKey();
+                    targets[node][i] = e.getValue();
+                    i++;
+                }
+                output[node] = outputs.get(node);
+            }
+
+            // BFS로 실패 링크 계산, 출력은 실패 링크 쪽 출력과 합쳐 둔다
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int i = 0; i < chars[node].length; i++) {
+                    char c = chars[node][i];
+                    int child = targets[node][i];
+                    int f = fail[node];
+                    int idx;
+                    while ((idx = Arrays.binarySearch(chars[f], c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    idx = Arrays.binarySearch(chars[f], c);
+                    fail[child] = (idx >= 0 && targets[f][idx] != child) ? targets[f][idx] : 0;
+                    output[child] |= output[fail[child]];
+                    queue.add(child);
+                }
+            }
+            return new KeywordAutomaton(chars, targets, fail, output);
+        }
+
+        private int newNode() {
+            edges.add(new TreeMap<>());
+            outputs.add(0L);
+            return edges.size() - 1;
+        }
+    }
+}
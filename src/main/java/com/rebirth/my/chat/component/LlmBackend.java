@@ -0,0 +1,26 @@
+package com.rebirth.my.chat.component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * RoutingLlmClient가 모델 단위로 호출하는 LLM 백엔드.
+ * LlmClient와 달리 실패를 오류 문구로 감추지 않고 예외로 던진다
+ * (circuit breaker가 429/타임아웃/5xx를 구분할 수 있도록).
+ */
+public interface LlmBackend {
+
+    /** 백엔드 이름 (예: "groq", "gemini") */
+    String name();
+
+    /** 선호 순서대로 정렬된 모델 목록 */
+    List<String> models();
+
+    /**
+     * @param tools 네이티브 function calling 세션 (null이면 도구 없이 호출)
+     */
+    String generate(String model, String systemPrompt, String userMessage, String context, ToolSession tools);
+
+    String stream(String model, String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken);
+}
@@ -1,5 +1,7 @@
 package com.rebirth.my.chat.component;
 
+import java.util.function.Consumer;
+
 public interface LlmClient {
     /**
      * Sends a prompt to the LLM and gets a response.
@@ -10,4 +12,65 @@ public interface LlmClient {
      * @return The LLM's text response.
      */
     String generateResponse(String systemPrompt, String userMessage, String context);
+
+    /**
+     * Streams the LLM response token by token.
+     * Implementations without a streaming endpoint emit the whole response as a
+     * single chunk.
+     * 
+     * @param onToken Receives each text chunk as soon as it arrives.
+     * @return The complete (sanitized) response text.
+     */
+    default String streamResponse(String systemPrompt, String userMessage, String context,
+            Consumer<String> onToken) {
+        String response = generateResponse(systemPrompt, userMessage, context);
+        if (response != null && !response.isEmpty()) {
+            onToken.accept(response);
+        }
+        return response;
+    }
+
+    /**
+     * Native function calling: the backend declares the session's tools, runs
+     * every tool call requested in a turn concurrently and feeds the results
+     * back in a single continuation.
+     * Implementations without tool support answer without tools.
+     */
+    default String generateResponse(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        return generateResponse(systemPrompt, userMessage, context);
+    }
+
+    /**
+     * Streaming variant of
+     * {@link #generateResponse(String, String, String, ToolSession)}.
+     */
+    default String streamResponse(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        return streamResponse(systemPrompt, userMessage, context, onToken);
+    }
+
+    /**
+     * Response text plus whether it is a degraded answer rather than a normal
+     * model reply (rule-based fallback, stream cut short, ...).
+     * Callers must not cache degraded replies.
+     */
+    record Reply(String text, boolean degraded) {
+    }
+
+    /**
+     * {@link #generateResponse(String, String, String, ToolSession)} with the
+     * degraded flag. Plain backends always report a normal reply.
+     */
+    default Reply generateReply(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        return new Reply(generateResponse(systemPrompt, userMessage, context, tools), false);
+    }
+
+    /**
+     * {@link #streamResponse(String, String, String, ToolSession, Consumer)}
+     * with the degraded flag.
+     */
+    default Reply streamReply(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        return new Reply(streamResponse(systemPrompt, userMessage, context, tools, onToken), false);
+    }
 }
@@ -0,0 +1,340 @@
+package com.rebirth.my.chat.component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * JVM 내장 벡터 인덱스 (Milvus 대체/대기 저장소)
+ *
+ * - 정규화된 float 벡터를 고정 크기 레코드로 memory-mapped 세그먼트 파일에 저장 (재시작 시 그대로 재사용)
+ * - 사용자별 슬롯 목록을 메모리에 유지해 검색은 해당 사용자의 벡터만 정확(flat) 코사인 스캔
+ *   (한 사용자의 옷장은 수백 개 수준이라 ANN 그래프 없이도 일정한 지연)
+ * - MilvusClientWrapper와 같은 upsert/delete/search 계약
+ * - 갱신은 제자리 덮어쓰기 없이 새 슬롯에 기록한 뒤 alive를 넘긴다 (쓰는 도중 중단되어도 이전 벡터가 남음)
+ *
+ * standby 모드의 인덱스는 이 노드에서, 활성화된 이후에 쓰인 벡터만 가진다 (노드마다 별도 사본).
+ * Milvus 장애 시 대체 검색 결과가 불완전할 수 있으므로 MilvusClientWrapper가 경고를 남긴다.
+ *
+ * 세그먼트 레이아웃: [header 16B: magic, version, dim, reserved] + record * SEGMENT_RECORDS
+ * 레코드 레이아웃: [wardrobe_id 8B][user_id 8B][alive 4B][float * dim]
+ * alive: 0이면 빈 슬롯, 양수면 기록 세대 (같은 wardrobe_id가 둘 이상 살아 있으면 세대가 큰 쪽이 유효)
+ */
+@Component
+public class LocalVectorIndex {
+
+    private static final int MAGIC = 0x52425658; // "RBVX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SEGMENT_RECORDS = 8192;
+
+    // off | standby | primary (MilvusClientWrapper에서 사용 방식 결정)
+    @Value("${milvus.local.mode:off}")
+    private String mode;
+
+    @Value("${milvus.local.path:data/vector-index}")
+    private String path;
+
+    @Value("${milvus.local.dimension:768}")
+    private int dimension;
+
+    private int recordBytes;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, List<Integer>> slotsByUser = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    private int generation;
+    private boolean ready;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void init() {
+        if ("off".equalsIgnoreCase(mode))
+            return;
+
+        recordBytes = 8 + 8 + 4 + dimension * 4;
+        try {
+            path = Paths.get(path).toAbsolutePath().toString();
+            Files.createDirectories(Paths.get(path));
+            for (int seg = 0; Files.exists(segmentPath(seg)); seg++) {
+                MappedByteBuffer buffer = mapSegment(seg);
+                segments.add(buffer);
+                for (int i = 0; i < SEGMENT_RECORDS; i++) {
+                    int slot = seg * SEGMENT_RECORDS + i;
+                    int offset = HEADER_BYTES + i * recordBytes;
+                    long wardrobeId = buffer.getLong(offset);
+                    int alive = buffer.getInt(offset + 16);
+                    if (alive <= 0)
+                        continue;
+                    nextSlot = slot + 1;
+                    generation = Math.max(generation, alive);
+
+                    // 새 슬롯 기록 후 이전 슬롯을 지우기 전에 중단된 경우 → 세대가 큰 쪽만 남긴다
+                    Integer other = slotById.get(wardrobeId);
+                    if (other != null) {
+                        if (generationAt(other) >= alive) {
+                            markFree(slot);
+                            continue;
+                        }
+                        markFree(other);
+                    }
+                    slotById.put(wardrobeId, slot);
+                }
+            }
+            for (Map.Entry<Long, Integer> e : slotById.entrySet()) {
+                slotsByUser.computeIfAbsent(userIdAt(e.getValue()), k -> new ArrayList<>()).add(e.getValue());
+            }
+            int loaded = slotById.size();
+            // 마지막 사용 슬롯 이전의 빈 슬롯은 재사용
+            for (int slot = 0; slot < nextSlot; slot++) {
+                if (!isAlive(slot))
+                    freeSlots.add(slot);
+            }
+            ready = true;
+            System.out.println("✅ Local vector index ready (" + mode + "): " + loaded + " vectors in "
+                    + segments.size() + " segments at " + path);
+            if ("standby".equalsIgnoreCase(mode)) {
+                System.out.println("⚠️ Local standby index holds only vectors written on this node since it was"
+                        + " enabled; fallback search results may be incomplete until a full sync runs");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Local vector index init failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    /**
+     * Milvus 없이 이 인덱스만 사용하는 모드 (소규모 배포/로컬 개발)
+     */
+    public boolean isPrimary() {
+        return ready && "primary".equalsIgnoreCase(mode);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void upsert(Long wardrobeId, Long userId, List<Float> embedding) {
+        if (!ready)
+            return;
+        if (embedding.size() != dimension)
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + embedding.size());
+
+        float[] unit = normalize(embedding);
+        lock.writeLock().lock();
+        try {
+            // 살아 있는 레코드는 덮어쓰지 않는다: 새 슬롯에 다 쓴 뒤 alive 표시 → 이전 슬롯 해제
+            int slot = allocateSlot();
+            MappedByteBuffer segment = segments.get(slot / SEGMENT_RECORDS);
+            int offset = HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes;
+            segment.putLong(offset, wardrobeId);
+            segment.putLong(offset + 8, userId);
+            for (int i = 0; i < dimension; i++) {
+                segment.putFloat(offset + 20 + i * 4, unit[i]);
+            }
+            segment.putInt(offset + 16, ++generation);
+
+            Integer previous = slotById.get(wardrobeId);
+            if (previous != null) {
+                removeSlot(wardrobeId, previous);
+            }
+            slotById.put(wardrobeId, slot);
+            slotsByUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(slot);
+        } catch (IOException e) {
+            throw new IllegalStateException("Local vector index write failed: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(List<Long> wardrobeIds) {
+        if (!ready)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            for (Long wardrobeId : wardrobeIds) {
+                Integer slot = slotById.get(wardrobeId);
+                if (slot != null) {
+                    removeSlot(wardrobeId, slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 사용자 벡터 중 코사인 유사도 상위 topK의 wardrobe_id (질의 벡터 순서대로)
+     */
+    public List<List<Long>> search(Long userId, List<List<Float>> queries, int topK) {
+        if (!ready)
+            return Collections.emptyList();
+
+        List<float[]> units = new ArrayList<>(queries.size());
+        for (List<Float> query : queries) {
+            units.add(normalize(query));
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Integer> slots = slotsByUser.getOrDefault(userId, Collections.emptyList());
+            List<List<Long>> results = new ArrayList<>(queries.size());
+            for (float[] query : units) {
+                // 점수가 낮은 순으로 꺼내지는 heap (topK 유지)
+                PriorityQueue<double[]> heap = new PriorityQueue<>(topK + 1, (a, b) -> Double.compare(a[0], b[0]));
+                for (int slot : slots) {
+                    heap.add(new double[] { dot(slot, query), slot });
+                    if (heap.size() > topK)
+                        heap.poll();
+                }
+                List<Long> ids = new ArrayList<>(heap.size());
+                while (!heap.isEmpty()) {
+                    ids.add(wardrobeIdAt((int) heap.poll()[1]));
+                }
+                Collections.reverse(ids);
+                results.add(ids);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeSlot(Long wardrobeId, int slot) {
+        MappedByteBuffer segment = segments.get(slot / SEGMENT_RECORDS);
+        int offset = HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes;
+        long userId = segment.getLong(offset + 8);
+        segment.putInt(offset + 16, 0);
+
+        slotById.remove(wardrobeId);
+        List<Integer> userSlots = slotsByUser.get(userId);
+        if (userSlots != null) {
+            userSlots.remove(Integer.valueOf(slot));
+            if (userSlots.isEmpty())
+                slotsByUser.remove(userId);
+        }
+        freeSlots.add(slot);
+    }
+
+    private int allocateSlot() throws IOException {
+        Integer free = freeSlots.poll();
+        if (free != null)
+            return free;
+
+        int slot = nextSlot++;
+        while (slot / SEGMENT_RECORDS >= segments.size()) {
+            segments.add(mapSegment(segments.size()));
+        }
+        return slot;
+    }
+
+    private MappedByteBuffer mapSegment(int seg) throws IOException {
+        Path file = segmentPath(seg);
+        boolean created = !Files.exists(file);
+        long size = HEADER_BYTES + (long) SEGMENT_RECORDS * recordBytes;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, dimension);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != dimension) {
+                throw new IOException("Incompatible vector segment " + file + " (expected dim " + dimension + ")");
+            }
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(int seg) {
+        return Paths.get(path, String.format("wardrobe_vector.%04d.seg", seg));
+    }
+
+    private boolean isAlive(int slot) {
+        return generationAt(slot) > 0;
+    }
+
+    private int generationAt(int slot) {
+        MappedByteBuffer segment = segments.get(slot / SEGMENT_RECORDS);
+        return segment.getInt(HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes + 16);
+    }
+
+    private void markFree(int slot) {
+        segments.get(slot / SEGMENT_RECORDS).putInt(HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes + 16, 0);
+    }
+
+    private long wardrobeIdAt(int slot) {
+        return segments.get(slot / SEGMENT_RECORDS).getLong(HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes);
+    }
+
+    private long userIdAt(int slot) {
+        return segments.get(slot / SEGMENT_RECORDS)
+                .getLong(HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes + 8);
+    }
+
+    private double dot(int slot, float[] query) {
+        MappedByteBuffer segment = segments.get(slot / SEGMENT_RECORDS);
+        int offset = HEADER_BYTES + (slot % SEGMENT_RECORDS) * recordBytes + 20;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += segment.getFloat(offset + i * 4) * query[i];
+        }
+        return sum;
+    }
+
+    private float[] normalize(List<Float> values) {
+        float[] v = new float[dimension];
+        double norm = 0;
+        for (int i = 0; i < dimension && i < values.size(); i++) {
+            v[i] = values.get(i);
+            norm += v[i] * v[i];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < dimension; i++) {
+                v[i] /= norm;
+            }
+        }
+        return v;
+    }
+}
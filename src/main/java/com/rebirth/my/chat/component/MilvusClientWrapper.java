@@ -3,185 +3,548 @@ package com.rebirth.my.chat.component;
 import io.milvus.client.MilvusServiceClient;
 import io.milvus.param.ConnectParam;
 import io.milvus.param.R;
-import io.milvus.param.collection.CreateCollectionParam;
-import io.milvus.param.collection.HasCollectionParam;
-import io.milvus.param.collection.FieldType;
+import io.milvus.param.collection.GetLoadStateParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.dml.DeleteParam;
 import io.milvus.param.dml.InsertParam;
 import io.milvus.param.dml.SearchParam;
+import io.milvus.param.dml.UpsertParam;
+import io.milvus.grpc.LoadState;
+import io.milvus.grpc.MutationResult;
 import io.milvus.grpc.SearchResults;
-import io.milvus.grpc.DataType;
 import io.milvus.response.SearchResultsWrapper;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Collections;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Milvus 접근 래퍼
+ *
+ * - 단건 색인(insertVector)은 write-behind 버퍼에 모았다가 크기/시간 조건으로 upsert 일괄 전송
+ *   (항목마다 delete + insert + flush 하지 않음, segment seal은 Milvus에 맡김)
+ * - 컬렉션 load는 한 번만 수행하고 상태를 추적 (검색마다 loadCollection 하지 않음)
+ * - 연산별 지연시간은 milvus.operation{op, outcome} 타이머로 기록
+ * - 스키마/인덱스 수명주기는 MilvusCollectionManager 담당 (user_id partition key + HNSW/IVF_FLAT)
+ * - 모든 쓰기는 LocalVectorIndex에도 반영되어, Milvus 연결 실패/검색 오류 시 로컬 인덱스로 검색한다
+ * - 연결과 컬렉션 준비(생성/스키마 이전)는 시작 시 백그라운드 작업으로 돌리고, 실패하면 지수 백오프로 재시도한다
+ *   (이전이 오래 걸려도 기동을 막지 않으며, 준비 전까지 검색은 로컬 인덱스, 단건 쓰기는 버퍼에 둔다)
+ */
 @Component
 public class MilvusClientWrapper {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MilvusCollectionManager collectionManager;
+
+    // JVM 내장 인덱스 (primary: Milvus 대신 사용, standby: 함께 쓰고 Milvus 장애 시 검색 대체)
+    @Autowired
+    private LocalVectorIndex localIndex;
+
+    // write-behind 버퍼 크기 조건 / 시간 조건
+    @Value("${milvus.write.batch-size:200}")
+    private int writeBatchSize;
+
+    @Value("${milvus.write.interval-ms:1000}")
+    private long writeIntervalMs;
+
+    // upsert 실패 시 재시도를 위해 버퍼에 유지할 최대 항목 수
+    @Value("${milvus.write.max-pending:10000}")
+    private int maxPending;
+
     @Value("${milvus.host}")
     private String host;
 
     @Value("${milvus.port}")
     private int port;
 
-    private MilvusServiceClient milvusClient;
+    // 연결/컬렉션 준비 실패 시 재시도 간격 (실패할 때마다 두 배, 최대 retry-max-ms)
+    @Value("${milvus.prepare.retry-ms:30000}")
+    private long prepareRetryMs;
+
+    @Value("${milvus.prepare.retry-max-ms:600000}")
+    private long prepareRetryMaxMs;
+
+    // 백그라운드 준비 작업이 연결에 성공하면 채워진다
+    private volatile MilvusServiceClient milvusClient;
     private static final String COLLECTION_NAME = "wardrobe_vector";
-    private static final int VECTOR_DIM = 768; // Gemini Embedding Dimension
+
+    // 컬렉션 load 여부 (검색 실패 시 다시 확인)
+    private final AtomicBoolean loaded = new AtomicBoolean(false);
+
+    // 대체 검색 경고 로그 마지막 시각 (분당 1회)
+    private final AtomicLong lastFallbackWarnAt = new AtomicLong();
+
+    // 컬렉션 준비(생성/스키마 이전)가 끝났는지 - 그 전에는 write-behind 행을 전송하지 않고 버퍼에 둔다
+    private volatile boolean writable;
+
+    // 저장소 준비 완료 (Milvus 컬렉션 준비 또는 primary 로컬 인덱스)
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    // wardrobe_id → 대기 중인 행 (같은 의류의 연속 색인은 마지막 값만 전송)
+    private final LinkedHashMap<Long, PendingRow> pending = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "milvus-write-behind");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 연결/컬렉션 준비 전용 (이전 작업이 write-behind 스레드를 붙잡지 않도록 분리)
+    private final ScheduledExecutorService preparer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "milvus-prepare");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static class PendingRow {
+        final Long userId;
+        final List<Float> embedding;
+        final String description;
+
+        PendingRow(Long userId, List<Float> embedding, String description) {
+            this.userId = userId;
+            this.embedding = embedding;
+            this.description = description;
+        }
+    }
 
     @PostConstruct
     public void init() {
-        try {
-            ConnectParam connectParam = ConnectParam.newBuilder()
-                    .withHost(host)
-                    .withPort(port)
-                    .build();
-            milvusClient = new MilvusServiceClient(connectParam);
-            System.out.println("✅ Milvus Connected: " + host + ":" + port);
-
-            initCollection();
-        } catch (Exception e) {
-            System.err.println("❌ Milvus Connection Failed: " + e.getMessage());
-            // Milvus failure shouldn't stop the whole app, but features will be disabled
+        Gauge.builder("milvus.write.pending", this, MilvusClientWrapper::pendingSize).register(meterRegistry);
+        writer.scheduleWithFixedDelay(this::flushPendingQuietly, writeIntervalMs, writeIntervalMs,
+                TimeUnit.MILLISECONDS);
+
+        if (localIndex.isPrimary()) {
+            System.out.println("✅ Vector search uses local index only (milvus.local.mode=primary)");
+            ready.complete(null);
+            return;
         }
+
+        // 기동은 기다리지 않는다 - 연결/이전이 끝나기 전까지 검색은 로컬 인덱스(또는 빈 결과)
+        preparer.execute(() -> prepare(0));
     }
 
-    private void initCollection() {
-        R<Boolean> hasCollection = milvusClient.hasCollection(
-                HasCollectionParam.newBuilder().withCollectionName(COLLECTION_NAME).build());
+    @PreDestroy
+    public void shutdown() {
+        preparer.shutdownNow();
+        writer.shutdown();
+        flushPendingQuietly();
+        if (milvusClient != null) {
+            milvusClient.close();
+        }
+    }
 
-        if (hasCollection.getData() == Boolean.FALSE) {
-            System.out.println("Creating Milvus Collection: " + COLLECTION_NAME);
+    /**
+     * Milvus 연결 + 컬렉션 준비 (preparer 스레드). 실패하면 백오프 후 다시 예약한다.
+     * 이전(migrate)은 중간에 실패해도 다음 시도에서 임시 컬렉션을 지우고 처음부터 다시 복사한다.
+     */
+    private void prepare(int attempt) {
+        try {
+            if (milvusClient == null) {
+                ConnectParam connectParam = ConnectParam.newBuilder()
+                        .withHost(host)
+                        .withPort(port)
+                        .build();
+                milvusClient = new MilvusServiceClient(connectParam);
+                System.out.println("✅ Milvus Connected: " + host + ":" + port);
+            }
+
+            collectionManager.ensureCollection(milvusClient, COLLECTION_NAME);
+            writable = true;
+            meterRegistry.counter("milvus.prepare", "outcome", "success").increment();
+        } catch (Exception e) {
+            meterRegistry.counter("milvus.prepare", "outcome", "error").increment();
+            long delayMs = Math.min(prepareRetryMaxMs, prepareRetryMs << Math.min(attempt, 20));
+            System.err.println("❌ Milvus prepare failed (attempt " + (attempt + 1) + "): " + e.getMessage()
+                    + " - retry in " + delayMs + "ms, searches use the local index meanwhile");
+            if (!preparer.isShutdown()) {
+                preparer.schedule(() -> prepare(attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
 
-            FieldType idField = FieldType.newBuilder()
-                    .withName("wardrobe_id")
-                    .withDataType(DataType.Int64)
-                    .withPrimaryKey(true)
-                    .withAutoID(false)
-                    .build();
+        ready.complete(null);
+        writer.execute(this::flushPendingQuietly);
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            // 검색 시 다시 시도한다
+            System.err.println("⚠️ Milvus load deferred: " + e.getMessage());
+        }
+    }
 
-            FieldType userIdField = FieldType.newBuilder()
-                    .withName("user_id")
-                    .withDataType(DataType.Int64)
-                    .build();
+    /**
+     * 쓰기를 받을 수 있게 되면 완료 (시작 시 동기화는 이 시점까지 미룬다)
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
 
-            FieldType embeddingField = FieldType.newBuilder()
-                    .withName("embedding")
-                    .withDataType(DataType.FloatVector)
-                    .withDimension(VECTOR_DIM)
-                    .build();
+    /**
+     * 컬렉션이 메모리에 load 되어 있는지 확인하고, 아니면 한 번만 load 한다.
+     */
+    private void ensureLoaded() {
+        if (loaded.get())
+            return;
 
-            // Description for debug/verification
-            FieldType descField = FieldType.newBuilder()
-                    .withName("description")
-                    .withDataType(DataType.VarChar)
-                    .withMaxLength(2000)
-                    .build();
+        synchronized (loaded) {
+            if (loaded.get())
+                return;
 
-            CreateCollectionParam createParam = CreateCollectionParam.newBuilder()
-                    .withCollectionName(COLLECTION_NAME)
-                    .withDescription("Wardrobe Vector Data")
-                    .addFieldType(idField)
-                    .addFieldType(userIdField)
-                    .addFieldType(embeddingField)
-                    .addFieldType(descField)
-                    .build();
+            R<io.milvus.grpc.GetLoadStateResponse> state = timed("load_state", () -> milvusClient.getLoadState(
+                    GetLoadStateParam.newBuilder().withCollectionName(COLLECTION_NAME).build()));
+            if (state.getData() != null && state.getData().getState() == LoadState.LoadStateLoaded) {
+                loaded.set(true);
+                return;
+            }
 
-            milvusClient.createCollection(createParam);
-            System.out.println("✅ Milvus Collection Created");
+            R<io.milvus.param.RpcStatus> result = timed("load", () -> milvusClient.loadCollection(
+                    LoadCollectionParam.newBuilder()
+                            .withCollectionName(COLLECTION_NAME)
+                            .build()));
+            if (result.getStatus() != R.Status.Success.getCode()) {
+                throw new IllegalStateException("Milvus load failed: " + result.getMessage());
+            }
+            loaded.set(true);
+            System.out.println("✅ Milvus Collection Loaded: " + COLLECTION_NAME);
         }
     }
 
+    /**
+     * 단건 색인 (write-behind). 버퍼가 writeBatchSize에 도달하거나 writeIntervalMs가 지나면 upsert 된다.
+     * 컬렉션 준비 전이면 준비가 끝날 때까지 버퍼에 둔다 (maxPending 초과분은 버림 - 동기화 상태가 기록되지 않아
+     * 다음 증분 동기화에서 다시 보낸다).
+     */
     public void insertVector(Long wardrobeId, Long userId, List<Float> embedding, String description) {
-        if (milvusClient == null)
+        upsertLocal(wardrobeId, userId, embedding);
+        if (localIndex.isPrimary())
             return;
 
-        // Delete existing entry first (upsert pattern)
-        try {
-            milvusClient.delete(
-                    io.milvus.param.dml.DeleteParam.newBuilder()
-                            .withCollectionName(COLLECTION_NAME)
-                            .withExpr("wardrobe_id == " + wardrobeId)
-                            .build());
-        } catch (Exception e) {
-            // Ignore if doesn't exist
+        int size;
+        synchronized (writeLock) {
+            if (!writable && pending.size() >= maxPending && !pending.containsKey(wardrobeId)) {
+                meterRegistry.counter("milvus.write.dropped").increment();
+                return;
+            }
+            pending.remove(wardrobeId); // 최신 값을 맨 뒤로
+            pending.put(wardrobeId, new PendingRow(userId, embedding, description));
+            size = pending.size();
+        }
+        if (size >= writeBatchSize) {
+            writer.execute(this::flushPendingQuietly);
+        }
+    }
+
+    /**
+     * 여러 벡터를 컬럼 단위로 한 번에 upsert 한다 (일괄 동기화용, 호출 스레드에서 즉시 전송).
+     *
+     * @throws IllegalStateException Milvus를 쓸 수 없는 경우 (standby 로컬 인덱스에만 반영됨)
+     */
+    public void insertVectors(List<Long> wardrobeIds, List<Long> userIds, List<List<Float>> embeddings,
+            List<String> descriptions) {
+        for (int i = 0; i < wardrobeIds.size(); i++) {
+            upsertLocal(wardrobeIds.get(i), userIds.get(i), embeddings.get(i));
         }
+        if (wardrobeIds.isEmpty() || localIndex.isPrimary())
+            return;
+        if (milvusClient == null || !writable)
+            throw new IllegalStateException("Milvus unavailable");
+
+        upsert(wardrobeIds, userIds, embeddings, descriptions);
+    }
 
-        List<Long> wardrobeIds = new ArrayList<>();
-        wardrobeIds.add(wardrobeId);
+    /**
+     * 대기 중인 write-behind 행을 즉시 전송한다 (Milvus flush가 아니라 upsert 전송).
+     * 전송은 writer 락 안에서 이루어지며, deleteVectors도 같은 락을 잡으므로 삭제와 순서가 뒤바뀌지 않는다.
+     */
+    public void flushPending() {
+        if (milvusClient == null || !writable)
+            return;
 
-        List<Long> userIds = new ArrayList<>();
-        userIds.add(userId);
+        synchronized (writer) {
+            List<Long> ids = new ArrayList<>();
+            List<Long> users = new ArrayList<>();
+            List<List<Float>> vectors = new ArrayList<>();
+            List<String> descs = new ArrayList<>();
+            Map<Long, PendingRow> batch;
+            synchronized (writeLock) {
+                if (pending.isEmpty())
+                    return;
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+            for (Map.Entry<Long, PendingRow> e : batch.entrySet()) {
+                ids.add(e.getKey());
+                users.add(e.getValue().userId);
+                vectors.add(e.getValue().embedding);
+                descs.add(e.getValue().description);
+            }
+
+            try {
+                upsert(ids, users, vectors, descs);
+                System.out.println("✅ Upserted " + ids.size() + " vectors (write-behind)");
+            } catch (RuntimeException e) {
+                // 실패한 행은 다시 대기열로 (그 사이 들어온 더 새로운 값은 덮어쓰지 않음)
+                synchronized (writeLock) {
+                    for (Map.Entry<Long, PendingRow> row : batch.entrySet()) {
+                        if (pending.size() >= maxPending) {
+                            System.err.println("❌ Milvus write-behind buffer full, dropping " + row.getKey());
+                            continue;
+                        }
+                        pending.putIfAbsent(row.getKey(), row.getValue());
+                    }
+                }
+                throw e;
+            }
+        }
+    }
 
-        List<List<Float>> vectors = new ArrayList<>();
-        vectors.add(embedding);
+    private void flushPendingQuietly() {
+        try {
+            flushPending();
+        } catch (Exception e) {
+            System.err.println("❌ Milvus write-behind upsert failed: " + e.getMessage());
+        }
+    }
 
-        List<String> descriptions = new ArrayList<>();
-        descriptions.add(description);
+    private int pendingSize() {
+        synchronized (writeLock) {
+            return pending.size();
+        }
+    }
 
+    private void upsert(List<Long> wardrobeIds, List<Long> userIds, List<List<Float>> embeddings,
+            List<String> descriptions) {
         List<InsertParam.Field> fields = new ArrayList<>();
         fields.add(new InsertParam.Field("wardrobe_id", wardrobeIds));
         fields.add(new InsertParam.Field("user_id", userIds));
-        fields.add(new InsertParam.Field("embedding", vectors));
+        fields.add(new InsertParam.Field("embedding", embeddings));
         fields.add(new InsertParam.Field("description", descriptions));
 
-        InsertParam insertParam = InsertParam.newBuilder()
+        R<MutationResult> result = timed("upsert", () -> milvusClient.upsert(UpsertParam.newBuilder()
                 .withCollectionName(COLLECTION_NAME)
                 .withFields(fields)
-                .build();
+                .build()));
+        if (result.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus upsert failed: " + result.getMessage());
+        }
+    }
 
-        milvusClient.insert(insertParam);
+    /**
+     * 벡터 삭제 (판매완료/기부/삭제된 의류 tombstone 처리)
+     */
+    public void deleteVectors(List<Long> wardrobeIds) {
+        localIndex.delete(wardrobeIds);
+        if (wardrobeIds.isEmpty() || localIndex.isPrimary())
+            return;
+        if (milvusClient == null || !writable) {
+            // 아직 보내지 않은 행만 지운다 (Milvus 쪽 삭제는 준비가 끝난 뒤 동기화가 tombstone으로 처리)
+            synchronized (writeLock) {
+                wardrobeIds.forEach(pending::remove);
+            }
+            throw new IllegalStateException("Milvus unavailable");
+        }
 
-        // Flush to ensure data is persisted and searchable
-        milvusClient.flush(
-                io.milvus.param.collection.FlushParam.newBuilder()
-                        .addCollectionName(COLLECTION_NAME)
-                        .build());
+        // flushPending과 같은 락(writer) 안에서 처리한다.
+        // - 진행 중인 upsert(버퍼에서 꺼낸 배치)가 삭제 뒤에 도착하지 않도록 끝날 때까지 기다리고
+        // - upsert 실패로 다시 대기열에 들어간 행까지 제거한 뒤 삭제를 보낸다
+        synchronized (writer) {
+            synchronized (writeLock) {
+                wardrobeIds.forEach(pending::remove);
+            }
 
-        System.out.println("✅ Inserted Vector for Wardrobe ID: " + wardrobeId);
+            R<MutationResult> result = timed("delete", () -> milvusClient.delete(
+                    DeleteParam.newBuilder()
+                            .withCollectionName(COLLECTION_NAME)
+                            .withExpr("wardrobe_id in " + wardrobeIds)
+                            .build()));
+            if (result.getStatus() != R.Status.Success.getCode()) {
+                throw new IllegalStateException("Milvus delete failed: " + result.getMessage());
+            }
+        }
+    }
+
+    /**
+     * embedding 인덱스를 현재 설정(milvus.index.*)으로 다시 만든다.
+     */
+    public void rebuildIndex() {
+        if (milvusClient == null || !writable)
+            throw new IllegalStateException("Milvus unavailable");
+
+        synchronized (loaded) {
+            loaded.set(false);
+            collectionManager.rebuildIndex(milvusClient, COLLECTION_NAME);
+            ensureLoaded();
+        }
+    }
+
+    /**
+     * 현재 인덱스 종류 (없으면 null)
+     */
+    public String currentIndexType() {
+        return milvusClient == null || !writable ? null
+                : collectionManager.currentIndexType(milvusClient, COLLECTION_NAME);
+    }
+
+    /**
+     * 검색 가능 여부 (Milvus 또는 로컬 인덱스)
+     */
+    public boolean isAvailable() {
+        return (milvusClient != null && writable) || localIndex.isEnabled();
+    }
+
+    /**
+     * 벡터의 원본 저장소(Milvus, primary 모드면 로컬 인덱스)가 쓰기를 받는지.
+     * standby 로컬 인덱스만 살아 있을 때 동기화 상태/체크포인트를 기록하면 Milvus 복구 후 그 행을 다시 보내지 않으므로,
+     * 색인 결과를 기록하는 쪽은 이 값을 확인한다.
+     */
+    public boolean isWritable() {
+        return localIndex.isPrimary() || (milvusClient != null && writable);
+    }
+
+    private void upsertLocal(Long wardrobeId, Long userId, List<Float> embedding) {
+        try {
+            localIndex.upsert(wardrobeId, userId, embedding);
+        } catch (Exception e) {
+            System.err.println("⚠️ Local vector index upsert failed for " + wardrobeId + ": " + e.getMessage());
+        }
+    }
+
+    private List<List<Long>> searchLocal(Long userId, List<List<Float>> searchVectors, int topK) {
+        long start = System.nanoTime();
+        try {
+            return localIndex.search(userId, searchVectors, topK);
+        } finally {
+            Timer.builder("milvus.operation")
+                    .tag("op", "local_search")
+                    .tag("outcome", "success")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public List<Long> searchSimilar(Long userId, List<Float> searchVector, int topK) {
-        if (milvusClient == null)
+        List<List<Long>> results = searchSimilarBatch(userId, List.of(searchVector), topK);
+        return results.isEmpty() ? Collections.emptyList() : results.get(0);
+    }
+
+    /**
+     * 여러 질의 벡터를 한 번의 search 호출로 검색한다.
+     *
+     * @return 질의 벡터와 같은 순서의 wardrobe_id 목록
+     */
+    public List<List<Long>> searchSimilarBatch(Long userId, List<List<Float>> searchVectors, int topK) {
+        if (searchVectors.isEmpty())
             return Collections.emptyList();
+        if (milvusClient == null || !writable) {
+            if (!localIndex.isEnabled())
+                return Collections.emptyList();
+            if (!localIndex.isPrimary())
+                warnPartialFallback(milvusClient == null ? "Milvus not connected" : "Milvus collection not ready");
+            return searchLocal(userId, searchVectors, topK);
+        }
+
+        try {
+            return searchMilvus(userId, searchVectors, topK);
+        } catch (RuntimeException e) {
+            if (!localIndex.isEnabled())
+                throw e;
+            warnPartialFallback("Milvus search failed: " + e.getMessage());
+            return searchLocal(userId, searchVectors, topK);
+        }
+    }
+
+    /**
+     * standby 인덱스로 대체 검색할 때 - 이 노드에서 활성화 이후 쓰인 벡터만 있으므로 결과가 불완전할 수 있다.
+     * 로그는 분당 한 번만, 메트릭은 매번 남긴다.
+     */
+    private void warnPartialFallback(String reason) {
+        meterRegistry.counter("milvus.search.fallback", "index", "local-standby").increment();
+        long now = System.currentTimeMillis();
+        long last = lastFallbackWarnAt.get();
+        if (now - last >= 60_000L && lastFallbackWarnAt.compareAndSet(last, now)) {
+            System.err.println("⚠️ " + reason + " → searching local standby index (" + localIndex.size()
+                    + " vectors, this node only, written since it was enabled) - results may be incomplete");
+        }
+    }
 
-        // Ensure collection is loaded
-        milvusClient.loadCollection(
-                io.milvus.param.collection.LoadCollectionParam.newBuilder()
-                        .withCollectionName(COLLECTION_NAME)
-                        .build());
+    private List<List<Long>> searchMilvus(Long userId, List<List<Float>> searchVectors, int topK) {
+        ensureLoaded();
 
         String expr = "user_id == " + userId; // Filter by User ID
 
-        List<List<Float>> vectors = new ArrayList<>();
-        vectors.add(searchVector);
-
         SearchParam searchParam = SearchParam.newBuilder()
                 .withCollectionName(COLLECTION_NAME)
                 .withMetricType(io.milvus.param.MetricType.COSINE)
                 .withOutFields(Arrays.asList("wardrobe_id", "description"))
                 .withTopK(topK)
-                .withVectors(vectors)
-                .withVectorFieldName("embedding")
-                .withExpr(expr) // Partition by User
+                .withVectors(searchVectors)
+                .withVectorFieldName(MilvusCollectionManager.VECTOR_FIELD)
+                .withParams(collectionManager.searchParams())
+                .withExpr(expr) // user_id는 partition key → 해당 사용자 파티션만 검색
                 .build();
 
-        R<SearchResults> response = milvusClient.search(searchParam);
+        R<SearchResults> response = timed("search", () -> milvusClient.search(searchParam));
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            // 컬렉션이 release 되었을 수 있으므로 다음 검색에서 load 상태를 다시 확인
+            loaded.set(false);
+            throw new IllegalStateException("Milvus search failed: " + response.getMessage());
+        }
         SearchResultsWrapper wrapper = new SearchResultsWrapper(response.getData().getResults());
 
-        List<Long> results = new ArrayList<>();
-        List<SearchResultsWrapper.IDScore> idScores = wrapper.getIDScore(0);
-
-        System.out.println("🔍 Search Results (Top " + topK + "):");
-        for (SearchResultsWrapper.IDScore score : idScores) {
-            System.out.println(" - ID: " + score.getLongID() + ", Score: " + score.getScore());
-            results.add(score.getLongID());
+        List<List<Long>> results = new ArrayList<>(searchVectors.size());
+        for (int i = 0; i < searchVectors.size(); i++) {
+            List<Long> ids = new ArrayList<>();
+            for (SearchResultsWrapper.IDScore score : wrapper.getIDScore(i)) {
+                ids.add(score.getLongID());
+            }
+            results.add(ids);
         }
 
+        System.out.println("🔍 Search Results (Top " + topK + ", queries " + searchVectors.size() + "): " + results);
         return results;
     }
+
+    /**
+     * 연산별 지연시간 기록 (milvus.operation{op, outcome})
+     */
+    private <T extends R<?>> T timed(String op, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = result.getStatus() == R.Status.Success.getCode() ? "success" : "error";
+            return result;
+        } finally {
+            Timer.builder("milvus.operation")
+                    .tag("op", op)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 }
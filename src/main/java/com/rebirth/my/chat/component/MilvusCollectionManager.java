@@ -0,0 +1,341 @@
+package com.rebirth.my.chat.component;
+
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.DataType;
+import io.milvus.grpc.DescribeCollectionResponse;
+import io.milvus.grpc.DescribeIndexResponse;
+import io.milvus.grpc.IndexDescription;
+import io.milvus.grpc.KeyValuePair;
+import io.milvus.grpc.MutationResult;
+import io.milvus.orm.iterator.QueryIterator;
+import io.milvus.param.IndexType;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.collection.CreateCollectionParam;
+import io.milvus.param.collection.DescribeCollectionParam;
+import io.milvus.param.collection.DropCollectionParam;
+import io.milvus.param.collection.FieldType;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.collection.ReleaseCollectionParam;
+import io.milvus.param.collection.RenameCollectionParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.QueryIteratorParam;
+import io.milvus.param.dml.UpsertParam;
+import io.milvus.param.index.CreateIndexParam;
+import io.milvus.param.index.DescribeIndexParam;
+import io.milvus.param.index.DropIndexParam;
+import io.milvus.response.DescCollResponseWrapper;
+import io.milvus.response.QueryResultsWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * wardrobe_vector 컬렉션 스키마/인덱스 수명주기 관리
+ *
+ * - 생성 시 user_id를 partition key로 지정 (사용자 필터 검색이 해당 파티션만 조회)
+ * - embedding 필드에 HNSW 또는 IVF_FLAT 인덱스를 생성하고, 필요 시 재생성
+ * - partition key가 없는 기존 컬렉션은 새 스키마 컬렉션으로 벡터를 복사한 뒤 교체 (재임베딩 없음)
+ *
+ * 이전(migrate)은 단일 노드 작업이다. 복사하는 동안 다른 노드가 기존 컬렉션에 쓴 벡터는 새 컬렉션에 옮겨지지 않는다.
+ * 여러 노드로 운영 중이면 한 노드만 milvus.schema.auto-migrate=true로 먼저 띄우고, 나머지는 false로 두거나
+ * 이전이 끝난 뒤 시작한다. 이 노드 안의 쓰기는 MilvusClientWrapper가 ensureCollection이 끝날 때까지 보류한다.
+ * ensureCollection은 MilvusClientWrapper의 백그라운드 준비 작업에서 호출되며, 실패하면 백오프 후 다시 호출된다.
+ */
+@Component
+public class MilvusCollectionManager {
+
+    static final String VECTOR_FIELD = "embedding";
+    private static final String INDEX_NAME = "embedding_idx";
+    private static final int VECTOR_DIM = 768; // Gemini Embedding Dimension
+    private static final int COPY_BATCH_SIZE = 1000;
+
+    // HNSW | IVF_FLAT
+    @Value("${milvus.index.type:HNSW}")
+    private String indexType;
+
+    @Value("${milvus.index.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${milvus.index.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+
+    // 검색 시 후보 수 (topK 이상이어야 함)
+    @Value("${milvus.index.hnsw.ef:64}")
+    private int hnswEf;
+
+    @Value("${milvus.index.ivf.nlist:1024}")
+    private int ivfNlist;
+
+    @Value("${milvus.index.ivf.nprobe:16}")
+    private int ivfNprobe;
+
+    @Value("${milvus.collection.partition-count:64}")
+    private int partitionCount;
+
+    // partition key가 없는 기존 컬렉션을 시작 시 자동으로 이전할지 여부
+    @Value("${milvus.schema.auto-migrate:true}")
+    private boolean autoMigrate;
+
+    /**
+     * 컬렉션과 인덱스를 준비한다 (없으면 생성, 구 스키마면 이전).
+     */
+    void ensureCollection(MilvusServiceClient client, String collection) {
+        String target = collection + "_migrating";
+        if (!exists(client, collection)) {
+            if (exists(client, target)) {
+                // 이전 도중 drop 이후, rename 전에 중단됨 - 복사는 끝난 상태이므로 이름만 마저 바꾼다
+                System.out.println("🔄 Resuming interrupted migration: renaming " + target + " to " + collection);
+                rename(client, target, collection);
+                ensureIndex(client, collection);
+                return;
+            }
+            createCollection(client, collection);
+            return;
+        }
+
+        if (!hasPartitionKey(client, collection)) {
+            if (autoMigrate) {
+                migrate(client, collection);
+            } else {
+                System.err.println("⚠️ Milvus collection " + collection
+                        + " has no user_id partition key (milvus.schema.auto-migrate=false)");
+            }
+        }
+        ensureIndex(client, collection);
+    }
+
+    /**
+     * embedding 인덱스가 없으면 생성한다. 설정과 다른 종류의 인덱스가 있으면 경고만 남긴다 (rebuildIndex로 교체).
+     */
+    void ensureIndex(MilvusServiceClient client, String collection) {
+        String current = currentIndexType(client, collection);
+        if (current == null) {
+            createIndex(client, collection);
+        } else if (!current.equalsIgnoreCase(indexType().name())) {
+            System.err.println("⚠️ Milvus index on " + collection + " is " + current + " but milvus.index.type="
+                    + indexType().name() + " (call rebuildIndex to apply)");
+        }
+    }
+
+    /**
+     * 인덱스를 현재 설정으로 다시 만든다. 재생성 동안 컬렉션은 release 되므로 검색이 실패한다.
+     */
+    void rebuildIndex(MilvusServiceClient client, String collection) {
+        System.out.println("🔧 Rebuilding Milvus index on " + collection + " (" + indexType().name() + ")");
+        check(client.releaseCollection(ReleaseCollectionParam.newBuilder()
+                .withCollectionName(collection).build()), "release");
+        if (currentIndexType(client, collection) != null) {
+            check(client.dropIndex(DropIndexParam.newBuilder()
+                    .withCollectionName(collection)
+                    .withIndexName(INDEX_NAME)
+                    .build()), "drop index");
+        }
+        createIndex(client, collection);
+    }
+
+    /**
+     * 현재 인덱스 종류, 없으면 null
+     */
+    String currentIndexType(MilvusServiceClient client, String collection) {
+        R<DescribeIndexResponse> response = client.describeIndex(DescribeIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withFieldName(VECTOR_FIELD)
+                .build());
+        if (response.getStatus() != R.Status.Success.getCode() || response.getData() == null)
+            return null;
+
+        for (IndexDescription desc : response.getData().getIndexDescriptionsList()) {
+            for (KeyValuePair param : desc.getParamsList()) {
+                if ("index_type".equals(param.getKey()))
+                    return param.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 검색 파라미터 (인덱스 종류별)
+     */
+    String searchParams() {
+        return indexType() == IndexType.IVF_FLAT
+                ? "{\"nprobe\":" + ivfNprobe + "}"
+                : "{\"ef\":" + hnswEf + "}";
+    }
+
+    private IndexType indexType() {
+        return "IVF_FLAT".equalsIgnoreCase(indexType) ? IndexType.IVF_FLAT : IndexType.HNSW;
+    }
+
+    private String indexParams() {
+        return indexType() == IndexType.IVF_FLAT
+                ? "{\"nlist\":" + ivfNlist + "}"
+                : "{\"M\":" + hnswM + ",\"efConstruction\":" + hnswEfConstruction + "}";
+    }
+
+    private void createCollection(MilvusServiceClient client, String collection) {
+        System.out.println("Creating Milvus Collection: " + collection);
+
+        FieldType idField = FieldType.newBuilder()
+                .withName("wardrobe_id")
+                .withDataType(DataType.Int64)
+                .withPrimaryKey(true)
+                .withAutoID(false)
+                .build();
+
+        // 사용자별 검색이 자기 파티션만 보도록 partition key로 지정
+        FieldType userIdField = FieldType.newBuilder()
+                .withName("user_id")
+                .withDataType(DataType.Int64)
+                .withPartitionKey(true)
+                .build();
+
+        FieldType embeddingField = FieldType.newBuilder()
+                .withName(VECTOR_FIELD)
+                .withDataType(DataType.FloatVector)
+                .withDimension(VECTOR_DIM)
+                .build();
+
+        // Description for debug/verification
+        FieldType descField = FieldType.newBuilder()
+                .withName("description")
+                .withDataType(DataType.VarChar)
+                .withMaxLength(2000)
+                .build();
+
+        CreateCollectionParam createParam = CreateCollectionParam.newBuilder()
+                .withCollectionName(collection)
+                .withDescription("Wardrobe Vector Data")
+                .withPartitionsNum(partitionCount)
+                .addFieldType(idField)
+                .addFieldType(userIdField)
+                .addFieldType(embeddingField)
+                .addFieldType(descField)
+                .build();
+
+        check(client.createCollection(createParam), "create collection");
+        createIndex(client, collection);
+        System.out.println("✅ Milvus Collection Created (partition key=user_id, index=" + indexType().name() + ")");
+    }
+
+    private void createIndex(MilvusServiceClient client, String collection) {
+        check(client.createIndex(CreateIndexParam.newBuilder()
+                .withCollectionName(collection)
+                .withFieldName(VECTOR_FIELD)
+                .withIndexName(INDEX_NAME)
+                .withIndexType(indexType())
+                .withMetricType(MetricType.COSINE)
+                .withExtraParam(indexParams())
+                .withSyncMode(Boolean.TRUE)
+                .build()), "create index");
+        System.out.println("✅ Milvus index " + indexType().name() + " " + indexParams() + " on " + collection);
+    }
+
+    /**
+     * 구 스키마 컬렉션 → partition key 스키마 컬렉션으로 벡터 복사 후 이름 교체
+     */
+    private void migrate(MilvusServiceClient client, String collection) {
+        String target = collection + "_migrating";
+        System.out.println("🔄 Migrating Milvus collection " + collection + " to partition-key schema...");
+
+        // 이전 실행에서 중단된 임시 컬렉션 정리
+        if (exists(client, target)) {
+            check(client.dropCollection(DropCollectionParam.newBuilder().withCollectionName(target).build()),
+                    "drop stale " + target);
+        }
+        createCollection(client, target);
+
+        // query iterator는 load 된 컬렉션에서만 동작
+        if (currentIndexType(client, collection) == null) {
+            createIndex(client, collection);
+        }
+        check(client.loadCollection(LoadCollectionParam.newBuilder().withCollectionName(collection).build()),
+                "load " + collection);
+
+        R<QueryIterator> iteratorResponse = client.queryIterator(QueryIteratorParam.newBuilder()
+                .withCollectionName(collection)
+                .withExpr("wardrobe_id >= 0")
+                .withOutFields(Arrays.asList("wardrobe_id", "user_id", VECTOR_FIELD, "description"))
+                .withBatchSize((long) COPY_BATCH_SIZE)
+                .build());
+        check(iteratorResponse, "query iterator");
+
+        QueryIterator iterator = iteratorResponse.getData();
+        long copied = 0;
+        try {
+            while (true) {
+                List<QueryResultsWrapper.RowRecord> rows = iterator.next();
+                if (rows.isEmpty())
+                    break;
+                copied += copyRows(client, target, rows);
+                System.out.println("🔄 Migrated " + copied + " vectors...");
+            }
+        } finally {
+            iterator.close();
+        }
+
+        // drop과 rename 사이에 중단되면 다음 시작 시 ensureCollection이 rename을 마저 수행한다
+        check(client.dropCollection(DropCollectionParam.newBuilder().withCollectionName(collection).build()),
+                "drop " + collection);
+        rename(client, target, collection);
+        System.out.println("✅ Milvus collection " + collection + " migrated (" + copied + " vectors)");
+    }
+
+    private void rename(MilvusServiceClient client, String from, String to) {
+        check(client.renameCollection(RenameCollectionParam.newBuilder()
+                .withOldCollectionName(from)
+                .withNewCollectionName(to)
+                .build()), "rename " + from);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int copyRows(MilvusServiceClient client, String target, List<QueryResultsWrapper.RowRecord> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<Long> userIds = new ArrayList<>(rows.size());
+        List<List<Float>> vectors = new ArrayList<>(rows.size());
+        List<String> descriptions = new ArrayList<>(rows.size());
+        for (QueryResultsWrapper.RowRecord row : rows) {
+            ids.add((Long) row.get("wardrobe_id"));
+            userIds.add((Long) row.get("user_id"));
+            vectors.add((List<Float>) row.get(VECTOR_FIELD));
+            descriptions.add((String) row.get("description"));
+        }
+
+        List<InsertParam.Field> fields = new ArrayList<>();
+        fields.add(new InsertParam.Field("wardrobe_id", ids));
+        fields.add(new InsertParam.Field("user_id", userIds));
+        fields.add(new InsertParam.Field(VECTOR_FIELD, vectors));
+        fields.add(new InsertParam.Field("description", descriptions));
+
+        R<MutationResult> result = client.upsert(UpsertParam.newBuilder()
+                .withCollectionName(target)
+                .withFields(fields)
+                .build());
+        check(result, "copy rows");
+        return ids.size();
+    }
+
+    private boolean exists(MilvusServiceClient client, String collection) {
+        R<Boolean> hasCollection = client.hasCollection(
+                HasCollectionParam.newBuilder().withCollectionName(collection).build());
+        return hasCollection.getData() == Boolean.TRUE;
+    }
+
+    private boolean hasPartitionKey(MilvusServiceClient client, String collection) {
+        R<DescribeCollectionResponse> response = client.describeCollection(
+                DescribeCollectionParam.newBuilder().withCollectionName(collection).build());
+        check(response, "describe " + collection);
+        FieldType userId = new DescCollResponseWrapper(response.getData()).getFieldByName("user_id");
+        return userId != null && userId.isPartitionKey();
+    }
+
+    private static void check(R<?> result, String operation) {
+        if (result.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Milvus " + operation + " failed: " + result.getMessage());
+        }
+    }
+}
@@ -1,30 +1,71 @@
 package com.rebirth.my.chat.component;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
+/**
+ * 규칙 기반 응답기 (LLM 호출 없음)
+ * 모든 LLM 백엔드가 실패하거나 circuit breaker가 열려 있을 때 RoutingLlmClient의 마지막 대안으로 사용된다.
+ */
 @Component
 public class MockLlmClient implements LlmClient {
 
     private static final Logger LOGGER = Logger.getLogger(MockLlmClient.class.getName());
 
+    private static final String DEFAULT_RESPONSE = "죄송합니다. 현재 질문에 대해서는 답변을 드리기가 어렵습니다. \n다른 질문을 해주시면 답변 도와드리겠습니다.";
+
+    // 의도별 고정 응답 (IntentRouter 우선순위대로 선택됨)
+    private static final Map<ChatIntent.Type, String> RESPONSES = new EnumMap<>(ChatIntent.Type.class);
+
+    static {
+        // 1. Critical Data Queries - "죄송합니다"로 시작해 ChatbotService의 DB 조회를 유도
+        RESPONSES.put(ChatIntent.Type.ECO_POINTS, "죄송합니다. 데이터 시스템 연결을 시도합니다.");
+        RESPONSES.put(ChatIntent.Type.WARDROBE_COUNT, "죄송합니다. 데이터 시스템 연결을 시도합니다.");
+
+        // 2. Small Talk & Safety Responses
+        RESPONSES.put(ChatIntent.Type.CONFIRM,
+                "네, 확실합니다! 고객님의 정보는 시스템에서 실시간으로 조회한 정확한 데이터입니다. 믿으셔도 됩니다.");
+        RESPONSES.put(ChatIntent.Type.GREETING, "안녕하세요! Re:birth 패션 AI입니다. 오늘도 스타일리시한 하루 되세요!");
+        RESPONSES.put(ChatIntent.Type.BUSY, "고객님의 옷장을 분석하고 가장 멋진 코디를 고민하고 있었어요. ");
+        RESPONSES.put(ChatIntent.Type.AFFECTION, "어머, 감사합니다! 저도 고객님과 함께해서 행복해요. ");
+        RESPONSES.put(ChatIntent.Type.BORED, "저랑 패션 밸런스 게임 어때요? '평생 패딩 입기' vs '평생 반팔 입기' 골라보세요! ");
+        RESPONSES.put(ChatIntent.Type.HUNGRY, "식사 메뉴 고르는 건 옷 고르는 것만큼 어렵죠. 오늘은 가벼운 샐러드 어떠세요? ");
+        RESPONSES.put(ChatIntent.Type.RECOMMEND,
+                "지금 패션 AI의 영감이 잠시 충전 중입니다. \n대신 '내 옷장'을 열어보시면 잊고 있던 멋진 옷을 발견하실지도 몰라요!");
+        RESPONSES.put(ChatIntent.Type.HOWTO, "죄송합니다. 상세한 안내는 잠시 후 다시 시도해주세요. 궁금한 점은 언제든 물어봐주세요!");
+
+        // 3. Site Info Fallback (When LLM fails)
+        RESPONSES.put(ChatIntent.Type.SITE_INFO,
+                "Re:birth는 안 입는 옷을 업사이클링하고, 나만의 디지털 옷장을 관리하며 탄소 중립을 실천하는 지속 가능한 패션 플랫폼입니다.");
+    }
+
+    @Autowired
+    private IntentRouter intentRouter;
+
     @Override
     public String generateResponse(String systemPrompt, String userMessage, String context) {
-        LOGGER.info("[MockLLM] System: " + systemPrompt);
-        LOGGER.info("[MockLLM] Context: " + context);
-        LOGGER.info("[MockLLM] User: " + userMessage);
-
-        // Simple Rule-based Simulation for "Real-world" feel
-        String loweredMsg = userMessage.toLowerCase();
-
-        if (loweredMsg.contains("안녕")) {
-            return "안녕하세요! 리버스 고객센터 챗봇입니다. 무엇을 도와드릴까요? (Mock)";
-        } else if (loweredMsg.contains("포인트") || loweredMsg.contains("점수")) {
-            return "현재 고객님의 에코 포인트는 [Function: getUserPoints] 로 조회됩니다. (실제 DB 연동 예정)";
-        } else if (loweredMsg.contains("추천") || loweredMsg.contains("코디")) {
-            return "오늘 날씨에 맞춰 추천해드릴 코디는 [Function: recommendOutfit] 입니다. 마음에 드시나요?";
-        }
-
-        return "죄송합니다. 제가 답변하기 어려운 내용이네요. '포인트'나 '코디 추천'이라고 물어봐 주시겠어요?";
+        LOGGER.info("[RuleBased] User: " + userMessage);
+
+        ChatIntent intent = intentRouter.classify(userMessage, RESPONSES.keySet());
+
+        // Friendly Fallback Message for User
+        return RESPONSES.getOrDefault(intent.getType(), DEFAULT_RESPONSE);
+    }
+
+    // 규칙 기반 응답은 항상 degraded (캐시 금지)
+    @Override
+    public Reply generateReply(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        return new Reply(generateResponse(systemPrompt, userMessage, context), true);
+    }
+
+    @Override
+    public Reply streamReply(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        return new Reply(streamResponse(systemPrompt, userMessage, context, onToken), true);
     }
 }
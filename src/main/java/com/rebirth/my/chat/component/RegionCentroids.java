@@ -0,0 +1,259 @@
+package com.rebirth.my.chat.component;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 행정구역명 → 대표 좌표 오프라인 조회 (geo/region_centroids.tsv)
+ *
+ * 네트워크 호출 없이 "시도 시군구" 수준까지 근사 좌표를 돌려준다.
+ * - 시도는 약칭/구 명칭 모두 인식 (서울, 서울시, 서울특별시 / 강원도, 강원특별자치도 등)
+ * - 시군구는 접미사 생략 허용 (수원 → 수원시, 강남 → 강남구)
+ * - 시도 없이 시군구만 적힌 주소는 전국에서 이름이 유일한 경우에만 매칭 (중구, 서구 등은 제외)
+ * - 어절 단위로 비교한다. 붙여 쓴 "대전서구"처럼 시도 약칭으로 시작하는 어절은 나머지가 그 시도의
+ *   시군구일 때만 나눠 읽는다 ("부산진구"는 부산진구, "세종로"는 세종시가 아님)
+ */
+@Component
+public class RegionCentroids {
+
+    private static final Logger log = LoggerFactory.getLogger(RegionCentroids.class);
+
+    private static final String RESOURCE = "geo/region_centroids.tsv";
+    private static final String[] DISTRICT_SUFFIXES = { "시", "군", "구" };
+
+    // 약칭 → 정식 시도명
+    private static final Map<String, String> PROVINCE_ALIASES = new HashMap<>();
+
+    static {
+        alias("서울특별시", "서울", "서울시");
+        alias("부산광역시", "부산", "부산시");
+        alias("대구광역시", "대구", "대구시");
+        alias("인천광역시", "인천", "인천시");
+        alias("광주광역시", "광주");
+        alias("대전광역시", "대전", "대전시");
+        alias("울산광역시", "울산", "울산시");
+        alias("세종특별자치시", "세종", "세종시");
+        alias("경기도", "경기");
+        alias("강원특별자치도", "강원", "강원도");
+        alias("충청북도", "충북");
+        alias("충청남도", "충남");
+        alias("전북특별자치도", "전북", "전라북도");
+        alias("전라남도", "전남");
+        alias("경상북도", "경북");
+        alias("경상남도", "경남");
+        alias("제주특별자치도", "제주", "제주도");
+    }
+
+    // 붙여 쓴 어절 분리용 ("대전서구" 등) - 긴 별칭부터 시도
+    private static final List<String> ALIASES_BY_LENGTH = new ArrayList<>(PROVINCE_ALIASES.keySet());
+
+    static {
+        ALIASES_BY_LENGTH.sort(Comparator.comparingInt(String::length).reversed());
+    }
+
+    private final Map<String, double[]> provinces = new HashMap<>();
+    private final Map<String, Map<String, double[]>> districts = new HashMap<>();
+    // 시도별 시군구 이름 (긴 이름부터, "수원시팔달구" 같은 붙여 쓴 어절 분리용)
+    private final Map<String, List<String>> districtNamesByLength = new HashMap<>();
+    // 시도 없이 적힌 시군구 → 행정구역 (전국에서 이름이 유일한 것만)
+    private final Map<String, Region> uniqueDistricts = new HashMap<>();
+
+    private static void alias(String province, String... aliases) {
+        PROVINCE_ALIASES.put(province, province);
+        for (String a : aliases) {
+            PROVINCE_ALIASES.put(a, province);
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        Map<String, List<Region>> byName = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#"))
+                    continue;
+
+                String[] cols = line.split("\t", -1);
+                if (cols.length < 4)
+                    continue;
+
+                String province = cols[0].trim();
+                String district = cols[1].trim();
+                double[] coords = { Double.parseDouble(cols[2].trim()), Double.parseDouble(cols[3].trim()) };
+
+                if (district.isEmpty()) {
+                    provinces.put(province, coords);
+                    continue;
+                }
+
+                districts.computeIfAbsent(province, k -> new HashMap<>()).put(district, coords);
+                for (String name : namesOf(district)) {
+                    // 같은 시도 안의 중복 이름은 한 번만 센다
+                    if (seen.add(province + "|" + name)) {
+                        byName.computeIfAbsent(name, k -> new ArrayList<>()).add(new Region(province, district, coords));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("[RegionCentroids] {} 로드 실패 - 오프라인 좌표 조회 비활성: {}", RESOURCE, e.getMessage());
+            return;
+        }
+
+        districts.forEach((province, inProvince) -> {
+            List<String> names = new ArrayList<>(inProvince.keySet());
+            names.sort(Comparator.comparingInt(String::length).reversed());
+            districtNamesByLength.put(province, names);
+        });
+
+        byName.forEach((name, list) -> {
+            if (list.size() == 1 && !PROVINCE_ALIASES.containsKey(name)) {
+                uniqueDistricts.put(name, list.get(0));
+            }
+        });
+
+        int districtCount = districts.values().stream().mapToInt(Map::size).sum();
+        log.info("[RegionCentroids] 시도 {}개, 시군구 {}개 로드", provinces.size(), districtCount);
+    }
+
+    /**
+     * 주소에서 알아본 행정구역
+     *
+     * @param district 정식 시군구명 (시도까지만 알아본 경우 null)
+     */
+    public record Region(String province, String district, double[] coords) {
+    }
+
+    /**
+     * 주소의 행정구역 대표 좌표
+     *
+     * @param address 한국 주소 (예: "서울 강남구 테헤란로 123", "(35233) 대전서구 도마동")
+     * @return double[]{위도, 경도} 또는 null (행정구역을 알아볼 수 없는 경우)
+     */
+    public double[] lookup(String address) {
+        Region region = resolve(address);
+        return region != null ? region.coords().clone() : null;
+    }
+
+    /**
+     * 주소의 시도/시군구와 대표 좌표
+     *
+     * @return 행정구역을 알아볼 수 없으면 null
+     */
+    public Region resolve(String address) {
+        List<String> tokens = tokenize(address);
+        if (tokens.isEmpty())
+            return null;
+
+        // 1. 어절 전체가 시도명/약칭인 경우 (우편번호, "대한민국" 등이 앞에 와도 찾도록 전체 어절 검사)
+        for (int i = 0; i < tokens.size(); i++) {
+            String province = PROVINCE_ALIASES.get(tokens.get(i));
+            if (province != null)
+                return inProvince(province, tokens.subList(i + 1, Math.min(i + 3, tokens.size())));
+        }
+
+        // 2. 시도 약칭 + 시군구를 붙여 쓴 어절 ("대전서구", "서울시강남구") - 나머지가 그 시도의 시군구일 때만
+        for (String token : tokens) {
+            for (String alias : ALIASES_BY_LENGTH) {
+                if (token.length() <= alias.length() || !token.startsWith(alias))
+                    continue;
+                String province = PROVINCE_ALIASES.get(alias);
+                String district = findDistrict(province, token.substring(alias.length()));
+                if (district != null)
+                    return region(province, district);
+            }
+        }
+
+        // 3. 시도 없이 시군구만 (전국에서 유일한 이름만)
+        for (int i = 0; i < Math.min(3, tokens.size()); i++) {
+            Region region = uniqueDistricts.get(tokens.get(i));
+            if (region != null)
+                return region;
+        }
+        return null;
+    }
+
+    private Region inProvince(String province, List<String> following) {
+        for (String token : following) {
+            String district = findDistrict(province, token);
+            if (district != null)
+                return region(province, district);
+        }
+        double[] coords = provinces.get(province);
+        return coords != null ? new Region(province, null, coords) : null;
+    }
+
+    private Region region(String province, String district) {
+        return new Region(province, district, districts.get(province).get(district));
+    }
+
+    /**
+     * 어절 하나가 가리키는 시군구 (정식명, 접미사 생략, "수원시팔달구"처럼 시 + 구를 붙여 쓴 형태)
+     *
+     * @return 정식 시군구명 또는 null
+     */
+    private String findDistrict(String province, String token) {
+        Map<String, double[]> inProvince = districts.get(province);
+        if (inProvince == null || token.isEmpty())
+            return null;
+        if (inProvince.containsKey(token))
+            return token;
+        for (String suffix : DISTRICT_SUFFIXES) {
+            if (inProvince.containsKey(token + suffix))
+                return token + suffix;
+        }
+        for (String name : districtNamesByLength.getOrDefault(province, List.of())) {
+            if (name.endsWith("시") && token.startsWith(name) && token.endsWith("구")
+                    && token.length() > name.length() + 1)
+                return name;
+        }
+        return null;
+    }
+
+    private static List<String> tokenize(String address) {
+        List<String> tokens = new ArrayList<>();
+        if (address == null)
+            return tokens;
+        String cleaned = address.replaceAll("\\(\\d{3}-?\\d{2,3}\\)", " ").replaceAll("[,()]", " ").trim();
+        for (String token : cleaned.split("\\s+")) {
+            if (token.isEmpty() || token.matches("\\d{5}|\\d{3}-\\d{3}") || "대한민국".equals(token))
+                continue;
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * 시군구 이름과 접미사를 뗀 약칭 (강남구 → 강남구, 강남)
+     */
+    private static List<String> namesOf(String district) {
+        List<String> names = new ArrayList<>();
+        names.add(district);
+        for (String suffix : DISTRICT_SUFFIXES) {
+            if (district.endsWith(suffix) && district.length() > suffix.length() + 1) {
+                names.add(district.substring(0, district.length() - suffix.length()));
+                break;
+            }
+        }
+        return names;
+    }
+}
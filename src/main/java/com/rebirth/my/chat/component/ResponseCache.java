@@ -0,0 +1,389 @@
+package com.rebirth.my.chat.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 챗봇 응답 캐시
+ *
+ * - 크기 제한 LRU (가장 오래 사용되지 않은 항목부터 제거)
+ * - 항목별 TTL (사용자 범위는 짧게, 전역 범위는 길게)
+ * - 기본은 사용자 범위. 사용자 데이터와 무관한 것으로 알려진 의도(global-intents)만 전역 범위로 공유
+ * - 정규화 키 (문장부호 제거, 공백 하나로 통일, 어간이 남는 경우에만 조사 제거)
+ * - 임베딩 유사도 기반 근사 질문 히트 (EmbeddingClient)
+ *   - 임베딩은 keyFor 시점에 비동기로 시작해 컨텍스트 조회와 겹치게 하고,
+ *     조회 시 semantic-wait-ms 안에 준비되지 않으면 유사도 비교를 건너뛴다 (응답 경로에 원격 호출을 더하지 않음)
+ *   - 숫자/날짜 표현("내일" vs "모레", "3일" vs "5일")이 다르면 유사해도 히트로 보지 않는다
+ *
+ * 히트/미스/제거 카운터는 actuator(/actuator/metrics)로 노출된다.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    @Autowired
+    private EmbeddingClient embeddingClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chatbot.cache.max-size:500}")
+    private int maxSize;
+
+    @Value("${chatbot.cache.global-ttl-seconds:3600}")
+    private long globalTtlSeconds;
+
+    @Value("${chatbot.cache.user-ttl-seconds:300}")
+    private long userTtlSeconds;
+
+    @Value("${chatbot.cache.semantic-enabled:true}")
+    private boolean semanticEnabled;
+
+    @Value("${chatbot.cache.similarity-threshold:0.92}")
+    private double similarityThreshold;
+
+    // 조회 시 임베딩을 기다리는 최대 시간 (준비되지 않았으면 정확 일치만 사용)
+    @Value("${chatbot.cache.semantic-wait-ms:30}")
+    private long semanticWaitMs;
+
+    // 사용자 데이터와 무관하게 같은 답이 나오는 의도 → 전역 범위 (그 외는 모두 사용자 범위)
+    @Value("${chatbot.cache.global-intents:GREETING,BUSY,AFFECTION,BORED,HUNGRY,HOWTO,SITE_INFO}")
+    private Set<ChatIntent.Type> globalIntents;
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{Punct}…~·“”‘’!?。、]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 어절 끝의 조사 (키 정규화 용도로만 사용, 긴 것부터 시도)
+    private static final Pattern PARTICLE = Pattern.compile(
+            "(에서|에게|으로|이랑|은|는|을|를|에|의|도|로|와|과|랑)$");
+    // 조사를 떼고도 남아야 하는 어간 길이 ("문제" → "문", "사이" → "사" 같은 훼손 방지)
+    private static final int MIN_STEM_LENGTH = 2;
+    // 답을 바꾸는 숫자/날짜 표현 - 유사도 히트는 이 값들이 모두 같을 때만 허용
+    private static final Pattern DISCRIMINATOR = Pattern.compile(
+            "\\d+|오늘|내일|모레|글피|어제|그제|그저께|이번\\s*주|다음\\s*주|지난\\s*주|주말|평일"
+                    + "|[월화수목금토일]요일|아침|점심|저녁|밤|봄|여름|가을|겨울");
+
+    // 질문 임베딩 계산 전용 (작게 제한, 넘치면 해당 질문은 유사도 비교 없이 진행)
+    private final ThreadPoolExecutor embeddingExecutor = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(32), r -> {
+                Thread t = new Thread(r, "chatbot-cache-embed");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private Counter exactHits;
+    private Counter semanticHits;
+    private Counter misses;
+    private Counter evictions;
+    private Counter expirations;
+
+    @PostConstruct
+    public void init() {
+        exactHits = Counter.builder("chatbot.cache.hits").tag("type", "exact").register(meterRegistry);
+        semanticHits = Counter.builder("chatbot.cache.hits").tag("type", "semantic").register(meterRegistry);
+        misses = Counter.builder("chatbot.cache.misses").register(meterRegistry);
+        evictions = Counter.builder("chatbot.cache.evictions").tag("cause", "size").register(meterRegistry);
+        expirations = Counter.builder("chatbot.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder("chatbot.cache.size", this, ResponseCache::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        embeddingExecutor.shutdownNow();
+    }
+
+    /**
+     * 캐시 조회/저장에 쓰이는 키. 임베딩은 keyFor에서 한 번 시작해 get/put 사이에 재사용한다.
+     */
+    public static class Key {
+        private final String scope; // "global" 또는 "user:{id}"
+        private final String normalized;
+        private final String discriminator;
+        private final boolean global;
+        private final CompletableFuture<float[]> embedding;
+
+        private Key(String scope, String normalized, String discriminator, boolean global,
+                CompletableFuture<float[]> embedding) {
+            this.scope = scope;
+            this.normalized = normalized;
+            this.discriminator = discriminator;
+            this.global = global;
+            this.embedding = embedding;
+        }
+
+        public boolean isGlobal() {
+            return global;
+        }
+
+        String mapKey() {
+            return scope + "|" + normalized;
+        }
+    }
+
+    private static class Entry {
+        final String scope;
+        final String response;
+        final String discriminator;
+        final CompletableFuture<float[]> embedding;
+        final long expiresAt;
+
+        Entry(Key key, String response, long expiresAt) {
+            this.scope = key.scope;
+            this.response = response;
+            this.discriminator = key.discriminator;
+            this.embedding = key.embedding;
+            this.expiresAt = expiresAt;
+        }
+
+        float[] embeddingIfReady() {
+            return embedding.isDone() && !embedding.isCompletedExceptionally() ? embedding.join() : null;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /**
+     * @param intent IntentRouter 분류 결과 (전역 범위 여부 판단)
+     */
+    public Key keyFor(String userId, String message, ChatIntent intent) {
+        boolean global = intent != null && globalIntents.contains(intent.getType());
+        String scope = global ? "global" : "user:" + userId;
+        return new Key(scope, normalize(message), discriminator(message), global, startEmbedding(message));
+    }
+
+    /**
+     * 캐시 조회 (정확 일치 → 임베딩 유사도 순)
+     *
+     * @return 캐시된 응답, 없으면 null
+     */
+    public String get(Key key) {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            Entry entry = entries.get(key.mapKey());
+            if (entry != null) {
+                if (!entry.isExpired(now)) {
+                    exactHits.increment();
+                    return entry.response;
+                }
+                entries.remove(key.mapKey());
+                expirations.increment();
+            }
+        }
+
+        if (semanticEnabled) {
+            float[] query = awaitEmbedding(key);
+            if (query != null) {
+                String similar = findSimilar(key, query, now);
+                if (similar != null) {
+                    semanticHits.increment();
+                    return similar;
+                }
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    public void put(Key key, String response) {
+        if (response == null || response.isBlank())
+            return;
+
+        long ttlMillis = (key.global ? globalTtlSeconds : userTtlSeconds) * 1000L;
+        Entry entry = new Entry(key, response, System.currentTimeMillis() + ttlMillis);
+
+        synchronized (entries) {
+            entries.put(key.mapKey(), entry);
+        }
+    }
+
+    /**
+     * 특정 사용자의 캐시 항목 제거 (포인트/옷장 변경 직후 호출)
+     */
+    public void invalidateUser(String userId) {
+        String prefix = "user:" + userId + "|";
+        synchronized (entries) {
+            entries.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 제거 (커밋 전 조회로 이전 값이 다시 캐시되지 않도록)
+     */
+    public void invalidateUserAfterCommit(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateUser(userId);
+                }
+            });
+        } else {
+            invalidateUser(userId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private String findSimilar(Key key, float[] query, long now) {
+        String best = null;
+        double bestScore = similarityThreshold;
+
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next().getValue();
+                if (entry.isExpired(now)) {
+                    it.remove();
+                    expirations.increment();
+                    continue;
+                }
+                if (!key.scope.equals(entry.scope) || !key.discriminator.equals(entry.discriminator))
+                    continue;
+                float[] candidate = entry.embeddingIfReady();
+                if (candidate == null || candidate.length != query.length)
+                    continue;
+
+                double score = dot(query, candidate);
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = entry.response;
+                }
+            }
+        }
+
+        if (best != null) {
+            log.debug("[ResponseCache] 유사 질문 히트 (score={})", bestScore);
+        }
+        return best;
+    }
+
+    private CompletableFuture<float[]> startEmbedding(String message) {
+        if (!semanticEnabled || message == null || message.isBlank())
+            return CompletableFuture.completedFuture(null);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                List<Float> values = embeddingClient.getEmbedding(message);
+                return values.isEmpty() ? null : unitVector(values);
+            }, embeddingExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private float[] awaitEmbedding(Key key) {
+        try {
+            return key.embedding.get(semanticWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            // 시간 초과/실패 → 유사도 비교 생략 (임베딩은 계속 진행되어 put 이후 항목에 붙는다)
+            return null;
+        }
+    }
+
+    private static float[] unitVector(List<Float> values) {
+        float[] v = new float[values.size()];
+        double norm = 0;
+        for (int i = 0; i < v.length; i++) {
+            v[i] = values.get(i);
+            norm += v[i] * v[i];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < v.length; i++) {
+                v[i] /= norm;
+            }
+        }
+        return v;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static String normalize(String message) {
+        if (message == null)
+            return "";
+
+        String text = PUNCTUATION.matcher(message.toLowerCase()).replaceAll(" ");
+        StringBuilder sb = new StringBuilder();
+        for (String token : WHITESPACE.split(text.trim())) {
+            if (token.isEmpty())
+                continue;
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append(stripParticle(token));
+        }
+        return sb.toString();
+    }
+
+    private static String stripParticle(String token) {
+        Matcher m = PARTICLE.matcher(token);
+        if (m.find() && m.start() >= MIN_STEM_LENGTH)
+            return token.substring(0, m.start());
+        return token;
+    }
+
+    /**
+     * 숫자/날짜 표현만 순서대로 뽑은 값 (없으면 빈 문자열)
+     */
+    static String discriminator(String message) {
+        if (message == null)
+            return "";
+        Matcher m = DISCRIMINATOR.matcher(message.toLowerCase());
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            if (sb.length() > 0)
+                sb.append(',');
+            sb.append(WHITESPACE.matcher(m.group()).replaceAll(""));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,310 @@
+package com.rebirth.my.chat.component;
+
+import com.rebirth.my.chat.ChatDao;
+import com.rebirth.my.chat.RoomMemberVo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅방 멤버십 / 사용자 카드 캐시
+ *
+ * - 방마다 멤버 집합과 표시용 카드(이름, 이메일, 프로필 이미지, 마지막 읽은 시간)를 들고 있다
+ * - 처음 접근할 때 방 + 멤버 + 사용자를 쿼리 한 번으로 적재 (1:1 방은 두 사용자/상품으로도 찾음)
+ * - 재입장(rejoinRoomMembers), 읽음 커서(ReadCursorService)는 캐시에 바로 반영
+ * - 멤버 추가(insertRoomMember), 나가기(updateLeaveRoom)는 해당 방을 무효화 → 다음 접근 때 다시 적재
+ * - 크기 제한 LRU + TTL (다른 노드에서 바뀐 멤버십도 ttl-minutes 안에 반영)
+ *
+ * 실시간 메시지 라우팅(상대방 알림)은 DB 조회 없이 이 캐시의 해시 조회로 끝난다.
+ */
+@Component
+public class RoomRegistry {
+
+    @Autowired
+    private ChatDao chatDao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.rooms.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${chat.rooms.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    private final LinkedHashMap<Long, Room> rooms = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Room> eldest) {
+            if (size() > maxSize) {
+                privateRooms.remove(eldest.getValue().pairKey);
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // 1:1 방 (두 사용자 + 상품) → roomId
+    private final Map<String, Long> privateRooms = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("chat.rooms.cache.size", this, RoomRegistry::size).register(meterRegistry);
+    }
+
+    /**
+     * 방 조회 (캐시에 없으면 한 번의 쿼리로 적재)
+     *
+     * @return 방이 없거나 멤버가 없으면 null
+     */
+    public Room get(Long roomId) {
+        if (roomId == null)
+            return null;
+
+        synchronized (this) {
+            Room room = rooms.get(roomId);
+            if (room != null && !room.isExpired()) {
+                count("hit");
+                return room;
+            }
+        }
+
+        count("miss");
+        return cache(chatDao.selectRoomMembers(roomId));
+    }
+
+    /**
+     * 두 사용자(+ 상품)의 1:1 방 조회
+     *
+     * @return 아직 방이 없으면 null (없다는 결과는 캐시하지 않음)
+     */
+    public Room findPrivateRoom(Long userId1, Long userId2, Long itemId) {
+        String key = pairKey(userId1, userId2, itemId);
+        synchronized (this) {
+            Long roomId = privateRooms.get(key);
+            Room room = roomId != null ? rooms.get(roomId) : null;
+            if (room != null && !room.isExpired()) {
+                count("hit");
+                return room;
+            }
+        }
+
+        count("miss");
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId1", userId1);
+        params.put("userId2", userId2);
+        params.put("itemId", itemId);
+        return cache(chatDao.selectPrivateRoomMembers(params));
+    }
+
+    /**
+     * 상대방 ID (1:1 방에서 나를 제외한 첫 멤버)
+     */
+    public Long partnerOf(Long roomId, Long userId) {
+        Room room = get(roomId);
+        if (room == null)
+            return null;
+        MemberCard partner = room.partnerOf(userId);
+        return partner != null ? partner.getUserId() : null;
+    }
+
+    /**
+     * 멤버 추가(insertRoomMember) 후 호출 - 다음 접근 때 다시 적재
+     */
+    public void memberAdded(Long roomId) {
+        invalidate(roomId);
+    }
+
+    /**
+     * 나가기(updateLeaveRoom) 후 호출
+     */
+    public void memberLeft(Long roomId) {
+        invalidate(roomId);
+    }
+
+    /**
+     * 재입장 처리(rejoinRoomMembers) 후 호출
+     */
+    public void rejoined(Long roomId) {
+        Room room;
+        synchronized (this) {
+            room = rooms.get(roomId);
+        }
+        if (room != null) {
+            for (MemberCard member : room.getMembers()) {
+                member.left = false;
+            }
+        }
+    }
+
+    /**
+     * 읽음 처리(ReadCursorService.markRead) 시 호출
+     */
+    public void markRead(Long roomId, Long userId, LocalDateTime readAt) {
+        Room room;
+        synchronized (this) {
+            room = rooms.get(roomId);
+        }
+        if (room != null) {
+            MemberCard member = room.member(userId);
+            if (member != null)
+                member.lastReadAt = readAt;
+        }
+    }
+
+    public synchronized void invalidate(Long roomId) {
+        Room room = rooms.remove(roomId);
+        if (room != null && room.pairKey != null) {
+            privateRooms.remove(room.pairKey);
+        }
+    }
+
+    private synchronized int size() {
+        return rooms.size();
+    }
+
+    private Room cache(List<RoomMemberVo> rows) {
+        if (rows == null || rows.isEmpty())
+            return null;
+
+        Room room = new Room(rows, TimeUnit.MINUTES.toMillis(ttlMinutes));
+        synchronized (this) {
+            Room previous = rooms.put(room.getRoomId(), room);
+            if (previous != null && previous.pairKey != null) {
+                privateRooms.remove(previous.pairKey);
+            }
+            if (room.pairKey != null) {
+                privateRooms.put(room.pairKey, room.getRoomId());
+            }
+        }
+        return room;
+    }
+
+    private static String pairKey(Long userId1, Long userId2, Long itemId) {
+        long a = Math.min(userId1, userId2);
+        long b = Math.max(userId1, userId2);
+        return a + ":" + b + ":" + (itemId != null ? itemId : "-");
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("chat.rooms.cache", "result", result).increment();
+    }
+
+    /**
+     * 캐시된 방 (멤버 목록은 적재 후 바뀌지 않음 - 바뀌면 방 단위로 다시 적재)
+     */
+    public static final class Room {
+        private final Long roomId;
+        private final Long itemId;
+        private final String roomType;
+        private final Map<Long, MemberCard> members = new LinkedHashMap<>();
+        private final String pairKey;
+        private final long expiresAt;
+
+        Room(List<RoomMemberVo> rows, long ttlMs) {
+            RoomMemberVo first = rows.get(0);
+            this.roomId = first.getRoomId();
+            this.itemId = first.getItemId();
+            this.roomType = first.getRoomType();
+            for (RoomMemberVo row : rows) {
+                members.put(row.getUserId(), new MemberCard(row));
+            }
+            this.pairKey = "PRIVATE".equals(roomType) && members.size() == 2
+                    ? pairKey(rows.get(0).getUserId(), rows.get(1).getUserId(), itemId)
+                    : null;
+            this.expiresAt = System.currentTimeMillis() + ttlMs;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+
+        public Long getRoomId() {
+            return roomId;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public String getRoomType() {
+            return roomType;
+        }
+
+        public Collection<MemberCard> getMembers() {
+            return Collections.unmodifiableCollection(members.values());
+        }
+
+        public boolean isMember(Long userId) {
+            return members.containsKey(userId);
+        }
+
+        public MemberCard member(Long userId) {
+            return members.get(userId);
+        }
+
+        public MemberCard partnerOf(Long userId) {
+            for (MemberCard member : members.values()) {
+                if (!member.getUserId().equals(userId))
+                    return member;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 사용자 카드 (표시용 최소 정보 + 방별 읽음/나감 상태)
+     */
+    public static final class MemberCard {
+        private final Long userId;
+        private final String name;
+        private final String email;
+        private final String memImg;
+        private volatile LocalDateTime lastReadAt;
+        private volatile boolean left;
+
+        MemberCard(RoomMemberVo row) {
+            this.userId = row.getUserId();
+            this.name = row.getName();
+            this.email = row.getEmail();
+            this.memImg = row.getMemImg();
+            this.lastReadAt = row.getLastReadAt();
+            this.left = row.getLeftAt() != null;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getMemImg() {
+            return memImg;
+        }
+
+        public LocalDateTime getLastReadAt() {
+            return lastReadAt;
+        }
+
+        public boolean isLeft() {
+            return left;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.rebirth.my.chat.component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * LLM 라우터 (기본 LlmClient)
+ *
+ * 백엔드+모델 조합(route)마다 circuit breaker와 EWMA 지연/오류율을 유지하고,
+ * 호출 가능한 route를 점수(지연 x (1 + 가중치 x 오류율)) 순으로 시도한다.
+ * - 429는 Retry-After 만큼 해당 route를 즉시 연다 (헤더 없으면 기본값)
+ * - 연속 실패 시 지수적으로 늘어나는 기간 동안 열고, 이후 한 번의 probe로 복구 여부를 확인
+ * - 호출 가능한 route가 없으면 네트워크 대기 없이 바로 규칙 기반 응답(MockLlmClient)
+ * - 스트리밍 중 토큰을 내보낸 뒤 실패하면 다른 route로 넘어가지 않고 받은 부분까지 반환
+ *   (이미 사용자 화면에 출력된 내용과 다른 답변이 섞이지 않도록)
+ */
+@Component
+@Primary
+public class RoutingLlmClient implements LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingLlmClient.class);
+
+    @Autowired
+    private GroqLlmClient groqLlmClient;
+
+    @Autowired
+    private GeminiLlmClient geminiLlmClient;
+
+    @Autowired
+    private MockLlmClient mockLlmClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 선호 순서 (앞쪽일수록 초기 점수가 좋음)
+    @Value("${llm.router.order:groq,gemini}")
+    private List<String> order;
+
+    @Value("${llm.router.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${llm.router.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${llm.router.max-open-duration-ms:300000}")
+    private long maxOpenDurationMs;
+
+    @Value("${llm.router.default-retry-after-ms:60000}")
+    private long defaultRetryAfterMs;
+
+    // 오류율이 점수에 미치는 가중치
+    @Value("${llm.router.error-penalty:4.0}")
+    private double errorPenalty;
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final List<Route> routes = new ArrayList<>();
+
+    /**
+     * 백엔드+모델 단위 호출 경로
+     */
+    private class Route {
+        final LlmBackend backend;
+        final String model;
+        final String id;
+        final CircuitBreaker breaker;
+        private double latencyMs;
+        private double errorRate;
+
+        Route(LlmBackend backend, String model, double priorLatencyMs) {
+            this.backend = backend;
+            this.model = model;
+            this.id = backend.name() + ":" + model;
+            this.breaker = new CircuitBreaker(failureThreshold, openDurationMs, maxOpenDurationMs);
+            this.latencyMs = priorLatencyMs;
+        }
+
+        synchronized double score() {
+            return latencyMs * (1 + errorPenalty * errorRate);
+        }
+
+        synchronized void observe(long elapsedMs, boolean failed) {
+            latencyMs = EWMA_ALPHA * elapsedMs + (1 - EWMA_ALPHA) * latencyMs;
+            errorRate = EWMA_ALPHA * (failed ? 1 : 0) + (1 - EWMA_ALPHA) * errorRate;
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RouteCall {
+        String call(Route route);
+    }
+
+    @PostConstruct
+    public void init() {
+        Map<String, LlmBackend> backends = Map.of(
+                groqLlmClient.name(), groqLlmClient,
+                geminiLlmClient.name(), geminiLlmClient);
+
+        // 초기 지연 prior: 선호 순서대로 1s, 2s, ... (모델 순서도 반영)
+        double prior = 1000;
+        for (String name : order) {
+            LlmBackend backend = backends.get(name.trim());
+            if (backend == null) {
+                log.warn("[LlmRouter] 알 수 없는 백엔드: {}", name);
+                continue;
+            }
+            for (String model : backend.models()) {
+                Route route = new Route(backend, model, prior);
+                routes.add(route);
+                prior += 500;
+                Gauge.builder("llm.router.breaker.open", route,
+                        r -> r.breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                        .tag("route", route.id)
+                        .register(meterRegistry);
+            }
+        }
+        log.info("[LlmRouter] routes={}", routes);
+    }
+
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context) {
+        return generateResponse(systemPrompt, userMessage, context, (ToolSession) null);
+    }
+
+    @Override
+    public String generateResponse(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        return generateReply(systemPrompt, userMessage, context, tools).text();
+    }
+
+    /**
+     * 모든 route가 실패해 규칙 기반 응답으로 대체되면 degraded
+     */
+    @Override
+    public Reply generateReply(String systemPrompt, String userMessage, String context, ToolSession tools) {
+        Reply reply = route("generate",
+                r -> r.backend.generate(r.model, systemPrompt, userMessage, context, tools));
+        return reply != null ? reply : mockLlmClient.generateReply(systemPrompt, userMessage, context, tools);
+    }
+
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context,
+            Consumer<String> onToken) {
+        return streamResponse(systemPrompt, userMessage, context, null, onToken);
+    }
+
+    @Override
+    public String streamResponse(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        return streamReply(systemPrompt, userMessage, context, tools, onToken).text();
+    }
+
+    /**
+     * 도구 세션은 route 재시도 사이에 공유되므로, 실패한 route에서 이미 실행한 도구는 다시 실행되지 않는다.
+     * 스트림이 중간에 끊긴 부분 응답과 규칙 기반 대체 응답은 degraded.
+     */
+    @Override
+    public Reply streamReply(String systemPrompt, String userMessage, String context, ToolSession tools,
+            Consumer<String> onToken) {
+        StringBuilder emitted = new StringBuilder();
+        Consumer<String> tracking = token -> {
+            emitted.append(token);
+            onToken.accept(token);
+        };
+
+        Reply reply = route("stream", r -> {
+            try {
+                return r.backend.stream(r.model, systemPrompt, userMessage, context, tools, tracking);
+            } catch (RuntimeException e) {
+                if (emitted.length() > 0) {
+                    // 이미 출력한 토큰이 있으면 다른 route로 재시도하지 않는다
+                    throw new PartialStreamException(emitted.toString(), e);
+                }
+                throw e;
+            }
+        });
+
+        if (reply != null)
+            return reply;
+
+        String fallback = mockLlmClient.generateResponse(systemPrompt, userMessage, context);
+        onToken.accept(fallback);
+        return new Reply(fallback, true);
+    }
+
+    /**
+     * 호출 가능한 route를 점수 순으로 시도한다.
+     *
+     * @return 응답 (부분 응답이면 degraded), 모든 route가 불가/실패하면 null
+     */
+    private Reply route(String operation, RouteCall call) {
+        List<Route> candidates = new ArrayList<>();
+        for (Route route : routes) {
+            if (route.breaker.isCallPermitted())
+                candidates.add(route);
+        }
+        candidates.sort(Comparator.comparingDouble(Route::score));
+
+        for (Route route : candidates) {
+            if (!route.breaker.tryAcquire())
+                continue;
+
+            long start = System.nanoTime();
+            try {
+                String response = call.call(route);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                route.breaker.recordSuccess();
+                route.observe(elapsedMs, false);
+                record(route, operation, "success", elapsedMs);
+                return new Reply(response, false);
+            } catch (PartialStreamException e) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                onFailure(route, e.getCause());
+                route.observe(elapsedMs, true);
+                record(route, operation, "partial", elapsedMs);
+                log.warn("[LlmRouter] {} 스트림 중단, 부분 응답 반환: {}", route, e.getCause().getMessage());
+                return new Reply(e.partial, true);
+            } catch (RuntimeException e) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                String outcome = onFailure(route, e);
+                route.observe(elapsedMs, true);
+                record(route, operation, outcome, elapsedMs);
+                log.warn("[LlmRouter] {} 실패 ({}): {}", route, outcome, e.getMessage());
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            log.warn("[LlmRouter] 사용 가능한 route 없음 → 규칙 기반 응답");
+        }
+        meterRegistry.counter("llm.router.fallback", "operation", operation).increment();
+        return null;
+    }
+
+    private String onFailure(Route route, Throwable e) {
+        if (e instanceof HttpStatusCodeException statusError
+                && statusError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            Duration retryAfter = retryAfter(statusError.getResponseHeaders());
+            route.breaker.openFor(retryAfter);
+            log.warn("[LlmRouter] {} rate limited, {}s 동안 제외", route, retryAfter.toSeconds());
+            return "rate_limited";
+        }
+        route.breaker.recordFailure();
+        return "error";
+    }
+
+    /**
+     * Retry-After 헤더 해석 (초 단위 또는 HTTP-date)
+     */
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value != null && !value.isBlank()) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date 형식
+            }
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration d = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return d.isNegative() ? Duration.ZERO : d;
+            } catch (Exception ignored) {
+                // 해석 불가 → 기본값
+            }
+        }
+        return Duration.ofMillis(defaultRetryAfterMs);
+    }
+
+    private void record(Route route, String operation, String outcome, long elapsedMs) {
+        meterRegistry.timer("llm.router.calls", "route", route.id, "operation", operation, "outcome", outcome)
+                .record(elapsedMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 스트리밍 도중 실패 (이미 내보낸 부분 응답을 담는다)
+     */
+    private static class PartialStreamException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final String partial;
+
+        PartialStreamException(String partial, Throwable cause) {
+            super(cause.getMessage(), cause);
+            this.partial = partial;
+        }
+    }
+}
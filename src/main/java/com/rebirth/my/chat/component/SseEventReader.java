@@ -0,0 +1,52 @@
+package com.rebirth.my.chat.component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Server-Sent Events 응답 스트림에서 data 필드만 읽어 전달하는 유틸리티
+ * (Groq / Gemini 스트리밍 엔드포인트 공용)
+ */
+final class SseEventReader {
+
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE_MARKER = "[DONE]";
+
+    private SseEventReader() {
+    }
+
+    static void read(InputStream body, Consumer<String> onData) throws IOException {
+        if (body == null)
+            return;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            StringBuilder event = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    // 빈 줄 = 이벤트 종료
+                    if (event.length() > 0) {
+                        String data = event.toString();
+                        event.setLength(0);
+                        if (DONE_MARKER.equals(data))
+                            return;
+                        onData.accept(data);
+                    }
+                    continue;
+                }
+                if (line.startsWith(DATA_PREFIX)) {
+                    if (event.length() > 0)
+                        event.append('\n');
+                    event.append(line.substring(DATA_PREFIX.length()).trim());
+                }
+            }
+            if (event.length() > 0 && !DONE_MARKER.contentEquals(event)) {
+                onData.accept(event.toString());
+            }
+        }
+    }
+}
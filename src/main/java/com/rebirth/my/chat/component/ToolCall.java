@@ -0,0 +1,13 @@
+package com.rebirth.my.chat.component;
+
+import java.util.Map;
+
+/**
+ * LLM이 요청한 도구 호출 한 건
+ *
+ * @param id        호출 식별자 (OpenAI 호환 API의 tool_call_id, 없으면 null)
+ * @param name      도구 이름
+ * @param arguments 인자 (userId는 포함되지 않음)
+ */
+public record ToolCall(String id, String name, Map<String, Object> arguments) {
+}
@@ -0,0 +1,30 @@
+package com.rebirth.my.chat.component;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * FunctionDispatcher에 등록되는 도구 정의
+ *
+ * @param name        LLM이 호출할 함수 이름
+ * @param description LLM에 보여줄 설명
+ * @param parameters  인자 JSON Schema (userId는 서버가 채우므로 포함하지 않는다)
+ * @param handler     인자 맵 → 타입 있는 결과 (ToolResults)
+ */
+public record ToolDescriptor(String name, String description, Map<String, Object> parameters,
+        Function<Map<String, Object>, Object> handler) {
+
+    /** 인자가 없는 도구의 스키마 */
+    public static Map<String, Object> noParameters() {
+        return Map.of("type", "object", "properties", Map.of());
+    }
+
+    /** 문자열/정수 인자 하나를 받는 도구의 스키마 */
+    public static Map<String, Object> singleParameter(String name, String type, String description,
+            boolean required) {
+        Map<String, Object> property = Map.of("type", type, "description", description);
+        return required
+                ? Map.of("type", "object", "properties", Map.of(name, property), "required", java.util.List.of(name))
+                : Map.of("type", "object", "properties", Map.of(name, property));
+    }
+}
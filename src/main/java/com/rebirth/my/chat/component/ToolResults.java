@@ -0,0 +1,65 @@
+package com.rebirth.my.chat.component;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * FunctionDispatcher 도구 실행 결과 타입
+ *
+ * 직접 답변 경로(ChatbotService)는 이 객체를 그대로 사용하고,
+ * LLM에 넘길 때만 FunctionDispatcher가 ObjectMapper로 한 번 직렬화한다.
+ * null 필드는 JSON에서 생략된다.
+ */
+public final class ToolResults {
+
+    private ToolResults() {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Error(String error) {
+    }
+
+    public record WardrobeSummary(int totalItems) {
+    }
+
+    public record OutfitRecommendation(String top, String bottom, String reason) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record EcoPoints(int currentPoints, String error) {
+    }
+
+    public record StyleMatch(String id, String name, String category, String brand, String color, String season) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record StyleSearch(List<StyleMatch> results, String message) {
+    }
+
+    public record UpcyclingSuggestion(String item, String category, String idea, String carbonSaved) {
+    }
+
+    public record UpcyclingSuggestions(List<UpcyclingSuggestion> suggestions) {
+    }
+
+    public record RecentItem(String name, String category, String brand) {
+    }
+
+    public record RecentOutfits(List<RecentItem> recentItems, int total) {
+    }
+
+    public record WeatherForecast(String forecast, int targetHour, String address) {
+    }
+
+    public record SaleItem(String id, String name, String category, String brand) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemsForSale(List<SaleItem> results, String message, int count) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record OotdSchedule(boolean found, String date, String memo, Boolean hasImage, String message) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.rebirth.my.chat.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 메시지 하나를 처리하는 동안 LLM 백엔드에 넘겨지는 도구 실행 컨텍스트
+ *
+ * - 선언할 도구 목록 (FunctionDispatcher 레지스트리)
+ * - 한 턴에 요청된 도구 호출들을 병렬로 실행하는 executor (사용자 ID는 여기서 바인딩)
+ * - 같은 호출의 결과 memo: 라우터가 다른 route로 재시도해도 도구를 다시 실행하지 않는다
+ */
+public class ToolSession {
+
+    private final Collection<ToolDescriptor> tools;
+    private final Function<List<ToolCall>, List<String>> executor;
+    private final int maxRounds;
+    private final Map<String, String> results = new ConcurrentHashMap<>();
+
+    ToolSession(Collection<ToolDescriptor> tools, Function<List<ToolCall>, List<String>> executor, int maxRounds) {
+        this.tools = tools;
+        this.executor = executor;
+        this.maxRounds = maxRounds;
+    }
+
+    public Collection<ToolDescriptor> tools() {
+        return tools;
+    }
+
+    /** 도구 실행 → 재요청을 최대 몇 번 반복할지 (마지막 요청은 도구 호출을 금지한다) */
+    public int maxRounds() {
+        return maxRounds;
+    }
+
+    /**
+     * 호출들을 실행하고 같은 순서로 JSON 결과를 반환한다.
+     */
+    public List<String> execute(List<ToolCall> calls) {
+        List<ToolCall> pending = new ArrayList<>();
+        for (ToolCall call : calls) {
+            if (!results.containsKey(keyOf(call)))
+                pending.add(call);
+        }
+
+        if (!pending.isEmpty()) {
+            List<String> executed = executor.apply(pending);
+            for (int i = 0; i < pending.size(); i++) {
+                results.put(keyOf(pending.get(i)), executed.get(i));
+            }
+        }
+
+        List<String> ordered = new ArrayList<>(calls.size());
+        for (ToolCall call : calls) {
+            ordered.add(results.get(keyOf(call)));
+        }
+        return ordered;
+    }
+
+    private static String keyOf(ToolCall call) {
+        return call.name() + ":" + call.arguments();
+    }
+}
@@ -1,48 +1,139 @@
 package com.rebirth.my.chat.component;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 기상청 단기예보 API를 사용하여 날씨 정보를 조회하는 서비스
+ *
+ * 예보는 격자(nx, ny) 단위로 캐싱하고, 기상청 발표 시각(base_time)이 바뀔 때 만료된다.
+ * - 같은 격자의 동시 미스는 하나의 API 호출로 합쳐진다 (single-flight)
+ * - 최근 조회된 격자는 발표 직후 스케줄러가 미리 받아 두므로 챗봇 요청에서 API를 기다리는 일이 거의 없다
+ * - API 실패 시 직전 발표분을 대신 사용한다
  */
 @Component
 public class WeatherService {
 
+    private static final DateTimeFormatter BASE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 기상청 단기예보 발표 시각 (내림차순)
+    private static final int[] BASE_HOURS = { 23, 20, 17, 14, 11, 8, 5, 2 };
+
     @Value("${kma.api-key}")
     private String apiKey;
 
+    // 발표 시각 이후 API에 실제로 반영되기까지의 지연
+    @Value("${kma.forecast.publish-delay-minutes:10}")
+    private int publishDelayMinutes;
+
+    // 실패한 격자를 다시 호출하기까지 대기 시간 (그동안은 직전 발표분/Fallback 사용)
+    @Value("${kma.forecast.retry-after-failure-ms:60000}")
+    private long retryAfterFailureMs;
+
+    // 다른 요청이 진행 중인 API 호출을 기다리는 최대 시간 (초과 시 직전 발표분 또는 Fallback)
+    @Value("${kma.forecast.wait-ms:3000}")
+    private long waitMs;
+
+    // 이 시간 안에 조회된 격자만 prefetch/캐시 유지
+    @Value("${kma.prefetch.active-window-minutes:360}")
+    private long activeWindowMinutes;
+
     @Autowired
     private GeocodingService geocodingService;
 
     @Autowired
     private GridConverter gridConverter;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    // 캐시 (1시간)
-    private WeatherInfo cachedWeather;
-    private String cachedAddress;
-    private long cacheTimestamp;
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void initRestTemplate() {
+        restTemplate = outboundHttpClients.restTemplate("kma");
+        Gauge.builder("weather.cache.cells", forecasts, Map::size).register(meterRegistry);
+    }
 
     /**
-     * 주소를 기반으로 현재 날씨 정보 조회
+     * 격자 하나의 특정 발표분 예보
      */
-    public WeatherInfo getWeatherByAddress(String address) {
-        // 캐시 확인 (1시간 이내 + 같은 주소)
-        if (isCacheValid(address)) {
-            System.out.println("🌤️ [Weather] 캐시 히트");
-            return cachedWeather;
+    private static final class CellForecast {
+        final String slot; // base_date + base_time
+        final CompletableFuture<WeatherInfo> future = new CompletableFuture<>();
+        final WeatherInfo stale; // 직전 발표분 (실패 시 대체)
+        volatile long failedAt;
+
+        CellForecast(String slot, WeatherInfo stale) {
+            this.slot = slot;
+            this.stale = stale;
+        }
+
+        WeatherInfo latestGood() {
+            if (future.isDone() && !future.isCompletedExceptionally())
+                return future.getNow(null);
+            return stale;
         }
 
+        boolean isUsable(String currentSlot, long now, long retryAfterMs) {
+            if (!slot.equals(currentSlot))
+                return false;
+            return !future.isCompletedExceptionally() || now - failedAt < retryAfterMs;
+        }
+    }
+
+    // 격자 → 예보
+    private final ConcurrentHashMap<Long, CellForecast> forecasts = new ConcurrentHashMap<>();
+    // 격자 → 마지막 조회 시각 (prefetch 대상)
+    private final ConcurrentHashMap<Long, Long> activeCells = new ConcurrentHashMap<>();
+
+    // prefetch 전용 (발표 직후 활성 격자를 병렬로 미리 받아 둠)
+    // 포화 시 스케줄러 스레드에서 실행하지 않고 거절 → 해당 격자는 다음 요청 때 받아 옴
+    private final ThreadPoolExecutor prefetchExecutor = new ThreadPoolExecutor(
+            2, 4, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1000),
+            r -> {
+                Thread t = new Thread(r, "weather-prefetch");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 주소를 기반으로 현재 날씨 정보 조회
+     */
+    public WeatherInfo getWeatherByAddress(String address) {
         try {
             int[] grid;
 
@@ -60,36 +151,154 @@ public class WeatherService {
                 grid = gridConverter.getDefaultGrid(null);
             }
 
-            // 2. 기상청 API 호출
-            cachedWeather = fetchWeather(grid[0], grid[1]);
-            cachedAddress = address;
-            cacheTimestamp = System.currentTimeMillis();
-
-            return cachedWeather;
+            // 2. 격자 캐시 조회 (미스면 기상청 API 호출)
+            return getWeatherByGrid(grid[0], grid[1]);
 
         } catch (Exception e) {
             System.err.println("❌ [Weather] 조회 실패: " + e.getMessage());
-            e.printStackTrace();
             return getFallbackWeather();
         }
     }
 
     /**
-     * 기상청 API 호출
+     * 격자 단위 예보 조회 (현재 발표분이 캐시에 있으면 API 호출 없음)
      */
-    private WeatherInfo fetchWeather(int nx, int ny) {
-        LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
+    public WeatherInfo getWeatherByGrid(int nx, int ny) {
+        long key = cellKey(nx, ny);
+        long now = System.currentTimeMillis();
+        activeCells.put(key, now);
+
+        return load(key, nx, ny, currentSlot(LocalDateTime.now()), now, "request");
+    }
+
+    /**
+     * 현재 발표분 예보를 반환한다. 같은 격자/발표분의 동시 요청은 하나의 API 호출을 기다린다.
+     */
+    private WeatherInfo load(long key, int nx, int ny, LocalDateTime slot, long now, String source) {
+        String slotId = slotId(slot);
+
+        CellForecast cached = forecasts.get(key);
+        if (cached != null && cached.isUsable(slotId, now, retryAfterFailureMs)) {
+            return await(cached, source, "hit");
+        }
 
-        String baseDate = today.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String baseTime = getBaseTime(now.getHour());
+        boolean[] owner = { false };
+        CellForecast entry = forecasts.compute(key, (k, old) -> {
+            if (old != null && old.isUsable(slotId, now, retryAfterFailureMs))
+                return old;
+            owner[0] = true;
+            return new CellForecast(slotId, old != null ? old.latestGood() : null);
+        });
 
-        // 자정~2시 사이는 전날 23시 발표분 사용
-        if (now.getHour() < 2) {
-            baseDate = today.minusDays(1).format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-            baseTime = "2300";
+        if (!owner[0]) {
+            return await(entry, source, "coalesced");
         }
 
+        try {
+            entry.future.complete(fetchWeather(nx, ny, slot));
+        } catch (Exception e) {
+            entry.failedAt = System.currentTimeMillis();
+            entry.future.completeExceptionally(e);
+        }
+        return await(entry, source, "miss");
+    }
+
+    /**
+     * 예보를 기다린다. 다른 요청이 호출 중이면 wait-ms까지만 기다리고,
+     * 실패/시간 초과 시 직전 발표분(없으면 Fallback)을 사용한다.
+     */
+    private WeatherInfo await(CellForecast entry, String source, String outcome) {
+        try {
+            WeatherInfo weather = entry.future.get(waitMs, TimeUnit.MILLISECONDS);
+            meterRegistry.counter("weather.cache.requests", "source", source, "outcome", outcome).increment();
+            return weather;
+        } catch (TimeoutException e) {
+            WeatherInfo weather = entry.stale != null ? entry.stale : getFallbackWeather();
+            meterRegistry.counter("weather.cache.requests", "source", source, "outcome", "timeout").increment();
+            System.err.println("⚠️ [Weather] 진행 중인 API 호출이 " + waitMs + "ms 안에 끝나지 않아 "
+                    + (entry.stale != null ? "직전 발표분" : "Fallback") + " 사용");
+            return weather;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return entry.stale != null ? entry.stale : getFallbackWeather();
+        } catch (ExecutionException e) {
+            if (entry.stale != null) {
+                meterRegistry.counter("weather.cache.requests", "source", source, "outcome", "stale").increment();
+                System.err.println("⚠️ [Weather] API 실패, 직전 발표분 사용: " + e.getCause().getMessage());
+                return entry.stale;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * 발표 직후 최근 활성 격자의 예보를 미리 받아 둔다.
+     * (02, 05, ..., 23시 발표분이 API에 반영되는 시각에 맞춰 실행)
+     */
+    @Scheduled(cron = "${kma.prefetch.cron:0 12 2,5,8,11,14,17,20,23 * * *}")
+    public void prefetchActiveCells() {
+        long now = System.currentTimeMillis();
+        long windowMs = TimeUnit.MINUTES.toMillis(activeWindowMinutes);
+        LocalDateTime slot = currentSlot(LocalDateTime.now());
+
+        // 오래 조회되지 않은 격자는 prefetch 대상/캐시에서 제외
+        activeCells.entrySet().removeIf(e -> now - e.getValue() > windowMs);
+        forecasts.keySet().removeIf(key -> !activeCells.containsKey(key));
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        int skipped = 0;
+        for (Long key : activeCells.keySet()) {
+            int nx = (int) (key >> 32);
+            int ny = (int) (long) key;
+            try {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        load(key, nx, ny, slot, System.currentTimeMillis(), "prefetch");
+                    } catch (Exception e) {
+                        System.err.println("❌ [Weather] prefetch 실패 (" + nx + "," + ny + "): " + e.getMessage());
+                    }
+                }, prefetchExecutor));
+            } catch (RejectedExecutionException e) {
+                skipped++;
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        if (skipped > 0) {
+            meterRegistry.counter("weather.prefetch.skipped").increment(skipped);
+        }
+
+        System.out.println("🌤️ [Weather] prefetch 완료: " + tasks.size() + "개 격자, 건너뜀 " + skipped
+                + ", 발표분=" + slotId(slot));
+    }
+
+    /**
+     * 현재 API에서 받을 수 있는 가장 최근 발표 시각
+     * (발표 시각 + 반영 지연이 지나야 해당 발표분을 사용, 자정~02시대는 전날 23시 발표분)
+     */
+    LocalDateTime currentSlot(LocalDateTime now) {
+        LocalDateTime available = now.minusMinutes(publishDelayMinutes);
+        for (int hour : BASE_HOURS) {
+            if (available.getHour() >= hour)
+                return available.toLocalDate().atTime(hour, 0);
+        }
+        return available.toLocalDate().minusDays(1).atTime(23, 0);
+    }
+
+    private static String slotId(LocalDateTime slot) {
+        return slot.format(BASE_DATE_FORMAT) + String.format("%02d00", slot.getHour());
+    }
+
+    private static long cellKey(int nx, int ny) {
+        return ((long) nx << 32) | (ny & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 기상청 API 호출
+     */
+    private WeatherInfo fetchWeather(int nx, int ny, LocalDateTime slot) {
+        String baseDate = slot.format(BASE_DATE_FORMAT);
+        String baseTime = String.format("%02d00", slot.getHour());
+
         // URL 문자열 생성 (이미 인코딩된 키 사용)
         String urlStr = String.format(
                 "http://apis.data.go.kr/1360000/VilageFcstInfoService_2.0/getVilageFcst" +
@@ -103,19 +312,22 @@ public class WeatherService {
         // URI 객체로 변환하여 RestTemplate의 자동 인코딩 방지
         java.net.URI uri = java.net.URI.create(urlStr);
         Map response = restTemplate.getForObject(uri, Map.class);
+
+        // 발표분 미반영(NO_DATA) 등 항목 없는 응답은 기본값으로 한 발표 주기 동안 캐싱되지 않도록 실패 처리
+        if (!hasItems(response)) {
+            throw new IllegalStateException("기상청 응답에 예보 항목 없음 (baseTime=" + baseDate + baseTime + ")");
+        }
         return parseWeatherResponse(response, nx, ny);
     }
 
-    /**
-     * 기상청 발표 시각 계산 (02, 05, 08, 11, 14, 17, 20, 23시)
-     */
-    private String getBaseTime(int hour) {
-        int[] baseTimes = { 23, 20, 17, 14, 11, 8, 5, 2 };
-        for (int bt : baseTimes) {
-            if (hour >= bt)
-                return String.format("%02d00", bt);
+    private boolean hasItems(Map response) {
+        try {
+            Map body = (Map) ((Map) response.get("response")).get("body");
+            Map items = (Map) body.get("items");
+            return items != null && items.get("item") instanceof List<?> list && !list.isEmpty();
+        } catch (Exception e) {
+            return false;
         }
-        return "2300";
     }
 
     /**
@@ -184,6 +396,13 @@ public class WeatherService {
      */
     public String getCurrentSeason(String address) {
         WeatherInfo weather = getWeatherByAddress(address);
+        return getSeason(weather);
+    }
+
+    /**
+     * 이미 조회한 날씨 정보로 계절 판단 (추가 조회 없음)
+     */
+    public String getSeason(WeatherInfo weather) {
         return mapTempToSeason(weather.getTemperature());
     }
 
@@ -197,15 +416,7 @@ public class WeatherService {
         return "겨울";
     }
 
-    private boolean isCacheValid(String address) {
-        if (cachedWeather == null)
-            return false;
-        if (cachedAddress == null || !cachedAddress.equals(address))
-            return false;
-        return (System.currentTimeMillis() - cacheTimestamp) < 3600000; // 1시간
-    }
-
-    private WeatherInfo getFallbackWeather() {
+    WeatherInfo getFallbackWeather() {
         WeatherInfo info = new WeatherInfo();
 
         // 월 기반으로 기온 추정 (서울 기준 평균 기온)
@@ -255,13 +466,6 @@ public class WeatherService {
         return info;
     }
 
-    /**
-     * 캐시된 날씨 정보 반환 (이미 조회된 경우)
-     */
-    public WeatherInfo getCachedWeather() {
-        return cachedWeather;
-    }
-
     /**
      * 특정 시간대 날씨 예보 조회 (외출 시간 기반)
      * 
@@ -0,0 +1,255 @@
+package com.rebirth.my.chat.service;
+
+import com.rebirth.my.chat.ChatDao;
+import com.rebirth.my.chat.ChatVo;
+import com.rebirth.my.chat.component.RoomRegistry;
+import com.rebirth.my.domain.ChatMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1:1 채팅 메시지 write-behind 저장
+ *
+ * - STOMP 수신 스레드는 큐에 넣기만 하고 바로 브로드캐스트한다 (Oracle 왕복 없음)
+ * - 전용 스레드가 batch-size개가 모이거나 flush-interval-ms가 지나면 JDBC batch INSERT
+ *   (같은 배치의 방들은 재입장 처리 UPDATE도 방마다 한 번만)
+ * - 큐가 가득 차면 offer-timeout-ms 동안 수신 스레드를 붙잡아 속도를 늦추고(backpressure), 그래도 안 되면 버린다
+ * - 배치 실패는 max-retries까지 재시도, 그래도 실패하면 한 건씩 저장해 문제 메시지만 버린다
+ * - 종료 시 큐에 남은 메시지를 모두 저장한 뒤 멈춘다
+ *
+ * CREATED_AT은 저장 시각이 아니라 메시지 timestamp로 기록한다.
+ */
+@Component
+public class ChatMessageWriter {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private ChatDao chatDao;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.persist.queue-capacity:20000}")
+    private int queueCapacity;
+
+    @Value("${chat.persist.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.persist.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${chat.persist.offer-timeout-ms:200}")
+    private long offerTimeoutMs;
+
+    @Value("${chat.persist.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${chat.persist.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<ChatVo> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("chat.persist.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runLoop, "chat-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(shutdownTimeoutMs);
+        if (!queue.isEmpty()) {
+            System.err.println("❌ [ChatMessageWriter] 종료 시 저장하지 못한 메시지 " + queue.size() + "건");
+        }
+    }
+
+    /**
+     * 저장 대기열에 추가 (roomId가 있는 1:1 채팅 메시지만)
+     */
+    public void submit(ChatMessage msg) {
+        ChatVo vo = toVo(msg);
+        if (vo == null)
+            return;
+
+        if (!running) {
+            // 종료 중: 대기열 대신 직접 저장
+            write(List.of(vo));
+            return;
+        }
+
+        try {
+            if (!queue.offer(vo, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                count("dropped", 1);
+                System.err.println("❌ [ChatMessageWriter] 저장 대기열 가득 참 - 메시지 버림 (room " + vo.getRoomId() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("dropped", 1);
+        }
+    }
+
+    private ChatVo toVo(ChatMessage msg) {
+        if (msg.getRoomId() == null)
+            return null;
+
+        Long senderId;
+        try {
+            senderId = Long.parseLong(msg.getSenderId());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid senderId: " + msg.getSenderId());
+            return null;
+        }
+
+        ChatVo vo = new ChatVo();
+        vo.setRoomId(msg.getRoomId());
+        vo.setSenderId(senderId);
+        vo.setMessageType(msg.getType() != null ? msg.getType().toString() : "TEXT");
+        vo.setContent(msg.getContent());
+        vo.setImageUrl(msg.getImageUrl());
+        vo.setCreatedAt(parseTimestamp(msg.getTimestamp()));
+        return vo;
+    }
+
+    private static LocalDateTime parseTimestamp(String timestamp) {
+        if (timestamp == null)
+            return LocalDateTime.now();
+        try {
+            return LocalDateTime.ofInstant(Instant.parse(timestamp), ZoneId.systemDefault());
+        } catch (RuntimeException e) {
+            return LocalDateTime.now();
+        }
+    }
+
+    private void runLoop() {
+        List<ChatVo> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatVo first = running ? queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null)
+                    continue;
+
+                // 크기 조건 또는 시간 조건까지 모은다
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running)
+                        break;
+                    ChatVo next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 종료 신호: 루프 조건으로 남은 메시지를 마저 저장
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChatVo> batch) {
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                meterRegistry.counter("chat.persist.retry").increment();
+                if (!sleep(Math.min(2000L, 100L << attempt)))
+                    break;
+            }
+            try {
+                long started = System.nanoTime();
+                insertBatch(batch);
+                meterRegistry.timer("chat.persist.batch").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                count("written", batch.size());
+                return;
+            } catch (Exception e) {
+                System.err.println("❌ [ChatMessageWriter] 배치 저장 실패 (" + batch.size() + "건, 시도 " + (attempt + 1)
+                        + "): " + e.getMessage());
+            }
+        }
+
+        // 재시도 소진: 한 건씩 저장해 문제 메시지만 버린다
+        for (ChatVo vo : batch) {
+            try {
+                chatDao.insertChat(vo);
+                chatDao.rejoinRoomMembers(vo.getRoomId());
+                roomRegistry.rejoined(vo.getRoomId());
+                count("written", 1);
+            } catch (Exception e) {
+                count("failed", 1);
+                System.err.println("❌ [ChatMessageWriter] 메시지 저장 실패 (room " + vo.getRoomId() + "): " + e.getMessage());
+            }
+        }
+    }
+
+    private void insertBatch(List<ChatVo> batch) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            ChatDao batchDao = session.getMapper(ChatDao.class);
+            Set<Long> rooms = new LinkedHashSet<>();
+            for (ChatVo vo : batch) {
+                batchDao.insertChat(vo);
+                rooms.add(vo.getRoomId());
+            }
+            // 메시지가 오면 나갔던 멤버도 다시 목록에 표시
+            for (Long roomId : rooms) {
+                batchDao.rejoinRoomMembers(roomId);
+            }
+            session.flushStatements();
+            session.commit();
+
+            for (Long roomId : rooms) {
+                roomRegistry.rejoined(roomId);
+            }
+        }
+    }
+
+    private boolean sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException e) {
+            // 종료 중에는 대기 없이 바로 다음 시도
+            return !running;
+        }
+    }
+
+    private void count(String outcome, int n) {
+        meterRegistry.counter("chat.persist.messages", "outcome", outcome).increment(n);
+    }
+}
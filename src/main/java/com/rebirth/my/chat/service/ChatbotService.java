@@ -2,8 +2,11 @@ package com.rebirth.my.chat.service;
 
 import com.rebirth.my.chat.ChatDao;
 import com.rebirth.my.chat.ChatVo;
+import com.rebirth.my.chat.component.ChatIntent;
 import com.rebirth.my.chat.component.ContextBuilder;
+import com.rebirth.my.chat.component.IntentRouter;
 import com.rebirth.my.chat.component.LlmClient;
+import com.rebirth.my.chat.component.ResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -69,12 +72,46 @@ public class ChatbotService {
             질문에 대해 가장 빠르고 정확한 정보를 제공하는 것이 당신의 최우선 임무입니다.
             """;
 
-    // Simple In-Memory Cache for Repeated Queries (Optimization)
-    private static final java.util.Map<String, String> RESPONSE_CACHE = new java.util.concurrent.ConcurrentHashMap<>();
+    // 응답 캐시 (LRU + TTL + 사용자/전역 범위 + 유사 질문 히트)
+    @Autowired
+    private ResponseCache responseCache;
 
     @Autowired
     private com.rebirth.my.chat.component.FunctionDispatcher functionDispatcher;
 
+    @Autowired
+    private IntentRouter intentRouter;
+
+    // LLM 백엔드의 네이티브 function calling 사용 여부 (false면 "CALL:" 텍스트 지시문 방식)
+    @org.springframework.beans.factory.annotation.Value("${chatbot.tools.native-enabled:true}")
+    private boolean nativeToolsEnabled;
+
+    // LLM 실패 시 DB 조회로 대신 답할 수 있는 의도
+    private static final java.util.Set<ChatIntent.Type> FALLBACK_INTENTS = java.util.EnumSet
+            .of(ChatIntent.Type.ECO_POINTS, ChatIntent.Type.WARDROBE_COUNT);
+
+    // LLM 응답의 함수 호출 지시문 ("CALL:function:arg")
+    private static final java.util.regex.Pattern CALL_PATTERN = java.util.regex.Pattern.compile(
+            "CALL\\s*[:\\s]\\s*([a-zA-Z0-9_]+)(?:\\s*[:\\s]\\s*(.*))?", java.util.regex.Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+
+    // 스트리밍 응답 생성용 작업 스레드 (요청 스레드를 LLM 대기 시간 동안 점유하지 않도록)
+    private final java.util.concurrent.ThreadPoolExecutor streamExecutor = new java.util.concurrent.ThreadPoolExecutor(
+            4, 16, 60L, java.util.concurrent.TimeUnit.SECONDS,
+            new java.util.concurrent.ArrayBlockingQueue<>(100),
+            r -> {
+                Thread t = new Thread(r, "chatbot-stream");
+                t.setDaemon(true);
+                return t;
+            });
+
+    @jakarta.annotation.PreDestroy
+    public void shutdownStreamExecutor() {
+        streamExecutor.shutdown();
+    }
+
     /**
      * Processes a user message and returns the bot's response.
      * 
@@ -83,8 +120,56 @@ public class ChatbotService {
      * @return The bot's response text.
      */
     public String processUserMessage(String userId, String userMessage) {
+        return processUserMessage(userId, userMessage, null);
+    }
+
+    /**
+     * 챗봇 응답을 비동기로 생성하며 토큰 단위로 /topic/user/{id}/chat 에 전송한다.
+     * BOT_TOKEN 메시지가 순서대로 전송된 뒤, 최종 응답(저장된 내용)이 BOT_DONE 으로 전송된다.
+     * 
+     * @throws java.util.concurrent.RejectedExecutionException 작업 큐가 가득 찬 경우
+     */
+    public void streamUserMessage(String userId, String userMessage, String streamId) {
+        String destination = "/topic/user/" + userId + "/chat";
+
+        streamExecutor.execute(() -> {
+            String finalResponse;
+            try {
+                finalResponse = processUserMessage(userId, userMessage,
+                        token -> publishStream(destination, streamId,
+                                com.rebirth.my.domain.ChatMessage.MessageType.BOT_TOKEN, token));
+            } catch (Exception e) {
+                System.err.println("Chatbot streaming failed: " + e.getMessage());
+                finalResponse = "죄송합니다. 답변 생성 중 오류가 발생했습니다.";
+            }
+            publishStream(destination, streamId, com.rebirth.my.domain.ChatMessage.MessageType.BOT_DONE,
+                    finalResponse);
+        });
+    }
+
+    private void publishStream(String destination, String streamId,
+            com.rebirth.my.domain.ChatMessage.MessageType type, String content) {
+        com.rebirth.my.domain.ChatMessage msg = new com.rebirth.my.domain.ChatMessage();
+        msg.setType(type);
+        msg.setSenderId("0");
+        msg.setStreamId(streamId);
+        msg.setContent(content);
+        msg.setTimestamp(java.time.Instant.now().toString());
+        messagingTemplate.convertAndSend(destination, msg);
+    }
+
+    /**
+     * @param onToken 스트리밍 수신자 (null이면 일반 동기 호출)
+     */
+    public String processUserMessage(String userId, String userMessage,
+            java.util.function.Consumer<String> onToken) {
+        // 0. 의도 분류 + 캐시 키 (질문 임베딩은 여기서 비동기로 시작해 컨텍스트 조회와 겹친다)
+        ChatIntent intent = intentRouter.classify(userMessage);
+        ResponseCache.Key cacheKey = responseCache.keyFor(userId, userMessage, intent);
+
         // 1. Build Context
-        String userContext = contextBuilder.buildUserContext(userId);
+        ContextBuilder.UserContext builtContext = contextBuilder.buildUserContext(userId);
+        String userContext = builtContext.text();
 
         // 2. Find or Create Chat Room
         Long roomId = chatDao.selectBotRoomId(userId);
@@ -123,8 +208,8 @@ public class ChatbotService {
         saveMessageLog(roomId, senderId, "TEXT", userMessage, null);
 
         // [OPTIMIZATION] Check Cache first to save Quota
-        if (RESPONSE_CACHE.containsKey(userMessage)) {
-            String cachedResponse = RESPONSE_CACHE.get(userMessage);
+        String cachedResponse = responseCache.get(cacheKey);
+        if (cachedResponse != null) {
             saveMessageLog(roomId, botId, "TEXT", cachedResponse, null);
             return cachedResponse;
         }
@@ -156,89 +241,24 @@ public class ChatbotService {
 
         // 3.6 특정 질문은 LLM 호출 없이 직접 처리 (정확도 보장)
         String botResponse = null;
+        // 규칙 기반 대체/부분 응답 여부 (캐시 금지)
+        boolean degraded = false;
 
-        // 판매중인 옷 조회 (LLM 호출 전 직접 처리)
-        if ((userMessage.contains("판매") || userMessage.contains("팔고") || userMessage.contains("팔아"))
-                && (userMessage.contains("옷") || userMessage.contains("뭐") || userMessage.contains("있")
-                        || userMessage.contains("목록"))) {
-            java.util.Map<String, Object> args = new java.util.HashMap<>();
-            args.put("userId", userId);
-            String resultJson = functionDispatcher.dispatch("getItemsForSale", args);
-
-            // Parse count
-            java.util.regex.Matcher countMatcher = java.util.regex.Pattern.compile("\"count\"\\s*:\\s*(\\d+)")
-                    .matcher(resultJson);
-            String count = countMatcher.find() ? countMatcher.group(1) : "0";
-
-            if ("0".equals(count)) {
-                botResponse = "현재 고객님이 판매중인 옷이 없습니다. [판매하기](/market/register)에서 옷을 등록해보세요!";
-            } else {
-                // Parse results
-                java.util.regex.Matcher resultMatcher = java.util.regex.Pattern.compile("\"name\"\\s*:\\s*\"([^\"]+)\"")
-                        .matcher(resultJson);
-                StringBuilder itemList = new StringBuilder();
-                while (resultMatcher.find()) {
-                    if (itemList.length() > 0)
-                        itemList.append(", ");
-                    itemList.append("**").append(resultMatcher.group(1)).append("**");
-                }
-                botResponse = "고객님이 현재 판매중인 옷은 총 **" + count + "벌**입니다: " + itemList.toString() +
-                        "\n\n[Re:Store 마켓](/market/list)에서 확인하실 수 있습니다.";
-            }
-            System.out.println("🏷️ [Direct] 판매중 옷 조회 결과: " + botResponse);
-        }
-
-        // OOTD 캘린더 스케줄 조회 (LLM 호출 전 직접 처리)
-        if (botResponse == null &&
-                (userMessage.contains("일에") || userMessage.contains("일 ") || userMessage.contains("날")
-                        || userMessage.contains("언제"))
-                &&
-                (userMessage.contains("입") || userMessage.contains("뭐") || userMessage.contains("계획")
-                        || userMessage.contains("OOTD") || userMessage.contains("코디"))) {
-
-            // 날짜 추출 시도
-            String extractedDate = extractDateFromMessage(userMessage);
-
-            if (extractedDate != null) {
-                java.util.Map<String, Object> args = new java.util.HashMap<>();
-                args.put("userId", userId);
-                args.put("date", extractedDate);
-                String resultJson = functionDispatcher.dispatch("getOotdSchedule", args);
-
-                // Parse result
-                if (resultJson.contains("\"found\": true")) {
-                    java.util.regex.Matcher memoMatcher = java.util.regex.Pattern
-                            .compile("\"memo\"\\s*:\\s*\"([^\"]+)\"")
-                            .matcher(resultJson);
-                    String memo = memoMatcher.find() ? memoMatcher.group(1) : "메모 없음";
-
-                    // 날짜 포맷팅
-                    String[] dateParts = extractedDate.split("-");
-                    String displayDate = dateParts[1] + "월 " + dateParts[2] + "일";
-
-                    botResponse = "📅 고객님은 **" + displayDate + "**에 **" + memo + "** 룩을 계획하셨습니다!\n\n" +
-                            "자세한 코디를 확인하시려면 [OOTD 캘린더](/ootd/list)에서 확인해보세요!";
-                } else {
-                    String[] dateParts = extractedDate.split("-");
-                    String displayDate = dateParts[1] + "월 " + dateParts[2] + "일";
-                    botResponse = "📅 " + displayDate + "에는 아직 저장된 OOTD가 없습니다.\n\n" +
-                            "[피팅룸](/ootd/list)에서 코디를 저장해보세요!";
-                }
-                System.out.println("📅 [Direct] OOTD 스케줄 조회 결과: " + botResponse);
-            }
+        if (intent.getType().isDirect()) {
+            botResponse = answerDirectly(userId, intent);
         }
 
         // 직접 처리되지 않은 경우에만 LLM 호출
         if (botResponse == null) {
             // 4. Call LLM (with conversation history)
             String enrichedContext = userContext + conversationHistory;
-            botResponse = llmClient.generateResponse(SYSTEM_PROMPT, userMessage, enrichedContext);
-        }
-
-        // [OPTIMIZATION] Save successful response to Cache (Simple LRU strategy implied
-        // by ConcurrentMap for now)
-        if (!botResponse.contains("죄송합니다") && !botResponse.contains("오류")) {
-            RESPONSE_CACHE.put(userMessage, botResponse);
+            com.rebirth.my.chat.component.ToolSession tools = nativeToolsEnabled
+                    ? functionDispatcher.session(userId)
+                    : null;
+            LlmClient.Reply reply = callLlm(SYSTEM_PROMPT, userMessage, enrichedContext, tools,
+                    onToken != null ? new CallDirectiveGate(onToken) : null);
+            botResponse = reply.text();
+            degraded = reply.degraded();
         }
 
         // 4.5 Error Handling Logic (Rule-Based Fallback)
@@ -246,70 +266,31 @@ public class ChatbotService {
         // execute the logic manually.
         if (botResponse.contains("무료 사용량 한도") || botResponse.startsWith("죄송합니다.")
                 || botResponse.contains("시스템 연결을 시도")) {
+            degraded = true;
+            ChatIntent dataIntent = intent.getType().isDirect()
+                    ? intentRouter.classify(userMessage, FALLBACK_INTENTS)
+                    : intent;
 
             // 4.5.1 Eco Points
-            if (userMessage.contains("에코") && (userMessage.contains("포인트") || userMessage.contains("점수"))) {
-                java.util.Map<String, Object> args = new java.util.HashMap<>();
-                args.put("userId", userId);
-                String resultJson = functionDispatcher.dispatch("getEcoPoints", args);
-                // Parse simple JSON (Mocking Parser) -> resultJson example: {"currentPoints":
-                // 0}
-                String points = resultJson.replaceAll("[^0-9]", "");
+            if (dataIntent.is(ChatIntent.Type.ECO_POINTS)) {
+                int points = functionDispatcher.getEcoPoints(userId).currentPoints();
                 botResponse = "고객님의 현재 에코 포인트는 **" + points + "점**입니다. ";
 
                 // 4.5.2 Wardrobe
-            } else if (userMessage.contains("옷장") && (userMessage.contains("몇") || userMessage.contains("개")
-                    || userMessage.contains("목록") || userMessage.contains("뭐") || userMessage.contains("있어"))) {
-                java.util.Map<String, Object> args = new java.util.HashMap<>();
-                args.put("userId", userId);
-                String resultJson = functionDispatcher.dispatch("getWardrobeSummary", args);
-
-                // Regex to extract value of "totalItems"
-                java.util.regex.Matcher m = java.util.regex.Pattern.compile("\"totalItems\"\\s*:\\s*(\\d+)")
-                        .matcher(resultJson);
-                String items = m.find() ? m.group(1) : "0";
+            } else if (dataIntent.is(ChatIntent.Type.WARDROBE_COUNT)) {
+                int items = functionDispatcher.getWardrobeSummary(userId).totalItems();
 
                 // Fallback implies simple list is hard, so return summary + link
                 botResponse = "고객님의 옷장에는 현재 **" + items
                         + "벌**의 옷이 등록되어 있습니다. \n자세한 목록은 [나만의 옷장](/wardrobe)에서 확인하실 수 있습니다.";
-
-                // 4.5.3 판매중인 옷 조회
-            } else if ((userMessage.contains("판매") || userMessage.contains("팔고"))
-                    && (userMessage.contains("옷") || userMessage.contains("뭐") || userMessage.contains("있"))) {
-                java.util.Map<String, Object> args = new java.util.HashMap<>();
-                args.put("userId", userId);
-                String resultJson = functionDispatcher.dispatch("getItemsForSale", args);
-
-                // Parse count
-                java.util.regex.Matcher countMatcher = java.util.regex.Pattern.compile("\"count\"\\s*:\\s*(\\d+)")
-                        .matcher(resultJson);
-                String count = countMatcher.find() ? countMatcher.group(1) : "0";
-
-                if ("0".equals(count)) {
-                    botResponse = "현재 고객님이 판매중인 옷이 없습니다. [판매하기](/market/register)에서 옷을 등록해보세요!";
-                } else {
-                    // Parse results
-                    java.util.regex.Matcher resultMatcher = java.util.regex.Pattern
-                            .compile("\"name\"\\s*:\\s*\"([^\"]+)\"")
-                            .matcher(resultJson);
-                    StringBuilder itemList = new StringBuilder();
-                    while (resultMatcher.find()) {
-                        if (itemList.length() > 0)
-                            itemList.append(", ");
-                        itemList.append("**").append(resultMatcher.group(1)).append("**");
-                    }
-                    botResponse = "고객님이 현재 판매중인 옷은 총 **" + count + "벌**입니다: " + itemList.toString() +
-                            "\n\n[Re:Store 마켓](/market/list)에서 확인하실 수 있습니다.";
-                }
             }
         }
 
         // 5. Check for Function Call (Robust Regex Matching)
+        // 네이티브 function calling을 지원하지 않는 경로(규칙 기반 등)나 모델이 텍스트로 지시한 경우의 호환 처리
         // Regex allows spaces around colons: "CALL : function : arg" or
         // "CALL:function:arg"
-        java.util.regex.Pattern callPattern = java.util.regex.Pattern.compile(
-                "CALL\\s*[:\\s]\\s*([a-zA-Z0-9_]+)(?:\\s*[:\\s]\\s*(.*))?", java.util.regex.Pattern.CASE_INSENSITIVE);
-        java.util.regex.Matcher matcher = callPattern.matcher(botResponse);
+        java.util.regex.Matcher matcher = CALL_PATTERN.matcher(botResponse);
 
         if (matcher.find()) {
             String functionName = matcher.group(1).trim();
@@ -319,7 +300,7 @@ public class ChatbotService {
             java.util.Map<String, Object> args = new java.util.HashMap<>();
             args.put("userId", userId);
             if (argument != null) {
-                args.put("keyword", argument);
+                args.put(functionDispatcher.primaryParameter(functionName), argument);
             }
 
             // Execute Function
@@ -347,7 +328,15 @@ public class ChatbotService {
             System.out.println(secondPrompt);
 
             // Get Final Answer
-            botResponse = llmClient.generateResponse(SYSTEM_PROMPT, secondPrompt, userContext);
+            LlmClient.Reply reply = callLlm(SYSTEM_PROMPT, secondPrompt, userContext, null, onToken);
+            botResponse = reply.text();
+            degraded |= reply.degraded();
+        }
+
+        // [OPTIMIZATION] Save successful final response to Cache
+        // (일부 컨텍스트를 fallback으로 채웠거나 LLM 대신 규칙 기반/부분 응답이 나간 경우는 캐시하지 않음)
+        if (builtContext.isComplete() && !degraded) {
+            responseCache.put(cacheKey, botResponse);
         }
 
         // 7. Save Bot Response (Only the final natural language answer)
@@ -356,6 +345,51 @@ public class ChatbotService {
         return botResponse;
     }
 
+    /**
+     * @param tools 네이티브 function calling 세션 (null이면 도구 없이 호출)
+     */
+    private LlmClient.Reply callLlm(String systemPrompt, String message, String context,
+            com.rebirth.my.chat.component.ToolSession tools, java.util.function.Consumer<String> onToken) {
+        if (onToken == null) {
+            return llmClient.generateReply(systemPrompt, message, context, tools);
+        }
+        return llmClient.streamReply(systemPrompt, message, context, tools, onToken);
+    }
+
+    /**
+     * 첫 LLM 응답이 "CALL:" 지시문이면 사용자에게 노출하지 않도록 앞부분을 보류했다가,
+     * 일반 답변으로 판단되면 그때부터 그대로 흘려보낸다.
+     */
+    private static class CallDirectiveGate implements java.util.function.Consumer<String> {
+        private final java.util.function.Consumer<String> downstream;
+        private final StringBuilder pending = new StringBuilder();
+        private boolean decided;
+        private boolean suppressed;
+
+        CallDirectiveGate(java.util.function.Consumer<String> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void accept(String token) {
+            if (decided) {
+                if (!suppressed)
+                    downstream.accept(token);
+                return;
+            }
+
+            pending.append(token);
+            String head = pending.toString().stripLeading();
+            if (head.length() < 4)
+                return;
+
+            decided = true;
+            suppressed = head.regionMatches(true, 0, "CALL", 0, 4);
+            if (!suppressed)
+                downstream.accept(pending.toString());
+        }
+    }
+
     public void saveMessage(com.rebirth.my.domain.ChatMessage msg) {
         Long roomId = msg.getRoomId();
         // SenderId is String in ChatMessage? Let's check ChatMessage definition.
@@ -395,55 +429,49 @@ public class ChatbotService {
     }
 
     /**
-     * 사용자 메시지에서 날짜 추출 (예: "31일", "이번달 31일", "12월 31일")
-     * 
-     * @return YYYY-MM-DD 형식 문자열, 추출 실패시 null
+     * LLM 호출 없이 DB 조회 결과로 바로 답한다 (판매중 옷, OOTD 스케줄).
+     *
+     * @return 직접 답할 수 없으면 null
      */
-    private String extractDateFromMessage(String message) {
-        try {
-            java.time.LocalDate now = java.time.LocalDate.now();
-            int year = now.getYear();
-            int month = now.getMonthValue();
-            int day = -1;
-
-            // 패턴 1: "12월 31일" 또는 "12월31일"
-            java.util.regex.Matcher monthDayMatcher = java.util.regex.Pattern.compile("(\\d{1,2})월\\s*(\\d{1,2})일")
-                    .matcher(message);
-            if (monthDayMatcher.find()) {
-                month = Integer.parseInt(monthDayMatcher.group(1));
-                day = Integer.parseInt(monthDayMatcher.group(2));
-            }
+    private String answerDirectly(String userId, ChatIntent intent) {
+        String botResponse = null;
+
+        switch (intent.getType()) {
+            case ITEMS_FOR_SALE -> {
+                com.rebirth.my.chat.component.ToolResults.ItemsForSale forSale = functionDispatcher
+                        .getItemsForSale(userId);
 
-            // 패턴 2: "31일" (월 없이 일만)
-            if (day == -1) {
-                java.util.regex.Matcher dayOnlyMatcher = java.util.regex.Pattern.compile("(\\d{1,2})일")
-                        .matcher(message);
-                if (dayOnlyMatcher.find()) {
-                    day = Integer.parseInt(dayOnlyMatcher.group(1));
+                if (forSale.count() == 0) {
+                    botResponse = "현재 고객님이 판매중인 옷이 없습니다. [판매하기](/market/register)에서 옷을 등록해보세요!";
+                } else {
+                    String itemList = forSale.results().stream()
+                            .map(item -> "**" + item.name() + "**")
+                            .collect(java.util.stream.Collectors.joining(", "));
+                    botResponse = "고객님이 현재 판매중인 옷은 총 **" + forSale.count() + "벌**입니다: " + itemList +
+                            "\n\n[Re:Store 마켓](/market/list)에서 확인하실 수 있습니다.";
                 }
+                System.out.println("🏷️ [Direct] 판매중 옷 조회 결과: " + botResponse);
             }
+            case OOTD_SCHEDULE -> {
+                java.time.LocalDate date = intent.getDate();
+                com.rebirth.my.chat.component.ToolResults.OotdSchedule schedule = functionDispatcher
+                        .getOotdSchedule(userId, date);
 
-            // 패턴 3: "내일", "모레" 처리
-            if (message.contains("내일")) {
-                java.time.LocalDate tomorrow = now.plusDays(1);
-                return tomorrow.toString();
-            }
-            if (message.contains("모레")) {
-                java.time.LocalDate dayAfter = now.plusDays(2);
-                return dayAfter.toString();
-            }
-            if (message.contains("오늘")) {
-                return now.toString();
-            }
+                String displayDate = date.getMonthValue() + "월 " + date.getDayOfMonth() + "일";
 
-            if (day > 0 && day <= 31) {
-                return String.format("%04d-%02d-%02d", year, month, day);
+                if (schedule.found()) {
+                    botResponse = "📅 고객님은 **" + displayDate + "**에 **" + schedule.memo() + "** 룩을 계획하셨습니다!\n\n" +
+                            "자세한 코디를 확인하시려면 [OOTD 캘린더](/ootd/list)에서 확인해보세요!";
+                } else {
+                    botResponse = "📅 " + displayDate + "에는 아직 저장된 OOTD가 없습니다.\n\n" +
+                            "[피팅룸](/ootd/list)에서 코디를 저장해보세요!";
+                }
+                System.out.println("📅 [Direct] OOTD 스케줄 조회 결과: " + botResponse);
+            }
+            default -> {
             }
-
-        } catch (Exception e) {
-            System.err.println("날짜 추출 실패: " + e.getMessage());
         }
-        return null;
+        return botResponse;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.rebirth.my.chat.service;
+
+import com.rebirth.my.chat.ChatDao;
+import com.rebirth.my.chat.component.RoomRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 채팅 읽음 커서 (방, 사용자)별 마지막 읽은 시간
+ *
+ * - 읽음 이벤트는 메모리의 커서만 앞으로 옮기고 바로 반환 (브로드캐스트는 호출 측에서 즉시)
+ * - 바뀐 커서는 flush-ms마다, 또는 해당 STOMP 세션이 끊길 때 키마다 최신 값 하나만 batch UPDATE
+ * - 목록/안 읽은 수 조회 전에는 그 사용자의 커서를 먼저 저장해 DB 기준 집계가 어긋나지 않게 한다
+ *   (이 노드의 커서만 저장 - 다른 노드에서 읽은 기록은 최대 flush-ms 늦게 반영됨)
+ * - DB의 LAST_READ_AT은 앞으로만 옮긴다 (노드 간 저장 순서가 뒤바뀌어도 되돌아가지 않음)
+ * - 종료 시 남은 커서를 모두 저장
+ *
+ * 메시지마다, 포커스마다 오던 UPDATE가 flush 주기당 (방, 사용자) 한 건으로 줄어든다.
+ */
+@Service
+public class ReadCursorService {
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 아직 저장하지 않은 커서
+    private final Map<Key, LocalDateTime> dirty = new ConcurrentHashMap<>();
+
+    // STOMP 세션 → 그 세션에서 옮긴 커서 (연결 종료 시 저장)
+    private final Map<String, Set<Key>> sessionKeys = new ConcurrentHashMap<>();
+
+    private record Key(Long roomId, Long userId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("chat.read.pending", dirty, Map::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 읽음 처리 (메모리 커서만 갱신)
+     *
+     * @param sessionId STOMP 세션 ID (HTTP 요청이면 null)
+     * @return 기록된 읽은 시간
+     */
+    public LocalDateTime markRead(Long roomId, Long userId, String sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        Key key = new Key(roomId, userId);
+        dirty.merge(key, now, (prev, next) -> next.isAfter(prev) ? next : prev);
+        if (sessionId != null) {
+            sessionKeys.computeIfAbsent(sessionId, s -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        roomRegistry.markRead(roomId, userId, now);
+        meterRegistry.counter("chat.read.events").increment();
+        return now;
+    }
+
+    /**
+     * 주기 저장
+     */
+    @Scheduled(initialDelayString = "${chat.read.flush-ms:5000}", fixedDelayString = "${chat.read.flush-ms:5000}")
+    public void flush() {
+        if (!dirty.isEmpty()) {
+            persist(new ArrayList<>(dirty.keySet()));
+        }
+    }
+
+    /**
+     * 한 사용자의 커서만 저장 (목록/안 읽은 수처럼 DB의 LAST_READ_AT으로 집계하는 조회 전에 호출)
+     *
+     * 이 노드에 쌓인 커서만 저장한다. 여러 노드 구성에서는 다른 노드가 받은 읽음 이벤트가
+     * 그 노드의 다음 flush(최대 chat.read.flush-ms)까지 안 읽은 수에 반영되지 않는다.
+     */
+    public void flushUser(Long userId) {
+        List<Key> keys = new ArrayList<>();
+        for (Key key : dirty.keySet()) {
+            if (key.userId().equals(userId))
+                keys.add(key);
+        }
+        if (!keys.isEmpty()) {
+            persist(keys);
+        }
+    }
+
+    /**
+     * 연결 종료 시 그 세션의 커서 저장
+     */
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<Key> keys = sessionKeys.remove(event.getSessionId());
+        if (keys != null && !keys.isEmpty()) {
+            persist(keys);
+        }
+    }
+
+    private void persist(Collection<Key> keys) {
+        Map<Key, LocalDateTime> batch = new LinkedHashMap<>();
+        for (Key key : keys) {
+            LocalDateTime readAt = dirty.get(key);
+            if (readAt != null)
+                batch.put(key, readAt);
+        }
+        if (batch.isEmpty())
+            return;
+
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            ChatDao batchDao = session.getMapper(ChatDao.class);
+            for (Map.Entry<Key, LocalDateTime> e : batch.entrySet()) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("roomId", e.getKey().roomId());
+                param.put("userId", e.getKey().userId());
+                param.put("readAt", e.getValue());
+                batchDao.updateLastReadAt(param);
+            }
+            session.flushStatements();
+            session.commit();
+        } catch (Exception e) {
+            // 커서는 dirty에 남아 다음 flush에서 다시 저장
+            meterRegistry.counter("chat.read.flush", "outcome", "error").increment();
+            System.err.println("❌ [ReadCursorService] 읽음 커서 저장 실패 (" + batch.size() + "건): " + e.getMessage());
+            return;
+        }
+
+        // 저장하는 사이 더 앞으로 옮겨진 커서는 남겨 둔다
+        for (Map.Entry<Key, LocalDateTime> e : batch.entrySet()) {
+            dirty.remove(e.getKey(), e.getValue());
+        }
+        meterRegistry.counter("chat.read.flush", "outcome", "written").increment(batch.size());
+    }
+}
@@ -1,5 +1,6 @@
 package com.rebirth.my.common.controller;
 
+import com.rebirth.my.common.http.OutboundHttpClients;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,8 +13,8 @@ public class ProxyController {
 
     private final RestTemplate restTemplate;
 
-    public ProxyController() {
-        this.restTemplate = new RestTemplate();
+    public ProxyController(OutboundHttpClients outboundHttpClients) {
+        this.restTemplate = outboundHttpClients.restTemplate("image-proxy");
     }
 
     @GetMapping("/api/proxy/image")
@@ -0,0 +1,102 @@
+package com.rebirth.my.common.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 외부 API 호출용 공용 HTTP 계층
+ *
+ * - 모든 외부 연동(LLM, 임베딩, 기상청, Kakao, 이미지 프록시)이 하나의 JDK HttpClient를 공유
+ *   → 호스트별 커넥션 풀 / keep-alive 재사용
+ * - HTTP/2 (ALPN 협상, 미지원 서버는 자동으로 HTTP/1.1)
+ * - 연결/읽기 타임아웃 (upstream 별 설정 가능)
+ * - gzip 응답 압축 해제
+ * - upstream 별 메트릭 (지연시간 히스토그램, 처리 중 요청 수, 오류 수)
+ *
+ * 설정 예: outbound.http.groq.read-timeout-ms=30000, outbound.http.kma.http2=false
+ */
+@Component
+public class OutboundHttpClients {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbound.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${outbound.http.read-timeout-ms:10000}")
+    private long defaultReadTimeoutMs;
+
+    private volatile HttpClient http2Client;
+    private volatile HttpClient http1Client;
+
+    private final Map<String, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * upstream 이름별 RestTemplate (커넥션 풀은 모든 upstream이 공유)
+     *
+     * @param upstream 메트릭 태그 및 설정 키로 사용되는 이름 (예: "groq", "gemini", "kma")
+     */
+    public RestTemplate restTemplate(String upstream) {
+        return restTemplates.computeIfAbsent(upstream, this::createRestTemplate);
+    }
+
+    private RestTemplate createRestTemplate(String upstream) {
+        boolean http2 = environment.getProperty("outbound.http." + upstream + ".http2", Boolean.class, true);
+        long readTimeoutMs = environment.getProperty("outbound.http." + upstream + ".read-timeout-ms", Long.class,
+                defaultReadTimeoutMs);
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                http2 ? getHttp2Client() : getHttp1Client());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(new OutboundMetricsInterceptor(upstream, meterRegistry));
+        restTemplate.getInterceptors().add(new GzipResponseInterceptor());
+        return restTemplate;
+    }
+
+    private HttpClient getHttp2Client() {
+        if (http2Client == null) {
+            synchronized (this) {
+                if (http2Client == null) {
+                    http2Client = newClient(HttpClient.Version.HTTP_2);
+                }
+            }
+        }
+        return http2Client;
+    }
+
+    // 평문 http 서버 중 h2c 업그레이드 헤더를 처리하지 못하는 곳(기상청 등)용
+    private HttpClient getHttp1Client() {
+        if (http1Client == null) {
+            synchronized (this) {
+                if (http1Client == null) {
+                    http1Client = newClient(HttpClient.Version.HTTP_1_1);
+                }
+            }
+        }
+        return http1Client;
+    }
+
+    private HttpClient newClient(HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.rebirth.my.common.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * upstream 별 외부 호출 메트릭 기록
+ * - http.outbound.requests : 응답 헤더 수신까지의 지연시간 (히스토그램, outcome 태그)
+ * - http.outbound.inflight : 처리 중인 요청 수
+ * - http.outbound.errors   : 4xx/5xx/IO 오류 수
+ */
+class OutboundMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String upstream;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OutboundMetricsInterceptor(String upstream, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.outbound.inflight", inFlight, AtomicInteger::get)
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getStatusCode().value();
+            if (status >= 500) {
+                outcome = "SERVER_ERROR";
+            } else if (status >= 400) {
+                outcome = "CLIENT_ERROR";
+            } else {
+                outcome = "SUCCESS";
+            }
+            return response;
+        } finally {
+            inFlight.decrementAndGet();
+            Timer.builder("http.outbound.requests")
+                    .tag("upstream", upstream)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!"SUCCESS".equals(outcome)) {
+                Counter.builder("http.outbound.errors")
+                        .tag("upstream", upstream)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+    }
+}
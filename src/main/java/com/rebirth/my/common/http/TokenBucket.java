@@ -0,0 +1,50 @@
+package com.rebirth.my.common.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 외부 API 호출량 제한용 토큰 버킷
+ * - 초당 refillPerSecond 개씩 채워지고 capacity 까지 쌓인다 (짧은 burst 허용)
+ * - acquire(n)은 토큰이 n개 모일 때까지 대기한다 (고정 sleep 대신 실제 한도에 맞춰 진행)
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0)
+            throw new IllegalArgumentException("capacity and refill rate must be positive");
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 토큰 permits 개를 얻을 때까지 대기 (capacity를 넘는 요청은 capacity로 취급)
+     */
+    public void acquire(int permits) throws InterruptedException {
+        double needed = Math.min(permits, capacity);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= needed) {
+                    tokens -= needed;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((needed - tokens) / refillPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
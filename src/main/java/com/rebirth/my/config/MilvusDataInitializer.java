@@ -1,7 +1,9 @@
 package com.rebirth.my.config;
 
-import com.rebirth.my.wardrobe.WardrobeService;
+import com.rebirth.my.chat.component.MilvusClientWrapper;
+import com.rebirth.my.wardrobe.WardrobeVectorIndexer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -9,7 +11,14 @@ import org.springframework.stereotype.Component;
 public class MilvusDataInitializer implements CommandLineRunner {
 
     @Autowired
-    private WardrobeService wardrobeService;
+    private WardrobeVectorIndexer wardrobeVectorIndexer;
+
+    @Autowired
+    private MilvusClientWrapper milvusClientWrapper;
+
+    // incremental: 체크포인트 이후 변경분만, full: 전체 재색인, off: 시작 시 동기화 안 함
+    @Value("${milvus.sync.mode:incremental}")
+    private String syncMode;
 
     @Override
     public void run(String... args) throws Exception {
@@ -17,17 +26,24 @@ public class MilvusDataInitializer implements CommandLineRunner {
         System.out.println("🚀 Checking Milvus Data Synchronization...");
         System.out.println("==========================================");
 
-        // [OPTIMIZATION] Full sync disabled for faster startup
-        // Real-time sync happens when clothes are registered via
-        // WardrobeService.saveClothes()
-        // Uncomment below line ONLY if you need to force a full re-sync:
-        wardrobeService.syncAllDataToMilvus();
-
-        System.out.println("⚡ Fast startup mode: Real-time sync enabled.");
+        // [OPTIMIZATION] Sync runs in the background (batch embedding pipeline)
+        // so the application starts immediately. Progress is logged per batch.
+        // Incremental mode only re-embeds rows changed since the last checkpoint.
+        // Real-time sync still happens when clothes are registered via
+        // WardrobeService.addClothes()
+        // The collection is prepared (and migrated if needed) in the background,
+        // so the sync starts once Milvus is ready.
+        if ("off".equalsIgnoreCase(syncMode)) {
+            System.out.println("⏸ Milvus startup sync disabled (milvus.sync.mode=off).");
+        } else {
+            boolean full = "full".equalsIgnoreCase(syncMode);
+            milvusClientWrapper.whenReady().thenRun(() -> wardrobeVectorIndexer.syncInBackground(full));
+            System.out.println("⚡ Fast startup mode: " + syncMode + " sync starts in background once Milvus is ready.");
+        }
         System.out.println("   (Clothes are synced to Milvus when registered)");
 
         System.out.println("==========================================");
-        System.out.println("✅ Milvus Data Initialization Finished.");
+        System.out.println("✅ Milvus Data Initialization Scheduled.");
         System.out.println("==========================================");
     }
 }
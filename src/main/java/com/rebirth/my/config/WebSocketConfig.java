@@ -1,19 +1,146 @@
 package com.rebirth.my.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import com.rebirth.my.chat.broker.BrokerFanout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * STOMP 설정
+ *
+ * chat.broker.mode
+ * - simple (기본): JVM 내 simple broker, 단일 인스턴스용
+ * - relay: 외부 STOMP 브로커(ActiveMQ Artemis, RabbitMQ STOMP 플러그인 등)로 relay - 노드 수 제한 없음
+ * - fanout: 노드마다 simple broker + BrokerFanout으로 /topic 메시지를 다른 노드에 복제
+ *
+ * 구독자에게 보내는 메시지는 세션별로 발행 순서를 유지한다 (스트리밍 BOT_TOKEN 조각이 뒤섞이지 않도록).
+ * inbound/outbound 채널의 대기열은 bounded이며, 가득 차면 해당 메시지는 거절(MessageDeliveryException)되고
+ * chat.ws.rejected{channel} 카운터가 증가한다. 거절된 메시지는 재전송되지 않는다.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${chat.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${chat.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${chat.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // 클라이언트 → 서버 (@MessageMapping 처리)
+    @Value("${chat.ws.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${chat.ws.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chat.ws.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    // 서버 → 클라이언트 (구독자에게 전송)
+    @Value("${chat.ws.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${chat.ws.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chat.ws.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    @Autowired
+    private ObjectProvider<BrokerFanout> brokerFanout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // Subscribe to /topic/public
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic"); // Subscribe to /topic/public
+        }
         config.setApplicationDestinationPrefixes("/app"); // Send to /app/chat.sendMessage
+        // outbound 풀의 여러 스레드가 같은 세션에 보내더라도 발행 순서대로 전송
+        config.setPreservePublishOrder(true);
+
+        // fanout 모드: 로컬 broker로 가는 메시지를 다른 노드에도 복제
+        BrokerFanout fanout = brokerFanout.getIfAvailable();
+        if (fanout != null) {
+            config.configureBrokerChannel().interceptors(fanout);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("inbound", inboundCorePoolSize, inboundMaxPoolSize,
+                inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("outbound", outboundCorePoolSize, outboundMaxPoolSize,
+                outboundQueueCapacity));
+    }
+
+    /**
+     * 채널 executor (대기열 포화 시 거절 횟수를 기록한 뒤 AbortPolicy로 거절)
+     */
+    private ThreadPoolTaskExecutor channelExecutor(String channel, int corePoolSize, int maxPoolSize,
+            int queueCapacity) {
+        ThreadPoolExecutor.AbortPolicy abort = new ThreadPoolExecutor.AbortPolicy();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Spring 기본 executor와 같은 스레드 이름 (clientInboundChannel-1 ...)
+        executor.setThreadNamePrefix("client" + Character.toUpperCase(channel.charAt(0)) + channel.substring(1)
+                + "Channel-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            meterRegistry.counter("chat.ws.rejected", "channel", channel).increment();
+            abort.rejectedExecution(task, pool);
+        });
+        return executor;
     }
 
     @Override
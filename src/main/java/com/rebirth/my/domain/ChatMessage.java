@@ -17,12 +17,15 @@ public class ChatMessage {
     private Long roomId; // Target Room ID
     private String timestamp; // ISO 8601 formatted time
     private String imageUrl; // Image URL for image messages
+    private String streamId; // Chatbot streaming reply identifier
 
     public enum MessageType {
         CHAT,
         JOIN,
         LEAVE,
         READ,
-        IMAGE
+        IMAGE,
+        BOT_TOKEN, // Chatbot streaming chunk
+        BOT_DONE // Chatbot streaming final message
     }
 }
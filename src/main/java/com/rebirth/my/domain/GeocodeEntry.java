@@ -0,0 +1,28 @@
+package com.rebirth.my.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주소 → 좌표 변환 결과 (GEOCODE_CACHE)
+ * RESOLVED = 'N' 이면 변환 불가로 판정된 주소 (negative cache, 좌표 없음)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class GeocodeEntry {
+
+    private String address;
+    private Double latitude;
+    private Double longitude;
+    private String resolved;
+    private String source; // ADDRESS / KEYWORD / NONE
+    private LocalDateTime updatedAt;
+
+    public boolean isResolved() {
+        return "Y".equals(resolved);
+    }
+}
@@ -0,0 +1,26 @@
+package com.rebirth.my.domain;
+
+import lombok.Data;
+import java.sql.Timestamp;
+
+/**
+ * 판매 목록 카드용 경량 projection (상세 설명, 추가 이미지 등은 상세 조회에서만)
+ */
+@Data
+public class MarketListItem {
+    private Long id; // CLOTHING_ITEMS.ID
+    private Long userId; // CLOTHING_ITEMS.USER_ID
+    private String sellerName; // USERS.NAME
+    private String name; // CLOTHING_ITEMS.NAME
+    private String category; // CLOTHING_ITEMS.CATEGORY
+    private Integer targetPrice; // CLOTHING_ITEMS.TARGET_PRICE
+    private String status; // CLOTHING_ITEMS.STATUS
+    private String imageUrl; // 대표 이미지
+    private String tradeLocation; // 희망 거래 장소
+    private Double latitude;
+    private Double longitude;
+    private Timestamp createdAt;
+    private int wishCount; // 찜 개수
+    private boolean isWished; // 현재 사용자의 찜 여부
+    private Double distance; // 기준점과의 거리 (km)
+}
@@ -27,6 +27,8 @@ public class MarketVo {
     private String sellerAddress; // 판매자 주소
     private Double latitude; // 위도
     private Double longitude; // 경도
+    private String geohash; // 반경 검색용 (GeoHash.STORED_PRECISION 자리)
+    private String geoAddress; // 좌표를 변환한 원본 주소 (null이면 지도에서 직접 선택한 좌표)
     private Double distance; // 검색 기준점과의 거리 (km)
 
     // Trade Location
@@ -15,6 +15,15 @@ public class DonationService {
     @Autowired
     private com.rebirth.my.mypage.MypageService mypageService;
 
+    @Autowired
+    private com.rebirth.my.ranking.Leaderboard leaderboard;
+
+    @Autowired
+    private com.rebirth.my.service.BadgeService badgeService;
+
+    @Autowired
+    private com.rebirth.my.chat.component.ResponseCache responseCache;
+
     public List<MarketVo> getClosetItems(Long userId) {
         return donationDao.selectClosetItems(userId);
     }
@@ -23,9 +32,12 @@ public class DonationService {
     public void processDonation(List<Long> itemIds, Long userId, String disposalMethod,
             org.springframework.web.multipart.MultipartFile receiptImage) {
         // 1. 기부 처리
+        int donated = 0;
         for (Long itemId : itemIds) {
-            donationDao.updateItemToDonated(itemId, userId, disposalMethod);
+            donated += donationDao.updateItemToDonated(itemId, userId, disposalMethod);
         }
+        leaderboard.donationsAdded(userId, donated);
+        responseCache.invalidateUserAfterCommit(String.valueOf(userId));
 
         // 2. 영수증 이미지 저장 (있을 경우)
         if (receiptImage != null && !receiptImage.isEmpty()) {
@@ -66,5 +78,9 @@ public class DonationService {
         // 항목 개수만큼 적립할지, 한 번 요청에 적립할지는 정책에 따라 결정 (여기서는 요청 1건당 1회 적립으로 가정)
         // 만약 ID 개수만큼 적립하려면: points = points * itemIds.size();
         mypageService.addEcoPoints(userId, points);
+
+        // 4. 수거/기부 뱃지 평가 (포인트 뱃지는 addEcoPoints에서 평가)
+        badgeService.onEvent(userId, com.rebirth.my.service.BadgeCondition.COLLECT_COUNT,
+                com.rebirth.my.service.BadgeCondition.TOTAL_WEIGHT);
     }
 }
@@ -17,4 +17,18 @@ public interface BadgeMapper {
 
     // 뱃지 부여
     void insertUserBadge(UserBadge userBadge);
+
+    // 보유 뱃지 ID (뱃지 엔진의 BitSet 로드용)
+    List<Long> findUserBadgeIds(Long userId);
+
+    // 뱃지 일괄 부여 (이미 가진 뱃지는 건너뜀)
+    int insertUserBadges(@org.apache.ibatis.annotations.Param("userId") Long userId,
+            @org.apache.ibatis.annotations.Param("badgeIds") List<Long> badgeIds);
+
+    // 기부/수거로 넘긴 의류 수 (COLLECT_COUNT)
+    int countCollectedItems(Long userId);
+
+    // 최근 days일 안에 미션을 완료한 날짜 (DAY_STREAK)
+    List<java.time.LocalDate> findRecentCheckDates(@org.apache.ibatis.annotations.Param("userId") Long userId,
+            @org.apache.ibatis.annotations.Param("days") int days);
 }
@@ -0,0 +1,13 @@
+package com.rebirth.my.mapper;
+
+import com.rebirth.my.domain.GeocodeEntry;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface GeocodeCacheMapper {
+
+    GeocodeEntry findByAddress(@Param("address") String address);
+
+    int merge(GeocodeEntry entry);
+}
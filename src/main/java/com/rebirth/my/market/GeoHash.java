@@ -0,0 +1,123 @@
+package com.rebirth.my.market;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash 인코딩 / 반경 검색용 셀 계산
+ *
+ * CLOTHING_ITEMS.GEOHASH에는 STORED_PRECISION 자리(약 4.8m x 4.8m)로 저장하고,
+ * 반경 검색은 반경보다 큰 셀 크기의 접두사 9개(중심 셀 + 이웃 8개)로 후보를 좁힌다.
+ * 원이 중심 셀 안의 점을 중심으로 하고 반경이 셀 크기 이하이면 원 전체가 3x3 블록 안에 들어간다.
+ */
+public final class GeoHash {
+
+    public static final int STORED_PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double lat, double lon) {
+        return encode(lat, lon, STORED_PRECISION);
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true; // 경도부터 번갈아 분할
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * 셀 크기 (도 단위)
+     *
+     * @return double[]{위도 높이, 경도 폭}
+     */
+    static double[] cellSize(int precision) {
+        int bits = precision * 5;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        return new double[] { 180.0 / (1L << latBits), 360.0 / (1L << lonBits) };
+    }
+
+    /**
+     * 반경 이상 크기의 셀이 되는 가장 긴 접두사 길이
+     */
+    static int precisionFor(double lat, double radiusKm) {
+        double lonKmPerDegree = KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        for (int p = STORED_PRECISION; p > 1; p--) {
+            double[] size = cellSize(p);
+            if (size[0] * KM_PER_DEGREE >= radiusKm && size[1] * lonKmPerDegree >= radiusKm)
+                return p;
+        }
+        return 1;
+    }
+
+    /**
+     * (lat, lon) 중심 반경 radiusKm 원을 덮는 geohash 접두사 (중심 셀 + 이웃 8개, 중복 제거)
+     */
+    public static Set<String> coveringPrefixes(double lat, double lon, double radiusKm) {
+        int precision = precisionFor(lat, radiusKm);
+        double[] size = cellSize(precision);
+
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                double cellLat = Math.max(-90, Math.min(90 - 1e-9, lat + dy * size[0]));
+                double cellLon = lon + dx * size[1];
+                if (cellLon >= 180)
+                    cellLon -= 360;
+                if (cellLon < -180)
+                    cellLon += 360;
+                prefixes.add(encode(cellLat, cellLon, precision));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * 반경을 감싸는 위경도 범위
+     *
+     * @return double[]{minLat, maxLat, minLon, maxLon}
+     */
+    public static double[] boundingBox(double lat, double lon, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double dLon = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(lat))));
+        return new double[] { lat - dLat, lat + dLat, lon - dLon, lon + dLon };
+    }
+}
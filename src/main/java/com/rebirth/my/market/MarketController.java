@@ -5,11 +5,13 @@ import com.rebirth.my.domain.User;
 import com.rebirth.my.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import java.security.Principal;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/market")
@@ -24,12 +26,47 @@ public class MarketController {
     @Value("${kakao.maps.appkey}")
     private String kakaoMapsAppKey;
 
+    @Value("${market.list.page-size:60}")
+    private int listPageSize;
+
     // 판매 목록 페이지 (지도 UI)
+    // 필터/정렬은 모두 쿼리 파라미터로 SQL에서 처리하고, "더 보기" 링크(cursor)도 같은 파라미터를 그대로 넘긴다
     @GetMapping("/list")
-    public String list(Model model, Principal principal) {
+    public String list(@RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "false") boolean mine,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            Model model, Principal principal) {
         Long userId = getUserIdFromPrincipal(principal);
-        List<MarketVo> items = marketService.getAllItems(userId);
-        model.addAttribute("items", items);
+        double[] center = (lat != null && lon != null) ? new double[] { lat, lon } : null;
+        Double radius = radiusKm != null && radiusKm > 0 ? radiusKm : null;
+
+        MarketListPage page;
+        try {
+            page = marketService.getItemsPage(listQuery(category, minPrice, maxPrice, null, keyword, mine, sort, userId),
+                    cursor, center, radius, listPageSize, userId);
+        } catch (IllegalArgumentException e) {
+            // 잘못된 커서(정렬이 바뀐 커서 포함)는 첫 페이지로
+            page = marketService.getItemsPage(listQuery(category, minPrice, maxPrice, null, keyword, mine, sort, userId),
+                    null, center, radius, listPageSize, userId);
+        }
+        model.addAttribute("items", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("category", category);
+        model.addAttribute("minPrice", minPrice);
+        model.addAttribute("maxPrice", maxPrice);
+        model.addAttribute("keyword", keyword);
+        model.addAttribute("mine", mine);
+        model.addAttribute("sort", sortOf(sort));
+        model.addAttribute("lat", lat);
+        model.addAttribute("lon", lon);
+        model.addAttribute("radiusKm", radius);
         model.addAttribute("kakaoMapsAppKey", kakaoMapsAppKey);
         model.addAttribute("userId", userId);
 
@@ -48,6 +85,84 @@ public class MarketController {
         return "market/list";
     }
 
+    // 판매 목록 API (keyset 페이지네이션 + SQL 필터)
+    // 응답의 nextCursor를 다음 요청의 cursor로 넘기면 이어서 조회, lat/lon + radiusKm를 주면 거리 박스 필터
+    @GetMapping("/api/items")
+    @ResponseBody
+    public ResponseEntity<MarketListPage> items(@RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "false") boolean mine,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        Long userId = getUserIdFromPrincipal(principal);
+        double[] center = (lat != null && lon != null) ? new double[] { lat, lon } : null;
+
+        try {
+            return ResponseEntity.ok(marketService.getItemsPage(
+                    listQuery(category, minPrice, maxPrice, status, keyword, mine, sort, userId),
+                    cursor, center, radiusKm, size, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private MarketListQuery listQuery(String category, Integer minPrice, Integer maxPrice, String status,
+            String keyword, boolean mine, String sort, Long userId) {
+        MarketListQuery query = new MarketListQuery();
+        query.setCategory(category == null || category.isBlank() || "전체".equals(category) ? null : category);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setStatus(status == null || status.isBlank() ? null : status);
+        query.setKeyword(keyword == null || keyword.isBlank() ? null : keyword.trim());
+        // 비로그인 "내 상품만"은 결과 없음
+        query.setSellerId(mine ? (userId != null ? userId : -1L) : null);
+        query.setSort(sortOf(sort));
+        return query;
+    }
+
+    private static String sortOf(String sort) {
+        if (MarketListQuery.SORT_PRICE_LOW.equals(sort) || MarketListQuery.SORT_PRICE_HIGH.equals(sort))
+            return sort;
+        return MarketListQuery.SORT_LATEST;
+    }
+
+    // 주변 판매 상품 API (반경 필터 + 거리순 + 페이지)
+    // lat/lon이 없으면 로그인 사용자의 주소 기준
+    @GetMapping("/api/nearby")
+    @ResponseBody
+    public Map<String, Object> nearby(@RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "3") double radiusKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        Long userId = getUserIdFromPrincipal(principal);
+
+        if (lat == null || lon == null) {
+            double[] userCoords = marketService.getUserCoordinates(userId);
+            if (userCoords == null) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("success", false);
+                result.put("message", "기준 위치가 없습니다. lat, lon을 지정하거나 주소를 등록해 주세요.");
+                return result;
+            }
+            lat = userCoords[0];
+            lon = userCoords[1];
+        }
+
+        Map<String, Object> result = marketService.findNearby(lat, lon, radiusKm, page, size, userId);
+        result.put("success", true);
+        return result;
+    }
+
     // 판매 등록 페이지
     @GetMapping("/register")
     public String registerForm(@RequestParam(required = false) String clothesId, Model model, Principal principal) {
@@ -1,8 +1,10 @@
 package com.rebirth.my.market;
 
+import com.rebirth.my.domain.MarketListItem;
 import com.rebirth.my.domain.MarketVo;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -13,8 +15,16 @@ public interface MarketDao {
         // 상품 이미지 등록 (CLOTHING_IMAGES에 Insert)
         int insertClothingImage(MarketVo vo);
 
-        // 전체 판매 상품 목록 조회
-        List<MarketVo> selectMarketList(@Param("userId") Long userId);
+        // 판매 상품 목록 한 페이지 (keyset, 필터 적용)
+        List<MarketListItem> selectMarketPage(MarketListQuery query);
+
+        // 주변 상품 후보 (ID, 위도, 경도만) - geohash 접두사 + 위경도 범위
+        List<MarketVo> selectNearbyCandidates(@Param("prefixes") Collection<String> prefixes,
+                        @Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                        @Param("minLon") double minLon, @Param("maxLon") double maxLon);
+
+        // ID 목록으로 판매 상품 조회 (순서는 호출자가 맞춤)
+        List<MarketListItem> selectMarketItemsByIds(@Param("ids") List<Long> ids, @Param("userId") Long userId);
 
         // 상품 상세 조회
         MarketVo selectMarketItemDetail(Long id);
@@ -43,6 +53,23 @@ public interface MarketDao {
         // 상품 상태 변경 (판매완료 등)
         int updateStatus(@Param("id") Long id, @Param("userId") Long userId, @Param("status") String status);
 
+        // 좌표 백필 대상 조회 (좌표 없음 또는 변환 주소 변경)
+        List<MarketVo> selectItemsToGeocode(@Param("limit") int limit);
+
+        // 백필 좌표 저장 (geoAddress = 변환에 사용한 원본 주소)
+        int updateGeocodedLocation(@Param("id") Long id, @Param("latitude") Double latitude,
+                        @Param("longitude") Double longitude, @Param("geoAddress") String geoAddress,
+                        @Param("geohash") String geohash);
+
+        // GEOHASH 없이 좌표만 있는 상품 (ID, 위도, 경도만)
+        List<MarketVo> selectItemsMissingGeohash(@Param("limit") int limit);
+
+        int updateGeohash(@Param("id") Long id, @Param("geohash") String geohash);
+
+        // 일시 오류 기록 (시도 횟수 증가 + 다음 재시도 시각)
+        int updateGeocodeRetry(@Param("id") Long id, @Param("retryBaseSeconds") long retryBaseSeconds,
+                        @Param("retryMaxSeconds") long retryMaxSeconds);
+
         // ========== 추가 이미지 관련 ==========
 
         // 추가 이미지 등록
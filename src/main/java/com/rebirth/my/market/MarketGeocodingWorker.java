@@ -0,0 +1,138 @@
+package com.rebirth.my.market;
+
+import com.rebirth.my.chat.component.GeocodingService;
+import com.rebirth.my.common.http.TokenBucket;
+import com.rebirth.my.domain.MarketVo;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 판매 상품 좌표 백필 작업
+ *
+ * - CLOTHING_ITEMS 중 좌표가 없는 판매 상품을 찾아 거래희망장소(없으면 판매자 주소)로 좌표를 채운다
+ * - 변환에 사용한 주소를 GEO_ADDRESS에 기록해 두고, 판매자 주소/거래장소가 바뀌면 다시 변환한다
+ * - 지도에서 직접 고른 좌표(GEO_ADDRESS 없음)는 건드리지 않는다
+ * - Kakao 호출량은 토큰 버킷(max-per-second)으로 제한
+ * - API 오류는 시도 횟수와 다음 재시도 시각(지수 백오프)을 기록하고, 시도 횟수가 적은 상품부터 처리해
+ *   계속 실패하는 상품이 매 주기 배치를 차지하지 않게 한다
+ * - 좌표와 함께 반경 검색용 GEOHASH도 기록 (컬럼 추가 이전 상품도 채움)
+ *
+ * 덕분에 /market/list 조회는 외부 API를 호출하지 않는다.
+ */
+@Component
+public class MarketGeocodingWorker {
+
+    @Autowired
+    private MarketDao marketDao;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${market.geocode.enabled:true}")
+    private boolean enabled;
+
+    @Value("${market.geocode.batch-size:100}")
+    private int batchSize;
+
+    @Value("${market.geocode.max-per-second:5}")
+    private double maxPerSecond;
+
+    @Value("${market.geocode.retry-base-seconds:300}")
+    private long retryBaseSeconds;
+
+    @Value("${market.geocode.retry-max-seconds:86400}")
+    private long retryMaxSeconds;
+
+    private TokenBucket rateLimiter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = new TokenBucket(Math.max(1.0, maxPerSecond), maxPerSecond);
+    }
+
+    @Scheduled(initialDelayString = "${market.geocode.initial-delay-ms:30000}",
+            fixedDelayString = "${market.geocode.delay-ms:60000}")
+    public void backfill() {
+        if (!enabled || !running.compareAndSet(false, true))
+            return;
+
+        try {
+            fillMissingGeohashes();
+
+            List<MarketVo> items = marketDao.selectItemsToGeocode(batchSize);
+            if (items.isEmpty())
+                return;
+
+            int resolved = 0;
+            int unresolved = 0;
+            for (MarketVo item : items) {
+                String source = item.getTradeLocation() != null && !item.getTradeLocation().isEmpty()
+                        ? item.getTradeLocation()
+                        : item.getSellerAddress();
+                if (source == null || source.isEmpty())
+                    continue;
+
+                rateLimiter.acquire(1);
+
+                double[] coords;
+                try {
+                    coords = geocodingService.resolve(MarketService.geocodeAddress(source));
+                } catch (RuntimeException e) {
+                    // 일시적 오류: GEO_ADDRESS는 그대로 두고 백오프 후 다시 시도
+                    marketDao.updateGeocodeRetry(item.getId(), retryBaseSeconds, retryMaxSeconds);
+                    count("error");
+                    continue;
+                }
+
+                if (coords != null) {
+                    marketDao.updateGeocodedLocation(item.getId(), coords[0], coords[1], source,
+                            GeoHash.encode(coords[0], coords[1]));
+                    resolved++;
+                    count("resolved");
+                } else {
+                    // 변환 불가: 좌표 없이 주소만 기록 (주소가 바뀌면 다시 대상이 됨)
+                    marketDao.updateGeocodedLocation(item.getId(), null, null, source, null);
+                    unresolved++;
+                    count("unresolved");
+                }
+            }
+
+            System.out.println("📍 [MarketGeocodingWorker] 좌표 백필: 대상 " + items.size() + "건, 성공 " + resolved
+                    + "건, 변환 불가 " + unresolved + "건");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("❌ [MarketGeocodingWorker] 좌표 백필 실패: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * GEOHASH 컬럼 추가 이전에 좌표가 저장된 상품 (외부 호출 없이 계산만)
+     */
+    private void fillMissingGeohashes() {
+        List<MarketVo> items = marketDao.selectItemsMissingGeohash(batchSize);
+        for (MarketVo item : items) {
+            marketDao.updateGeohash(item.getId(), GeoHash.encode(item.getLatitude(), item.getLongitude()));
+        }
+        if (!items.isEmpty()) {
+            System.out.println("📍 [MarketGeocodingWorker] geohash 채움: " + items.size() + "건");
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("market.geocode.backfill", "outcome", outcome).increment();
+    }
+}
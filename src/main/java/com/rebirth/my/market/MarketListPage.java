@@ -0,0 +1,21 @@
+package com.rebirth.my.market;
+
+import com.rebirth.my.domain.MarketListItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 판매 목록 한 페이지. nextCursor를 다음 요청의 cursor로 넘기면 이어서 조회된다 (마지막 페이지면 null).
+ */
+@Getter
+@AllArgsConstructor
+public class MarketListPage {
+    private final List<MarketListItem> items;
+    private final String nextCursor;
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.rebirth.my.market;
+
+import lombok.Data;
+import java.sql.Timestamp;
+
+/**
+ * 판매 목록 조회 조건 (MarketDao.selectMarketPage)
+ * null인 조건은 적용하지 않는다.
+ * 정렬: latest (CREATED_AT DESC, ID DESC), price_low (가격 ASC, ID ASC), price_high (가격 DESC, ID DESC)
+ */
+@Data
+public class MarketListQuery {
+    public static final String SORT_LATEST = "latest";
+    public static final String SORT_PRICE_LOW = "price_low";
+    public static final String SORT_PRICE_HIGH = "price_high";
+
+    private String category;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private String status;
+    private String keyword; // 상품명 부분 일치
+    private Long sellerId; // 내 상품만
+
+    private String sort = SORT_LATEST;
+
+    // 거리 박스 (기준점 반경을 감싸는 위경도 범위)
+    private Double minLat;
+    private Double maxLat;
+    private Double minLon;
+    private Double maxLon;
+
+    // keyset 커서: 직전 페이지 마지막 행의 (CREATED_AT, ID) 또는 가격순이면 (가격, ID)
+    private Timestamp cursorCreatedAt;
+    private Integer cursorPrice;
+    private Long cursorId;
+
+    private int limit;
+    private Long userId; // 찜 여부 판단용
+}
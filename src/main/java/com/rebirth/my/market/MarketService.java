@@ -1,5 +1,6 @@
 package com.rebirth.my.market;
 
+import com.rebirth.my.domain.MarketListItem;
 import com.rebirth.my.domain.MarketVo;
 import com.rebirth.my.domain.User;
 import com.rebirth.my.wardrobe.WardrobeDao;
@@ -7,13 +8,26 @@ import com.rebirth.my.wardrobe.WardrobeVo;
 import com.rebirth.my.chat.component.GeocodingService;
 import com.rebirth.my.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class MarketService {
 
+    private static final Pattern PARENTHESIZED = Pattern.compile("\\(([^)]+)\\)");
+
     @Autowired
     private MarketDao marketDao;
 
@@ -26,6 +40,9 @@ public class MarketService {
     @Autowired
     private UserMapper userMapper;
 
+    @Value("${market.nearby.max-radius-km:50}")
+    private double maxNearbyRadiusKm;
+
     @Transactional
     public void registerItem(MarketVo vo) {
         // 프론트엔드에서 전달된 정확한 좌표가 있으면 우선 사용
@@ -33,20 +50,19 @@ public class MarketService {
             // 지도에서 직접 선택한 좌표가 있으므로 그대로 사용
         } else if (vo.getTradeLocation() != null && !vo.getTradeLocation().isEmpty()) {
             // 좌표가 없고 거래희망장소만 있으면 위경도로 변환
-            // 괄호 안의 주소 추출 (예: "시청역 (대전 중구 은행동)" -> "대전 중구 은행동")
-            String address = vo.getTradeLocation();
-            java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("\\(([^)]+)\\)").matcher(address);
-            if (matcher.find()) {
-                address = matcher.group(1);
-            }
-
-            double[] coords = geocodingService.getCoordinates(address);
+            // (실패하면 MarketGeocodingWorker가 백그라운드에서 다시 시도)
+            double[] coords = geocodingService.getCoordinates(geocodeAddress(vo.getTradeLocation()));
             if (coords != null) {
                 vo.setLatitude(coords[0]);
                 vo.setLongitude(coords[1]);
+                vo.setGeoAddress(vo.getTradeLocation());
             }
         }
 
+        if (vo.getLatitude() != null && vo.getLongitude() != null) {
+            vo.setGeohash(GeoHash.encode(vo.getLatitude(), vo.getLongitude()));
+        }
+
         Long itemId = null;
 
         if (vo.getClothesId() != null && !vo.getClothesId().isEmpty()) {
@@ -131,55 +147,174 @@ public class MarketService {
     }
 
     /**
-     * 판매 목록 조회 (위치 정보 포함)
+     * 판매 목록 한 페이지 (keyset 페이지네이션)
+     *
+     * 필터(카테고리, 가격, 상태, 거리 박스)와 페이지 자르기는 SQL에서 처리하고, 대표 이미지/찜 수도 해당 페이지 상품만
+     * 집계하므로 메모리와 응답 시간이 전체 상품 수와 무관하다. 좌표는 미리 채워져 있어 외부 API도 호출하지 않는다.
+     *
+     * @param query    필터/정렬 조건 (limit, 커서, userId는 여기서 채움)
+     * @param cursor   같은 필터/정렬로 받은 직전 페이지의 nextCursor (첫 페이지는 null, 정렬이 다르면 IllegalArgumentException)
+     * @param center   거리 기준점 {위도, 경도}, null이면 로그인 사용자의 주소 기준
+     * @param radiusKm 기준점 반경 박스 필터 (null이면 거리 필터 없음)
      */
-    public List<MarketVo> getAllItems(Long userId) {
-        List<MarketVo> items = marketDao.selectMarketList(userId);
-
-        // 현재 사용자의 위치 기준점 (로그인한 경우)
-        double[] userCoords = null;
-        if (userId != null) {
-            User user = userMapper.getUserById(userId);
-            if (user != null && user.getAddress() != null) {
-                userCoords = geocodingService.getCoordinates(user.getAddress());
-            }
+    public MarketListPage getItemsPage(MarketListQuery query, String cursor, double[] center, Double radiusKm,
+            int size, Long userId) {
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        query.setUserId(userId);
+        query.setLimit(pageSize + 1); // 한 건 더 읽어 다음 페이지 존재 여부 판단
+        applyCursor(query, cursor);
+
+        double[] origin = center != null ? center : getUserCoordinates(userId);
+        if (origin != null && radiusKm != null) {
+            double[] box = GeoHash.boundingBox(origin[0], origin[1], Math.min(radiusKm, maxNearbyRadiusKm));
+            query.setMinLat(box[0]);
+            query.setMaxLat(box[1]);
+            query.setMinLon(box[2]);
+            query.setMaxLon(box[3]);
         }
 
-        // 각 상품에 위도/경도 및 거리 설정
-        for (MarketVo item : items) {
-            // DB에 저장된 위경도가 있으면 사용
-            if (item.getLatitude() != null && item.getLongitude() != null) {
-                // 이미 DB에서 가져온 값 사용
-            } else if (item.getTradeLocation() != null && !item.getTradeLocation().isEmpty()) {
-                // tradeLocation으로 위경도 계산
-                String address = item.getTradeLocation();
-                java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("\\(([^)]+)\\)").matcher(address);
-                if (matcher.find()) {
-                    address = matcher.group(1);
-                }
-                double[] coords = geocodingService.getCoordinates(address);
-                if (coords != null) {
-                    item.setLatitude(coords[0]);
-                    item.setLongitude(coords[1]);
-                }
-            } else if (item.getSellerAddress() != null && !item.getSellerAddress().isEmpty()) {
-                // 폴백: 판매자 주소 사용
-                double[] coords = geocodingService.getCoordinates(item.getSellerAddress());
-                if (coords != null) {
-                    item.setLatitude(coords[0]);
-                    item.setLongitude(coords[1]);
+        List<MarketListItem> items = marketDao.selectMarketPage(query);
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+            MarketListItem last = items.get(pageSize - 1);
+            nextCursor = isPriceSort(query.getSort())
+                    ? encodePriceCursor(query.getSort(), last.getTargetPrice(), last.getId())
+                    : encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        if (origin != null) {
+            for (MarketListItem item : items) {
+                if (item.getLatitude() != null && item.getLongitude() != null) {
+                    double distance = calculateDistance(origin[0], origin[1], item.getLatitude(),
+                            item.getLongitude());
+                    item.setDistance(Math.round(distance * 10.0) / 10.0);
                 }
             }
+        }
 
-            // 사용자 위치와 거리 계산
-            if (userCoords != null && item.getLatitude() != null && item.getLongitude() != null) {
-                double distance = calculateDistance(userCoords[0], userCoords[1], item.getLatitude(),
-                        item.getLongitude());
-                item.setDistance(Math.round(distance * 10.0) / 10.0);
+        return new MarketListPage(items, nextCursor);
+    }
+
+    /**
+     * 주변 판매 상품 (반경 필터 + 거리순 + 페이지)
+     *
+     * geohash 접두사와 위경도 범위로 인덱스에서 후보(ID, 좌표)만 뽑은 뒤 거리 계산을 하므로
+     * 조회 비용은 전체 상품 수가 아니라 반경 주변 상품 수에 비례한다.
+     * 카드 컬럼(이미지, 찜 수 등)은 요청한 페이지의 상품만 조회한다.
+     */
+    public Map<String, Object> findNearby(double lat, double lon, double radiusKm, int page, int size,
+            Long userId) {
+        double radius = Math.min(Math.max(radiusKm, 0.1), maxNearbyRadiusKm);
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        int pageNo = Math.max(page, 0);
+
+        double[] box = GeoHash.boundingBox(lat, lon, radius);
+        List<MarketVo> candidates = marketDao.selectNearbyCandidates(GeoHash.coveringPrefixes(lat, lon, radius),
+                box[0], box[1], box[2], box[3]);
+
+        List<MarketVo> inRadius = new ArrayList<>();
+        for (MarketVo candidate : candidates) {
+            double distance = calculateDistance(lat, lon, candidate.getLatitude(), candidate.getLongitude());
+            if (distance <= radius) {
+                candidate.setDistance(distance);
+                inRadius.add(candidate);
+            }
+        }
+        inRadius.sort(Comparator.comparingDouble(MarketVo::getDistance).thenComparing(MarketVo::getId));
+
+        int from = Math.min(pageNo * pageSize, inRadius.size());
+        int to = Math.min(from + pageSize, inRadius.size());
+        List<MarketVo> slice = inRadius.subList(from, to);
+
+        List<MarketListItem> items = new ArrayList<>();
+        if (!slice.isEmpty()) {
+            Map<Long, MarketListItem> byId = new HashMap<>();
+            for (MarketListItem item : marketDao.selectMarketItemsByIds(
+                    slice.stream().map(MarketVo::getId).collect(Collectors.toList()), userId)) {
+                byId.put(item.getId(), item);
+            }
+            for (MarketVo candidate : slice) {
+                MarketListItem item = byId.get(candidate.getId());
+                if (item != null) {
+                    item.setDistance(Math.round(candidate.getDistance() * 10.0) / 10.0);
+                    items.add(item);
+                }
             }
         }
 
-        return items;
+        Map<String, Object> result = new HashMap<>();
+        result.put("items", items);
+        result.put("page", pageNo);
+        result.put("size", pageSize);
+        result.put("total", inRadius.size());
+        result.put("hasNext", to < inRadius.size());
+        result.put("radiusKm", radius);
+        return result;
+    }
+
+    /**
+     * 사용자 주소 기준 근사 좌표 (캐시/행정구역 좌표, 외부 API 호출 없음)
+     */
+    public double[] getUserCoordinates(Long userId) {
+        if (userId == null)
+            return null;
+        User user = userMapper.getUserById(userId);
+        return user != null && user.getAddress() != null
+                ? geocodingService.getApproximateCoordinates(user.getAddress())
+                : null;
+    }
+
+    /**
+     * 좌표 변환에 쓸 주소
+     * 거래희망장소의 괄호 안 주소를 우선 사용 (예: "시청역 (대전 중구 은행동)" -> "대전 중구 은행동")
+     */
+    static String geocodeAddress(String tradeLocation) {
+        Matcher matcher = PARENTHESIZED.matcher(tradeLocation);
+        return matcher.find() ? matcher.group(1) : tradeLocation;
+    }
+
+    /**
+     * 커서 = "CREATED_AT(epoch millis).나노초.ID" 를 URL-safe Base64로 감싼 값
+     */
+    static String encodeCursor(Timestamp createdAt, Long id) {
+        String raw = createdAt.getTime() + "." + createdAt.getNanos() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 가격순 커서 = "정렬.가격.ID" (정렬 방향이 다른 요청에 잘못 쓰이지 않도록 정렬 이름을 함께 담는다)
+     */
+    static String encodePriceCursor(String sort, Integer price, Long id) {
+        String raw = sort + "." + (price != null ? price : 0) + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isPriceSort(String sort) {
+        return MarketListQuery.SORT_PRICE_LOW.equals(sort) || MarketListQuery.SORT_PRICE_HIGH.equals(sort);
+    }
+
+    private static void applyCursor(MarketListQuery query, String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\.");
+            if (isPriceSort(query.getSort())) {
+                if (!parts[0].equals(query.getSort()))
+                    throw new IllegalArgumentException("sort mismatch");
+                query.setCursorPrice(Integer.parseInt(parts[1]));
+                query.setCursorId(Long.parseLong(parts[2]));
+                return;
+            }
+            Timestamp createdAt = new Timestamp(Long.parseLong(parts[0]));
+            createdAt.setNanos(Integer.parseInt(parts[1]));
+            query.setCursorCreatedAt(createdAt);
+            query.setCursorId(Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
     }
 
     /**
@@ -257,25 +392,31 @@ public class MarketService {
             // 지도에서 직접 선택한 좌표 사용
         } else if (vo.getTradeLocation() != null && !vo.getTradeLocation().isEmpty()) {
             // 좌표가 없고 거래희망장소만 있으면 위경도로 변환
-            String address = vo.getTradeLocation();
-            java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("\\(([^)]+)\\)").matcher(address);
-            if (matcher.find()) {
-                address = matcher.group(1);
-            }
-
-            double[] coords = geocodingService.getCoordinates(address);
+            // (실패하면 MarketGeocodingWorker가 백그라운드에서 다시 시도)
+            double[] coords = geocodingService.getCoordinates(geocodeAddress(vo.getTradeLocation()));
             if (coords != null) {
                 vo.setLatitude(coords[0]);
                 vo.setLongitude(coords[1]);
+                vo.setGeoAddress(vo.getTradeLocation());
             }
         }
 
+        if (vo.getLatitude() != null && vo.getLongitude() != null) {
+            vo.setGeohash(GeoHash.encode(vo.getLatitude(), vo.getLongitude()));
+        }
+
         marketDao.updateMarketItem(vo);
     }
 
     @Autowired
     private com.rebirth.my.mypage.MypageService mypageService;
 
+    @Autowired
+    private com.rebirth.my.ranking.Leaderboard leaderboard;
+
+    @Autowired
+    private com.rebirth.my.chat.component.ResponseCache responseCache;
+
     /**
      * 판매 완료 처리 및 포인트 지급
      */
@@ -287,6 +428,8 @@ public class MarketService {
         if (updated > 0) {
             // 2. 판매자에게 포인트 지급 (50P)
             mypageService.addEcoPoints(userId, 50);
+            leaderboard.saleCompleted(userId);
+            responseCache.invalidateUserAfterCommit(String.valueOf(userId));
         } else {
             throw new RuntimeException("판매 완료 처리 실패: 해당 상품이 없거나 권한이 없습니다.");
         }
@@ -52,6 +52,12 @@ public class MypageController {
     @Autowired
     private MypageService mypageService;
 
+    @Autowired
+    private com.rebirth.my.ranking.Leaderboard leaderboard;
+
+    @Autowired
+    private com.rebirth.my.chat.component.ResponseCache responseCache;
+
     @GetMapping("")
     public String mypageMain(Model model, Principal principal) {
         // 1. Security Context에서 Authentication 가져오기
@@ -489,6 +495,8 @@ public class MypageController {
                 if (profile != null) {
                     profile.setEcoPoints(profile.getEcoPoints() + points);
                     userProfileMapper.update(profile);
+                    leaderboard.ecoPointsChanged(userId, profile.getEcoPoints());
+                    responseCache.invalidateUser(String.valueOf(userId));
                 }
             } else {
                 // Delete Check
@@ -499,6 +507,8 @@ public class MypageController {
                 if (profile != null) {
                     profile.setEcoPoints(Math.max(0, profile.getEcoPoints() - points));
                     userProfileMapper.update(profile);
+                    leaderboard.ecoPointsChanged(userId, profile.getEcoPoints());
+                    responseCache.invalidateUser(String.valueOf(userId));
                 }
             }
 
@@ -590,6 +600,8 @@ public class MypageController {
 
             // 7. Save Ownership & Profile
             userProfileMapper.update(profile);
+            leaderboard.ecoPointsChanged(userId, profile.getEcoPoints());
+            responseCache.invalidateUser(String.valueOf(userId));
             mypageService.addOwnedDecoration(userId, itemCode);
 
             // Refresh Session
@@ -38,6 +38,15 @@ public class MypageService {
     @Autowired
     private BadgeMapper badgeMapper;
 
+    @Autowired
+    private com.rebirth.my.ranking.Leaderboard leaderboard;
+
+    @Autowired
+    private com.rebirth.my.chat.component.ResponseCache responseCache;
+
+    @Autowired
+    private com.rebirth.my.service.BadgeService badgeService;
+
     @Autowired
     private MypageDao mypageDao;
 
@@ -168,8 +177,11 @@ public class MypageService {
             List<ActivityVo> history = mypageDao.selectActivityHistory(userId);
             vo.setActivityHistory(history);
 
-            // 7. 나의 랭킹 정보 조회 추가
-            MypageVo rankingInfo = mypageDao.selectMyRanking(userId);
+            // 7. 나의 랭킹 정보 조회 추가 (메모리 랭킹 보드, 로드 전이면 DB)
+            MypageVo rankingInfo = leaderboard.position(userId);
+            if (rankingInfo == null) {
+                rankingInfo = mypageDao.selectMyRanking(userId);
+            }
             if (rankingInfo != null) {
                 vo.setEcoPointRank(rankingInfo.getEcoPointRank());
                 vo.setDonationRank(rankingInfo.getDonationRank());
@@ -506,9 +518,11 @@ public class MypageService {
             int currentPoints = profile.getEcoPoints() != null ? profile.getEcoPoints() : 0;
             profile.setEcoPoints(currentPoints + points);
             userProfileMapper.update(profile);
+            leaderboard.ecoPointsChanged(userId, profile.getEcoPoints());
+            responseCache.invalidateUser(String.valueOf(userId));
 
-            // 포인트 변경 후 뱃지 조건 체크가 필요하다면 여기서 호출
-            // badgeService.checkAndAwardBadges(userId);
+            // 포인트 변경 후 포인트 뱃지만 평가
+            badgeService.onEvent(userId, com.rebirth.my.service.BadgeCondition.TOTAL_POINT, profile.getEcoPoints());
         }
     }
 }
\ No newline at end of file
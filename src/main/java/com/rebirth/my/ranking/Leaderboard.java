@@ -0,0 +1,324 @@
+package com.rebirth.my.ranking;
+
+import com.rebirth.my.mypage.MypageVo;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 랭킹 보드
+ *
+ * - 활성 회원별 (에코 포인트, 기부 횟수, 판매 횟수)를 들고, 랭킹 종류마다 RankTree로 정렬해 둔다
+ * - 페이지 조회 / 내 순위 조회는 O(log n), 매 요청마다 전체 회원 RANK() OVER를 돌리지 않는다
+ * - 쓰기 경로(포인트 적립, 판매 완료, 기부, 미션 정산)에서 커밋 후 증분 반영
+ * - 주기적으로 Oracle 스냅샷을 다시 읽어 통째로 교체 (신규/탈퇴 회원, 판매 취소, 누락된 증분 보정)
+ *
+ * 첫 스냅샷 로드 전에는 isReady()가 false이며, RankingService는 기존 SQL 랭킹을 사용한다.
+ */
+@Component
+public class Leaderboard {
+
+    public enum Type {
+        ECO, DONATION, SALES;
+
+        /**
+         * 랭킹 페이지의 type 파라미터 (eco / donation / sales, 그 외는 eco)
+         */
+        public static Type of(String param) {
+            if ("donation".equals(param))
+                return DONATION;
+            if ("sales".equals(param))
+                return SALES;
+            return ECO;
+        }
+    }
+
+    @Autowired
+    private RankingDao rankingDao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ranking.leaderboard.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    // lock으로 보호
+    private Board board;
+    // 스냅샷을 읽는 동안 들어온 변경 (교체 직전에 새 보드에 다시 적용)
+    private List<Consumer<Board>> pending;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gauge("ranking.leaderboard.size", this, Leaderboard::size);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return board != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 랭킹 대상(활성) 회원 수
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return board != null ? board.scores.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 랭킹 페이지 (순위, 점수만 채워짐 - 닉네임/프로필은 호출자가 조회)
+     *
+     * @return 순위 순 목록, 보드가 아직 로드되지 않았으면 null
+     */
+    public List<RankingVo> page(Type type, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (board == null)
+                return null;
+
+            RankTree tree = board.trees[type.ordinal()];
+            int end = Math.min(tree.size(), offset + limit);
+            List<RankingVo> list = new ArrayList<>(Math.max(0, end - offset));
+            for (int i = Math.max(0, offset); i < end; i++) {
+                long userId = tree.userIdAt(i);
+                int[] s = board.scores.get(userId);
+
+                RankingVo vo = new RankingVo();
+                vo.setUserId(userId);
+                vo.setEcoPoints(s[Type.ECO.ordinal()]);
+                vo.setDonationCount(s[Type.DONATION.ordinal()]);
+                vo.setSalesCount(s[Type.SALES.ordinal()]);
+                vo.setRank(tree.countAbove(s[type.ordinal()]) + 1);
+                list.add(vo);
+            }
+            return list;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 내 순위 (ecoPointRank, donationRank, salesRank, totalUsers, ecoPoint, donationCount, salesCount)
+     *
+     * @return 보드가 로드되지 않았거나 랭킹 대상이 아니면 null
+     */
+    public MypageVo position(Long userId) {
+        lock.readLock().lock();
+        try {
+            if (board == null || userId == null)
+                return null;
+
+            int[] s = board.scores.get(userId);
+            if (s == null)
+                return null;
+
+            MypageVo vo = new MypageVo();
+            vo.setEcoPointRank(board.rankOf(Type.ECO, s));
+            vo.setDonationRank(board.rankOf(Type.DONATION, s));
+            vo.setSalesRank(board.rankOf(Type.SALES, s));
+            vo.setTotalUsers(board.scores.size());
+            vo.setEcoPoint(s[Type.ECO.ordinal()]);
+            vo.setDonationCount(s[Type.DONATION.ordinal()]);
+            vo.setSalesCount(s[Type.SALES.ordinal()]);
+            return vo;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 에코 포인트 변경 (USER_PROFILES에 저장된 변경 후 값)
+     */
+    public void ecoPointsChanged(Long userId, Integer ecoPoints) {
+        if (userId == null)
+            return;
+        int value = ecoPoints != null ? ecoPoints : 0;
+        afterCommit(() -> apply(b -> b.set(userId, Type.ECO, value)));
+    }
+
+    public void donationsAdded(Long userId, int count) {
+        if (userId == null || count <= 0)
+            return;
+        afterCommit(() -> apply(b -> b.add(userId, Type.DONATION, count)));
+    }
+
+    public void saleCompleted(Long userId) {
+        if (userId == null)
+            return;
+        afterCommit(() -> apply(b -> b.add(userId, Type.SALES, 1)));
+    }
+
+    /**
+     * Oracle 스냅샷으로 보드 재구성
+     *
+     * 스냅샷 조회 중 들어온 증분은 새 보드에 다시 적용한다. 조회 직전에 커밋된 기부/판매가
+     * 스냅샷과 증분에 모두 잡히면 일시적으로 1건 더 세어질 수 있으나 다음 주기에 바로잡힌다.
+     */
+    @Scheduled(initialDelayString = "${ranking.leaderboard.initial-delay-ms:5000}",
+            fixedDelayString = "${ranking.leaderboard.reconcile-ms:300000}")
+    public void reconcile() {
+        if (!enabled || !reconciling.compareAndSet(false, true))
+            return;
+
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            List<RankingVo> rows = rankingDao.selectLeaderboardSnapshot();
+            Board fresh = new Board(rows.size());
+            for (RankingVo row : rows) {
+                fresh.put(row.getUserId(),
+                        new int[] { row.getEcoPoints(), row.getDonationCount(), row.getSalesCount() });
+            }
+
+            int drift;
+            lock.writeLock().lock();
+            try {
+                for (Consumer<Board> change : pending) {
+                    change.accept(fresh);
+                }
+                drift = board != null ? board.diff(fresh) : 0;
+                board = fresh;
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            meterRegistry.counter("ranking.leaderboard.reconcile", "outcome", "success").increment();
+            meterRegistry.counter("ranking.leaderboard.drift").increment(drift);
+            System.out.println("🏆 [Leaderboard] 랭킹 동기화: 회원 " + rows.size() + "명, 보정 " + drift + "명, "
+                    + elapsedMs + "ms");
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            meterRegistry.counter("ranking.leaderboard.reconcile", "outcome", "error").increment();
+            System.err.println("❌ [Leaderboard] 랭킹 동기화 실패: " + e.getMessage());
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private void apply(Consumer<Board> change) {
+        lock.writeLock().lock();
+        try {
+            if (board != null)
+                change.accept(board);
+            if (pending != null)
+                pending.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 실행 (롤백된 변경이 보드에 남지 않도록)
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 회원별 점수 + 랭킹 종류별 정렬 트리
+     */
+    private static final class Board {
+        final Map<Long, int[]> scores;
+        final RankTree[] trees = new RankTree[Type.values().length];
+
+        Board(int expectedSize) {
+            scores = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+            for (int i = 0; i < trees.length; i++) {
+                trees[i] = new RankTree();
+            }
+        }
+
+        void put(Long userId, int[] s) {
+            scores.put(userId, s);
+            for (int i = 0; i < trees.length; i++) {
+                trees[i].insert(s[i], userId);
+            }
+        }
+
+        // 랭킹 대상이 아닌 회원(비활성, 스냅샷 이후 가입)은 다음 동기화 때 반영
+        void set(Long userId, Type type, int value) {
+            int[] s = scores.get(userId);
+            if (s == null || s[type.ordinal()] == value)
+                return;
+            RankTree tree = trees[type.ordinal()];
+            tree.remove(s[type.ordinal()], userId);
+            s[type.ordinal()] = value;
+            tree.insert(value, userId);
+        }
+
+        void add(Long userId, Type type, int delta) {
+            int[] s = scores.get(userId);
+            if (s != null)
+                set(userId, type, s[type.ordinal()] + delta);
+        }
+
+        int rankOf(Type type, int[] s) {
+            return trees[type.ordinal()].countAbove(s[type.ordinal()]) + 1;
+        }
+
+        /**
+         * 증분 반영 결과와 스냅샷이 다른 회원 수 (추가/제외 포함)
+         */
+        int diff(Board other) {
+            int count = 0;
+            for (Map.Entry<Long, int[]> e : other.scores.entrySet()) {
+                int[] mine = scores.get(e.getKey());
+                if (mine == null || !Arrays.equals(mine, e.getValue()))
+                    count++;
+            }
+            for (Long userId : scores.keySet()) {
+                if (!other.scores.containsKey(userId))
+                    count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.rebirth.my.ranking;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 순위 조회용 order-statistics 트리 (서브트리 크기를 가진 treap)
+ *
+ * (점수 내림차순, USER_ID 오름차순)으로 정렬 - 기존 랭킹 SQL의 ORDER BY RANK, USER_ID와 동일.
+ * 삽입/삭제/k번째 조회/"나보다 점수 높은 사람 수" 모두 O(log n) (기대값).
+ * 동기화는 호출자(Leaderboard)가 담당한다.
+ */
+final class RankTree {
+
+    private static final class Node {
+        final long score;
+        final long userId;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long score, long userId) {
+            this.score = score;
+            this.userId = userId;
+        }
+    }
+
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(long score, long userId) {
+        root = insert(root, new Node(score, userId));
+    }
+
+    void remove(long score, long userId) {
+        root = remove(root, score, userId);
+    }
+
+    /**
+     * 점수가 score보다 큰 사용자 수 (RANK() 순위 = 이 값 + 1)
+     */
+    int countAbove(long score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 정렬 순서상 index번째(0부터) 사용자 ID
+     */
+    long userIdAt(int index) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.userId;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException("index: " + index);
+    }
+
+    private static int compare(long score, long userId, Node node) {
+        if (score != node.score)
+            return score > node.score ? -1 : 1;
+        return Long.compare(userId, node.userId);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null)
+            return added;
+
+        if (compare(added.score, added.userId, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority)
+                node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority)
+                node = rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, long score, long userId) {
+        if (node == null)
+            return null;
+
+        int c = compare(score, userId, node);
+        if (c < 0) {
+            node.left = remove(node.left, score, userId);
+        } else if (c > 0) {
+            node.right = remove(node.right, score, userId);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
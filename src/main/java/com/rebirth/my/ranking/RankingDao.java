@@ -18,4 +18,10 @@ public interface RankingDao {
     // 나의 랭킹 정보 상세 조회 (MypageDao.selectMyRanking과 유사하지만, 단일 VO로 합칠지 고민)
     // 여기서는 내 순위만 가져와도 되지만, 상단 카드 구성을 위해 구체적 정보 필요
     com.rebirth.my.mypage.MypageVo selectMyRankingDetail(@Param("userId") Long userId);
+
+    // 메모리 랭킹 보드 재구성용 (활성 회원별 에코 포인트, 기부/판매 횟수)
+    List<RankingVo> selectLeaderboardSnapshot();
+
+    // 닉네임, 프로필 이미지, 꾸미기 효과 (userIds에 해당하는 회원만)
+    List<RankingVo> selectRankingProfiles(@Param("userIds") List<Long> userIds);
 }
@@ -1,6 +1,10 @@
 package com.rebirth.my.ranking;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,35 +16,34 @@ public class RankingService {
     @Autowired
     private RankingDao rankingDao;
 
+    @Autowired
+    private Leaderboard leaderboard;
+
     public List<RankingVo> getRankingList(String type, int page, int size) {
         int offset = (page - 1) * size;
 
-        List<RankingVo> list = rankingDao.selectRankingList(type, offset, size);
-
-        // 포맷팅 및 이미지 경로 처리
-        for (RankingVo vo : list) {
-            String avatarUrl = vo.getAvatarUrl();
-
-            // 1. Handle Legacy Local Paths
-            if (avatarUrl != null) {
-                if (avatarUrl.startsWith("C:/profile_upload/")) {
-                    // Legacy path used in MypageService
-                    vo.setAvatarUrl(avatarUrl.replace("C:/profile_upload/", "/profile-images/"));
-                } else if (avatarUrl.startsWith("C:\\")) {
-                    // Generic Windows Absolute Path handling
-                    // If it contains "uploads" folder, try to serve relatively
-                    int uploadsIndex = avatarUrl.indexOf("uploads");
-                    if (uploadsIndex != -1) {
-                        String relativePath = "/" + avatarUrl.substring(uploadsIndex).replace("\\", "/");
-                        vo.setAvatarUrl(relativePath);
-                    }
+        // 메모리 보드에서 순위/점수, DB에서는 해당 페이지 회원의 프로필만 조회
+        List<RankingVo> list = leaderboard.page(Leaderboard.Type.of(type), offset, size);
+        if (list == null) {
+            // 보드 로드 전: 기존 SQL 랭킹
+            list = rankingDao.selectRankingList(type, offset, size);
+        } else if (!list.isEmpty()) {
+            Map<Long, RankingVo> profiles = rankingDao.selectRankingProfiles(
+                    list.stream().map(RankingVo::getUserId).collect(Collectors.toList()))
+                    .stream().collect(Collectors.toMap(RankingVo::getUserId, Function.identity()));
+            for (RankingVo vo : list) {
+                RankingVo profile = profiles.get(vo.getUserId());
+                if (profile != null) {
+                    vo.setNickname(profile.getNickname());
+                    vo.setAvatarUrl(profile.getAvatarUrl());
+                    vo.setActiveDecoration(profile.getActiveDecoration());
                 }
             }
+        }
 
-            // 2. Default Image if null or empty
-            if (vo.getAvatarUrl() == null || vo.getAvatarUrl().isEmpty()) {
-                vo.setAvatarUrl("https://api.dicebear.com/7.x/avataaars/svg?seed=" + vo.getNickname());
-            }
+        // 포맷팅 및 이미지 경로 처리
+        for (RankingVo vo : list) {
+            vo.setAvatarUrl(resolveAvatarUrl(vo.getAvatarUrl(), vo.getNickname()));
 
             // Score Formatting
             if ("donation".equals(type)) {
@@ -57,28 +60,53 @@ public class RankingService {
     }
 
     public int getTotalUserCount() {
+        if (leaderboard.isReady()) {
+            return leaderboard.size();
+        }
         return rankingDao.countTotalUsers();
     }
 
     public MypageVo getMyRankingInfo(Long userId) {
-        MypageVo vo = rankingDao.selectMyRankingDetail(userId);
+        MypageVo vo = leaderboard.position(userId);
         if (vo != null) {
-            String avatarUrl = vo.getAvatarUrl();
-            if (avatarUrl != null) {
-                if (avatarUrl.startsWith("C:/profile_upload/")) {
-                    vo.setAvatarUrl(avatarUrl.replace("C:/profile_upload/", "/profile-images/"));
-                } else if (avatarUrl.startsWith("C:\\")) {
-                    int uploadsIndex = avatarUrl.indexOf("uploads");
-                    if (uploadsIndex != -1) {
-                        String relativePath = "/" + avatarUrl.substring(uploadsIndex).replace("\\", "/");
-                        vo.setAvatarUrl(relativePath);
-                    }
-                }
-            }
-            if (vo.getAvatarUrl() == null || vo.getAvatarUrl().isEmpty()) {
-                vo.setAvatarUrl("https://api.dicebear.com/7.x/avataaars/svg?seed=" + vo.getUserName());
+            List<RankingVo> profiles = rankingDao.selectRankingProfiles(List.of(userId));
+            if (!profiles.isEmpty()) {
+                RankingVo profile = profiles.get(0);
+                vo.setUserName(profile.getNickname());
+                vo.setAvatarUrl(profile.getAvatarUrl());
+                vo.setActiveDecoration(profile.getActiveDecoration());
             }
+        } else {
+            // 보드 로드 전이거나 랭킹 대상(활성 회원)이 아닌 경우
+            vo = rankingDao.selectMyRankingDetail(userId);
+        }
+
+        if (vo != null) {
+            vo.setAvatarUrl(resolveAvatarUrl(vo.getAvatarUrl(), vo.getUserName()));
         }
         return vo;
     }
+
+    private String resolveAvatarUrl(String avatarUrl, String seed) {
+        // 1. Handle Legacy Local Paths
+        if (avatarUrl != null) {
+            if (avatarUrl.startsWith("C:/profile_upload/")) {
+                // Legacy path used in MypageService
+                avatarUrl = avatarUrl.replace("C:/profile_upload/", "/profile-images/");
+            } else if (avatarUrl.startsWith("C:\\")) {
+                // Generic Windows Absolute Path handling
+                // If it contains "uploads" folder, try to serve relatively
+                int uploadsIndex = avatarUrl.indexOf("uploads");
+                if (uploadsIndex != -1) {
+                    avatarUrl = "/" + avatarUrl.substring(uploadsIndex).replace("\\", "/");
+                }
+            }
+        }
+
+        // 2. Default Image if null or empty
+        if (avatarUrl == null || avatarUrl.isEmpty()) {
+            avatarUrl = "https://api.dicebear.com/7.x/avataaars/svg?seed=" + seed;
+        }
+        return avatarUrl;
+    }
 }
@@ -0,0 +1,26 @@
+package com.rebirth.my.service;
+
+/**
+ * 뱃지 획득 조건 (BADGES.CONDITION_TYPE)
+ *
+ * 도메인 이벤트는 자신이 바꿀 수 있는 조건만 BadgeService.onEvent로 넘긴다.
+ */
+public enum BadgeCondition {
+    CLOSET_REG, // 옷장 등록 수 (USER_PROFILES.TOTAL_CLOTHING_COUNT)
+    TOTAL_POINT, // 총 에코 포인트
+    MISSION_COUNT, // 에코 미션 완료 횟수
+    TOTAL_WEIGHT, // 수거된 총 무게 (kg)
+    DAY_STREAK, // 오늘(또는 어제)까지 연속으로 미션을 완료한 일수
+    COLLECT_COUNT, // 기부/수거로 넘긴 의류 수
+    REVIEW_COUNT; // 작성한 리뷰 수 (리뷰 기능이 값을 넘겨줄 때만 평가)
+
+    public static BadgeCondition of(String conditionType) {
+        if (conditionType == null)
+            return null;
+        try {
+            return valueOf(conditionType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.rebirth.my.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.rebirth.my.domain.Badge;
-import com.rebirth.my.domain.UserBadge;
 import com.rebirth.my.mapper.BadgeMapper;
 import com.rebirth.my.mapper.EcoTodoMapper;
 
@@ -15,6 +26,14 @@ import com.rebirth.my.domain.UserProfile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 뱃지 부여 엔진
+ *
+ * - 뱃지 정의는 조건별(임계값 오름차순)로 묶어 캐시 (badge.catalog.refresh-ms 마다 다시 읽음)
+ * - 사용자가 가진 뱃지는 한 번의 조회로 BitSet에 담는다 (뱃지별 countUserBadge 반복 없음)
+ * - 이벤트가 바꿀 수 있는 조건만 평가하고, 그 조건에 아직 못 받은 뱃지가 있을 때만 수치를 조회한다
+ * - 새로 받은 뱃지는 INSERT 한 번으로 기록
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -24,94 +43,229 @@ public class BadgeService {
     private final EcoTodoMapper ecoTodoMapper;
     private final UserProfileMapper userProfileMapper;
 
+    @Value("${badge.catalog.refresh-ms:600000}")
+    private long catalogRefreshMs;
+
+    private volatile Catalog catalog;
+
     /**
-     * 사용자의 실시간 상태를 확인하여 획득 가능한 모든 뱃지를 부여합니다.
+     * 모든 조건을 평가 (로그인 시 누락분 보정용)
      */
     @Transactional
     public void checkAndAwardBadges(Long userId) {
-        log.info("사용자(ID: {}) 뱃지 획득 여부 체크 시작", userId);
+        evaluate(userId, EnumSet.allOf(BadgeCondition.class), Collections.emptyMap());
+    }
+
+    /**
+     * 도메인 이벤트: 주어진 조건의 뱃지만 평가 (수치는 필요할 때 DB에서 조회)
+     */
+    @Transactional
+    public void onEvent(Long userId, BadgeCondition... conditions) {
+        Set<BadgeCondition> affected = EnumSet.noneOf(BadgeCondition.class);
+        Collections.addAll(affected, conditions);
+        evaluate(userId, affected, Collections.emptyMap());
+    }
 
-        // 1. 전체 뱃지 목록 조회
-        List<Badge> allBadges = badgeMapper.findAll();
+    /**
+     * 도메인 이벤트: 호출자가 이미 아는 수치로 평가 (조회 생략)
+     */
+    @Transactional
+    public void onEvent(Long userId, BadgeCondition condition, double value) {
+        evaluate(userId, EnumSet.of(condition), Map.of(condition, value));
+    }
 
-        // 2. 미션 완료 횟수 조회 (도전과제 조건 등으로 활용)
-        int totalMissions = ecoTodoMapper.countTotalUserChecks(userId);
+    /**
+     * 뱃지 평가는 부가 기능이므로 실패해도 호출한 트랜잭션(기부, 옷 등록 등)을 깨뜨리지 않는다
+     */
+    private void evaluate(Long userId, Set<BadgeCondition> affected, Map<BadgeCondition, Double> known) {
+        if (userId == null || affected.isEmpty())
+            return;
 
-        // 3. 사용자 프로필 조회 (포인트, 의류 개수 등)
-        UserProfile profile = userProfileMapper.findById(userId).orElse(null);
+        try {
+            Catalog current = catalog();
 
-        for (Badge badge : allBadges) {
-            log.debug(">>> Checking badge: {} (Condition: {})", badge.getName(), badge.getConditionType());
-            // 4. 이미 획득한 뱃지인지 확인
-            if (badgeMapper.countUserBadge(userId, badge.getId()) > 0) {
-                continue;
+            // 1. 이미 획득한 뱃지 (한 번만 조회)
+            BitSet acquired = new BitSet(current.badges.size());
+            for (Long badgeId : badgeMapper.findUserBadgeIds(userId)) {
+                Integer index = current.indexById.get(badgeId);
+                if (index != null)
+                    acquired.set(index);
             }
 
-            // 5. 조건 달성 여부 확인
-            boolean achieved = isConditionMet(badge, totalMissions, profile);
-            log.debug(">>> Condition check for {}: result={}", badge.getName(), achieved);
+            Metrics metrics = new Metrics(userId, known);
+            List<Long> awarded = new ArrayList<>();
+
+            for (BadgeCondition condition : affected) {
+                int[] candidates = current.byCondition.get(condition);
+                if (candidates == null || allAcquired(candidates, acquired))
+                    continue;
+
+                // 2. 못 받은 뱃지가 있을 때만 수치 조회
+                Double value = metrics.get(condition, current.maxThreshold(condition));
+                if (value == null)
+                    continue;
 
-            if (achieved) {
-                UserBadge userBadge = new UserBadge();
-                userBadge.setUserId(userId);
-                userBadge.setBadgeId(badge.getId());
-                badgeMapper.insertUserBadge(userBadge);
-                log.info("사용자(ID: {}) 가 새로운 뱃지를 획득했습니다! [{} - {}]", userId, badge.getCode(), badge.getName());
+                // 3. 임계값 오름차순 - 처음으로 못 미치는 뱃지에서 중단
+                for (int index : candidates) {
+                    Badge badge = current.badges.get(index);
+                    if (badge.getThresholdValue() > value)
+                        break;
+                    if (!acquired.get(index)) {
+                        acquired.set(index);
+                        awarded.add(badge.getId());
+                        log.info("사용자(ID: {}) 가 새로운 뱃지를 획득했습니다! [{} - {}] ({}={})", userId, badge.getCode(),
+                                badge.getName(), condition, value);
+                    }
+                }
+            }
+
+            // 4. 새 뱃지 일괄 기록
+            if (!awarded.isEmpty()) {
+                badgeMapper.insertUserBadges(userId, awarded);
             }
+            log.debug("사용자(ID: {}) 뱃지 평가 {} -> 신규 {}개", userId, affected, awarded.size());
+        } catch (Exception e) {
+            log.warn("사용자(ID: {}) 뱃지 평가 실패 {}: {}", userId, affected, e.getMessage());
+        }
+    }
+
+    private static boolean allAcquired(int[] indexes, BitSet acquired) {
+        for (int index : indexes) {
+            if (!acquired.get(index))
+                return false;
         }
+        return true;
     }
 
-    private boolean isConditionMet(Badge badge, int totalMissions, UserProfile profile) {
-        String type = badge.getConditionType();
-        Double threshold = badge.getThresholdValue();
-
-        if (type == null || threshold == null)
-            return false;
-
-        switch (type) {
-            case "MISSION_COUNT":
-                boolean missionMet = totalMissions >= threshold.intValue();
-                log.debug(">>> MISSION_COUNT check: total={}, threshold={}, result={}", totalMissions, threshold,
-                        missionMet);
-                return missionMet;
-
-            case "TOTAL_POINT": // 실제 DB 조건명: 총 포인트
-                boolean pointMet = profile != null && profile.getEcoPoints() >= threshold.intValue();
-                if (profile != null) {
-                    log.debug(">>> TOTAL_POINT check: userPoints={}, threshold={}, result={}", profile.getEcoPoints(),
-                            threshold, pointMet);
+    private Catalog catalog() {
+        Catalog current = catalog;
+        if (current == null || System.currentTimeMillis() - current.loadedAt > catalogRefreshMs) {
+            current = new Catalog(badgeMapper.findAll());
+            catalog = current;
+        }
+        return current;
+    }
+
+    /**
+     * 뱃지 정의 캐시 - 리스트 위치가 BitSet 인덱스
+     */
+    private static final class Catalog {
+        final long loadedAt = System.currentTimeMillis();
+        final List<Badge> badges;
+        final Map<Long, Integer> indexById = new HashMap<>();
+        // 조건 → 뱃지 인덱스 (임계값 오름차순)
+        final Map<BadgeCondition, int[]> byCondition = new EnumMap<>(BadgeCondition.class);
+
+        Catalog(List<Badge> all) {
+            badges = all;
+            Map<BadgeCondition, List<Integer>> grouped = new EnumMap<>(BadgeCondition.class);
+            for (int i = 0; i < all.size(); i++) {
+                Badge badge = all.get(i);
+                indexById.put(badge.getId(), i);
+
+                BadgeCondition condition = BadgeCondition.of(badge.getConditionType());
+                if (condition == null || badge.getThresholdValue() == null) {
+                    log.warn(">>> 평가할 수 없는 뱃지 조건: {} / {} (badge {})", badge.getConditionType(), badge.getThresholdValue(),
+                            badge.getCode());
+                    continue;
                 }
-                return pointMet;
+                grouped.computeIfAbsent(condition, k -> new ArrayList<>()).add(i);
+            }
 
-            case "CLOSET_REG": // 실제 DB 조건명: 옷장 등록 수
-                boolean clothingMet = profile != null && profile.getTotalClothingCount() >= threshold.intValue();
-                if (profile != null) {
-                    log.debug(">>> CLOSET_REG check: userClothes={}, threshold={}, result={}",
-                            profile.getTotalClothingCount(), threshold, clothingMet);
+            grouped.forEach((condition, indexes) -> {
+                indexes.sort(Comparator.comparingDouble(i -> all.get(i).getThresholdValue()));
+                byCondition.put(condition, indexes.stream().mapToInt(Integer::intValue).toArray());
+            });
+        }
+
+        double maxThreshold(BadgeCondition condition) {
+            int[] indexes = byCondition.get(condition);
+            return badges.get(indexes[indexes.length - 1]).getThresholdValue();
+        }
+    }
+
+    /**
+     * 이벤트 한 번 안에서 수치를 한 번씩만 조회 (프로필 기반 조건은 프로필 1회 조회 공유)
+     */
+    private final class Metrics {
+        private final Long userId;
+        private final Map<BadgeCondition, Double> values;
+        private UserProfile profile;
+        private boolean profileLoaded;
+
+        Metrics(Long userId, Map<BadgeCondition, Double> known) {
+            this.userId = userId;
+            this.values = new EnumMap<>(BadgeCondition.class);
+            this.values.putAll(known);
+        }
+
+        Double get(BadgeCondition condition, double maxThreshold) {
+            if (values.containsKey(condition))
+                return values.get(condition);
+
+            Double value = load(condition, maxThreshold);
+            values.put(condition, value);
+            return value;
+        }
+
+        private Double load(BadgeCondition condition, double maxThreshold) {
+            switch (condition) {
+                case MISSION_COUNT:
+                    return (double) ecoTodoMapper.countTotalUserChecks(userId);
+
+                case TOTAL_POINT: {
+                    UserProfile p = profile();
+                    return p != null && p.getEcoPoints() != null ? p.getEcoPoints().doubleValue() : null;
+                }
+
+                case CLOSET_REG: {
+                    UserProfile p = profile();
+                    return p != null && p.getTotalClothingCount() != null ? p.getTotalClothingCount().doubleValue()
+                            : null;
                 }
-                return clothingMet;
-
-            case "TOTAL_WEIGHT": // 실제 DB 조건명: 수거된 총 무게
-                boolean weightMet = profile != null && profile.getTotalCollectedKg() != null
-                        && profile.getTotalCollectedKg() >= threshold;
-                if (profile != null) {
-                    log.debug(">>> TOTAL_WEIGHT check: userWeight={}, threshold={}, result={}",
-                            profile.getTotalCollectedKg(), threshold, weightMet);
+
+                case TOTAL_WEIGHT: {
+                    UserProfile p = profile();
+                    return p != null ? p.getTotalCollectedKg() : null;
                 }
-                return weightMet;
 
-            case "COLLECT_COUNT": // 실제 DB 조건명: 수거 횟수 (현재 미구현)
-                log.warn(">>> COLLECT_COUNT condition encountered. Not implemented yet.");
-                return false;
+                case COLLECT_COUNT:
+                    return (double) badgeMapper.countCollectedItems(userId);
 
-            case "DAY_STREAK":
-            case "REVIEW_COUNT":
-                log.debug(">>> Condition {} not yet implemented.", type);
-                return false;
+                case DAY_STREAK:
+                    // 가장 높은 임계값 + 1일까지만 보면 충분
+                    int days = (int) Math.ceil(maxThreshold) + 1;
+                    return (double) streak(new HashSet<>(badgeMapper.findRecentCheckDates(userId, days)));
 
-            default:
-                log.warn(">>> Unknown condition type: {}", type);
-                return false;
+                case REVIEW_COUNT:
+                default:
+                    // 리뷰 테이블이 아직 없음 - onEvent(userId, REVIEW_COUNT, count)로만 평가
+                    return null;
+            }
+        }
+
+        private UserProfile profile() {
+            if (!profileLoaded) {
+                profile = userProfileMapper.findById(userId).orElse(null);
+                profileLoaded = true;
+            }
+            return profile;
+        }
+    }
+
+    /**
+     * 오늘까지 연속 완료 일수 (오늘 아직 안 했으면 어제까지의 연속 일수)
+     */
+    static int streak(Set<LocalDate> checkedDays) {
+        LocalDate day = LocalDate.now();
+        if (!checkedDays.contains(day))
+            day = day.minusDays(1);
+
+        int streak = 0;
+        while (checkedDays.contains(day)) {
+            streak++;
+            day = day.minusDays(1);
         }
+        return streak;
     }
 }
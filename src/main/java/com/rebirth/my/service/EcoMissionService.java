@@ -46,7 +46,7 @@ public class EcoMissionService {
                 ecoMissionMapper.insertUserCheck(newCheck);
 
                 // 뱃지 획득 실시간 체크
-                badgeService.checkAndAwardBadges(userId);
+                badgeService.onEvent(userId, BadgeCondition.MISSION_COUNT, BadgeCondition.DAY_STREAK);
 
                 // 포인트 가산 (자정 정산으로 변경)
                 // updateUserPoints(userId, points);
@@ -9,10 +9,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.rebirth.my.chat.component.ResponseCache;
 import com.rebirth.my.domain.UserTodoCheck;
 import com.rebirth.my.mapper.EcoMissionMapper;
 import com.rebirth.my.mapper.UserMapper;
 import com.rebirth.my.mapper.UserProfileMapper;
+import com.rebirth.my.ranking.Leaderboard;
 import java.time.LocalDateTime;
 
 import lombok.RequiredArgsConstructor;
@@ -27,6 +29,8 @@ public class EcoMissionSettlementService {
     private final UserProfileMapper userProfileMapper;
     private final UserMapper userMapper;
     private final BadgeService badgeService;
+    private final Leaderboard leaderboard;
+    private final ResponseCache responseCache;
 
     /**
      * 매일 자정(00:00:01)에 어제 완료한 에코 미션의 포인트를 일괄 정산하고,
@@ -67,11 +71,13 @@ public class EcoMissionSettlementService {
                 int beforePoints = profile.getEcoPoints();
                 profile.setEcoPoints(beforePoints + totalPoints);
                 userProfileMapper.update(profile);
+                leaderboard.ecoPointsChanged(userId, profile.getEcoPoints());
+                responseCache.invalidateUser(String.valueOf(userId));
                 log.info("사용자(ID: {}) 포인트 정산 완료: {} -> {} (+{})",
                         userId, beforePoints, profile.getEcoPoints(), totalPoints);
 
                 // 뱃지 획득 여부 체크
-                badgeService.checkAndAwardBadges(userId);
+                badgeService.onEvent(userId, BadgeCondition.TOTAL_POINT, profile.getEcoPoints());
             });
         });
         log.info("미션 정산 완료 (총 {}명)", userPointsMap.size());
@@ -0,0 +1,49 @@
+package com.rebirth.my.wardrobe;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Milvus 증분 동기화 상태 (VECTOR_SYNC_STATE / VECTOR_SYNC_CHECKPOINT)
+ */
+@Mapper
+public interface VectorSyncDao {
+
+    // 체크포인트 이후 변경된 의류 (NVL(UPDATED_AT, CREATED_AT), ID 순)
+    List<WardrobeVo> selectChangedClothes(@Param("afterAt") Timestamp afterAt, @Param("afterId") Long afterId,
+            @Param("limit") int limit);
+
+    int countChangedClothes(@Param("afterAt") Timestamp afterAt, @Param("afterId") Long afterId);
+
+    // 의류 ID별 마지막으로 색인한 description 해시 ("id", "hash")
+    List<Map<String, Object>> selectContentHashes(@Param("ids") List<Long> ids);
+
+    int mergeSyncStates(@Param("states") List<Map<String, Object>> states);
+
+    // 원본 행이 삭제되었지만 아직 tombstone 처리되지 않은 의류 ID
+    List<Long> selectOrphanedIds();
+
+    // 지난 동기화에서 실패한 의류 (시도 횟수, 실패 시각 순)
+    List<WardrobeVo> selectFailedClothes(@Param("limit") int limit);
+
+    // 실패 기록 (이미 있으면 시도 횟수 증가)
+    int mergeSyncFailures(@Param("ids") List<Long> ids);
+
+    int deleteSyncFailures(@Param("ids") List<Long> ids);
+
+    // 원본 행이 삭제된 의류의 실패 기록 정리
+    int deleteOrphanedFailures();
+
+    Timestamp selectCheckpointAt(@Param("name") String name);
+
+    Long selectCheckpointId(@Param("name") String name);
+
+    int mergeCheckpoint(@Param("name") String name, @Param("highWaterAt") Timestamp highWaterAt,
+            @Param("highWaterId") Long highWaterId);
+
+    int deleteCheckpoint(@Param("name") String name);
+}
@@ -226,6 +226,32 @@ public class WardrobeApiController {
     @Autowired
     private com.rebirth.my.chat.component.MilvusClientWrapper milvusClientWrapper;
 
+    /**
+     * Milvus 벡터 인덱스 재생성 (관리자 전용)
+     * milvus.index.* 설정 변경 후 호출. 재생성 동안 유사도 검색은 실패하고 키워드 검색만 동작한다.
+     */
+    @PostMapping("/admin/milvus/index/rebuild")
+    public ResponseEntity<?> rebuildMilvusIndex() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = auth != null
+                && auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin) {
+            return ResponseEntity.status(403).body(Map.of("success", false, "message", "관리자만 실행할 수 있습니다."));
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            milvusClientWrapper.rebuildIndex();
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("indexType", milvusClientWrapper.currentIndexType());
+            result.put("elapsedMs", System.currentTimeMillis() - start);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", String.valueOf(e.getMessage())));
+        }
+    }
+
     @GetMapping("/test/milvus")
     public ResponseEntity<?> testMilvus() {
         Map<String, Object> result = new HashMap<>();
@@ -253,6 +279,7 @@ public class WardrobeApiController {
             Long dummyUserId = 99999L;
             try {
                 milvusClientWrapper.insertVector(dummyId, dummyUserId, embedding, "Test Item from Debug Endpoint");
+                milvusClientWrapper.flushPending(); // write-behind 버퍼를 즉시 전송해 오류 확인
                 result.put("step3_milvus_status", "Success");
             } catch (Exception e) {
                 result.put("step3_milvus_status", "Failed");
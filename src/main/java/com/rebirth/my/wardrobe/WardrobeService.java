@@ -8,13 +8,13 @@ import java.util.List;
 public class WardrobeService {
 
     @Autowired
-    private com.rebirth.my.chat.component.MilvusClientWrapper milvusClientWrapper;
+    private com.rebirth.my.chat.component.ResponseCache responseCache;
 
     @Autowired
-    private com.rebirth.my.chat.component.EmbeddingClient embeddingClient;
+    private WardrobeDao wardrobeDao;
 
     @Autowired
-    private WardrobeDao wardrobeDao;
+    private WardrobeVectorIndexer wardrobeVectorIndexer;
 
     @Autowired
     private com.rebirth.my.service.BadgeService badgeService;
@@ -26,6 +26,9 @@ public class WardrobeService {
         // 1. Save to Oracle
         wardrobeDao.insertClothes(vo);
 
+        // 옷장 개수가 바뀌었으므로 챗봇 개인 캐시 무효화 (이후 단계 실패와 무관하게)
+        responseCache.invalidateUser(vo.getUserId());
+
         // 2. Check for badges
         try {
             Long userId = Long.parseLong(vo.getUserId());
@@ -36,27 +39,14 @@ public class WardrobeService {
                 userProfileMapper.update(profile);
             });
 
-            badgeService.checkAndAwardBadges(userId);
+            badgeService.onEvent(userId, com.rebirth.my.service.BadgeCondition.CLOSET_REG);
         } catch (Exception e) {
             System.err.println("⚠️ Badge Check Failed: " + e.getMessage());
         }
 
         // 3. Index to Milvus (Async recommended in production, but Sync for now)
         try {
-            Long wardrobeId = Long.parseLong(vo.getClothesId());
-            Long userId = Long.parseLong(vo.getUserId());
-
-            // Build Description
-            String description = String.format(
-                    "Name: %s, Category: %s, Brand: %s, Color: %s, Season: %s",
-                    vo.getName() != null ? vo.getName() : "Unknown",
-                    vo.getCategory(), vo.getBrand(), vo.getColor(), vo.getSeason());
-
-            // Generate Embedding
-            java.util.List<Float> embedding = embeddingClient.getEmbedding(description);
-            if (!embedding.isEmpty()) {
-                milvusClientWrapper.insertVector(wardrobeId, userId, embedding, description);
-            }
+            wardrobeVectorIndexer.indexItem(vo);
         } catch (Exception e) {
             System.err.println("⚠️ Milvus Indexing Failed: " + e.getMessage());
             // Do not rollback Oracle transaction, just log error
@@ -77,42 +67,14 @@ public class WardrobeService {
         return wardrobeDao.searchClothesByKeyword(userId, keyword);
     }
 
-    // Data Sync Method
+    // Data Sync Method (batch embedding pipeline, see WardrobeVectorIndexer)
     public int syncAllDataToMilvus() {
-        System.out.println("🔄 Starting Full Data Sync to Milvus...");
-        List<WardrobeVo> allClothes = wardrobeDao.selectAllClothes();
-        int count = 0;
-
-        for (WardrobeVo vo : allClothes) {
-            try {
-                // Check if already exists (Optional, but strict sync involves checking.
-                // For now, we assume Milvus is empty or overwrite is okay provided IDs match)
-
-                Long wardrobeId = Long.parseLong(vo.getClothesId());
-                Long userId = Long.parseLong(vo.getUserId());
-
-                String description = String.format(
-                        "Name: %s, Category: %s, Brand: %s, Color: %s, Season: %s",
-                        vo.getName() != null ? vo.getName() : "Unknown",
-                        vo.getCategory(), vo.getBrand(), vo.getColor(), vo.getSeason());
-
-                java.util.List<Float> embedding = embeddingClient.getEmbedding(description);
-                if (!embedding.isEmpty()) {
-                    milvusClientWrapper.insertVector(wardrobeId, userId, embedding, description);
-                    count++;
-                } else {
-                    System.err.println(
-                            "❌ Skipping ID " + wardrobeId + ": Failed to generate embedding (Check API Quota/Logs)");
-                }
-
-                // Rate Limit Prevention (Increased to 1s for safety)
-                Thread.sleep(1000);
-
-            } catch (Exception e) {
-                System.err.println("Skipping Sync for ID " + vo.getClothesId() + ": " + e.getMessage());
-            }
+        try {
+            return wardrobeVectorIndexer.syncAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("⚠️ Milvus sync interrupted.");
+            return 0;
         }
-        System.out.println("✅ Data Sync Complete. Indexed " + count + " items.");
-        return count;
     }
 }
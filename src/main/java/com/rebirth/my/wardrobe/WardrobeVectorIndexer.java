@@ -0,0 +1,590 @@
+package com.rebirth.my.wardrobe;
+
+import com.rebirth.my.chat.component.EmbeddingClient;
+import com.rebirth.my.chat.component.MilvusClientWrapper;
+import com.rebirth.my.common.http.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 옷장 데이터 → Milvus 색인 파이프라인
+ *
+ * 1. 의류를 embed-batch-size 단위로 나눠 batchEmbedContents 한 번으로 임베딩
+ * 2. 토큰 버킷(rate-per-minute)으로 호출량을 제한하고, concurrency 개의 배치를 동시에 처리
+ * 3. 결과는 컬럼 버퍼에 모아 upsert (명시적 flush 없이 Milvus의 segment seal에 맡김)
+ * 4. 배치마다 진행률/처리량을 로그로 남기고 milvus.sync.* 메트릭으로 노출
+ *
+ * 증분 모드 (기본)
+ * - 체크포인트(NVL(UPDATED_AT, CREATED_AT), ID)에서 overlap-seconds만큼 되돌린 지점부터 page-size 단위로 조회
+ *   (체크포인트보다 이른 시각으로 늦게 커밋된 행도 다시 보게 됨 - 해시가 같으면 재임베딩하지 않으므로 비용은 조회뿐)
+ * - description 해시가 VECTOR_SYNC_STATE와 같으면 재임베딩하지 않음
+ * - SOLD/DONATED 의류는 Milvus에서 제거하고 tombstone 기록
+ * - 임베딩/삽입에 실패한 의류는 VECTOR_SYNC_FAILURE에 기록하고 체크포인트는 계속 전진 (다음 실행 시작 때 재시도)
+ * - 페이지마다 삽입이 끝난 뒤 체크포인트를 저장하므로 재시작 시 마지막 체크포인트부터 재개
+ * - Milvus에 쓸 수 없으면(standby 로컬 인덱스만 동작) 동기화를 건너뛰어 체크포인트/해시를 기록하지 않는다
+ *
+ * 원본 행이 삭제된 의류(NOT EXISTS 전체 스캔)는 전체 모드이거나 마지막 스캔 후 orphan-scan-hours가 지났을 때만 정리
+ */
+@Component
+public class WardrobeVectorIndexer {
+
+    @Autowired
+    private VectorSyncDao vectorSyncDao;
+
+    @Autowired
+    private EmbeddingClient embeddingClient;
+
+    @Autowired
+    private MilvusClientWrapper milvusClientWrapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${milvus.sync.embed-batch-size:100}")
+    private int embedBatchSize;
+
+    @Value("${milvus.sync.concurrency:4}")
+    private int concurrency;
+
+    // 분당 임베딩 문장 수 한도 (Gemini 쿼터에 맞춰 조정)
+    @Value("${milvus.sync.rate-per-minute:1500}")
+    private int ratePerMinute;
+
+    @Value("${milvus.sync.insert-batch-size:1000}")
+    private int insertBatchSize;
+
+    @Value("${milvus.sync.max-retries:3}")
+    private int maxRetries;
+
+    // 증분 동기화 한 페이지 크기 (Oracle IN 목록 제한 1000 이하)
+    @Value("${milvus.sync.page-size:500}")
+    private int pageSize;
+
+    // 증분 조회 시작점을 체크포인트보다 이만큼 앞당김 (늦게 커밋된 트랜잭션 대비)
+    @Value("${milvus.sync.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    // 삭제된 의류 정리(전체 스캔) 최소 간격
+    @Value("${milvus.sync.orphan-scan-hours:24}")
+    private long orphanScanHours;
+
+    private static final String CHECKPOINT_NAME = "wardrobe_vector";
+    private static final String ORPHAN_SCAN_NAME = "wardrobe_vector_orphans";
+    private static final Timestamp EPOCH = new Timestamp(0L);
+    private static final Set<String> TOMBSTONE_STATUSES = Set.of("SOLD", "DONATED");
+
+    private final AtomicReference<CompletableFuture<Integer>> running = new AtomicReference<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("milvus.sync.total", total, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("milvus.sync.processed", processed, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * 백그라운드 스레드에서 동기화를 시작한다 (이미 실행 중이면 진행 중인 작업을 반환).
+     *
+     * @param full true면 체크포인트/해시를 무시하고 전체 재색인
+     */
+    public CompletableFuture<Integer> syncInBackground(boolean full) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        if (!running.compareAndSet(null, future)) {
+            System.out.println("🔄 Milvus sync already running.");
+            return running.get();
+        }
+
+        Thread worker = new Thread(() -> {
+            try {
+                future.complete(sync(full));
+            } catch (Throwable e) {
+                System.err.println("❌ Milvus background sync failed: " + e.getMessage());
+                future.completeExceptionally(e);
+            } finally {
+                running.set(null);
+            }
+        }, "milvus-sync");
+        worker.setDaemon(true);
+        worker.start();
+        return future;
+    }
+
+    /**
+     * 전체 의류를 다시 임베딩해 Milvus에 동기화한다 (호출 스레드에서 완료까지 대기).
+     *
+     * @return 색인된 항목 수
+     */
+    public int syncAll() throws InterruptedException {
+        return sync(true);
+    }
+
+    /**
+     * 마지막 체크포인트 이후 변경된 의류만 동기화한다.
+     *
+     * @return 색인된 항목 수
+     */
+    public int syncChanged() throws InterruptedException {
+        return sync(false);
+    }
+
+    /**
+     * 의류 한 건을 즉시 색인한다 (등록 시 실시간 동기화). 동기화 상태도 함께 기록해
+     * 다음 증분 동기화에서 다시 임베딩하지 않도록 한다.
+     */
+    public void indexItem(WardrobeVo vo) {
+        Long wardrobeId = Long.parseLong(vo.getClothesId());
+        Long userId = Long.parseLong(vo.getUserId());
+        String description = describe(vo);
+
+        List<Float> embedding = embeddingClient.getEmbedding(description);
+        if (embedding.isEmpty())
+            return;
+
+        milvusClientWrapper.insertVector(wardrobeId, userId, embedding, description);
+        // Milvus가 내려가 있으면 로컬 인덱스에만 반영된 상태 - 상태를 기록하지 않아 다음 동기화에서 다시 보낸다
+        if (milvusClientWrapper.isWritable()) {
+            vectorSyncDao.mergeSyncStates(List.of(syncState(wardrobeId, contentHash(description))));
+        }
+    }
+
+    private int sync(boolean full) throws InterruptedException {
+        // 로컬 standby 인덱스만 있을 때 진행하면 체크포인트/해시만 앞서 나가 Milvus에는 영영 반영되지 않는다
+        if (!milvusClientWrapper.isWritable()) {
+            System.err.println("⚠️ Milvus unavailable, skipping sync (checkpoint unchanged).");
+            return 0;
+        }
+
+        Timestamp afterAt = EPOCH;
+        Long afterId = 0L;
+        if (!full) {
+            Timestamp savedAt = vectorSyncDao.selectCheckpointAt(CHECKPOINT_NAME);
+            if (savedAt != null && overlapSeconds > 0) {
+                afterAt = new Timestamp(Math.max(0L, savedAt.getTime() - TimeUnit.SECONDS.toMillis(overlapSeconds)));
+            } else if (savedAt != null) {
+                afterAt = savedAt;
+                Long savedId = vectorSyncDao.selectCheckpointId(CHECKPOINT_NAME);
+                afterId = savedId != null ? savedId : 0L;
+            }
+        }
+
+        int batchSize = Math.max(1, Math.min(embedBatchSize, EmbeddingClient.MAX_BATCH_SIZE));
+        int limit = Math.max(1, Math.min(pageSize, 1000));
+        total.set(vectorSyncDao.countChangedClothes(afterAt, afterId));
+        processed.set(0);
+
+        System.out.println("🔄 Starting " + (full ? "Full" : "Incremental") + " Data Sync to Milvus: "
+                + total.get() + " changed items since " + afterAt + "/" + afterId + ", batch=" + batchSize
+                + ", concurrency=" + concurrency + ", rate=" + ratePerMinute + "/min");
+
+        TokenBucket rateLimiter = new TokenBucket(Math.max(batchSize, ratePerMinute / 6.0), ratePerMinute / 60.0);
+        SyncRun run = new SyncRun(batchSize, rateLimiter);
+        long started = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "milvus-sync-embed");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            // 원본 행이 삭제된 의류 (전체 스캔이므로 주기적으로만)
+            if (full || orphanScanDue()) {
+                List<Long> orphaned = vectorSyncDao.selectOrphanedIds();
+                for (int from = 0; from < orphaned.size(); from += limit) {
+                    tombstone(orphaned.subList(from, Math.min(from + limit, orphaned.size())), run);
+                }
+                vectorSyncDao.deleteOrphanedFailures();
+                vectorSyncDao.mergeCheckpoint(ORPHAN_SCAN_NAME, new Timestamp(System.currentTimeMillis()), 0L);
+            }
+
+            // 지난 실행에서 실패한 의류 재시도 (한 페이지까지)
+            if (!full) {
+                List<WardrobeVo> failedPage = vectorSyncDao.selectFailedClothes(limit);
+                if (!failedPage.isEmpty()) {
+                    System.out.println("🔄 Retrying " + failedPage.size() + " previously failed items.");
+                    List<Long> stillFailed = syncPage(failedPage, false, run, pool, started);
+                    List<Long> recovered = new ArrayList<>();
+                    for (WardrobeVo vo : failedPage) {
+                        Long id = Long.parseLong(vo.getClothesId());
+                        if (!stillFailed.contains(id))
+                            recovered.add(id);
+                    }
+                    if (!recovered.isEmpty())
+                        vectorSyncDao.deleteSyncFailures(recovered);
+                    recordFailures(stillFailed);
+                }
+            }
+
+            while (true) {
+                List<WardrobeVo> page = vectorSyncDao.selectChangedClothes(afterAt, afterId, limit);
+                if (page.isEmpty())
+                    break;
+
+                // 실패한 항목은 기록만 하고 체크포인트는 넘긴다 (한 건 때문에 이후 전체가 막히지 않도록)
+                recordFailures(syncPage(page, full, run, pool, started));
+
+                WardrobeVo last = page.get(page.size() - 1);
+                afterAt = last.getUpdatedAt();
+                afterId = Long.parseLong(last.getClothesId());
+                vectorSyncDao.mergeCheckpoint(CHECKPOINT_NAME, afterAt, afterId);
+
+                if (page.size() < limit)
+                    break;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        meterRegistry.counter("milvus.sync.items", "outcome", "indexed").increment(run.indexed.get());
+        meterRegistry.counter("milvus.sync.items", "outcome", "unchanged").increment(run.unchanged.get());
+        meterRegistry.counter("milvus.sync.items", "outcome", "tombstoned").increment(run.tombstoned.get());
+        meterRegistry.counter("milvus.sync.items", "outcome", "failed").increment(run.failed.get());
+        System.out.println("✅ Data Sync Complete. Indexed " + run.indexed.get() + ", unchanged "
+                + run.unchanged.get() + ", tombstoned " + run.tombstoned.get() + ", failed " + run.failed.get()
+                + " in " + elapsedMs + "ms.");
+        return run.indexed.get();
+    }
+
+    private boolean orphanScanDue() {
+        Timestamp lastScan = vectorSyncDao.selectCheckpointAt(ORPHAN_SCAN_NAME);
+        return lastScan == null
+                || System.currentTimeMillis() - lastScan.getTime() >= TimeUnit.HOURS.toMillis(orphanScanHours);
+    }
+
+    private void recordFailures(List<Long> ids) {
+        if (ids.isEmpty())
+            return;
+        System.err.println("⚠️ Milvus sync skipped " + ids.size() + " items (recorded for retry): " + ids);
+        vectorSyncDao.mergeSyncFailures(ids);
+    }
+
+    /**
+     * 변경된 의류 한 페이지를 처리한다.
+     *
+     * @return 반영하지 못한(임베딩/삽입 실패) 의류 ID
+     */
+    private List<Long> syncPage(List<WardrobeVo> page, boolean full, SyncRun run, ExecutorService pool, long started)
+            throws InterruptedException {
+        List<Long> removed = new ArrayList<>();
+        List<WardrobeVo> live = new ArrayList<>();
+        for (WardrobeVo vo : page) {
+            try {
+                Long id = Long.parseLong(vo.getClothesId());
+                Long.parseLong(vo.getUserId());
+                if (TOMBSTONE_STATUSES.contains(vo.getStatus())) {
+                    removed.add(id);
+                } else {
+                    live.add(vo);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping Sync for ID " + vo.getClothesId() + ": " + e.getMessage());
+            }
+        }
+        tombstone(removed, run);
+
+        // description 해시가 같으면 재임베딩하지 않음
+        Map<Long, String> indexedHashes = new HashMap<>();
+        if (!full && !live.isEmpty()) {
+            List<Long> ids = new ArrayList<>();
+            for (WardrobeVo vo : live) {
+                ids.add(Long.parseLong(vo.getClothesId()));
+            }
+            for (Map<String, Object> row : vectorSyncDao.selectContentHashes(ids)) {
+                if (row.get("hash") != null) {
+                    indexedHashes.put(((Number) row.get("id")).longValue(), (String) row.get("hash"));
+                }
+            }
+        }
+
+        List<WardrobeVo> changed = new ArrayList<>();
+        for (WardrobeVo vo : live) {
+            String hash = contentHash(describe(vo));
+            if (hash.equals(indexedHashes.get(Long.parseLong(vo.getClothesId())))) {
+                run.unchanged.incrementAndGet();
+            } else {
+                changed.add(vo);
+            }
+        }
+
+        VectorBuffer buffer = new VectorBuffer();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < changed.size(); from += run.batchSize) {
+            List<WardrobeVo> batch = changed.subList(from, Math.min(from + run.batchSize, changed.size()));
+            futures.add(pool.submit(() -> {
+                int ok = 0;
+                try {
+                    ok = indexBatch(batch, run.rateLimiter, buffer);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                run.failed.addAndGet(batch.size() - ok);
+                return null;
+            }));
+        }
+
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (java.util.concurrent.ExecutionException e) {
+                System.err.println("❌ Milvus sync batch error: " + e.getCause().getMessage());
+            }
+        }
+
+        List<Map<String, Object>> states;
+        try {
+            states = buffer.drainTo(milvusClientWrapper);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Milvus sync insert error: " + e.getMessage());
+            states = buffer.inserted();
+        }
+        if (!states.isEmpty()) {
+            vectorSyncDao.mergeSyncStates(states);
+        }
+        run.indexed.addAndGet(states.size());
+
+        Set<Long> done = new java.util.HashSet<>();
+        for (Map<String, Object> state : states) {
+            done.add((Long) state.get("id"));
+        }
+        List<Long> failedIds = new ArrayList<>();
+        for (WardrobeVo vo : changed) {
+            Long id = Long.parseLong(vo.getClothesId());
+            if (!done.contains(id))
+                failedIds.add(id);
+        }
+
+        reportProgress(processed.addAndGet(page.size()), total.get(), run.failed.get(), started);
+        return failedIds;
+    }
+
+    private void tombstone(List<Long> ids, SyncRun run) {
+        if (ids.isEmpty())
+            return;
+
+        milvusClientWrapper.deleteVectors(ids);
+        List<Map<String, Object>> states = new ArrayList<>();
+        for (Long id : ids) {
+            Map<String, Object> state = syncState(id, null);
+            state.put("tombstoned", "Y");
+            states.add(state);
+        }
+        vectorSyncDao.mergeSyncStates(states);
+        run.tombstoned.addAndGet(ids.size());
+    }
+
+    /**
+     * 배치 하나를 임베딩해 버퍼에 추가한다.
+     *
+     * @return 버퍼에 추가된 항목 수
+     */
+    private int indexBatch(List<WardrobeVo> batch, TokenBucket rateLimiter, VectorBuffer buffer)
+            throws InterruptedException {
+        List<WardrobeVo> items = new ArrayList<>(batch.size());
+        List<String> texts = new ArrayList<>(batch.size());
+        for (WardrobeVo vo : batch) {
+            try {
+                Long.parseLong(vo.getClothesId());
+                Long.parseLong(vo.getUserId());
+                items.add(vo);
+                texts.add(describe(vo));
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping Sync for ID " + vo.getClothesId() + ": " + e.getMessage());
+            }
+        }
+        if (texts.isEmpty())
+            return 0;
+
+        List<List<Float>> embeddings = null;
+        for (int attempt = 0; attempt <= maxRetries && embeddings == null; attempt++) {
+            rateLimiter.acquire(texts.size());
+            try {
+                embeddings = embeddingClient.getEmbeddings(texts);
+            } catch (HttpStatusCodeException e) {
+                long backoffMs = retryAfterMs(e, attempt);
+                System.err.println("⚠️ Embedding batch failed (" + e.getStatusCode().value() + "), retry in "
+                        + backoffMs + "ms");
+                Thread.sleep(backoffMs);
+            } catch (Exception e) {
+                long backoffMs = 1000L << attempt;
+                System.err.println("⚠️ Embedding batch failed: " + e.getMessage() + ", retry in " + backoffMs + "ms");
+                Thread.sleep(backoffMs);
+            }
+        }
+        if (embeddings == null) {
+            System.err.println("❌ Skipping " + texts.size() + " items: embedding failed after " + maxRetries
+                    + " retries (Check API Quota/Logs)");
+            return 0;
+        }
+
+        int added = 0;
+        for (int i = 0; i < items.size(); i++) {
+            List<Float> embedding = embeddings.get(i);
+            if (embedding.isEmpty())
+                continue;
+            WardrobeVo vo = items.get(i);
+            buffer.add(Long.parseLong(vo.getClothesId()), Long.parseLong(vo.getUserId()), embedding, texts.get(i));
+            added++;
+        }
+        if (buffer.size() >= insertBatchSize) {
+            buffer.flushTo(milvusClientWrapper);
+        }
+        return added;
+    }
+
+    private long retryAfterMs(HttpStatusCodeException e, int attempt) {
+        String retryAfter = e.getResponseHeaders() != null
+                ? e.getResponseHeaders().getFirst(org.springframework.http.HttpHeaders.RETRY_AFTER)
+                : null;
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date 형식은 지수 backoff로 대체
+            }
+        }
+        return (e.getStatusCode().value() == 429 ? 5000L : 1000L) << attempt;
+    }
+
+    private void reportProgress(int done, int all, int failedCount, long started) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        System.out.println(String.format("🔄 Milvus sync %d/%d (%.1f%%), failed %d, %.1f items/s",
+                done, all, all == 0 ? 100.0 : done * 100.0 / all, failedCount, done / seconds));
+    }
+
+    private static Map<String, Object> syncState(Long id, String hash) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("id", id);
+        state.put("hash", hash);
+        state.put("tombstoned", "N");
+        return state;
+    }
+
+    static String contentHash(String description) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(description.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 동기화 1회 실행 동안의 공유 상태
+     */
+    private static class SyncRun {
+        final int batchSize;
+        final TokenBucket rateLimiter;
+        final AtomicInteger indexed = new AtomicInteger();
+        final AtomicInteger unchanged = new AtomicInteger();
+        final AtomicInteger tombstoned = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        SyncRun(int batchSize, TokenBucket rateLimiter) {
+            this.batchSize = batchSize;
+            this.rateLimiter = rateLimiter;
+        }
+    }
+
+    /**
+     * 임베딩용 의류 설명 문장
+     */
+    static String describe(WardrobeVo vo) {
+        return String.format(
+                "Name: %s, Category: %s, Brand: %s, Color: %s, Season: %s",
+                vo.getName() != null ? vo.getName() : "Unknown",
+                vo.getCategory(), vo.getBrand(), vo.getColor(), vo.getSeason());
+    }
+
+    /**
+     * Milvus 삽입용 컬럼 버퍼 (여러 임베딩 스레드가 채우고, 한 번에 하나의 스레드만 삽입)
+     * 삽입이 끝난 항목의 동기화 상태(id, hash)를 모아 두었다가 drainTo에서 반환한다.
+     */
+    private static class VectorBuffer {
+        private List<Long> wardrobeIds = new ArrayList<>();
+        private List<Long> userIds = new ArrayList<>();
+        private List<List<Float>> embeddings = new ArrayList<>();
+        private List<String> descriptions = new ArrayList<>();
+        private final List<Map<String, Object>> inserted = new ArrayList<>();
+        private final Object insertLock = new Object();
+
+        synchronized void add(Long wardrobeId, Long userId, List<Float> embedding, String description) {
+            wardrobeIds.add(wardrobeId);
+            userIds.add(userId);
+            embeddings.add(embedding);
+            descriptions.add(description);
+        }
+
+        synchronized int size() {
+            return wardrobeIds.size();
+        }
+
+        void flushTo(MilvusClientWrapper milvus) {
+            synchronized (insertLock) {
+                List<Long> ids;
+                List<Long> users;
+                List<List<Float>> vectors;
+                List<String> descs;
+                synchronized (this) {
+                    if (wardrobeIds.isEmpty())
+                        return;
+                    ids = wardrobeIds;
+                    users = userIds;
+                    vectors = embeddings;
+                    descs = descriptions;
+                    wardrobeIds = new ArrayList<>();
+                    userIds = new ArrayList<>();
+                    embeddings = new ArrayList<>();
+                    descriptions = new ArrayList<>();
+                }
+                milvus.insertVectors(ids, users, vectors, descs);
+                for (int i = 0; i < ids.size(); i++) {
+                    inserted.add(syncState(ids.get(i), contentHash(descs.get(i))));
+                }
+                System.out.println("✅ Inserted " + ids.size() + " vectors into Milvus.");
+            }
+        }
+
+        /**
+         * 남은 항목을 삽입하고, 이 버퍼로 삽입된 모든 항목의 동기화 상태를 반환한다.
+         */
+        List<Map<String, Object>> drainTo(MilvusClientWrapper milvus) {
+            flushTo(milvus);
+            return inserted();
+        }
+
+        /**
+         * 지금까지 삽입이 끝난 항목의 동기화 상태 (삽입 실패 시 성공한 부분만 반영하는 용도)
+         */
+        List<Map<String, Object>> inserted() {
+            synchronized (insertLock) {
+                List<Map<String, Object>> states = new ArrayList<>(inserted);
+                inserted.clear();
+                return states;
+            }
+        }
+    }
+}
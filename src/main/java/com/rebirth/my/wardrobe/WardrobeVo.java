@@ -21,6 +21,7 @@ public class WardrobeVo {
     private String status;
     private String isForSale; // 판매중 여부 ('Y'/'N')
     private java.sql.Date purchaseDate;
+    private java.sql.Timestamp updatedAt; // 마지막 변경 시각 (Milvus 증분 동기화 체크포인트)
 
     // 이미지 Base64 (등록 시 사용)
     private String imageBase64;
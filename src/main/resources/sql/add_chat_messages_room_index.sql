@@ -0,0 +1,5 @@
+-- Index for the cursor-paginated chat history (see ChatMapper.selectMessagePage / selectRecentMessages)
+
+-- Seek backwards from the cursor ID within a room; the stopkey reads only one page of index entries,
+-- so decrypt_blob runs only for the rows of that page
+CREATE INDEX IDX_CHAT_MESSAGES_ROOM_ID ON CHAT_MESSAGES (ROOM_ID, ID);
@@ -0,0 +1,7 @@
+-- Source address of worker-filled coordinates (see MarketGeocodingWorker)
+
+-- GEO_ADDRESS is the TRADE_LOCATION / seller ADDRESS that LATITUDE, LONGITUDE were geocoded from.
+-- NULL with coordinates present means the seller picked the point on the map (never overwritten).
+-- When it no longer matches NVL(TRADE_LOCATION, USERS.ADDRESS) the worker geocodes the row again.
+ALTER TABLE CLOTHING_ITEMS ADD GEO_ADDRESS VARCHAR2(500);
+COMMENT ON COLUMN CLOTHING_ITEMS.GEO_ADDRESS IS 'Address the stored coordinates were geocoded from';
@@ -0,0 +1,12 @@
+-- Retry backoff for the coordinate backfill (see MarketGeocodingWorker)
+
+-- GEO_ATTEMPTS counts consecutive transient geocoding failures (API errors, timeouts).
+-- GEO_RETRY_AT holds the row back until then; the backoff doubles per attempt up to a cap.
+-- Both are reset when the row is geocoded (or found unresolvable).
+-- The worker picks rows with the fewest attempts first, so failing rows cannot starve the backlog.
+ALTER TABLE CLOTHING_ITEMS ADD (
+    GEO_ATTEMPTS NUMBER(5) DEFAULT 0 NOT NULL,
+    GEO_RETRY_AT TIMESTAMP
+);
+COMMENT ON COLUMN CLOTHING_ITEMS.GEO_ATTEMPTS IS 'Consecutive transient geocoding failures';
+COMMENT ON COLUMN CLOTHING_ITEMS.GEO_RETRY_AT IS 'Earliest time the backfill retries this row';
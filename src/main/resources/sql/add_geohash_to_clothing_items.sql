@@ -0,0 +1,9 @@
+-- Geohash of LATITUDE/LONGITUDE for radius search (see GeoHash, MarketService.findNearby)
+
+-- 9-character geohash, maintained by the application on every coordinate write.
+-- Existing rows are filled in by MarketGeocodingWorker.
+ALTER TABLE CLOTHING_ITEMS ADD GEOHASH VARCHAR2(12);
+COMMENT ON COLUMN CLOTHING_ITEMS.GEOHASH IS 'Geohash (precision 9) of LATITUDE/LONGITUDE';
+
+-- Prefix range scans answer radius queries from the index alone (no table access for candidates)
+CREATE INDEX IDX_CLOTHING_ITEMS_GEOHASH ON CLOTHING_ITEMS (GEOHASH, IS_FOR_SALE, LATITUDE, LONGITUDE, ID);
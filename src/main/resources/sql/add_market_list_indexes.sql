@@ -0,0 +1,14 @@
+-- Indexes for the keyset-paginated market listing (see MarketMapper.selectMarketPage)
+
+-- Seek on (CREATED_AT, ID) within for-sale items; the stopkey reads only one page of index entries
+CREATE INDEX IDX_CLOTHING_ITEMS_SALE_LIST ON CLOTHING_ITEMS (IS_FOR_SALE, CREATED_AT DESC, ID DESC);
+
+-- Category-filtered listing keeps the same seek order
+CREATE INDEX IDX_CLOTHING_ITEMS_SALE_CATEGORY ON CLOTHING_ITEMS (IS_FOR_SALE, CATEGORY, CREATED_AT DESC, ID DESC);
+
+-- Price-ordered listing (sort=price_low / price_high) seeks on the same expression the query orders by
+CREATE INDEX IDX_CLOTHING_ITEMS_SALE_PRICE ON CLOTHING_ITEMS (IS_FOR_SALE, NVL(TARGET_PRICE, 0), ID);
+
+-- Main image and wish counts are aggregated only for the rows of the current page
+CREATE INDEX IDX_CLOTHING_IMAGES_ITEM_MAIN ON CLOTHING_IMAGES (CLOTHING_ITEM_ID, IS_MAIN, CREATED_AT);
+CREATE INDEX IDX_CLOTHING_FAVORITES_ITEM ON CLOTHING_FAVORITES (CLOTHING_ITEM_ID, USER_ID);
@@ -0,0 +1,17 @@
+-- Cross-node STOMP fan-out table (chat.broker.mode=fanout, chat.broker.fanout.transport=jdbc)
+
+-- Each node inserts the messages its local broker publishes and polls the recent window for
+-- messages from other nodes. Rows are only needed for a few seconds; every node deletes rows
+-- older than chat.broker.fanout.jdbc.retention-ms.
+CREATE SEQUENCE S_CHAT_FANOUT START WITH 1 INCREMENT BY 1 CACHE 100;
+
+CREATE TABLE CHAT_FANOUT (
+    ID           NUMBER PRIMARY KEY,
+    ORIGIN       VARCHAR2(100) NOT NULL,
+    DESTINATION  VARCHAR2(300) NOT NULL,
+    CONTENT_TYPE VARCHAR2(100),
+    PAYLOAD      BLOB,
+    CREATED_AT   TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX IDX_CHAT_FANOUT_CREATED ON CHAT_FANOUT (CREATED_AT);
@@ -0,0 +1,12 @@
+-- Persistent geocoding cache (see GeocodingService)
+
+-- One row per normalized address. RESOLVED = 'N' is a negative entry (Kakao returned no match);
+-- it is retried after geocoding.cache.negative-ttl-hours. Transient API errors are never stored.
+CREATE TABLE GEOCODE_CACHE (
+    ADDRESS    VARCHAR2(500) PRIMARY KEY,
+    LATITUDE   NUMBER(10, 7),
+    LONGITUDE  NUMBER(10, 7),
+    RESOLVED   CHAR(1) NOT NULL,
+    SOURCE     VARCHAR2(20),
+    UPDATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Items the Milvus sync could not embed/insert (see WardrobeVectorIndexer)
+
+-- The checkpoint moves past failed rows; they are retried from here at the start of the next
+-- incremental run and removed once indexed (or once the CLOTHING_ITEMS row is gone).
+CREATE TABLE VECTOR_SYNC_FAILURE (
+    CLOTHING_ITEM_ID NUMBER(19) PRIMARY KEY,
+    ATTEMPTS         NUMBER(5) DEFAULT 1 NOT NULL,
+    FAILED_AT        TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
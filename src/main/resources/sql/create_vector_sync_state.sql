@@ -0,0 +1,23 @@
+-- Incremental Milvus sync state (see WardrobeVectorIndexer)
+
+-- Per-item content hash of the embedded description. TOMBSTONED = 'Y' means the vector was removed
+-- from Milvus (SOLD / DONATED / deleted) and CONTENT_HASH is NULL.
+CREATE TABLE VECTOR_SYNC_STATE (
+    CLOTHING_ITEM_ID NUMBER(19) PRIMARY KEY,
+    CONTENT_HASH     VARCHAR2(64),
+    TOMBSTONED       CHAR(1) DEFAULT 'N' NOT NULL,
+    SYNCED_AT        TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+-- High-water mark (NVL(UPDATED_AT, CREATED_AT), ID) of the last synced CLOTHING_ITEMS row
+CREATE TABLE VECTOR_SYNC_CHECKPOINT (
+    NAME          VARCHAR2(50) PRIMARY KEY,
+    HIGH_WATER_AT TIMESTAMP,
+    HIGH_WATER_ID NUMBER(19),
+    UPDATED_AT    TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+-- Change scan: range scan on the same expression the sync query orders by
+CREATE INDEX IDX_CLOTHING_ITEMS_CHANGED ON CLOTHING_ITEMS (NVL(UPDATED_AT, CREATED_AT), ID);
+
+-- Existing CLOTHING_ITEMS updates now set UPDATED_AT = SYSTIMESTAMP; older rows fall back to CREATED_AT.
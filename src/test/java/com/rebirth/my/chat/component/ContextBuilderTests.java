@@ -0,0 +1,148 @@
+package com.rebirth.my.chat.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.rebirth.my.domain.User;
+import com.rebirth.my.domain.UserProfile;
+import com.rebirth.my.mapper.UserMapper;
+import com.rebirth.my.mapper.UserProfileMapper;
+import com.rebirth.my.wardrobe.WardrobeService;
+import com.rebirth.my.wardrobe.WardrobeVo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ContextBuilderTests {
+
+	private static final long DELAY_MS = 300;
+
+	private final ContextBuilder builder = new ContextBuilder();
+
+	@AfterEach
+	void shutdown() {
+		builder.shutdown();
+	}
+
+	@Test
+	void sourcesAreFetchedConcurrently() {
+		stub(() -> user("서울"), () -> delayed(DELAY_MS, weather()), () -> delayed(DELAY_MS, List.of(clothes())),
+				() -> delayed(DELAY_MS, Optional.of(profile(120))));
+
+		long start = System.nanoTime();
+		ContextBuilder.UserContext context = builder.buildUserContext("1");
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertTrue(context.isComplete(), context.fallbacks().toString());
+		assertTrue(context.text().contains("ecoPoints=120"), context.text());
+		assertTrue(context.text().contains("totalClothes=1"), context.text());
+		// 가장 느린 소스 하나 만큼만 걸려야 한다 (직렬이면 3 x DELAY_MS)
+		assertTrue(elapsedMs < 2 * DELAY_MS, elapsedMs + "ms");
+	}
+
+	@Test
+	void slowOrFailingSourcesFallBack() {
+		stub(() -> user("서울"), () -> weather(), () -> delayed(5000, List.of(clothes())), () -> {
+			throw new IllegalStateException("db down");
+		});
+		ReflectionTestUtils.setField(builder, "sourceTimeoutMs", 100L);
+
+		long start = System.nanoTime();
+		ContextBuilder.UserContext context = builder.buildUserContext("1");
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertFalse(context.isComplete());
+		assertEquals(Set.of("wardrobe", "profile"), context.fallbacks());
+		// 실패한 소스는 0이 아니라 unknown
+		assertTrue(context.text().contains("totalClothes=unknown"), context.text());
+		assertTrue(context.text().contains("ecoPoints=unknown"), context.text());
+		// 느린 소스를 끝까지 기다리지 않는다
+		assertTrue(elapsedMs < 1000, elapsedMs + "ms");
+	}
+
+	private void stub(Supplier<User> user, Supplier<WeatherInfo> weather, Supplier<List<WardrobeVo>> wardrobe,
+			Supplier<Optional<UserProfile>> profile) {
+		UserMapper userMapper = (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+				new Class<?>[] { UserMapper.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("getUserById"))
+						throw new UnsupportedOperationException(method.getName());
+					return user.get();
+				});
+		UserProfileMapper profileMapper = (UserProfileMapper) Proxy.newProxyInstance(
+				UserProfileMapper.class.getClassLoader(), new Class<?>[] { UserProfileMapper.class },
+				(proxy, method, args) -> {
+					if (!method.getName().equals("findById"))
+						throw new UnsupportedOperationException(method.getName());
+					return profile.get();
+				});
+
+		ReflectionTestUtils.setField(builder, "userMapper", userMapper);
+		ReflectionTestUtils.setField(builder, "userProfileMapper", profileMapper);
+		ReflectionTestUtils.setField(builder, "weatherService", new WeatherService() {
+			@Override
+			public WeatherInfo getWeatherByAddress(String address) {
+				return weather.get();
+			}
+		});
+		ReflectionTestUtils.setField(builder, "wardrobeService", new WardrobeService() {
+			@Override
+			public List<WardrobeVo> getMyWardrobe(String userId) {
+				return wardrobe.get();
+			}
+		});
+		ReflectionTestUtils.setField(builder, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(builder, "sourceTimeoutMs", 1500L);
+		ReflectionTestUtils.setField(builder, "weatherTimeoutMs", 2500L);
+	}
+
+	private static <T> T delayed(long ms, T value) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			// deadline 초과로 취소됨
+			Thread.currentThread().interrupt();
+		}
+		return value;
+	}
+
+	private static User user(String address) {
+		User user = new User();
+		user.setAddress(address);
+		return user;
+	}
+
+	private static WeatherInfo weather() {
+		WeatherInfo info = new WeatherInfo();
+		info.setTemperature(18);
+		info.setSky("맑음");
+		info.setPrecipitation("없음");
+		info.generateDescription();
+		return info;
+	}
+
+	private static WardrobeVo clothes() {
+		WardrobeVo vo = new WardrobeVo();
+		vo.setCategory("상의");
+		vo.setName("화이트 셔츠");
+		vo.setStatus("IN_CLOSET");
+		return vo;
+	}
+
+	private static UserProfile profile(int points) {
+		UserProfile profile = new UserProfile();
+		profile.setEcoPoints(points);
+		profile.setNickname("tester");
+		return profile;
+	}
+}
@@ -0,0 +1,74 @@
+package com.rebirth.my.chat.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+class IntentRouterTests {
+
+	private final IntentRouter router = new IntentRouter();
+
+	@Test
+	void requiresEveryGroupOfRule() {
+		assertEquals(ChatIntent.Type.ECO_POINTS, router.classify("에코 포인트 몇 점이야?").getType());
+		assertEquals(ChatIntent.Type.NONE, router.classify("포인트").getType());
+		assertEquals(ChatIntent.Type.WARDROBE_COUNT, router.classify("옷장에 옷 몇 개 있어?").getType());
+	}
+
+	@Test
+	void firstMatchingRuleWins() {
+		// ITEMS_FOR_SALE가 WARDROBE_COUNT보다 앞
+		assertEquals(ChatIntent.Type.ITEMS_FOR_SALE, router.classify("옷장에서 판매 중인 옷 뭐 있어?").getType());
+		// RECOMMEND 키워드("추천")가 있어도 앞선 GREETING이 우선
+		assertEquals(ChatIntent.Type.GREETING, router.classify("안녕 코트 추천해줘").getType());
+	}
+
+	@Test
+	void ootdScheduleNeedsDate() {
+		ChatIntent tomorrow = router.classify("내일 뭐 입을까? 그 날 일정 있어");
+		assertEquals(ChatIntent.Type.OOTD_SCHEDULE, tomorrow.getType());
+		assertEquals(LocalDate.now().plusDays(1), tomorrow.getDate());
+
+		ChatIntent dayAfter = router.classify("모레 ootd 언제 정해?");
+		assertEquals(LocalDate.now().plusDays(2), dayAfter.getDate());
+
+		// 날짜가 없으면 OOTD_SCHEDULE를 건너뛰고 다음 규칙으로
+		assertEquals(ChatIntent.Type.RECOMMEND, router.classify("그 날 코디 추천").getType());
+	}
+
+	@Test
+	void extractsExplicitMonthAndDay() {
+		ChatIntent intent = router.classify("3월 5일에 뭐 입지?");
+		assertEquals(ChatIntent.Type.OOTD_SCHEDULE, intent.getType());
+		assertEquals(LocalDate.of(LocalDate.now().getYear(), 3, 5), intent.getDate());
+	}
+
+	@Test
+	void invalidDateSkipsScheduleRule() {
+		assertEquals(ChatIntent.Type.NONE, router.classify("2월 31일에 뭐 입지?",
+				EnumSet.of(ChatIntent.Type.OOTD_SCHEDULE)).getType());
+	}
+
+	@Test
+	void candidatesRestrictResult() {
+		assertEquals(ChatIntent.Type.ECO_POINTS, router.classify("판매 중인 옷 뭐 있어? 에코 포인트도",
+				EnumSet.of(ChatIntent.Type.ECO_POINTS, ChatIntent.Type.WARDROBE_COUNT)).getType());
+	}
+
+	@Test
+	void reportsLeadKeyword() {
+		assertEquals("팔고", router.classify("내가 팔고 있는 옷 목록").getKeyword());
+	}
+
+	@Test
+	void emptyOrUnknownMessageIsNone() {
+		assertEquals(ChatIntent.NONE, router.classify(null));
+		assertEquals(ChatIntent.NONE, router.classify(""));
+		assertEquals(ChatIntent.NONE, router.classify("ㅋㅋㅋ"));
+		assertNull(router.classify("ㅋㅋㅋ").getDate());
+	}
+}
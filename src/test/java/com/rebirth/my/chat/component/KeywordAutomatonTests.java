@@ -0,0 +1,77 @@
+package com.rebirth.my.chat.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class KeywordAutomatonTests {
+
+	@Test
+	void matchesEveryGroupPresentInText() {
+		KeywordAutomaton automaton = KeywordAutomaton.builder()
+				.add("에코", 0)
+				.add("포인트", 1)
+				.add("옷장", 2)
+				.build();
+
+		assertEquals(0b011L, automaton.match("내 에코 포인트 알려줘"));
+		assertEquals(0b100L, automaton.match("옷장 보여줘"));
+		assertEquals(0L, automaton.match("안녕하세요"));
+	}
+
+	@Test
+	void reportsKeywordsThatEndInsideLongerKeyword() {
+		// "he"는 "she"의 접미사, "hers"는 "he"로 시작 - 실패 링크 출력 병합 확인
+		KeywordAutomaton automaton = KeywordAutomaton.builder()
+				.add("he", 0)
+				.add("she", 1)
+				.add("his", 2)
+				.add("hers", 3)
+				.build();
+
+		assertEquals(0b0011L, automaton.match("ushe"));
+		assertEquals(0b1011L, automaton.match("ushers"));
+		assertEquals(0b0100L, automaton.match("this"));
+	}
+
+	@Test
+	void recoversFromPartialMatchViaFailureLinks() {
+		KeywordAutomaton automaton = KeywordAutomaton.builder()
+				.add("abcd", 0)
+				.add("bce", 1)
+				.build();
+
+		assertEquals(0b10L, automaton.match("abce"));
+		assertEquals(0b01L, automaton.match("xabcabcd"));
+	}
+
+	@Test
+	void ignoresCase() {
+		KeywordAutomaton automaton = KeywordAutomaton.builder()
+				.add("OOTD", 0)
+				.add("hello", 1)
+				.build();
+
+		assertEquals(0b11L, automaton.match("Hello ootd"));
+	}
+
+	@Test
+	void keywordsMayShareGroup() {
+		KeywordAutomaton automaton = KeywordAutomaton.builder()
+				.add("판매", 5)
+				.add("팔고", 5)
+				.add("팔아", 5)
+				.add("목록", 63)
+				.build();
+
+		assertEquals(1L << 5, automaton.match("뭐 팔아?"));
+		assertEquals((1L << 5) | (1L << 63), automaton.match("판매 목록"));
+	}
+
+	@Test
+	void rejectsInvalidKeywords() {
+		assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.builder().add("", 0));
+		assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.builder().add("a", 64));
+	}
+}
@@ -0,0 +1,143 @@
+package com.rebirth.my.chat.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class LocalVectorIndexTests {
+
+	private static final int DIM = 4;
+	private static final int HEADER_BYTES = 16;
+	private static final int RECORD_BYTES = 8 + 8 + 4 + DIM * 4;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void searchReturnsNearestVectorsOfTheUserOnly() {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(2L, 10L, vector(0, 1, 0, 0));
+		index.upsert(3L, 20L, vector(1, 0, 0, 0));
+
+		List<Long> ids = index.search(10L, List.of(vector(0.9f, 0.1f, 0, 0)), 2).get(0);
+
+		assertEquals(List.of(1L, 2L), ids);
+	}
+
+	@Test
+	void upsertReplacesVectorAndSurvivesReopen() {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(2L, 10L, vector(0, 0, 1, 0));
+		index.upsert(1L, 10L, vector(0, 1, 0, 0));
+		index.shutdown();
+
+		LocalVectorIndex reopened = open();
+		assertEquals(2, reopened.size());
+		assertEquals(List.of(1L), reopened.search(10L, List.of(vector(0, 1, 0, 0)), 1).get(0));
+	}
+
+	@Test
+	void upsertDoesNotOverwriteTheLiveRecordInPlace() throws Exception {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(1L, 10L, vector(0, 1, 0, 0));
+		index.shutdown();
+
+		// 이전 슬롯(0)은 해제되고 원래 벡터가 그대로 남아 있어야 한다
+		try (RandomAccessFile raf = new RandomAccessFile(segment().toFile(), "r")) {
+			raf.seek(HEADER_BYTES + 16);
+			assertEquals(0, raf.readInt());
+			assertEquals(1.0f, raf.readFloat(), 1e-6);
+			raf.seek(HEADER_BYTES + RECORD_BYTES + 16);
+			assertTrue(raf.readInt() > 0);
+		}
+	}
+
+	@Test
+	void reopenKeepsNewestGenerationWhenOldSlotWasNotReleased() throws Exception {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(1L, 10L, vector(0, 1, 0, 0));
+		index.shutdown();
+
+		// 새 슬롯 기록 직후, 이전 슬롯을 해제하기 전에 중단된 상태를 흉내
+		try (RandomAccessFile raf = new RandomAccessFile(segment().toFile(), "rw")) {
+			raf.seek(HEADER_BYTES + 16);
+			raf.writeInt(1);
+		}
+
+		LocalVectorIndex reopened = open();
+		assertEquals(1, reopened.size());
+		assertEquals(List.of(1L), reopened.search(10L, List.of(vector(0, 1, 0, 0)), 5).get(0));
+
+		reopened.upsert(2L, 10L, vector(0, 0, 1, 0));
+		assertEquals(2, reopened.size());
+	}
+
+	@Test
+	void ownerChangeMovesVectorToNewUser() {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(1L, 20L, vector(1, 0, 0, 0));
+
+		assertEquals(List.of(), index.search(10L, List.of(vector(1, 0, 0, 0)), 5).get(0));
+		assertEquals(List.of(1L), index.search(20L, List.of(vector(1, 0, 0, 0)), 5).get(0));
+	}
+
+	@Test
+	void deleteRemovesVectorAndSurvivesReopen() {
+		LocalVectorIndex index = open();
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		index.upsert(2L, 10L, vector(0, 1, 0, 0));
+		index.delete(List.of(1L));
+		index.shutdown();
+
+		LocalVectorIndex reopened = open();
+		assertEquals(1, reopened.size());
+		assertEquals(List.of(2L), reopened.search(10L, List.of(vector(1, 0, 0, 0)), 5).get(0));
+	}
+
+	@Test
+	void offModeIsDisabled() {
+		LocalVectorIndex index = new LocalVectorIndex();
+		ReflectionTestUtils.setField(index, "mode", "off");
+		ReflectionTestUtils.setField(index, "path", dir.toString());
+		ReflectionTestUtils.setField(index, "dimension", DIM);
+		index.init();
+
+		assertEquals(false, index.isEnabled());
+		index.upsert(1L, 10L, vector(1, 0, 0, 0));
+		assertEquals(0, index.size());
+	}
+
+	private LocalVectorIndex open() {
+		LocalVectorIndex index = new LocalVectorIndex();
+		ReflectionTestUtils.setField(index, "mode", "standby");
+		ReflectionTestUtils.setField(index, "path", dir.toString());
+		ReflectionTestUtils.setField(index, "dimension", DIM);
+		index.init();
+		assertTrue(index.isEnabled());
+		return index;
+	}
+
+	private Path segment() {
+		return dir.resolve("wardrobe_vector.0000.seg");
+	}
+
+	private static List<Float> vector(float... values) {
+		Float[] boxed = new Float[values.length];
+		for (int i = 0; i < values.length; i++) {
+			boxed[i] = values[i];
+		}
+		return List.of(boxed);
+	}
+}
@@ -0,0 +1,102 @@
+package com.rebirth.my.chat.component;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RegionCentroidsTests {
+
+	private RegionCentroids centroids;
+
+	@BeforeEach
+	void setUp() {
+		centroids = new RegionCentroids();
+		centroids.load();
+	}
+
+	@Test
+	void gluedDistrictNameIsNotSplitIntoProvinceAlias() {
+		RegionCentroids.Region region = centroids.resolve("부산진구 부전동 123");
+
+		assertNotNull(region);
+		assertEquals("부산광역시", region.province());
+		assertEquals("부산진구", region.district());
+	}
+
+	@Test
+	void streetNameStartingWithProvinceAliasIsNotAProvince() {
+		RegionCentroids.Region region = centroids.resolve("서울 종로구 세종로 1");
+
+		assertEquals("서울특별시", region.province());
+		assertEquals("종로구", region.district());
+		assertNull(centroids.resolve("세종로 1"));
+	}
+
+	@Test
+	void gluedProvinceAndDistrictIsSplit() {
+		RegionCentroids.Region region = centroids.resolve("대전서구 도마동");
+
+		assertEquals("대전광역시", region.province());
+		assertEquals("서구", region.district());
+	}
+
+	@Test
+	void provinceIsFoundBeyondTheFirstTwoTokens() {
+		RegionCentroids.Region region = centroids.resolve("대한민국 (06236) 서울 강남구 테헤란로 123");
+
+		assertEquals("서울특별시", region.province());
+		assertEquals("강남구", region.district());
+	}
+
+	@Test
+	void districtMustMatchWholeToken() {
+		// "중구청로"는 중구가 아님 → 시도 대표 좌표
+		RegionCentroids.Region region = centroids.resolve("대전 중구청로 10");
+
+		assertEquals("대전광역시", region.province());
+		assertNull(region.district());
+		assertArrayEquals(centroids.lookup("대전광역시"), region.coords());
+	}
+
+	@Test
+	void districtSuffixMayBeOmitted() {
+		assertEquals("수원시", centroids.resolve("경기 수원 팔달구").district());
+		assertEquals("수원시", centroids.resolve("경기도 수원시팔달구 인계동").district());
+	}
+
+	@Test
+	void uniqueDistrictWithoutProvince() {
+		RegionCentroids.Region region = centroids.resolve("제주시 연동");
+
+		assertEquals("제주특별자치도", region.province());
+		assertEquals("제주시", region.district());
+	}
+
+	@Test
+	void ambiguousDistrictWithoutProvinceIsUnknown() {
+		assertNull(centroids.resolve("중구 태평로"));
+		assertNull(centroids.resolve(null));
+		assertNull(centroids.resolve("   "));
+	}
+
+	@Test
+	void gridConverterUsesDaejeonDongsOnlyForDaejeon() {
+		GridConverter converter = new GridConverter();
+		ReflectionTestUtils.setField(converter, "regionCentroids", centroids);
+
+		assertArrayEquals(new int[] { 68, 100 }, converter.getDefaultGrid("대전 중구 대흥동"));
+		assertArrayEquals(new int[] { 68, 100 }, converter.getDefaultGrid("대흥동 1-2"));
+		assertArrayEquals(new int[] { 67, 101 }, converter.getDefaultGrid("대전유성구 궁동"));
+
+		double[] mapo = centroids.lookup("서울 마포구");
+		assertArrayEquals(converter.toGrid(mapo[0], mapo[1]), converter.getDefaultGrid("서울 마포구 대흥동"));
+
+		double[] busan = centroids.lookup("부산 동구");
+		assertArrayEquals(converter.toGrid(busan[0], busan[1]), converter.getDefaultGrid("부산 동구 대동로 5"));
+	}
+}
@@ -0,0 +1,78 @@
+package com.rebirth.my.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.rebirth.my.mypage.MypageVo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LeaderboardTests {
+
+	@Test
+	void reconcileKeepsUpdatesMadeWhileSnapshotIsRead() throws Exception {
+		CountDownLatch snapshotStarted = new CountDownLatch(1);
+		CountDownLatch updated = new CountDownLatch(1);
+		AtomicInteger snapshots = new AtomicInteger();
+
+		// 두 번째 스냅샷 조회는 다른 스레드의 변경이 끝날 때까지 멈춘 뒤, 변경 전 값을 돌려준다
+		RankingDao dao = (RankingDao) Proxy.newProxyInstance(RankingDao.class.getClassLoader(),
+				new Class<?>[] { RankingDao.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("selectLeaderboardSnapshot"))
+						throw new UnsupportedOperationException(method.getName());
+					if (snapshots.incrementAndGet() > 1) {
+						snapshotStarted.countDown();
+						assertTrue(updated.await(5, TimeUnit.SECONDS));
+					}
+					return List.of(row(1L, 100, 0, 0), row(2L, 200, 0, 1));
+				});
+
+		Leaderboard leaderboard = new Leaderboard();
+		ReflectionTestUtils.setField(leaderboard, "rankingDao", dao);
+		ReflectionTestUtils.setField(leaderboard, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(leaderboard, "enabled", true);
+		leaderboard.reconcile();
+		assertEquals(2, leaderboard.position(1L).getEcoPointRank());
+
+		Thread writer = new Thread(() -> {
+			try {
+				assertTrue(snapshotStarted.await(5, TimeUnit.SECONDS));
+				leaderboard.ecoPointsChanged(1L, 300);
+				leaderboard.saleCompleted(2L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				updated.countDown();
+			}
+		});
+		writer.start();
+		leaderboard.reconcile();
+		writer.join(5000);
+
+		MypageVo first = leaderboard.position(1L);
+		assertEquals(300, first.getEcoPoint());
+		assertEquals(1, first.getEcoPointRank());
+		MypageVo second = leaderboard.position(2L);
+		assertEquals(2, second.getSalesCount());
+		assertEquals(2, second.getEcoPointRank());
+		assertEquals(2, leaderboard.size());
+	}
+
+	private static RankingVo row(Long userId, int ecoPoints, int donations, int sales) {
+		RankingVo vo = new RankingVo();
+		vo.setUserId(userId);
+		vo.setEcoPoints(ecoPoints);
+		vo.setDonationCount(donations);
+		vo.setSalesCount(sales);
+		return vo;
+	}
+}
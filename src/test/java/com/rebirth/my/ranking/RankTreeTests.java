@@ -0,0 +1,108 @@
+package com.rebirth.my.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RankTreeTests {
+
+	@Test
+	void ordersByScoreDescendingThenUserIdAscending() {
+		RankTree tree = new RankTree();
+		tree.insert(10, 3L);
+		tree.insert(30, 2L);
+		tree.insert(10, 1L);
+		tree.insert(20, 4L);
+
+		assertEquals(4, tree.size());
+		assertEquals(2L, tree.userIdAt(0));
+		assertEquals(4L, tree.userIdAt(1));
+		assertEquals(1L, tree.userIdAt(2));
+		assertEquals(3L, tree.userIdAt(3));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.userIdAt(4));
+	}
+
+	@Test
+	void countAboveGivesSqlRankWithTies() {
+		RankTree tree = new RankTree();
+		tree.insert(30, 1L);
+		tree.insert(20, 2L);
+		tree.insert(20, 3L);
+		tree.insert(10, 4L);
+
+		// RANK(): 30 → 1, 20 → 2 (공동), 10 → 4
+		assertEquals(0, tree.countAbove(30));
+		assertEquals(1, tree.countAbove(20));
+		assertEquals(3, tree.countAbove(10));
+		assertEquals(4, tree.countAbove(0));
+		assertEquals(0, tree.countAbove(100));
+	}
+
+	@Test
+	void removeThenReinsertMovesUser() {
+		RankTree tree = new RankTree();
+		tree.insert(10, 1L);
+		tree.insert(20, 2L);
+
+		tree.remove(10, 1L);
+		tree.insert(25, 1L);
+
+		assertEquals(2, tree.size());
+		assertEquals(1L, tree.userIdAt(0));
+		assertEquals(0, tree.countAbove(25));
+		assertEquals(1, tree.countAbove(20));
+	}
+
+	@Test
+	void removeOfUnknownEntryIsIgnored() {
+		RankTree tree = new RankTree();
+		tree.insert(10, 1L);
+
+		tree.remove(10, 2L);
+		tree.remove(11, 1L);
+
+		assertEquals(1, tree.size());
+	}
+
+	@Test
+	void matchesSortedListUnderRandomUpdates() {
+		Random random = new Random(42);
+		RankTree tree = new RankTree();
+		long[] scores = new long[500];
+		for (int id = 0; id < scores.length; id++) {
+			scores[id] = random.nextInt(50);
+			tree.insert(scores[id], id);
+		}
+		for (int i = 0; i < 2000; i++) {
+			int id = random.nextInt(scores.length);
+			tree.remove(scores[id], id);
+			scores[id] = random.nextInt(50);
+			tree.insert(scores[id], id);
+		}
+
+		List<Integer> expected = new ArrayList<>();
+		for (int id = 0; id < scores.length; id++) {
+			expected.add(id);
+		}
+		expected.sort(Comparator.<Integer>comparingLong(id -> -scores[id]).thenComparing(id -> id));
+
+		assertEquals(scores.length, tree.size());
+		for (int i = 0; i < expected.size(); i++) {
+			int id = expected.get(i);
+			assertEquals((long) id, tree.userIdAt(i));
+
+			int above = 0;
+			for (long s : scores) {
+				if (s > scores[id])
+					above++;
+			}
+			assertEquals(above, tree.countAbove(scores[id]));
+		}
+	}
+}